@@ -0,0 +1,119 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.futures;
+
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.FiberForkJoinScheduler;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SuspendableCallable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * A fiber waiting, with {@link AsyncCompletionStage#get(java.util.concurrent.CompletionStage) AsyncCompletionStage.get}, on
+ * {@link CompletableFuture} chains that are already completed, that complete on the fiber's own scheduler, and that complete on
+ * another pool.
+ * Each operation is one wait.
+ *
+ * @author pron
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AsyncCompletionStageJMHBenchmark {
+    private static final int ROUNDS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(AsyncCompletionStageJMHBenchmark.class.getName() + ".*")
+                .forks(1)
+                .warmupTime(TimeValue.seconds(5))
+                .warmupIterations(3)
+                .measurementTime(TimeValue.seconds(5))
+                .measurementIterations(5)
+                .addProfiler(GCProfiler.class) // report allocation rate
+                .build()).run();
+    }
+
+    private FiberForkJoinScheduler scheduler;
+    private ForkJoinPool otherPool;
+
+    @Setup
+    public void prepare() {
+        scheduler = new FiberForkJoinScheduler("bench", 2, null, false);
+        otherPool = new ForkJoinPool(2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.shutdown();
+        otherPool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROUNDS)
+    public Object completed() throws Exception {
+        return new Fiber<Integer>(scheduler, new SuspendableCallable<Integer>() {
+            @Override
+            public Integer run() throws SuspendExecution, InterruptedException {
+                try {
+                    int sum = 0;
+                    for (int i = 0; i < ROUNDS; i++)
+                        sum += AsyncCompletionStage.get(CompletableFuture.completedFuture(i).thenApply(x -> x + 1));
+                    return sum;
+                } catch (ExecutionException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        }).start().get();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROUNDS)
+    public Object sameScheduler() throws Exception {
+        return chains(scheduler.getExecutor());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROUNDS)
+    public Object otherPool() throws Exception {
+        return chains(otherPool);
+    }
+
+    private Object chains(final Executor executor) throws Exception {
+        return new Fiber<Integer>(scheduler, new SuspendableCallable<Integer>() {
+            @Override
+            public Integer run() throws SuspendExecution, InterruptedException {
+                try {
+                    int sum = 0;
+                    for (int i = 0; i < ROUNDS; i++) {
+                        final int x = i;
+                        sum += AsyncCompletionStage.get(CompletableFuture.supplyAsync(() -> x, executor).thenApply(y -> y + 1));
+                    }
+                    return sum;
+                } catch (ExecutionException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        }).start().get();
+    }
+}
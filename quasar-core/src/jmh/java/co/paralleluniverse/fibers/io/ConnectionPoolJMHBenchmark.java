@@ -0,0 +1,170 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.FiberForkJoinScheduler;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Request/response calls from many fibers to a loopback echo server, each either over a connection of its own acquired from a
+ * {@link ConnectionPool}, or over a single connection shared through a {@link MultiplexedClient}. Each operation is one call.
+ *
+ * @author pron
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConnectionPoolJMHBenchmark {
+    private static final int CALLS = 16_000;
+    private static final int MESSAGE_SIZE = 64;
+    private static final int CONNECTIONS = 8;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ConnectionPoolJMHBenchmark.class.getName() + ".*")
+                .forks(1)
+                .warmupTime(TimeValue.seconds(5))
+                .warmupIterations(3)
+                .measurementTime(TimeValue.seconds(5))
+                .measurementIterations(5)
+                .addProfiler(GCProfiler.class) // report allocation rate
+                .build()).run();
+    }
+
+    @Param({"pool", "multiplexed"})
+    public String client;
+
+    @Param({"1", "64"})
+    public int fibers;
+
+    private FiberForkJoinScheduler scheduler;
+    private FiberServerSocketChannel server;
+    private SocketAddress address;
+    private ConnectionPool pool;
+    private MultiplexedClient multiplexed;
+
+    @Setup
+    public void prepare() throws Exception {
+        scheduler = new FiberForkJoinScheduler("bench", 4, null, false);
+        new Fiber<Void>(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                try {
+                    server = FiberServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0));
+                    address = server.getLocalAddress();
+                    echo(server);
+                    pool = new ConnectionPool(CONNECTIONS, 1, TimeUnit.MINUTES);
+                    multiplexed = new MultiplexedClient(FiberSocketChannel.open(address), 1024, 64 * 1024);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }).start().join();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        multiplexed.close();
+        pool.close();
+        server.close();
+        scheduler.shutdown();
+    }
+
+    private void echo(final FiberServerSocketChannel server) {
+        new Fiber<Void>(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                try {
+                    for (;;) {
+                        final FiberSocketChannel ch = server.accept();
+                        new Fiber<Void>(new SuspendableRunnable() {
+                            @Override
+                            public void run() throws SuspendExecution, InterruptedException {
+                                try (FiberSocketChannel c = ch) {
+                                    final ByteBuffer buf = ByteBuffer.allocateDirect(64 * 1024);
+                                    while (c.read(buf) > 0) {
+                                        buf.flip();
+                                        while (buf.hasRemaining())
+                                            c.write(buf);
+                                        buf.clear();
+                                    }
+                                } catch (IOException e) {
+                                }
+                            }
+                        }).start();
+                    }
+                } catch (IOException e) {
+                    // server closed
+                }
+            }
+        }).start();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public void call() throws Exception {
+        final boolean usePool = "pool".equals(client);
+        final Fiber<Void>[] fs = new Fiber[fibers];
+        for (int i = 0; i < fibers; i++) {
+            fs[i] = new Fiber<Void>(scheduler, new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    try {
+                        final ByteBuffer request = ByteBuffer.allocateDirect(4 + 8 + MESSAGE_SIZE);
+                        final ByteBuffer response = ByteBuffer.allocateDirect(4 + 8 + MESSAGE_SIZE);
+                        for (int j = 0; j < CALLS / fibers; j++) {
+                            if (usePool) {
+                                request.clear();
+                                request.putInt(0, 8 + MESSAGE_SIZE);
+                                response.clear();
+                                final FiberSocketChannel ch = pool.acquire(address);
+                                try {
+                                    while (request.hasRemaining())
+                                        ch.write(request);
+                                    while (response.hasRemaining()) {
+                                        if (ch.read(response) < 0)
+                                            throw new java.io.EOFException();
+                                    }
+                                } catch (IOException e) {
+                                    pool.invalidate(ch);
+                                    throw e;
+                                }
+                                pool.release(ch);
+                            } else {
+                                request.clear().position(4 + 8);
+                                multiplexed.call(request);
+                            }
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start();
+        }
+        for (Fiber<Void> f : fs)
+            f.join();
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.FiberForkJoinScheduler;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SuspendableCallable;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Fiber clients doing round trips of small messages with a fiber echo server over loopback, with the default
+ * ({@link java.nio.channels.AsynchronousChannelGroup}-based) channel group and with a {@link ChannelGroup#withSelectors(int, java.util.concurrent.ThreadFactory) selector-based} one.
+ * Each operation is one round trip; with a single connection the score is the round-trip latency, and with several, the reciprocal of the throughput.
+ * The clients use either direct buffers or heap buffers (which the channels copy through {@link ByteBufferPool pooled} direct buffers).
+ *
+ * @author pron
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EchoJMHBenchmark {
+    private static final int ROUNDS = 16_000;
+    private static final int MESSAGE_SIZE = 64;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(EchoJMHBenchmark.class.getName() + ".*")
+                .forks(1)
+                .warmupTime(TimeValue.seconds(5))
+                .warmupIterations(3)
+                .measurementTime(TimeValue.seconds(5))
+                .measurementIterations(5)
+                .addProfiler(GCProfiler.class) // report allocation rate
+                .build()).run();
+    }
+
+    @Param({"async", "selector"})
+    public String group;
+
+    @Param({"1", "16"})
+    public int connections;
+
+    @Param({"direct", "heap"})
+    public String buffers;
+
+    private FiberForkJoinScheduler scheduler;
+    private ChannelGroup channelGroup;
+    private FiberServerSocketChannel server;
+    private FiberSocketChannel[] clients;
+
+    @Setup
+    public void prepare() throws Exception {
+        scheduler = new FiberForkJoinScheduler("bench", 4, null, false);
+        channelGroup = "selector".equals(group) ? ChannelGroup.withSelectors(1, new ThreadFactoryBuilder().setDaemon(true).build()) : null;
+        clients = new FiberSocketChannel[connections];
+        new Fiber<Void>(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                try {
+                    server = FiberServerSocketChannel.open(channelGroup).bind(new InetSocketAddress("localhost", 0));
+                    final SocketAddress address = server.getLocalAddress();
+                    for (int i = 0; i < connections; i++) {
+                        clients[i] = FiberSocketChannel.open(channelGroup, address);
+                        echo(server.accept());
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }).start().join();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        for (FiberSocketChannel c : clients)
+            c.close();
+        server.close();
+        if (channelGroup != null)
+            channelGroup.shutdown();
+        scheduler.shutdown();
+    }
+
+    private void echo(final FiberSocketChannel ch) {
+        new Fiber<Void>(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                try (FiberSocketChannel c = ch) {
+                    final ByteBuffer buf = ByteBuffer.allocateDirect(MESSAGE_SIZE * 4);
+                    while (c.read(buf) > 0) {
+                        buf.flip();
+                        while (buf.hasRemaining())
+                            c.write(buf);
+                        buf.clear();
+                    }
+                } catch (IOException e) {
+                }
+            }
+        }).start();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROUNDS)
+    public long roundTrip() throws Exception {
+        final Fiber<Long>[] fs = new Fiber[connections];
+        for (int i = 0; i < connections; i++) {
+            final FiberSocketChannel ch = clients[i];
+            fs[i] = new Fiber<Long>(scheduler, new SuspendableCallable<Long>() {
+                @Override
+                public Long run() throws SuspendExecution, InterruptedException {
+                    try {
+                        final ByteBuffer buf = "heap".equals(buffers) ? ByteBuffer.allocate(MESSAGE_SIZE) : ByteBuffer.allocateDirect(MESSAGE_SIZE);
+                        long sum = 0;
+                        for (int j = 0; j < ROUNDS / connections; j++) {
+                            buf.clear();
+                            buf.putLong(0, j);
+                            while (buf.hasRemaining())
+                                ch.write(buf);
+                            buf.clear();
+                            while (buf.hasRemaining())
+                                ch.read(buf);
+                            sum += buf.getLong(0);
+                        }
+                        return sum;
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start();
+        }
+        long sum = 0;
+        for (Fiber<Long> f : fs)
+            sum += f.get();
+        return sum;
+    }
+}
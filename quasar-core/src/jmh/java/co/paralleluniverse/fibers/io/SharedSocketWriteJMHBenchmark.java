@@ -0,0 +1,149 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.FiberForkJoinScheduler;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import co.paralleluniverse.strands.concurrent.ReentrantLock;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Many fibers writing small messages to a single socket, serialized either with a {@link ReentrantLock} (one write per message) or with
+ * a {@link CoalescingSocketWriter}. Each operation is one message.
+ *
+ * @author pron
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SharedSocketWriteJMHBenchmark {
+    private static final int MESSAGES = 64_000;
+    private static final int MESSAGE_SIZE = 64;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(SharedSocketWriteJMHBenchmark.class.getName() + ".*")
+                .forks(1)
+                .warmupTime(TimeValue.seconds(5))
+                .warmupIterations(3)
+                .measurementTime(TimeValue.seconds(5))
+                .measurementIterations(5)
+                .addProfiler(GCProfiler.class) // report allocation rate
+                .build()).run();
+    }
+
+    @Param({"lock", "coalescing"})
+    public String writer;
+
+    @Param({"1", "64"})
+    public int fibers;
+
+    @Param({"async", "selector"})
+    public String group;
+
+    private FiberForkJoinScheduler scheduler;
+    private ChannelGroup channelGroup;
+    private FiberServerSocketChannel server;
+    private FiberSocketChannel client;
+    private ReentrantLock lock;
+    private CoalescingSocketWriter coalescing;
+
+    @Setup
+    public void prepare() throws Exception {
+        scheduler = new FiberForkJoinScheduler("bench", 4, null, false);
+        channelGroup = "selector".equals(group) ? ChannelGroup.withSelectors(1, new ThreadFactoryBuilder().setDaemon(true).build()) : null;
+        new Fiber<Void>(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                try {
+                    server = FiberServerSocketChannel.open(channelGroup).bind(new InetSocketAddress("localhost", 0));
+                    client = FiberSocketChannel.open(channelGroup, server.getLocalAddress());
+                    sink(server.accept());
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }).start().join();
+        lock = new ReentrantLock();
+        coalescing = new CoalescingSocketWriter(client, 256);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        client.close();
+        server.close();
+        if (channelGroup != null)
+            channelGroup.shutdown();
+        scheduler.shutdown();
+    }
+
+    private void sink(final FiberSocketChannel ch) {
+        new Fiber<Void>(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                try (FiberSocketChannel c = ch) {
+                    final ByteBuffer buf = ByteBuffer.allocateDirect(64 * 1024);
+                    while (c.read(buf) > 0)
+                        buf.clear();
+                } catch (IOException e) {
+                }
+            }
+        }).start();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void write() throws Exception {
+        final boolean useLock = "lock".equals(writer);
+        final Fiber<Void>[] fs = new Fiber[fibers];
+        for (int i = 0; i < fibers; i++) {
+            fs[i] = new Fiber<Void>(scheduler, new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    try {
+                        final ByteBuffer buf = ByteBuffer.allocateDirect(MESSAGE_SIZE);
+                        for (int j = 0; j < MESSAGES / fibers; j++) {
+                            buf.clear();
+                            if (useLock) {
+                                lock.lock();
+                                try {
+                                    while (buf.hasRemaining())
+                                        client.write(buf);
+                                } finally {
+                                    lock.unlock();
+                                }
+                            } else
+                                coalescing.write(buf);
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start();
+        }
+        for (Fiber<Void> f : fs)
+            f.join();
+    }
+}
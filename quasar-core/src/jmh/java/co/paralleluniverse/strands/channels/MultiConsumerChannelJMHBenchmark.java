@@ -0,0 +1,100 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import co.paralleluniverse.strands.concurrent.CountDownLatch;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * A single producer fiber sending messages to a pool of consumer fibers over a multi-consumer channel.
+ * Each operation is the delivery of one message; with many idle consumers, the cost is dominated by how many of them each message wakes.
+ *
+ * @author pron
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MultiConsumerChannelJMHBenchmark {
+    private static final int MESSAGES = 10_000;
+    private static final Integer MESSAGE = 777;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(MultiConsumerChannelJMHBenchmark.class.getName() + ".*")
+                .forks(1)
+                .warmupTime(TimeValue.seconds(5))
+                .warmupIterations(3)
+                .measurementTime(TimeValue.seconds(5))
+                .measurementIterations(5)
+                .addProfiler(GCProfiler.class) // report allocation rate
+                .build()).run();
+    }
+
+    @Param({"1", "16", "256"})
+    public int consumers;
+
+    private Channel<Integer> channel;
+    private List<Fiber<Void>> fibers;
+    private volatile CountDownLatch delivered;
+
+    @Setup
+    public void prepare() {
+        channel = Channels.newChannel(64, Channels.OverflowPolicy.BLOCK, true, false);
+        fibers = new ArrayList<>();
+        for (int i = 0; i < consumers; i++) {
+            fibers.add(new Fiber<Void>(new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    while (channel.receive() != null)
+                        delivered.countDown();
+                }
+            }).start());
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void newRound() {
+        delivered = new CountDownLatch(MESSAGES);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        channel.close();
+        for (Fiber<Void> f : fibers)
+            f.join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void send() throws Exception {
+        new Fiber<Void>(new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                for (int i = 0; i < MESSAGES; i++)
+                    channel.send(MESSAGE);
+            }
+        }).start();
+        delivered.await();
+    }
+}
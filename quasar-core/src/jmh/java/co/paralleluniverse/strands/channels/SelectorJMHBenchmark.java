@@ -0,0 +1,86 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ * 
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Compares one-shot selects with a reusable {@link Selector} over N channels, one of which is ready.
+ *
+ * @author pron
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SelectorJMHBenchmark {
+    private static final Integer MESSAGE = 777;
+
+    @Param({"3", "5", "10"})
+    public int N;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(SelectorJMHBenchmark.class.getName() + ".*")
+                .forks(1)
+                .warmupTime(TimeValue.seconds(5))
+                .warmupIterations(3)
+                .measurementTime(TimeValue.seconds(5))
+                .measurementIterations(5)
+                .addProfiler(GCProfiler.class) // report allocation rate
+                .build()).run();
+    }
+
+    private Channel<Integer>[] channels;
+    private Selector<Integer> selector;
+    private int next;
+
+    @Setup
+    public void prepare() {
+        channels = new Channel[N];
+        final List<SelectAction<Integer>> actions = new ArrayList<>(N);
+        for (int i = 0; i < N; i++) {
+            channels[i] = Channels.newChannel(16, Channels.OverflowPolicy.BLOCK, false, false);
+            actions.add(Selector.receive(channels[i]));
+        }
+        selector = Selector.newSelector(actions);
+    }
+
+    @Benchmark
+    public Object oneShotSelect() throws Exception {
+        channels[nextChannel()].send(MESSAGE);
+        final List<SelectAction<Integer>> actions = new ArrayList<>(N);
+        for (Channel<Integer> ch : channels)
+            actions.add(Selector.receive(ch));
+        return Selector.select(actions).message();
+    }
+
+    @Benchmark
+    public Object reusableSelect() throws Exception {
+        channels[nextChannel()].send(MESSAGE);
+        return selector.select().message();
+    }
+
+    private int nextChannel() {
+        final int i = next;
+        next = i + 1 == N ? 0 : i + 1;
+        return i;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ * 
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SuspendableCallable;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Ping-pong over a pair of {@link TransferChannel}s, between two fibers and between a thread and a fiber.
+ * Each operation is one round trip, i.e. two rendezvous.
+ *
+ * @author pron
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransferChannelJMHBenchmark {
+    private static final int ROUNDS = 10_000;
+    private static final Integer MESSAGE = 777;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(TransferChannelJMHBenchmark.class.getName() + ".*")
+                .forks(1)
+                .warmupTime(TimeValue.seconds(5))
+                .warmupIterations(3)
+                .measurementTime(TimeValue.seconds(5))
+                .measurementIterations(5)
+                .addProfiler(GCProfiler.class) // report allocation rate
+                .build()).run();
+    }
+
+    private Channel<Integer> ping;
+    private Channel<Integer> pong;
+    private Fiber<Void> echo;
+
+    @Setup
+    public void prepare() {
+        ping = Channels.newChannel(0);
+        pong = Channels.newChannel(0);
+        echo = new Fiber<Void>(new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                for (Integer m; (m = ping.receive()) != null;)
+                    pong.send(m);
+            }
+        }).start();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        ping.close();
+        echo.join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROUNDS)
+    public Object fiberToFiber() throws Exception {
+        return new Fiber<Integer>(new SuspendableCallable<Integer>() {
+            @Override
+            public Integer run() throws SuspendExecution, InterruptedException {
+                Integer m = null;
+                for (int i = 0; i < ROUNDS; i++) {
+                    ping.send(MESSAGE);
+                    m = pong.receive();
+                }
+                return m;
+            }
+        }).start().get();
+    }
+
+    @Benchmark
+    public Object threadToFiber() throws Exception {
+        ping.send(MESSAGE);
+        return pong.receive();
+    }
+}
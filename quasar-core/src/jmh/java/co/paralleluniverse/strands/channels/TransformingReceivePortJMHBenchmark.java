@@ -0,0 +1,130 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ * 
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Timeout;
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Compares a pipeline of alternating map and filter stages built with {@link TransformingReceivePort}, whose stages are fused,
+ * with the same pipeline built as a chain of ports, one per stage.
+ *
+ * @author pron
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransformingReceivePortJMHBenchmark {
+    private static final Function<Integer, Integer> INC = new Function<Integer, Integer>() {
+        @Override
+        public Integer apply(Integer input) {
+            return input + 1;
+        }
+    };
+    private static final Predicate<Integer> NOT_MULTIPLE_OF_8 = new Predicate<Integer>() {
+        @Override
+        public boolean apply(Integer input) {
+            return (input & 7) != 0;
+        }
+    };
+
+    @Param({"1", "5", "10"})
+    public int STAGES;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(TransformingReceivePortJMHBenchmark.class.getName() + ".*")
+                .forks(1)
+                .warmupTime(TimeValue.seconds(5))
+                .warmupIterations(3)
+                .measurementTime(TimeValue.seconds(5))
+                .measurementIterations(5)
+                .build()).run();
+    }
+
+    private ReceivePort<Integer> fused;
+    private ReceivePort<Integer> layered;
+
+    @Setup
+    public void prepare() {
+        TransformingReceivePort<Integer> f = Channels.transform(new CountingReceivePort());
+        ReceivePort<Integer> l = new CountingReceivePort();
+        for (int i = 0; i < STAGES; i++) {
+            if (i % 2 == 0) {
+                f = f.map(INC);
+                l = Channels.transform(Channels.map(l, INC));
+            } else {
+                f = f.filter(NOT_MULTIPLE_OF_8);
+                l = Channels.transform(Channels.filter(l, NOT_MULTIPLE_OF_8));
+            }
+        }
+        this.fused = f;
+        this.layered = l;
+    }
+
+    @Benchmark
+    public Object fused() throws Exception {
+        return fused.receive();
+    }
+
+    @Benchmark
+    public Object layered() throws Exception {
+        return layered.receive();
+    }
+
+    /**
+     * An endless source of small integers that never blocks.
+     */
+    private static class CountingReceivePort implements ReceivePort<Integer> {
+        private int next;
+
+        @Override
+        public Integer receive() throws SuspendExecution, InterruptedException {
+            return tryReceive();
+        }
+
+        @Override
+        public Integer receive(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException {
+            return tryReceive();
+        }
+
+        @Override
+        public Integer receive(Timeout timeout) throws SuspendExecution, InterruptedException {
+            return tryReceive();
+        }
+
+        @Override
+        public Integer tryReceive() {
+            final int n = next;
+            next = (n + 1) & 63; // stay within the Integer cache
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public boolean isClosed() {
+            return false;
+        }
+    }
+}
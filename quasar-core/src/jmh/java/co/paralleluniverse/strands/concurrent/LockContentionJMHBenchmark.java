@@ -0,0 +1,123 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.concurrent;
+
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * A number of strands contending for a single lock, each holding it for a short critical section.
+ * Compares the strands {@link ReentrantLock} used from fibers and from threads with the {@code java.util.concurrent} one used from threads.
+ * Each operation is one lock acquisition.
+ *
+ * @author pron
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LockContentionJMHBenchmark {
+    private static final int ACQUISITIONS = 1 << 15;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(LockContentionJMHBenchmark.class.getName() + ".*")
+                .forks(1)
+                .warmupTime(TimeValue.seconds(5))
+                .warmupIterations(3)
+                .measurementTime(TimeValue.seconds(5))
+                .measurementIterations(5)
+                .addProfiler(GCProfiler.class) // report allocation rate
+                .build()).run();
+    }
+
+    @Param({"4", "32"})
+    public int strands;
+
+    @Param({"10", "200"})
+    public int holdTokens; // the work done while holding the lock, in Blackhole.consumeCPU tokens
+
+    private final ReentrantLock strandLock = new ReentrantLock();
+    private final java.util.concurrent.locks.ReentrantLock jucLock = new java.util.concurrent.locks.ReentrantLock();
+    private long counter;
+
+    @Benchmark
+    @OperationsPerInvocation(ACQUISITIONS)
+    public long fibers() throws Exception {
+        final Fiber<?>[] fibers = new Fiber<?>[strands];
+        for (int i = 0; i < strands; i++) {
+            fibers[i] = new Fiber<Void>(new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    for (int j = ACQUISITIONS / strands; j > 0; j--) {
+                        strandLock.lock();
+                        try {
+                            Blackhole.consumeCPU(holdTokens);
+                            counter++;
+                        } finally {
+                            strandLock.unlock();
+                        }
+                    }
+                }
+            }).start();
+        }
+        for (Fiber<?> f : fibers)
+            f.join();
+        return counter;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACQUISITIONS)
+    public long threads() throws Exception {
+        return runThreads(strandLock);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACQUISITIONS)
+    public long threadsJUC() throws Exception {
+        return runThreads(jucLock);
+    }
+
+    private long runThreads(final Lock lock) throws InterruptedException {
+        final Thread[] threads = new Thread[strands];
+        for (int i = 0; i < strands; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = ACQUISITIONS / strands; j > 0; j--) {
+                        lock.lock();
+                        try {
+                            Blackhole.consumeCPU(holdTokens);
+                            counter++;
+                        } finally {
+                            lock.unlock();
+                        }
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads)
+            t.join();
+        return counter;
+    }
+}
@@ -16,6 +16,8 @@ package co.paralleluniverse.fibers;
 import co.paralleluniverse.common.util.CheckedCallable;
 import co.paralleluniverse.strands.Strand;
 import co.paralleluniverse.strands.Timeout;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -70,15 +72,16 @@ import java.util.concurrent.TimeoutException;
  * @author pron
  */
 public abstract class FiberAsync<V, E extends Throwable> implements java.io.Serializable {
-    private final Fiber fiber;
+    private Fiber fiber;
     private final boolean immediateExec;
     private volatile boolean completed;
     private Throwable exception;
     private V result;
     private transient Thread registrationThread;
-    private transient volatile boolean registrationComplete;
+    private transient volatile int registration; // twice the number of resets, plus one once the request has been made
     private long timeoutNanos;
     private transient long deadline;
+    private transient Fiber.ParkAction request;
 
     /**
      * Same as `FiberAsync(false)`
@@ -111,7 +114,7 @@ public abstract class FiberAsync<V, E extends Throwable> implements java.io.Seri
         if (fiber == null)
             return runSync();
 
-        if (registrationComplete)
+        if (registrationComplete())
             throw new IllegalStateException("This FiberAsync instance has already been used");
 
         // We call the verifySuspend first here, because instrumentation problems may corrupt
@@ -119,21 +122,7 @@ public abstract class FiberAsync<V, E extends Throwable> implements java.io.Seri
         Fiber.verifySuspend(fiber);
 
         fiber.record(1, "FiberAsync", "run", "Blocking fiber %s on FiberAsync %s", fiber, this);
-        while (!Fiber.park(this, new Fiber.ParkAction() {
-            @Override
-            public void run(Fiber current) {
-                try {
-                    current.record(1, "FiberAsync", "run", "Calling requestAsync on class %s", this);
-                    registrationThread = Thread.currentThread();
-                    requestAsync();
-                    current.record(1, "FiberAsync", "run", "requestAsync on %s done", FiberAsync.this);
-                } catch (Throwable t) {
-                    asyncFailed(t);
-                } finally {
-                    registrationComplete = true;
-                }
-            }
-        })) {
+        while (!Fiber.park(this, request())) {
             checkInterrupted();
         }
 
@@ -170,7 +159,7 @@ public abstract class FiberAsync<V, E extends Throwable> implements java.io.Seri
         if (Fiber.currentFiber() == null)
             return runSync(timeout, unit);
 
-        if (registrationComplete)
+        if (registrationComplete())
             throw new IllegalStateException("This FiberAsync instance has already been used");
 
         if (unit == null)
@@ -182,22 +171,7 @@ public abstract class FiberAsync<V, E extends Throwable> implements java.io.Seri
         this.deadline = System.nanoTime() + timeoutNanos;
 
         fiber.record(1, "FiberAsync", "run", "Blocking fiber %s on FibeAsync %s", fiber, this);
-        while (!Fiber.park(this, new Fiber.ParkAction() {
-            @Override
-            public void run(Fiber current) {
-                try {
-                    current.getScheduler().schedule(current, FiberAsync.this, timeout, unit);
-                    current.record(1, "FiberAsync", "run", "Calling requestAsync on class %s", this);
-                    registrationThread = Thread.currentThread();
-                    requestAsync();
-                    current.record(1, "FiberAsync", "run", "requestAsync on %s done", FiberAsync.this);
-                } catch (Throwable t) {
-                    asyncFailed(t);
-                } finally {
-                    registrationComplete = true;
-                }
-            }
-        })) {
+        while (!Fiber.park(this, request())) {
             checkInterrupted();
         }
 
@@ -220,6 +194,60 @@ public abstract class FiberAsync<V, E extends Throwable> implements java.io.Seri
         return getResult();
     }
     
+    /**
+     * The action run once the fiber has parked, which issues the request (and schedules its timeout, if any).
+     * It is created once and kept, so that an instance that is {@link #reset() reset} and run again doesn't allocate it again.
+     */
+    private Fiber.ParkAction request() {
+        if (request == null) {
+            request = new Fiber.ParkAction() {
+                @Override
+                public void run(Fiber current) {
+                    final int r = registration;
+                    try {
+                        if (timeoutNanos > 0)
+                            current.getScheduler().schedule(current, FiberAsync.this, timeoutNanos, TimeUnit.NANOSECONDS);
+                        current.record(1, "FiberAsync", "run", "Calling requestAsync on class %s", this);
+                        registrationThread = Thread.currentThread();
+                        requestAsync();
+                        current.record(1, "FiberAsync", "run", "requestAsync on %s done", FiberAsync.this);
+                    } catch (Throwable t) {
+                        asyncFailed(t);
+                    } finally {
+                        // if the operation has completed and this instance has been reset in the meantime, this registration is stale
+                        REGISTRATION.compareAndSet(FiberAsync.this, r, r | 1);
+                    }
+                }
+            };
+        }
+        return request;
+    }
+
+    /**
+     * Prepares this instance to be run again, by the current fiber.
+     * Subclasses that perform the same kind of operation over and over (like reads from a channel) may keep a single instance, and
+     * reset it before every operation rather than allocate a new one.
+     * <p>
+     * This method may only be called when this instance is not in use, i.e., before {@code run} has been called, or after it has returned.
+     * The callback of the previous operation may still be returning, and so it may, at worst, spuriously wake up the fiber
+     * running the next one, which the fiber tolerates. An instance whose last run has timed out, however, must not be reset, as the
+     * operation's callback may yet be called and would then complete the next operation.</p>
+     */
+    protected void reset() {
+        this.fiber = Fiber.currentFiber();
+        this.completed = false;
+        this.exception = null;
+        this.result = null;
+        this.registrationThread = null;
+        this.registration = (registration | 1) + 1;
+        this.timeoutNanos = 0;
+        this.deadline = 0;
+    }
+
+    private boolean registrationComplete() {
+        return (registration & 1) != 0;
+    }
+
     private void checkInterrupted() throws InterruptedException {
         if (Fiber.interrupted()) {
             interrupted();
@@ -265,12 +293,12 @@ public abstract class FiberAsync<V, E extends Throwable> implements java.io.Seri
     }
 
     /**
-     * Spins until {@code requestAsync} returns. Can be called from overrides of {@code run} (and must be called by the fiber that's
-     * calling {@code run}).
+     * Spins until {@code requestAsync} returns. Can be called from overrides of {@code run}, or by a callback (running in another thread)
+     * that must not proceed before the fiber has finished blocking.
      */
     protected final void waitForRegistration() {
         if (registrationThread != null && Thread.currentThread() != registrationThread) {
-            while (!registrationComplete)
+            while (!registrationComplete())
              ; // spin
         }
     }
@@ -362,10 +390,23 @@ public abstract class FiberAsync<V, E extends Throwable> implements java.io.Seri
                 if (!timeout)
                     throw (RuntimeException) ex;
             }
-        } else
+        } else if (!continueInline(fiber))
             fiber.unpark(this);
     }
 
+    /**
+     * If the callback is running on a worker of the fiber's own scheduler that is not currently running some other fiber,
+     * continues the fiber right here rather than submitting it to the scheduler only to have it picked up by a worker just like this one.
+     * A callback invoked by {@code requestAsync} itself, before the fiber has finished blocking, cannot do that.
+     *
+     * @return {@code true} if the fiber has been run by this method; {@code false} if it must be unparked.
+     */
+    private boolean continueInline(Fiber fiber) {
+        if (!registrationComplete() || Fiber.currentFiber() != null)
+            return false;
+        return fiber.exec(this, (Fiber.ParkAction) null);
+    }
+
     /**
      * Called by the fiber if this `FiberAsync` is in immediate-exec mode, immediately before attempting to block while running
      * in the callback's thread.
@@ -492,4 +533,14 @@ public abstract class FiberAsync<V, E extends Throwable> implements java.io.Seri
             super.interrupted();
         }
     }
+
+    private static final VarHandle REGISTRATION;
+
+    static {
+        try {
+            REGISTRATION = MethodHandles.lookup().findVarHandle(FiberAsync.class, "registration", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 }
@@ -20,6 +20,7 @@ import co.paralleluniverse.strands.Timeout;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -38,7 +39,7 @@ public class AsyncCompletionStage<V> extends FiberAsync<V, ExecutionException> {
      * @throws InterruptedException if the current thread was interrupted while waiting
      */
     public static <V> V get(CompletionStage<V> future) throws ExecutionException, InterruptedException, SuspendExecution {
-        if (Fiber.isCurrentFiber())
+        if (Fiber.isCurrentFiber() && !isDone(future))
             return new AsyncCompletionStage<V>(future).run();
         else
             return future.toCompletableFuture().get();
@@ -56,7 +57,7 @@ public class AsyncCompletionStage<V> extends FiberAsync<V, ExecutionException> {
      * @throws InterruptedException if the current thread was interrupted while waiting
      */
     public static <V> V get(CompletionStage<V> future, long timeout, TimeUnit unit) throws ExecutionException, InterruptedException, SuspendExecution, TimeoutException {
-        if (Fiber.isCurrentFiber())
+        if (Fiber.isCurrentFiber() && !isDone(future))
             return new AsyncCompletionStage<>(future).run(timeout, unit);
         else
             return future.toCompletableFuture().get(timeout, unit);
@@ -165,6 +166,13 @@ public class AsyncCompletionStage<V> extends FiberAsync<V, ExecutionException> {
 //    public static <V> V getNoSuspend(final CompletableFuture<V> future, Timeout timeout) throws ExecutionException, InterruptedException, TimeoutException {
 //        return getNoSuspend(future, timeout.nanosLeft(), TimeUnit.NANOSECONDS);
 //    }
+    /**
+     * A future that has already completed is read directly, as blocking the fiber on it would only have it immediately rescheduled.
+     */
+    private static boolean isDone(CompletionStage<?> future) {
+        return future instanceof Future && ((Future<?>) future).isDone();
+    }
+
     ///////////////////////////////////////////////////////////////////////
     private final CompletionStage<V> fut;
 
@@ -16,10 +16,13 @@ package co.paralleluniverse.fibers.io;
 import co.paralleluniverse.fibers.FiberScheduler;
 import co.paralleluniverse.fibers.SchedulerLocal;
 import co.paralleluniverse.fibers.SuspendExecution;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
+import java.net.ProtocolFamily;
 import java.nio.channels.AsynchronousChannelGroup;
 import java.nio.channels.AsynchronousServerSocketChannel;
 import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.ShutdownChannelGroupException;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -27,6 +30,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -36,7 +40,9 @@ import java.util.concurrent.TimeoutException;
  * @author pron
  */
 final class AsyncChannelGroup extends ChannelGroup {
+    private static final ThreadFactory DATAGRAM_POLLER_FACTORY = new ThreadFactoryBuilder().setDaemon(true).setNameFormat("fiber-datagram-poller-%d").build();
     private final AsynchronousChannelGroup group;
+    private SelectorChannelGroup datagramGroup; // created on first use
 
     AsyncChannelGroup(AsynchronousChannelGroup group) {
         this.group = group;
@@ -52,9 +58,29 @@ final class AsyncChannelGroup extends ChannelGroup {
         return new AsyncFiberServerSocketChannel(AsynchronousServerSocketChannel.open(group));
     }
 
+    @Override
+    FiberDatagramChannel newFiberDatagramChannel(ProtocolFamily family) throws IOException {
+        return datagramGroup().newFiberDatagramChannel(family);
+    }
+
+    /**
+     * {@link AsynchronousChannelGroup} has no datagram channels, so ours are polled by a selector of this group's own.
+     */
+    private synchronized SelectorChannelGroup datagramGroup() throws IOException {
+        if (group.isShutdown())
+            throw new ShutdownChannelGroupException();
+        if (datagramGroup == null)
+            datagramGroup = new SelectorChannelGroup(1, DATAGRAM_POLLER_FACTORY);
+        return datagramGroup;
+    }
+
     @Override
     public void shutdown() {
         group.shutdown();
+        synchronized (this) {
+            if (datagramGroup != null)
+                datagramGroup.shutdown();
+        }
     }
 
     private static final SchedulerLocal<AsyncChannelGroup> defaultGroup = new SchedulerLocal<AsyncChannelGroup>() {
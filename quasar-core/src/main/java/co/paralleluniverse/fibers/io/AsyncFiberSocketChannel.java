@@ -21,14 +21,18 @@ import java.net.SocketOption;
 import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousSocketChannel;
 import java.nio.channels.ByteChannel;
+import java.nio.channels.CompletionHandler;
 import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.NetworkChannel;
+import java.nio.channels.ReadPendingException;
 import java.nio.channels.ScatteringByteChannel;
 import java.nio.channels.SocketChannel;
+import java.nio.channels.WritePendingException;
 import java.nio.channels.spi.AsynchronousChannelProvider;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Uses an {@link AsynchronousSocketChannel} to implement a fiber-blocking version of {@link SocketChannel}.
@@ -37,6 +41,8 @@ import java.util.concurrent.TimeoutException;
  */
 final class AsyncFiberSocketChannel extends FiberSocketChannel implements ByteChannel, ScatteringByteChannel, GatheringByteChannel, NetworkChannel {
     private final AsynchronousSocketChannel ac;
+    private volatile IO reader = new IO(false);
+    private volatile IO writer = new IO(true);
 
     AsyncFiberSocketChannel(AsynchronousSocketChannel asc) {
         this.ac = asc;
@@ -69,42 +75,121 @@ final class AsyncFiberSocketChannel extends FiberSocketChannel implements ByteCh
 
     @Override
     public long read(final ByteBuffer[] dsts, final int offset, final int length, final long timeout, final TimeUnit unit) throws IOException, SuspendExecution {
-        return new FiberAsyncIO<Long>() {
-            @Override
-            protected void requestAsync() {
-                ac.read(dsts, offset, length, timeout, unit, null, makeCallback());
-            }
-        }.run();
+        return reader.run(null, dsts, offset, length, timeout, unit).longValue();
     }
 
     @Override
     public int read(final ByteBuffer dst, final long timeout, final TimeUnit unit) throws IOException, SuspendExecution {
-        return new FiberAsyncIO<Integer>() {
-            @Override
-            protected void requestAsync() {
-                ac.read(dst, timeout, unit, null, makeCallback());
-            }
-        }.run();
+        return reader.run(dst, null, 0, 0, timeout, unit).intValue();
     }
 
     @Override
     public long write(final ByteBuffer[] srcs, final int offset, final int length, final long timeout, final TimeUnit unit) throws IOException, SuspendExecution {
-        return new FiberAsyncIO<Long>() {
-            @Override
-            protected void requestAsync() {
-                ac.write(srcs, offset, length, timeout, unit, null, makeCallback());
-            }
-        }.run();
+        return writer.run(null, srcs, offset, length, timeout, unit).longValue();
     }
 
     @Override
     public int write(final ByteBuffer src, final long timeout, final TimeUnit unit) throws IOException, SuspendExecution {
-        return new FiberAsyncIO<Integer>() {
-            @Override
-            protected void requestAsync() {
-                ac.write(src, timeout, unit, null, makeCallback());
+        return writer.run(src, null, 0, 0, timeout, unit).intValue();
+    }
+
+    /**
+     * A read or a write, which also serves as its own completion handler.
+     * As at most one read and one write may be outstanding on the channel at any time, each direction has a single instance, which is
+     * {@link #reset() reset} and reused by every operation, so that steady-state I/O doesn't allocate.
+     * An operation that has been interrupted is still in flight, and its completion must not be taken for that of the next one, so its
+     * instance is then abandoned, and replaced by a new one.
+     */
+    private final class IO extends FiberAsyncIO<Number> implements CompletionHandler<Number, Object> {
+        private final boolean write;
+        private final AtomicBoolean pending = new AtomicBoolean();
+        private ByteBuffer buffer;
+        private ByteBuffer[] buffers;
+        private int offset;
+        private int length;
+        private long timeout;
+        private TimeUnit unit;
+
+        IO(boolean write) {
+            this.write = write;
+        }
+
+        Number run(ByteBuffer buffer, ByteBuffer[] buffers, int offset, int length, long timeout, TimeUnit unit) throws IOException, SuspendExecution {
+            if (!pending.compareAndSet(false, true))
+                throw write ? new WritePendingException() : new ReadPendingException();
+            final ByteBuffer heap = buffer != null && !buffer.isDirect() && buffer.hasRemaining() ? buffer : null;
+            try {
+                if (heap != null) {
+                    // do the I/O through a pooled direct buffer rather than have the JDK copy through its per-thread cache
+                    final ByteBufferPool pool = ByteBufferPool.getDefault();
+                    buffer = pool.acquire(Math.min(heap.remaining(), pool.getMaxPooledSize()));
+                    if (write) {
+                        final ByteBuffer chunk = heap.duplicate();
+                        chunk.limit(chunk.position() + buffer.remaining());
+                        buffer.put(chunk).flip();
+                    }
+                }
+                reset();
+                this.buffer = buffer;
+                this.buffers = buffers;
+                this.offset = offset;
+                this.length = length;
+                this.timeout = timeout;
+                this.unit = unit;
+                final Number n = run(); // the timeout is enforced by the channel
+                if (heap != null) {
+                    if (write)
+                        heap.position(heap.position() + n.intValue());
+                    else {
+                        buffer.flip();
+                        heap.put(buffer);
+                    }
+                }
+                return n;
+            } finally {
+                if (heap != null) {
+                    if (isCompleted())
+                        ByteBufferPool.getDefault().release(buffer);
+                    else // if interrupted or timed out, the I/O may still be using the buffer, so it's left to the GC
+                        ByteBufferPool.getDefault().discard(buffer);
+                }
+                this.buffer = null;
+                this.buffers = null;
+                if (isCompleted())
+                    pending.set(false);
+                else if (write) // pending is left set, so that a strand still holding this instance can't start another operation with it
+                    writer = new IO(true);
+                else
+                    reader = new IO(false);
             }
-        }.run();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void requestAsync() {
+            final CompletionHandler handler = this;
+            if (buffers == null) {
+                if (write)
+                    ac.write(buffer, timeout, unit, null, handler);
+                else
+                    ac.read(buffer, timeout, unit, null, handler);
+            } else {
+                if (write)
+                    ac.write(buffers, offset, length, timeout, unit, null, handler);
+                else
+                    ac.read(buffers, offset, length, timeout, unit, null, handler);
+            }
+        }
+
+        @Override
+        public void completed(Number result, Object attachment) {
+            asyncCompleted(result);
+        }
+
+        @Override
+        public void failed(Throwable exc, Object attachment) {
+            asyncFailed(exc);
+        }
     }
 
     @Override
@@ -0,0 +1,276 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.common.util.SystemProperties;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of direct {@link ByteBuffer}s.
+ * <p>
+ * I/O through a heap buffer makes the JDK copy the data through a temporary direct buffer taken from a per-thread cache. Fibers move
+ * among threads, so that cache does not serve them well, and it grows on every thread that has ever done I/O.
+ * Fiber I/O should therefore be done with direct buffers, and this pool lets services reuse them rather than each allocating and
+ * caching its own.</p>
+ * <p>
+ * Buffers are pooled in size classes, which are the powers of two between {@value #MIN_POOLED_SIZE} bytes and the pool's maximum pooled
+ * size; larger buffers are not pooled. Each class keeps a number of free lists, which are chosen by the current thread, so that strands
+ * running on different threads seldom contend.</p>
+ * <p>
+ * If the {@code co.paralleluniverse.fibers.io.detectBufferLeaks} system property is set, every acquired buffer is tracked, and
+ * a buffer that is garbage collected without having been released is reported (along with the stack trace of its acquisition) and
+ * returned to the pool. Tracking has a cost, and should only be turned on when looking for leaks.</p>
+ *
+ * @author pron
+ */
+public final class ByteBufferPool {
+    /**
+     * The size of the smallest pooled size class.
+     */
+    public static final int MIN_POOLED_SIZE = 512;
+    private static final int MIN_SHIFT = 9;
+    private static final int DEFAULT_MAX_POOLED_SIZE = 64 * 1024;
+    private static final int STRIPE_BYTES = 256 * 1024; // the memory each free list may hold on to
+    private static final boolean DETECT_LEAKS = SystemProperties.isEmptyOrTrue("co.paralleluniverse.fibers.io.detectBufferLeaks");
+    private static final ByteBufferPool DEFAULT = new ByteBufferPool(DEFAULT_MAX_POOLED_SIZE);
+
+    /**
+     * Returns the default pool, whose maximum pooled size is 64KB.
+     */
+    public static ByteBufferPool getDefault() {
+        return DEFAULT;
+    }
+
+    private final int maxPooledSize;
+    private final FreeList[][] classes; // [size class][stripe]
+    private final int stripeMask;
+    private final boolean detectLeaks;
+    private final ConcurrentHashMap<Integer, Loan> loans;
+    private final ReferenceQueue<ByteBuffer> leaked;
+    private final AtomicLong leaks = new AtomicLong();
+
+    /**
+     * Creates a new pool.
+     *
+     * @param maxPooledSize the size of the largest pooled buffers; rounded up to a power of two
+     */
+    public ByteBufferPool(int maxPooledSize) {
+        this(maxPooledSize, DETECT_LEAKS);
+    }
+
+    ByteBufferPool(int maxPooledSize, boolean detectLeaks) {
+        if (maxPooledSize < MIN_POOLED_SIZE)
+            throw new IllegalArgumentException("maxPooledSize must be at least " + MIN_POOLED_SIZE + "; was " + maxPooledSize);
+        final int nClasses = sizeClass(maxPooledSize) + 1;
+        final int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+        this.maxPooledSize = MIN_POOLED_SIZE << (nClasses - 1);
+        this.stripeMask = stripes - 1;
+        this.classes = new FreeList[nClasses][stripes];
+        for (int c = 0; c < nClasses; c++) {
+            for (int s = 0; s < stripes; s++)
+                classes[c][s] = new FreeList(Math.max(2, STRIPE_BYTES >> (MIN_SHIFT + c)));
+        }
+        this.detectLeaks = detectLeaks;
+        this.loans = detectLeaks ? new ConcurrentHashMap<Integer, Loan>() : null;
+        this.leaked = detectLeaks ? new ReferenceQueue<ByteBuffer>() : null;
+    }
+
+    /**
+     * The size of the largest buffers kept by this pool.
+     */
+    public int getMaxPooledSize() {
+        return maxPooledSize;
+    }
+
+    /**
+     * Returns a direct buffer whose position is zero and whose limit is {@code size}.
+     * The buffer's capacity may be larger than {@code size}.
+     * When no longer in use, the buffer should be {@link #release(ByteBuffer) released}, and must not be used afterwards.
+     *
+     * @param size the required size
+     * @return a direct buffer with {@code size} bytes remaining
+     */
+    public ByteBuffer acquire(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("size must not be negative; was " + size);
+        if (size > maxPooledSize)
+            return ByteBuffer.allocateDirect(size);
+        final int c = sizeClass(size);
+        ByteBuffer buffer = classes[c][stripe()].poll();
+        if (buffer == null)
+            buffer = ByteBuffer.allocateDirect(MIN_POOLED_SIZE << c);
+        buffer.limit(size);
+        return detectLeaks ? track(buffer) : buffer;
+    }
+
+    /**
+     * Returns a buffer obtained from {@link #acquire(int) acquire} to the pool.
+     * Buffers that are not pooled by this pool (like those larger than its maximum pooled size) are ignored.
+     *
+     * @param buffer the buffer
+     */
+    public void release(ByteBuffer buffer) {
+        if (detectLeaks) {
+            buffer = untrack(buffer);
+            if (buffer == null)
+                return;
+        }
+        recycle(buffer);
+    }
+
+    /**
+     * Gives up a buffer obtained from {@link #acquire(int) acquire} that cannot be released, because it may still be in use
+     * (e.g. by an I/O operation that could not be cancelled). The buffer is not returned to the pool, and is not reported as leaked.
+     *
+     * @param buffer the buffer
+     */
+    public void discard(ByteBuffer buffer) {
+        if (detectLeaks)
+            untrack(buffer);
+    }
+
+    private void recycle(ByteBuffer buffer) {
+        final int capacity = buffer.capacity();
+        if (!buffer.isDirect() || buffer.isReadOnly() || capacity > maxPooledSize || capacity < MIN_POOLED_SIZE || Integer.bitCount(capacity) != 1)
+            return;
+        buffer.clear();
+        classes[sizeClass(capacity)][stripe()].offer(buffer);
+    }
+
+    private int stripe() {
+        return (int) Thread.currentThread().getId() & stripeMask;
+    }
+
+    private static int sizeClass(int size) {
+        return size <= MIN_POOLED_SIZE ? 0 : (32 - Integer.numberOfLeadingZeros(size - 1)) - MIN_SHIFT;
+    }
+
+    /**
+     * The number of buffers that have been found to be garbage collected without having been released.
+     * Always zero unless leak detection is enabled.
+     */
+    long getLeakCount() {
+        return leaks.get();
+    }
+
+    ///////////// Leak detection ///////////////////////////////////
+    /**
+     * With leak detection enabled, the pool hands out views of its buffers, and tracks the views with weak references.
+     * A view that is collected before it is released has leaked, and the buffer it viewed is taken back.
+     * Loans are kept in a map keyed by the view's identity hash code, chained on collisions.
+     */
+    private ByteBuffer track(ByteBuffer buffer) {
+        reclaimLeaks();
+        final ByteBuffer view = buffer.duplicate();
+        final Loan loan = new Loan(view, buffer, leaked);
+        loans.compute(loan.hash, (k, head) -> {
+            loan.next = head;
+            return loan;
+        });
+        return view;
+    }
+
+    private ByteBuffer untrack(ByteBuffer view) {
+        final Loan[] found = new Loan[1];
+        loans.computeIfPresent(System.identityHashCode(view), (k, head) -> {
+            Loan prev = null;
+            for (Loan l = head; l != null; prev = l, l = l.next) {
+                if (l.get() == view) {
+                    found[0] = l;
+                    if (prev == null)
+                        return l.next;
+                    prev.next = l.next;
+                    return head;
+                }
+            }
+            return head;
+        });
+        if (found[0] == null)
+            return null; // not one of ours, or already released
+        found[0].clear();
+        return found[0].buffer;
+    }
+
+    private void reclaimLeaks() {
+        for (Loan l; (l = (Loan) leaked.poll()) != null;) {
+            final Loan loan = l;
+            final boolean[] removed = new boolean[1];
+            loans.computeIfPresent(loan.hash, (k, head) -> {
+                Loan prev = null;
+                for (Loan x = head; x != null; prev = x, x = x.next) {
+                    if (x == loan) {
+                        removed[0] = true;
+                        if (prev == null)
+                            return x.next;
+                        prev.next = x.next;
+                        return head;
+                    }
+                }
+                return head;
+            });
+            if (removed[0]) {
+                leaks.incrementAndGet();
+                final StringWriter sw = new StringWriter();
+                loan.acquisition.printStackTrace(new PrintWriter(sw));
+                System.err.println("WARNING: A ByteBuffer of " + loan.buffer.capacity() + " bytes was not released to the pool before being garbage collected. It was acquired at: " + sw);
+                recycle(loan.buffer);
+            }
+        }
+    }
+
+    private static final class Loan extends WeakReference<ByteBuffer> {
+        final int hash;
+        final ByteBuffer buffer;
+        final Throwable acquisition = new Throwable("acquired here");
+        Loan next;
+
+        Loan(ByteBuffer view, ByteBuffer buffer, ReferenceQueue<ByteBuffer> q) {
+            super(view, q);
+            this.hash = System.identityHashCode(view);
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * A bounded stack of free buffers.
+     * Its lock is only ever held for a few instructions, and is normally uncontended, as each thread has its own list.
+     */
+    private static final class FreeList {
+        private final ByteBuffer[] buffers;
+        private int size;
+
+        FreeList(int capacity) {
+            this.buffers = new ByteBuffer[capacity];
+        }
+
+        synchronized ByteBuffer poll() {
+            if (size == 0)
+                return null;
+            final ByteBuffer b = buffers[--size];
+            buffers[size] = null;
+            return b;
+        }
+
+        synchronized void offer(ByteBuffer b) {
+            if (size < buffers.length)
+                buffers[size++] = b;
+        }
+    }
+}
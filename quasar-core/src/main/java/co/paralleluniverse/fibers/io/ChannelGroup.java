@@ -15,6 +15,7 @@ package co.paralleluniverse.fibers.io;
 
 import co.paralleluniverse.fibers.SuspendExecution;
 import java.io.IOException;
+import java.net.ProtocolFamily;
 import java.nio.channels.AsynchronousChannelGroup;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
@@ -65,6 +66,27 @@ public abstract class ChannelGroup {
         return new AsyncChannelGroup(AsynchronousChannelGroup.withThreadPool(executor));
     }
 
+    /**
+     * Creates a channel group whose channels are non-blocking and are polled for readiness by {@link java.nio.channels.Selector selectors}
+     * (epoll, on Linux), each run by its own thread.
+     *
+     * <p>
+     * I/O operations on the group's channels are attempted immediately by the calling strand, which blocks only if the channel
+     * is not ready, until it is unparked by the poller.
+     * Channels are assigned to the pollers in turn.
+     *
+     * @param nPollers      The number of poller threads
+     * @param threadFactory The factory to use when creating the poller threads
+     *
+     * @return A new channel group
+     *
+     * @throws IllegalArgumentException If {@code nPollers <= 0}
+     * @throws IOException              If an I/O error occurs
+     */
+    public static ChannelGroup withSelectors(int nPollers, ThreadFactory threadFactory) throws IOException {
+        return new SelectorChannelGroup(nPollers, threadFactory);
+    }
+
     static ChannelGroup defaultGroup() throws IOException, SuspendExecution {
         return AsyncChannelGroup.getDefaultGroup();
     }
@@ -77,4 +99,6 @@ public abstract class ChannelGroup {
     abstract FiberSocketChannel newFiberSocketChannel() throws IOException;
 
     abstract FiberServerSocketChannel newFiberServerSocketChannel() throws IOException;
+
+    abstract FiberDatagramChannel newFiberDatagramChannel(ProtocolFamily family) throws IOException;
 }
@@ -0,0 +1,259 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Strand;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lets many strands write to a single {@link FiberSocketChannel}, coalescing their writes.
+ * <p>
+ * Strands calling {@link #write(ByteBuffer[]) write} queue their buffers, and one of them, the combiner, writes the buffers of all
+ * waiting strands in a single gathering write, while the others park until their buffers are written. Writes arriving while the
+ * combiner is busy writing wait for the next write, so the higher the concurrency, the more writes each system call carries (in effect,
+ * the socket is corked while a write is in progress).</p>
+ * <p>
+ * The number of writes coalesced is adaptive: it grows (up to the maximum batch size) as long as batches are full and written in a
+ * single call, and shrinks when the socket cannot take a whole batch at once.</p>
+ * <p>
+ * So that no strand is kept writing on behalf of others for long, a combiner that has written a few batches hands its role to the
+ * first of the waiting strands.</p>
+ *
+ * @author pron
+ */
+public final class CoalescingSocketWriter {
+    private static final int INITIAL_BATCH = 8;
+    private static final int MAX_COMBINE_ROUNDS = 16; // the number of batches a strand writes on behalf of others before handing off
+    private final FiberSocketChannel ch;
+    private final int maxBatch;
+    private final ConcurrentLinkedQueue<Write> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean combining = new AtomicBoolean();
+    private volatile IOException failure;
+    // accessed only by the combiner
+    private int batchSize;
+    private Write[] batch;
+    private ByteBuffer[] iov;
+
+    /**
+     * Creates a new writer.
+     *
+     * @param ch       the socket channel
+     * @param maxBatch the maximum number of writes coalesced into a single gathering write
+     */
+    public CoalescingSocketWriter(FiberSocketChannel ch, int maxBatch) {
+        if (maxBatch <= 0)
+            throw new IllegalArgumentException("maxBatch must be positive; was " + maxBatch);
+        this.ch = ch;
+        this.maxBatch = maxBatch;
+        this.batchSize = Math.min(INITIAL_BATCH, maxBatch);
+        this.batch = new Write[maxBatch];
+        this.iov = new ByteBuffer[maxBatch * 2];
+    }
+
+    /**
+     * The number of writes the next gathering write may carry.
+     */
+    int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Writes all of the given buffers' remaining bytes, in order, and without other writes interleaved.
+     * This method returns once the bytes have been written, and the buffers may then be reused.
+     * <p>
+     * Should the strand be interrupted while waiting, the write nevertheless completes, and the strand's interrupt status is kept.</p>
+     *
+     * @param srcs the buffers
+     * @throws IOException if writing to the channel has failed (for this or for an earlier write), in which case the channel is closed
+     */
+    public void write(ByteBuffer... srcs) throws IOException, SuspendExecution {
+        checkFailure();
+        if (queue.isEmpty() && combining.compareAndSet(false, true)) {
+            // uncontended: write directly, then take care of any writes queued in the meantime
+            try {
+                writeDirect(srcs);
+            } finally {
+                combining.set(false);
+                handOff(0);
+            }
+            return;
+        }
+        final Write w = new Write(srcs, Strand.currentStrand());
+        queue.add(w);
+        boolean interrupted = false;
+        int rounds = 0;
+        while (!w.done) {
+            if (combining.compareAndSet(false, true)) {
+                try {
+                    rounds += combine(MAX_COMBINE_ROUNDS);
+                } finally {
+                    combining.set(false);
+                }
+                if (w.done)
+                    handOff(rounds);
+            } else {
+                Strand.park(this);
+                if (Strand.interrupted())
+                    interrupted = true;
+            }
+        }
+        if (interrupted)
+            Strand.currentStrand().interrupt();
+        if (w.failed)
+            throw failure;
+    }
+
+    /**
+     * Called after giving up the combiner role, takes care of writes queued as we were giving it up. We combine them ourselves
+     * until we've written {@link #MAX_COMBINE_ROUNDS} batches in all, and then wake up the first waiting strand to take over.
+     *
+     * @param rounds the number of batches we've already written as the combiner
+     */
+    private void handOff(int rounds) throws SuspendExecution {
+        while (!queue.isEmpty()) {
+            if (rounds >= MAX_COMBINE_ROUNDS) {
+                final Write next = queue.peek();
+                if (next != null) // if it's no longer queued, it's been polled by a combiner, which will hand off in turn
+                    next.strand.unpark(this);
+                return;
+            }
+            if (!combining.compareAndSet(false, true))
+                return; // the current combiner will take care of them
+            try {
+                rounds += combine(MAX_COMBINE_ROUNDS - rounds);
+            } finally {
+                combining.set(false);
+            }
+        }
+    }
+
+    private void writeDirect(ByteBuffer[] srcs) throws IOException, SuspendExecution {
+        try {
+            if (srcs.length == 1) { // a plain write is cheaper than a gathering one
+                while (srcs[0].hasRemaining())
+                    ch.write(srcs[0]);
+                return;
+            }
+            for (int offset = 0; offset < srcs.length;) {
+                ch.write(srcs, offset, srcs.length - offset);
+                while (offset < srcs.length && !srcs[offset].hasRemaining())
+                    offset++;
+            }
+        } catch (IOException e) {
+            failure = e;
+            closeQuietly();
+            throw e;
+        } catch (Throwable t) {
+            failure = new IOException(t);
+            closeQuietly();
+            throw failure;
+        }
+    }
+
+    /**
+     * Writes batches of queued writes until the queue is empty or {@code maxRounds} batches have been written.
+     * A strand whose write is queued after the combiner has found the queue empty either becomes the next combiner itself, or, if it
+     * fails to, is taken care of by the current combiner once it gives up the role and finds the queue non-empty.
+     *
+     * @return the number of batches written
+     */
+    private int combine(int maxRounds) throws SuspendExecution {
+        for (int rounds = 0;; rounds++) {
+            if (rounds == maxRounds)
+                return rounds;
+            int nw = 0;
+            int nb = 0;
+            for (Write w; nw < batchSize && (w = queue.peek()) != null;) {
+                if (nb + w.srcs.length > iov.length) {
+                    if (nb > 0)
+                        break;
+                    iov = new ByteBuffer[w.srcs.length]; // a single write with many buffers
+                }
+                queue.poll();
+                batch[nw++] = w;
+                System.arraycopy(w.srcs, 0, iov, nb, w.srcs.length);
+                nb += w.srcs.length;
+            }
+            if (nw == 0)
+                return rounds;
+
+            boolean failed = failure != null;
+            if (!failed) {
+                try {
+                    int calls = 0;
+                    for (int offset = 0; offset < nb; calls++) {
+                        ch.write(iov, offset, nb - offset);
+                        while (offset < nb && !iov[offset].hasRemaining())
+                            offset++;
+                    }
+                    adapt(nw, calls);
+                } catch (IOException e) {
+                    failed = true;
+                    failure = e;
+                    closeQuietly();
+                } catch (Throwable t) {
+                    // the waiting strands must be released whatever went wrong, and they all see the same failure
+                    failed = true;
+                    failure = new IOException(t);
+                    closeQuietly();
+                }
+            }
+            Arrays.fill(iov, 0, nb, null);
+            for (int i = 0; i < nw; i++) {
+                final Write w = batch[i];
+                batch[i] = null;
+                w.failed = failed;
+                w.done = true;
+                if (w.strand != Strand.currentStrand())
+                    w.strand.unpark(this);
+            }
+        }
+    }
+
+    private void adapt(int writes, int calls) {
+        if (calls > 1)
+            batchSize = Math.max(1, batchSize / 2);
+        else if (writes == batchSize)
+            batchSize = Math.min(maxBatch, batchSize * 2);
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null)
+            throw failure;
+    }
+
+    private void closeQuietly() {
+        try {
+            ch.close();
+        } catch (IOException e) {
+        }
+    }
+
+    private static final class Write {
+        final ByteBuffer[] srcs;
+        final Strand strand;
+        boolean failed; // written before done
+        volatile boolean done;
+
+        Write(ByteBuffer[] srcs, Strand strand) {
+            this.srcs = srcs;
+            this.strand = strand;
+        }
+    }
+}
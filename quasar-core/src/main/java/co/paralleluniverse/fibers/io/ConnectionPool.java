@@ -0,0 +1,435 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.common.monitoring.Metrics;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.concurrent.Semaphore;
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import static com.codahale.metrics.MetricRegistry.name;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A bounded pool of {@link FiberSocketChannel} connections, kept per remote endpoint.
+ * <p>
+ * At most {@code maxPerEndpoint} connections to any one endpoint are in use at any time; a strand acquiring a connection to an
+ * endpoint whose connections are all in use blocks until one is {@link #release(FiberSocketChannel) released}
+ * (or {@link #invalidate(FiberSocketChannel) invalidated}). Released connections are kept for reuse, the most recently released first,
+ * and are closed once they have been idle for longer than the idle timeout. Idle connections are evicted lazily, when connections
+ * to their endpoint are acquired or released, or when {@link #evictIdle()} is called.</p>
+ * <p>
+ * Before an idle connection is handed out it is checked, and discarded if it has been closed or if it fails the pool's
+ * {@link Validator validator}.</p>
+ * <p>
+ * The time strands wait for a connection and the time it takes to connect, as well as the number of connections in use, idle and
+ * waited for, can be reported to the {@link Metrics} registry with {@link #registerMetrics(String) registerMetrics}.</p>
+ *
+ * @see MultiplexedClient
+ * @author pron
+ */
+public final class ConnectionPool {
+    /**
+     * Checks whether an idle connection may be reused.
+     */
+    public interface Validator {
+        /**
+         * Returns whether the given idle connection may be handed out; if not, it is closed.
+         */
+        boolean isValid(FiberSocketChannel ch) throws IOException, SuspendExecution;
+    }
+
+    private final ChannelGroup group;
+    private final int maxPerEndpoint;
+    private final long idleTimeoutNanos;
+    private final Validator validator;
+    private final ConcurrentHashMap<SocketAddress, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<FiberSocketChannel, Endpoint> leased = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+    private volatile MetricsMonitor monitor;
+
+    /**
+     * Creates a new pool.
+     *
+     * @param group          the group in which connections are opened, or {@code null} for the default group
+     * @param maxPerEndpoint the maximum number of connections to a single endpoint that may be in use at once
+     * @param idleTimeout    how long a connection may remain idle before it is closed
+     * @param unit           the time unit of {@code idleTimeout}
+     * @param validator      checks idle connections before they are reused; may be {@code null}
+     */
+    public ConnectionPool(ChannelGroup group, int maxPerEndpoint, long idleTimeout, TimeUnit unit, Validator validator) {
+        if (maxPerEndpoint <= 0)
+            throw new IllegalArgumentException("maxPerEndpoint must be positive; was " + maxPerEndpoint);
+        if (idleTimeout <= 0)
+            throw new IllegalArgumentException("idleTimeout must be positive; was " + idleTimeout);
+        this.group = group;
+        this.maxPerEndpoint = maxPerEndpoint;
+        this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+        this.validator = validator;
+    }
+
+    /**
+     * Creates a new pool of connections opened in the default group, which does not validate idle connections.
+     *
+     * @param maxPerEndpoint the maximum number of connections to a single endpoint that may be in use at once
+     * @param idleTimeout    how long a connection may remain idle before it is closed
+     * @param unit           the time unit of {@code idleTimeout}
+     */
+    public ConnectionPool(int maxPerEndpoint, long idleTimeout, TimeUnit unit) {
+        this(null, maxPerEndpoint, idleTimeout, unit, null);
+    }
+
+    public int getMaxPerEndpoint() {
+        return maxPerEndpoint;
+    }
+
+    /**
+     * Acquires a connection to the given endpoint, reusing an idle one if there is one, and otherwise connecting a new one.
+     * Blocks while all of the endpoint's connections are in use.
+     *
+     * @param endpoint the remote address
+     * @return a connected channel, which must be {@link #release(FiberSocketChannel) released} or {@link #invalidate(FiberSocketChannel) invalidated}
+     *         once it is no longer used, and must not be closed directly
+     * @throws IOException           if connecting fails
+     * @throws IllegalStateException if the pool has been closed
+     */
+    public FiberSocketChannel acquire(SocketAddress endpoint) throws IOException, InterruptedException, SuspendExecution {
+        try {
+            return acquire0(endpoint, -1L);
+        } catch (TimeoutException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Acquires a connection to the given endpoint, reusing an idle one if there is one, and otherwise connecting a new one.
+     * Blocks while all of the endpoint's connections are in use, but no longer than the given timeout.
+     *
+     * @param endpoint the remote address
+     * @param timeout  the maximum time to wait for one of the endpoint's connections to be released
+     * @param unit     the time unit of {@code timeout}
+     * @return a connected channel, which must be {@link #release(FiberSocketChannel) released} or {@link #invalidate(FiberSocketChannel) invalidated}
+     *         once it is no longer used, and must not be closed directly
+     * @throws TimeoutException      if no connection has become available in time
+     * @throws IOException           if connecting fails
+     * @throws IllegalStateException if the pool has been closed
+     */
+    public FiberSocketChannel acquire(SocketAddress endpoint, long timeout, TimeUnit unit) throws IOException, InterruptedException, TimeoutException, SuspendExecution {
+        return acquire0(endpoint, Math.max(0L, unit.toNanos(timeout)));
+    }
+
+    private FiberSocketChannel acquire0(SocketAddress endpoint, long timeoutNanos) throws IOException, InterruptedException, TimeoutException, SuspendExecution {
+        ensureOpen();
+        final Endpoint e = endpoint(endpoint);
+        if (!e.permits.tryAcquire()) {
+            final long start = System.nanoTime();
+            if (timeoutNanos < 0)
+                e.permits.acquire();
+            else if (!e.permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                final MetricsMonitor mon = monitor;
+                if (mon != null)
+                    mon.timeouts.inc();
+                throw new TimeoutException();
+            }
+            final MetricsMonitor mon = monitor;
+            if (mon != null)
+                mon.acquireWait.update(System.nanoTime() - start);
+        }
+        boolean acquired = false;
+        try {
+            ensureOpen();
+            closeAll(e.expire(System.nanoTime() - idleTimeoutNanos));
+            for (FiberSocketChannel ch; (ch = e.pollIdle()) != null;) {
+                if (isValid(ch)) {
+                    acquired = true;
+                    leased.put(ch, e);
+                    return ch;
+                }
+                closeQuietly(ch);
+            }
+            final long start = System.nanoTime();
+            final FiberSocketChannel ch = FiberSocketChannel.open(group, endpoint);
+            final MetricsMonitor mon = monitor;
+            if (mon != null)
+                mon.connectTime.update(System.nanoTime() - start);
+            acquired = true;
+            leased.put(ch, e);
+            return ch;
+        } finally {
+            if (!acquired)
+                e.permits.release();
+        }
+    }
+
+    private boolean isValid(FiberSocketChannel ch) throws SuspendExecution {
+        if (!ch.isOpen())
+            return false;
+        if (validator == null)
+            return true;
+        try {
+            return validator.isValid(ch);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns a connection obtained from {@link #acquire(SocketAddress) acquire} to the pool, to be reused.
+     * If the connection has been closed, or if the pool has been closed, the connection is discarded.
+     *
+     * @param ch the connection
+     * @throws IllegalArgumentException if the connection is not in use, or has not been acquired from this pool
+     */
+    public void release(FiberSocketChannel ch) {
+        final Endpoint e = leased.remove(ch);
+        if (e == null)
+            throw new IllegalArgumentException("Not a connection in use from this pool: " + ch);
+        if (ch.isOpen()) {
+            final long now = System.nanoTime();
+            e.offerIdle(ch, now);
+            closeAll(e.expire(now - idleTimeoutNanos));
+            if (closed)
+                closeAll(e.drain());
+        }
+        e.permits.release();
+    }
+
+    /**
+     * Closes a connection obtained from {@link #acquire(SocketAddress) acquire}, and frees its place in the pool.
+     * Should be called instead of {@link #release(FiberSocketChannel) release} when the connection is found to be unusable.
+     *
+     * @param ch the connection
+     * @throws IllegalArgumentException if the connection is not in use, or has not been acquired from this pool
+     */
+    public void invalidate(FiberSocketChannel ch) {
+        final Endpoint e = leased.remove(ch);
+        if (e == null)
+            throw new IllegalArgumentException("Not a connection in use from this pool: " + ch);
+        closeQuietly(ch);
+        e.permits.release();
+    }
+
+    /**
+     * Closes all connections that have been idle for longer than the idle timeout.
+     *
+     * @return the number of connections closed
+     */
+    public int evictIdle() {
+        final long threshold = System.nanoTime() - idleTimeoutNanos;
+        int n = 0;
+        for (Endpoint e : endpoints.values()) {
+            final List<FiberSocketChannel> expired = e.expire(threshold);
+            closeAll(expired);
+            n += expired.size();
+        }
+        return n;
+    }
+
+    /**
+     * Closes all idle connections, and the pool. Connections in use are closed when they are released.
+     * Acquiring a connection from a closed pool throws an {@link IllegalStateException}.
+     */
+    public void close() {
+        closed = true;
+        for (Endpoint e : endpoints.values())
+            closeAll(e.drain());
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * The number of connections currently in use.
+     */
+    public int getInUse() {
+        return leased.size();
+    }
+
+    /**
+     * The number of connections currently idle.
+     */
+    public int getIdle() {
+        int n = 0;
+        for (Endpoint e : endpoints.values())
+            n += e.idleCount();
+        return n;
+    }
+
+    /**
+     * The (approximate) number of strands waiting for a connection.
+     */
+    public int getWaiting() {
+        int n = 0;
+        for (Endpoint e : endpoints.values())
+            n += e.permits.getQueueLength();
+        return n;
+    }
+
+    /**
+     * Starts reporting this pool's statistics to the {@link Metrics} registry, under {@code co.paralleluniverse.connectionPools.<name>}.
+     * The statistics are the time, in nanoseconds, strands wait for a connection ({@code acquireWait}) and take to connect ({@code connectTime}),
+     * the number of acquisitions that have timed out ({@code acquireTimeouts}), and the number of connections in use ({@code inUse}),
+     * idle ({@code idle}) and waited for ({@code waiting}).
+     *
+     * @param name the name under which the metrics are reported
+     */
+    public synchronized void registerMetrics(String name) {
+        unregisterMetrics();
+        this.monitor = new MetricsMonitor(name, this);
+    }
+
+    /**
+     * Stops reporting this pool's statistics.
+     */
+    public synchronized void unregisterMetrics() {
+        if (monitor != null) {
+            monitor.unregister();
+            monitor = null;
+        }
+    }
+
+    private Endpoint endpoint(SocketAddress address) {
+        Endpoint e = endpoints.get(address);
+        if (e == null) {
+            final Endpoint e1 = new Endpoint(maxPerEndpoint);
+            e = endpoints.putIfAbsent(address, e1);
+            if (e == null)
+                e = e1;
+        }
+        return e;
+    }
+
+    private void ensureOpen() {
+        if (closed)
+            throw new IllegalStateException("Connection pool closed");
+    }
+
+    private static void closeAll(List<FiberSocketChannel> chs) {
+        for (FiberSocketChannel ch : chs)
+            closeQuietly(ch);
+    }
+
+    private static void closeQuietly(FiberSocketChannel ch) {
+        try {
+            ch.close();
+        } catch (IOException e) {
+        }
+    }
+
+    /**
+     * An endpoint's permits, one for each connection that may be in use, and its idle connections.
+     */
+    private static final class Endpoint {
+        final Semaphore permits;
+        private final ArrayDeque<Idle> idle = new ArrayDeque<>(); // most recently released first
+
+        Endpoint(int permits) {
+            this.permits = new Semaphore(permits);
+        }
+
+        synchronized FiberSocketChannel pollIdle() {
+            final Idle i = idle.pollFirst();
+            return i != null ? i.ch : null;
+        }
+
+        synchronized void offerIdle(FiberSocketChannel ch, long now) {
+            idle.addFirst(new Idle(ch, now));
+        }
+
+        /**
+         * Removes (and returns, to be closed) the connections released before the given time, which are at the tail.
+         */
+        synchronized List<FiberSocketChannel> expire(long threshold) {
+            List<FiberSocketChannel> expired = Collections.emptyList();
+            while (!idle.isEmpty() && idle.peekLast().since - threshold < 0) {
+                if (expired.isEmpty())
+                    expired = new ArrayList<>();
+                expired.add(idle.pollLast().ch);
+            }
+            return expired;
+        }
+
+        synchronized List<FiberSocketChannel> drain() {
+            final List<FiberSocketChannel> all = new ArrayList<>(idle.size());
+            for (Idle i; (i = idle.pollFirst()) != null;)
+                all.add(i.ch);
+            return all;
+        }
+
+        synchronized int idleCount() {
+            return idle.size();
+        }
+    }
+
+    private static final class Idle {
+        final FiberSocketChannel ch;
+        final long since;
+
+        Idle(FiberSocketChannel ch, long since) {
+            this.ch = ch;
+            this.since = since;
+        }
+    }
+
+    private static final class MetricsMonitor {
+        private final String name;
+        final Histogram acquireWait;
+        final Histogram connectTime;
+        final Counter timeouts;
+
+        MetricsMonitor(String name, final ConnectionPool pool) {
+            this.name = name;
+            this.acquireWait = Metrics.histogram(metric("acquireWait"));
+            this.connectTime = Metrics.histogram(metric("connectTime"));
+            this.timeouts = Metrics.counter(metric("acquireTimeouts"));
+            Metrics.register(metric("inUse"), new Gauge<Integer>() {
+                @Override
+                public Integer getValue() {
+                    return pool.getInUse();
+                }
+            });
+            Metrics.register(metric("idle"), new Gauge<Integer>() {
+                @Override
+                public Integer getValue() {
+                    return pool.getIdle();
+                }
+            });
+            Metrics.register(metric("waiting"), new Gauge<Integer>() {
+                @Override
+                public Integer getValue() {
+                    return pool.getWaiting();
+                }
+            });
+        }
+
+        private String metric(String metricName) {
+            return name("co.paralleluniverse", "connectionPools", name, metricName);
+        }
+
+        void unregister() {
+            for (String m : new String[]{"acquireWait", "connectTime", "acquireTimeouts", "inUse", "idle", "waiting"})
+                Metrics.remove(metric(m));
+        }
+    }
+}
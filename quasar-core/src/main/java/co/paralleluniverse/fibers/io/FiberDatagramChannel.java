@@ -0,0 +1,483 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.fibers.Suspendable;
+import java.io.IOException;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A fiber-blocking version of {@link DatagramChannel}.
+ * <p>
+ * The channel is non-blocking, and is polled by the selectors of a {@link ChannelGroup#withSelectors(int, java.util.concurrent.ThreadFactory) selector group}.
+ * As {@link AsynchronousChannelGroup} has no datagram channels, channels opened in a group made by
+ * {@link ChannelGroup#withFixedThreadPool(int, java.util.concurrent.ThreadFactory) withFixedThreadPool} or
+ * {@link ChannelGroup#withThreadPool(java.util.concurrent.ExecutorService) withThreadPool}
+ * (or in the default group) are polled by a single selector thread of their group's own.</p>
+ * <p>
+ * At most one strand may be receiving (or reading), and at most one sending (or writing), at any one time.</p>
+ * <p>
+ * Many datagrams can be received at once, blocking at most once, with {@link #receive(ByteBuffer[], SocketAddress[], long, TimeUnit) receive(ByteBuffer[], ...)}
+ * or, into buffers taken from a {@link ByteBufferPool}, with {@link #receive(ByteBufferPool, int, ByteBuffer[], SocketAddress[], long, TimeUnit) receive(ByteBufferPool, ...)}.</p>
+ *
+ * @author pron
+ */
+public final class FiberDatagramChannel implements ByteChannel, ScatteringByteChannel, GatheringByteChannel, NetworkChannel {
+    private final DatagramChannel dc;
+    private final SelectorChannelGroup.Registration registration;
+
+    FiberDatagramChannel(DatagramChannel dc, SelectorChannelGroup.Poller poller) throws IOException {
+        this.dc = dc;
+        this.registration = new SelectorChannelGroup.Registration(dc, poller);
+    }
+
+    /**
+     * Opens a datagram channel.
+     *
+     * <p>
+     * If the group parameter is {@code null} then the resulting channel is bound to the <em>default group</em>.
+     *
+     * @param group  The group to which the newly constructed channel should be bound, or {@code null} for the default group
+     * @param family The protocol family, or {@code null} for the platform's default
+     * @return A new datagram channel
+     * @throws UnsupportedOperationException If the specified protocol family is not supported
+     * @throws ShutdownChannelGroupException If the channel group is shutdown
+     * @throws IOException                   If an I/O error occurs
+     */
+    public static FiberDatagramChannel open(ChannelGroup group, ProtocolFamily family) throws IOException, SuspendExecution {
+        if (group == null)
+            group = ChannelGroup.defaultGroup();
+        return group.newFiberDatagramChannel(family);
+    }
+
+    /**
+     * Opens a datagram channel.
+     * Same as {@link #open(ChannelGroup, ProtocolFamily) open(group, null)}.
+     *
+     * @param group The group to which the newly constructed channel should be bound, or {@code null} for the default group
+     * @return A new datagram channel
+     * @throws IOException If an I/O error occurs
+     */
+    public static FiberDatagramChannel open(ChannelGroup group) throws IOException, SuspendExecution {
+        return open(group, null);
+    }
+
+    /**
+     * Opens a datagram channel.
+     * Same as {@link #open(ChannelGroup, ProtocolFamily) open(null, null)}.
+     *
+     * @return A new datagram channel
+     * @throws IOException If an I/O error occurs
+     */
+    public static FiberDatagramChannel open() throws IOException, SuspendExecution {
+        return open(null, null);
+    }
+
+    /**
+     * Receives a datagram via this channel.
+     *
+     * <p>
+     * Blocks until a datagram is available, and then transfers it into the given byte buffer and returns its source address.
+     * If there are fewer bytes remaining in the buffer than are required to hold the datagram then the remainder of the datagram
+     * is silently discarded.
+     *
+     * @param dst     The buffer into which the datagram is to be transferred
+     * @param timeout The maximum time to wait, or {@code 0} to wait indefinitely
+     * @param unit    The time unit of the {@code timeout} argument
+     * @return The datagram's source address
+     *
+     * @throws ShutdownChannelGroupException If the channel group has terminated
+     * @throws InterruptedByTimeoutException If a timeout is specified and the timeout elapses before a datagram is received
+     * @throws ClosedChannelException        If this channel is closed
+     * @throws IOException                   If some other I/O error occurs
+     */
+    public SocketAddress receive(ByteBuffer dst, long timeout, TimeUnit unit) throws IOException, SuspendExecution {
+        final long deadline = SelectorChannelGroup.deadline(timeout, unit);
+        for (;;) {
+            final SocketAddress source = dc.receive(dst);
+            if (source != null)
+                return source;
+            registration.await(SelectionKey.OP_READ, deadline);
+        }
+    }
+
+    /**
+     * Receives a datagram via this channel, blocking until one is available.
+     *
+     * @see #receive(ByteBuffer, long, TimeUnit)
+     */
+    @Suspendable
+    public SocketAddress receive(ByteBuffer dst) throws IOException {
+        try {
+            return receive(dst, 0L, TimeUnit.MILLISECONDS);
+        } catch (SuspendExecution e) {
+            throw new AssertionError();
+        }
+    }
+
+    /**
+     * Receives as many datagrams as are available, up to the number of given buffers, blocking only until the first arrives.
+     *
+     * <p>
+     * The {@code i}th datagram is transferred into {@code dsts[i]}, as by {@link #receive(ByteBuffer, long, TimeUnit) receive},
+     * and its source address is stored in {@code sources[i]}.
+     *
+     * @param dsts    The buffers into which the datagrams are to be transferred, one datagram per buffer
+     * @param sources An array at least as long as {@code dsts} to receive the datagrams' source addresses, or {@code null}
+     * @param timeout The maximum time to wait for the first datagram, or {@code 0} to wait indefinitely
+     * @param unit    The time unit of the {@code timeout} argument
+     * @return The number of datagrams received; at least one
+     *
+     * @throws InterruptedByTimeoutException If a timeout is specified and the timeout elapses before a datagram is received
+     * @throws IOException                   If an I/O error occurs; datagrams received by this call before the error are lost
+     */
+    public int receive(ByteBuffer[] dsts, SocketAddress[] sources, long timeout, TimeUnit unit) throws IOException, SuspendExecution {
+        if (dsts.length == 0)
+            throw new IllegalArgumentException("No buffers");
+        final long deadline = SelectorChannelGroup.deadline(timeout, unit);
+        for (;;) {
+            int n = 0;
+            for (SocketAddress source; n < dsts.length && (source = dc.receive(dsts[n])) != null; n++) {
+                if (sources != null)
+                    sources[n] = source;
+            }
+            if (n > 0)
+                return n;
+            registration.await(SelectionKey.OP_READ, deadline);
+        }
+    }
+
+    /**
+     * Receives as many datagrams as are available, up to the length of {@code dsts}, into buffers {@link ByteBufferPool#acquire(int) acquired}
+     * from the given pool, blocking only until the first arrives.
+     *
+     * <p>
+     * The {@code i}th datagram is stored in a new pooled buffer in {@code dsts[i]}, flipped and ready to be read, and its source
+     * address is stored in {@code sources[i]}. The buffers must be {@link ByteBufferPool#release(ByteBuffer) released} to the pool
+     * once they are no longer used.
+     *
+     * @param pool            The pool from which to acquire the buffers
+     * @param maxDatagramSize The size of the acquired buffers; the part of a datagram that does not fit is discarded
+     * @param dsts            The array in which to store the buffers, one datagram per buffer
+     * @param sources         An array at least as long as {@code dsts} to receive the datagrams' source addresses, or {@code null}
+     * @param timeout         The maximum time to wait for the first datagram, or {@code 0} to wait indefinitely
+     * @param unit            The time unit of the {@code timeout} argument
+     * @return The number of datagrams received; at least one
+     *
+     * @throws InterruptedByTimeoutException If a timeout is specified and the timeout elapses before a datagram is received
+     * @throws IOException                   If an I/O error occurs; datagrams received by this call before the error are lost
+     */
+    public int receive(ByteBufferPool pool, int maxDatagramSize, ByteBuffer[] dsts, SocketAddress[] sources, long timeout, TimeUnit unit) throws IOException, SuspendExecution {
+        if (dsts.length == 0)
+            throw new IllegalArgumentException("No buffers");
+        final long deadline = SelectorChannelGroup.deadline(timeout, unit);
+        int n = 0;
+        ByteBuffer buf = null; // kept for the next attempt if no datagram is received into it
+        boolean done = false;
+        try {
+            for (;;) {
+                for (SocketAddress source; n < dsts.length; n++) {
+                    if (buf == null)
+                        buf = pool.acquire(maxDatagramSize);
+                    if ((source = dc.receive(buf)) == null)
+                        break;
+                    buf.flip();
+                    dsts[n] = buf;
+                    buf = null;
+                    if (sources != null)
+                        sources[n] = source;
+                }
+                if (n > 0) {
+                    done = true;
+                    return n;
+                }
+                registration.await(SelectionKey.OP_READ, deadline);
+            }
+        } finally {
+            if (buf != null)
+                pool.release(buf);
+            if (!done) {
+                for (int i = 0; i < n; i++) {
+                    pool.release(dsts[i]);
+                    dsts[i] = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends a datagram via this channel.
+     *
+     * <p>
+     * Blocks until there is room for the datagram in the socket's output buffer, and then sends the remaining bytes of the
+     * given buffer as a single datagram to the given address.
+     *
+     * @param src     The buffer containing the datagram to be sent
+     * @param target  The address to which the datagram is to be sent
+     * @param timeout The maximum time to wait, or {@code 0} to wait indefinitely
+     * @param unit    The time unit of the {@code timeout} argument
+     * @return The number of bytes sent
+     *
+     * @throws InterruptedByTimeoutException If a timeout is specified and the timeout elapses before the datagram is sent
+     * @throws ClosedChannelException        If this channel is closed
+     * @throws IOException                   If some other I/O error occurs
+     */
+    public int send(ByteBuffer src, SocketAddress target, long timeout, TimeUnit unit) throws IOException, SuspendExecution {
+        final long deadline = SelectorChannelGroup.deadline(timeout, unit);
+        for (;;) {
+            final int n = dc.send(src, target);
+            if (n != 0 || !src.hasRemaining())
+                return n;
+            registration.await(SelectionKey.OP_WRITE, deadline);
+        }
+    }
+
+    /**
+     * Sends a datagram via this channel, blocking until there is room for it in the socket's output buffer.
+     *
+     * @see #send(ByteBuffer, SocketAddress, long, TimeUnit)
+     */
+    @Suspendable
+    public int send(ByteBuffer src, SocketAddress target) throws IOException {
+        try {
+            return send(src, target, 0L, TimeUnit.MILLISECONDS);
+        } catch (SuspendExecution e) {
+            throw new AssertionError();
+        }
+    }
+
+    /**
+     * Reads a datagram from this channel, which must be {@link #connect(SocketAddress) connected}.
+     *
+     * @param dst     The buffer into which the datagram is to be transferred
+     * @param timeout The maximum time to wait, or {@code 0} to wait indefinitely
+     * @param unit    The time unit of the {@code timeout} argument
+     * @return The number of bytes read
+     *
+     * @throws NotYetConnectedException      If this channel is not connected
+     * @throws InterruptedByTimeoutException If a timeout is specified and the timeout elapses before a datagram is read
+     * @throws IOException                   If some other I/O error occurs
+     */
+    public int read(ByteBuffer dst, long timeout, TimeUnit unit) throws IOException, SuspendExecution {
+        final long deadline = SelectorChannelGroup.deadline(timeout, unit);
+        for (;;) {
+            final int n = dc.read(dst);
+            if (n != 0 || !dst.hasRemaining())
+                return n;
+            registration.await(SelectionKey.OP_READ, deadline);
+        }
+    }
+
+    /**
+     * Reads a datagram from this channel, which must be {@link #connect(SocketAddress) connected}, scattering it into the given buffers.
+     *
+     * @see #read(ByteBuffer, long, TimeUnit)
+     */
+    public long read(ByteBuffer[] dsts, int offset, int length, long timeout, TimeUnit unit) throws IOException, SuspendExecution {
+        final long deadline = SelectorChannelGroup.deadline(timeout, unit);
+        for (;;) {
+            final long n = dc.read(dsts, offset, length);
+            if (n != 0 || !hasRemaining(dsts, offset, length))
+                return n;
+            registration.await(SelectionKey.OP_READ, deadline);
+        }
+    }
+
+    /**
+     * Writes a datagram to this channel, which must be {@link #connect(SocketAddress) connected}.
+     *
+     * @param src     The buffer containing the datagram to be written
+     * @param timeout The maximum time to wait, or {@code 0} to wait indefinitely
+     * @param unit    The time unit of the {@code timeout} argument
+     * @return The number of bytes written
+     *
+     * @throws NotYetConnectedException      If this channel is not connected
+     * @throws InterruptedByTimeoutException If a timeout is specified and the timeout elapses before the datagram is written
+     * @throws IOException                   If some other I/O error occurs
+     */
+    public int write(ByteBuffer src, long timeout, TimeUnit unit) throws IOException, SuspendExecution {
+        final long deadline = SelectorChannelGroup.deadline(timeout, unit);
+        for (;;) {
+            final int n = dc.write(src);
+            if (n != 0 || !src.hasRemaining())
+                return n;
+            registration.await(SelectionKey.OP_WRITE, deadline);
+        }
+    }
+
+    /**
+     * Writes a datagram to this channel, which must be {@link #connect(SocketAddress) connected}, gathering it from the given buffers.
+     *
+     * @see #write(ByteBuffer, long, TimeUnit)
+     */
+    public long write(ByteBuffer[] srcs, int offset, int length, long timeout, TimeUnit unit) throws IOException, SuspendExecution {
+        final long deadline = SelectorChannelGroup.deadline(timeout, unit);
+        for (;;) {
+            final long n = dc.write(srcs, offset, length);
+            if (n != 0 || !hasRemaining(srcs, offset, length))
+                return n;
+            registration.await(SelectionKey.OP_WRITE, deadline);
+        }
+    }
+
+    private static boolean hasRemaining(ByteBuffer[] bufs, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (bufs[i].hasRemaining())
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    @Suspendable
+    public int read(ByteBuffer dst) throws IOException {
+        try {
+            return read(dst, 0L, TimeUnit.MILLISECONDS);
+        } catch (SuspendExecution e) {
+            throw new AssertionError();
+        }
+    }
+
+    @Override
+    @Suspendable
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+        try {
+            return read(dsts, offset, length, 0L, TimeUnit.MILLISECONDS);
+        } catch (SuspendExecution e) {
+            throw new AssertionError();
+        }
+    }
+
+    @Override
+    @Suspendable
+    public long read(ByteBuffer[] dsts) throws IOException {
+        return read(dsts, 0, dsts.length);
+    }
+
+    @Override
+    @Suspendable
+    public int write(ByteBuffer src) throws IOException {
+        try {
+            return write(src, 0L, TimeUnit.MILLISECONDS);
+        } catch (SuspendExecution e) {
+            throw new AssertionError();
+        }
+    }
+
+    @Override
+    @Suspendable
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        try {
+            return write(srcs, offset, length, 0L, TimeUnit.MILLISECONDS);
+        } catch (SuspendExecution e) {
+            throw new AssertionError();
+        }
+    }
+
+    @Override
+    @Suspendable
+    public long write(ByteBuffer[] srcs) throws IOException {
+        return write(srcs, 0, srcs.length);
+    }
+
+    /**
+     * Connects this channel's socket, so that it only receives datagrams from, and sends datagrams to, the given address.
+     * This does not block.
+     *
+     * @see DatagramChannel#connect(SocketAddress)
+     */
+    public FiberDatagramChannel connect(SocketAddress remote) throws IOException {
+        dc.connect(remote);
+        return this;
+    }
+
+    /**
+     * Disconnects this channel's socket.
+     *
+     * @see DatagramChannel#disconnect()
+     */
+    public FiberDatagramChannel disconnect() throws IOException {
+        dc.disconnect();
+        return this;
+    }
+
+    /**
+     * Tells whether or not this channel's socket is connected.
+     */
+    public boolean isConnected() {
+        return dc.isConnected();
+    }
+
+    /**
+     * Returns the remote address to which this channel's socket is connected.
+     *
+     * @return The remote address; {@code null} if the channel's socket is not connected
+     */
+    public SocketAddress getRemoteAddress() throws IOException {
+        return dc.getRemoteAddress();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return dc.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        dc.close();
+        registration.close();
+    }
+
+    @Override
+    public FiberDatagramChannel bind(SocketAddress local) throws IOException {
+        dc.bind(local);
+        return this;
+    }
+
+    @Override
+    public <T> FiberDatagramChannel setOption(SocketOption<T> name, T value) throws IOException {
+        dc.setOption(name, value);
+        return this;
+    }
+
+    @Override
+    public SocketAddress getLocalAddress() throws IOException {
+        return dc.getLocalAddress();
+    }
+
+    @Override
+    public <T> T getOption(SocketOption<T> name) throws IOException {
+        return dc.getOption(name);
+    }
+
+    @Override
+    public Set<SocketOption<?>> supportedOptions() {
+        return dc.supportedOptions();
+    }
+
+    /**
+     * Returns the IO provider that created this channel.
+     */
+    public SelectorProvider provider() {
+        return dc.provider();
+    }
+}
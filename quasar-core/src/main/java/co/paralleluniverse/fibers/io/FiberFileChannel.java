@@ -26,26 +26,64 @@ import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.spi.FileSystemProvider;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A fiber-blocking version of {@link FileChannel}.
+ * <p>
+ * Unless a channel is {@link #open(ExecutorService, Path, Set, FileAttribute[]) opened} with an executor of its own, its I/O
+ * (as well as the opening and closing of all channels) is performed by a shared pool with a fixed number of threads,
+ * set by the {@code co.paralleluniverse.fibers.io.fileThreads} system property (by default, twice the number of processors,
+ * but no fewer than 4), so that many fibers doing file I/O at once queue up rather than start ever more threads.</p>
  *
  * @author pron
  */
 public class FiberFileChannel implements SeekableByteChannel, GatheringByteChannel, ScatteringByteChannel {
-    private static final ExecutorService fiberFileThreadPool = Executors.newCachedThreadPool(
-            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("fiber-file-open-%d").build());
+    private static final int FILE_THREADS = Integer.getInteger("co.paralleluniverse.fibers.io.fileThreads",
+            Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+    private static final ExecutorService fiberFileThreadPool = newFileThreadPool(FILE_THREADS);
     private static final FileAttribute<?>[] NO_ATTRIBUTES = new FileAttribute[0];
 
     private final AsynchronousFileChannel ac;
+    private final Path path;
+    private final boolean readable;
+    private final boolean writable;
     private long position;
 
     FiberFileChannel(AsynchronousFileChannel afc) {
-        ac = afc;
+        this(afc, null, Collections.<OpenOption>emptySet());
+    }
+
+    FiberFileChannel(AsynchronousFileChannel afc, Path path, Set<? extends OpenOption> options) {
+        this.ac = afc;
+        this.path = path;
+        this.writable = options.contains(StandardOpenOption.WRITE);
+        this.readable = options.contains(StandardOpenOption.READ) || !writable; // opened for reading if neither is given
+    }
+
+    /**
+     * The pool performing blocking file-system operations, shared with {@link FiberFiles}.
+     */
+    static ExecutorService fileThreadPool() {
+        return fiberFileThreadPool;
+    }
+
+    private static ExecutorService newFileThreadPool(int nThreads) {
+        if (nThreads <= 0)
+            throw new IllegalArgumentException("co.paralleluniverse.fibers.io.fileThreads must be positive; was " + nThreads);
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(nThreads, nThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("fiber-file-%d").build());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
     }
 
     /**
@@ -169,7 +207,7 @@ public class FiberFileChannel implements SeekableByteChannel, GatheringByteChann
                 return AsynchronousFileChannel.open(path, options, ioExec, attrs);
             }
         });
-        return new FiberFileChannel(afc);
+        return new FiberFileChannel(afc, path, options);
     }
 
     /**
@@ -331,6 +369,35 @@ public class FiberFileChannel implements SeekableByteChannel, GatheringByteChann
         return r;
     }
 
+    /**
+     * Reads sequences of bytes from this channel into the given buffers, each starting at its own file position.
+     *
+     * <p>
+     * All of the reads are submitted at once, and the calling fiber blocks only once, until all of them have completed.
+     * Each read behaves as {@link #read(ByteBuffer, long) read(dsts[i], positions[i])}; a read at or beyond the end of the file
+     * transfers no bytes. This method does not modify this channel's position. </p>
+     *
+     * @param dsts      The buffers into which bytes are to be transferred
+     * @param positions The file positions at which the respective transfers are to begin; must be non-negative
+     *
+     * @return The total number of bytes read, possibly zero
+     *
+     * @throws IllegalArgumentException If the two arrays are not of the same length, or a position is negative
+     * @throws IOException              If any of the reads fails; the other reads are nevertheless completed
+     */
+    @Suspendable
+    public long read(final ByteBuffer[] dsts, final long[] positions) throws IOException {
+        if (dsts.length != positions.length)
+            throw new IllegalArgumentException("Got " + dsts.length + " buffers but " + positions.length + " positions");
+        for (long p : positions) {
+            if (p < 0)
+                throw new IllegalArgumentException("Negative position: " + p);
+        }
+        if (dsts.length == 0)
+            return 0;
+        return new BatchRead(dsts, positions).runSneaky();
+    }
+
     /**
      * Writes a sequence of bytes to this channel from the given buffer,
      * starting at the given file position.
@@ -445,7 +512,102 @@ public class FiberFileChannel implements SeekableByteChannel, GatheringByteChann
         throw new UnsupportedOperationException();
     }
 
-    public MappedByteBuffer map(FileChannel.MapMode mode, long position, long size) throws IOException {
-        throw new UnsupportedOperationException();
+    /**
+     * Maps a region of this channel's file directly into memory.
+     * <p>
+     * This method behaves like {@link FileChannel#map(FileChannel.MapMode, long, long) FileChannel.map} on a channel opened with
+     * the same {@code READ} and {@code WRITE} options as this one, except that the mapping is done on the file I/O pool, without
+     * blocking the calling thread. As with {@code FileChannel}, the mapping remains valid after this channel is closed.</p>
+     * <p>
+     * The file is mapped by reopening it by the path this channel was opened with, so if that path has since been renamed, removed or
+     * replaced, the mapped file is whichever file is found by that path now, if any.</p>
+     *
+     * @param mode     One of {@link FileChannel.MapMode#READ_ONLY READ_ONLY}, {@link FileChannel.MapMode#READ_WRITE READ_WRITE},
+     *                 or {@link FileChannel.MapMode#PRIVATE PRIVATE}
+     * @param position The position within the file at which the mapped region is to start; must be non-negative
+     * @param size     The size of the region to be mapped; must be non-negative and no greater than {@link Integer#MAX_VALUE}
+     *
+     * @return The mapped byte buffer
+     *
+     * @throws NonReadableChannelException   If this channel was not opened for reading
+     * @throws NonWritableChannelException   If {@code mode} is {@code READ_WRITE} or {@code PRIVATE} but this channel was not opened for
+     *                                       both reading and writing
+     * @throws ClosedChannelException        If this channel is closed
+     * @throws UnsupportedOperationException If this channel was not opened by one of the {@code open} methods
+     * @throws IOException                   If some other I/O error occurs
+     */
+    @Suspendable
+    public MappedByteBuffer map(final FileChannel.MapMode mode, final long position, final long size) throws IOException {
+        if (path == null)
+            throw new UnsupportedOperationException();
+        if (!isOpen())
+            throw new ClosedChannelException();
+        if (!readable)
+            throw new NonReadableChannelException();
+        final boolean write = mode != FileChannel.MapMode.READ_ONLY; // READ_WRITE and PRIVATE both require a writable channel
+        if (write && !writable)
+            throw new NonWritableChannelException();
+        return FiberAsyncIO.runBlockingIO(fiberFileThreadPool, new CheckedCallable<MappedByteBuffer, IOException>() {
+            @Override
+            public MappedByteBuffer call() throws IOException {
+                final Set<StandardOpenOption> options = write
+                        ? EnumSet.of(StandardOpenOption.READ, StandardOpenOption.WRITE)
+                        : EnumSet.of(StandardOpenOption.READ);
+                try (FileChannel fc = FileChannel.open(path, options)) {
+                    return fc.map(mode, position, size);
+                }
+            }
+        });
+    }
+
+    /**
+     * Submits all reads of a batch with a single completion handler, and completes when the last of them does.
+     */
+    private final class BatchRead extends FiberAsyncIO<Long> implements CompletionHandler<Integer, Object> {
+        private final ByteBuffer[] dsts;
+        private final long[] positions;
+        private final AtomicInteger pending;
+        private final AtomicLong bytes = new AtomicLong();
+        private volatile Throwable failure;
+
+        BatchRead(ByteBuffer[] dsts, long[] positions) {
+            this.dsts = dsts;
+            this.positions = positions;
+            this.pending = new AtomicInteger(dsts.length);
+        }
+
+        @Override
+        protected void requestAsync() {
+            for (int i = 0; i < dsts.length; i++) {
+                try {
+                    ac.read(dsts[i], positions[i], null, this);
+                } catch (RuntimeException e) {
+                    failed(e, null);
+                }
+            }
+        }
+
+        @Override
+        public void completed(Integer n, Object attachment) {
+            if (n > 0)
+                bytes.addAndGet(n);
+            done();
+        }
+
+        @Override
+        public void failed(Throwable exc, Object attachment) {
+            if (failure == null)
+                failure = exc;
+            done();
+        }
+
+        private void done() {
+            if (pending.decrementAndGet() == 0) {
+                if (failure != null)
+                    asyncFailed(failure);
+                else
+                    asyncCompleted(bytes.get());
+            }
+        }
     }
 }
@@ -0,0 +1,342 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.common.util.CheckedCallable;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.fibers.Suspendable;
+import co.paralleluniverse.strands.channels.Channel;
+import co.paralleluniverse.strands.channels.Channels;
+import co.paralleluniverse.strands.channels.DelegatingReceivePort;
+import co.paralleluniverse.strands.Timeout;
+import co.paralleluniverse.strands.channels.ReceivePort;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.nio.file.CopyOption;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileAttribute;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fiber-blocking versions of some of the {@link Files} operations.
+ * <p>
+ * The operations are performed by the same bounded thread pool that serves {@link FiberFileChannel}, while the calling fiber
+ * is parked, so that file-system operations do not block the scheduler's threads.</p>
+ *
+ * @author pron
+ */
+public final class FiberFiles {
+    /*
+     * Walks block while their consumers fall behind, so they don't run on the bounded file pool, as a few slow walks could then
+     * starve the very file operations their consumers perform.
+     */
+    private static final ExecutorService walkThreadPool = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("fiber-file-walk-%d").build());
+
+    /**
+     * @see Files#exists(Path, LinkOption...)
+     */
+    @Suspendable
+    public static boolean exists(final Path path, final LinkOption... options) throws IOException {
+        return run(new CheckedCallable<Boolean, IOException>() {
+            @Override
+            public Boolean call() {
+                return Files.exists(path, options);
+            }
+        });
+    }
+
+    /**
+     * @see Files#size(Path)
+     */
+    @Suspendable
+    public static long size(final Path path) throws IOException {
+        return run(new CheckedCallable<Long, IOException>() {
+            @Override
+            public Long call() throws IOException {
+                return Files.size(path);
+            }
+        });
+    }
+
+    /**
+     * Reads a file's attributes (the equivalent of {@code stat}).
+     *
+     * @see Files#readAttributes(Path, Class, LinkOption...)
+     */
+    @Suspendable
+    public static <A extends BasicFileAttributes> A readAttributes(final Path path, final Class<A> type, final LinkOption... options) throws IOException {
+        return run(new CheckedCallable<A, IOException>() {
+            @Override
+            public A call() throws IOException {
+                return Files.readAttributes(path, type, options);
+            }
+        });
+    }
+
+    /**
+     * @see Files#createDirectories(Path, FileAttribute...)
+     */
+    @Suspendable
+    public static Path createDirectories(final Path dir, final FileAttribute<?>... attrs) throws IOException {
+        return run(new CheckedCallable<Path, IOException>() {
+            @Override
+            public Path call() throws IOException {
+                return Files.createDirectories(dir, attrs);
+            }
+        });
+    }
+
+    /**
+     * @see Files#delete(Path)
+     */
+    @Suspendable
+    public static void delete(final Path path) throws IOException {
+        run(new CheckedCallable<Void, IOException>() {
+            @Override
+            public Void call() throws IOException {
+                Files.delete(path);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * @see Files#deleteIfExists(Path)
+     */
+    @Suspendable
+    public static boolean deleteIfExists(final Path path) throws IOException {
+        return run(new CheckedCallable<Boolean, IOException>() {
+            @Override
+            public Boolean call() throws IOException {
+                return Files.deleteIfExists(path);
+            }
+        });
+    }
+
+    /**
+     * @see Files#move(Path, Path, CopyOption...)
+     */
+    @Suspendable
+    public static Path move(final Path source, final Path target, final CopyOption... options) throws IOException {
+        return run(new CheckedCallable<Path, IOException>() {
+            @Override
+            public Path call() throws IOException {
+                return Files.move(source, target, options);
+            }
+        });
+    }
+
+    /**
+     * @see Files#copy(Path, Path, CopyOption...)
+     */
+    @Suspendable
+    public static Path copy(final Path source, final Path target, final CopyOption... options) throws IOException {
+        return run(new CheckedCallable<Path, IOException>() {
+            @Override
+            public Path call() throws IOException {
+                return Files.copy(source, target, options);
+            }
+        });
+    }
+
+    /**
+     * @see Files#readAllBytes(Path)
+     */
+    @Suspendable
+    public static byte[] readAllBytes(final Path path) throws IOException {
+        return run(new CheckedCallable<byte[], IOException>() {
+            @Override
+            public byte[] call() throws IOException {
+                return Files.readAllBytes(path);
+            }
+        });
+    }
+
+    /**
+     * @see Files#write(Path, byte[], OpenOption...)
+     */
+    @Suspendable
+    public static Path write(final Path path, final byte[] bytes, final OpenOption... options) throws IOException {
+        return run(new CheckedCallable<Path, IOException>() {
+            @Override
+            public Path call() throws IOException {
+                return Files.write(path, bytes, options);
+            }
+        });
+    }
+
+    /**
+     * Returns the entries of a directory.
+     * Unlike {@link Files#list(Path)}, the entries are all read before this method returns.
+     *
+     * @param dir the directory
+     * @return the directory's entries
+     */
+    @Suspendable
+    public static List<Path> list(final Path dir) throws IOException {
+        return run(new CheckedCallable<List<Path>, IOException>() {
+            @Override
+            public List<Path> call() throws IOException {
+                final List<Path> entries = new ArrayList<>();
+                try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+                    for (Path p : ds)
+                        entries.add(p);
+                }
+                return entries;
+            }
+        });
+    }
+
+    /**
+     * Walks a file tree, streaming its paths into the returned port as they are found.
+     * <p>
+     * Paths are received in the same order as from {@link Files#walk(Path, int, FileVisitOption...)}: every directory before its entries,
+     * starting with {@code start}. Each walk is performed by a thread of its own (taken from a cached pool, separate from the one
+     * performing file I/O), which waits when the port's buffer is full. The port is closed once the walk is done; if the walk fails,
+     * {@code receive} throws a {@link co.paralleluniverse.strands.channels.ProducerException ProducerException} whose cause is the
+     * {@link IOException}. Closing the port stops the walk, and discards the paths found but not yet received.</p>
+     *
+     * @param start      the starting file
+     * @param maxDepth   the maximum number of directory levels to visit
+     * @param bufferSize the number of paths found but not yet received at which the walk pauses
+     * @param options    options to configure the traversal
+     * @return a port receiving the paths
+     */
+    public static ReceivePort<Path> walk(final Path start, final int maxDepth, int bufferSize, FileVisitOption... options) {
+        if (maxDepth < 0)
+            throw new IllegalArgumentException("maxDepth is negative");
+        final Channel<Path> ch = Channels.newChannel(bufferSize, Channels.OverflowPolicy.BLOCK, true, true);
+        final WalkPort port = new WalkPort(ch);
+        final EnumSet<FileVisitOption> opts = EnumSet.noneOf(FileVisitOption.class);
+        for (FileVisitOption o : options)
+            opts.add(o);
+        walkThreadPool.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Files.walkFileTree(start, opts, maxDepth, new SimpleFileVisitor<Path>() {
+                        @Override
+                        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                            return port.found(dir);
+                        }
+
+                        @Override
+                        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                            return port.found(file);
+                        }
+                    });
+                    ch.close();
+                } catch (IOException | RuntimeException e) {
+                    ch.close(e);
+                }
+            }
+        });
+        return port;
+    }
+
+    /**
+     * Walks a file tree.
+     * Same as {@link #walk(Path, int, int, FileVisitOption...) walk(start, Integer.MAX_VALUE, 256, options)}.
+     */
+    public static ReceivePort<Path> walk(Path start, FileVisitOption... options) {
+        return walk(start, Integer.MAX_VALUE, 256, options);
+    }
+
+    /**
+     * The port returned by {@code walk}, which stops the walk when closed.
+     */
+    private static final class WalkPort extends DelegatingReceivePort<Path> {
+        private final Channel<Path> ch;
+        private volatile boolean cancelled;
+
+        WalkPort(Channel<Path> ch) {
+            super(ch);
+            this.ch = ch;
+        }
+
+        /**
+         * Called by the walking thread.
+         */
+        FileVisitResult found(Path path) {
+            if (cancelled)
+                return FileVisitResult.TERMINATE;
+            try {
+                ch.send(path); // blocks the thread while the buffer is full; returns at once if the port is closed
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return FileVisitResult.TERMINATE;
+            } catch (SuspendExecution e) {
+                throw new AssertionError(e);
+            }
+            return cancelled ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public Path receive() throws SuspendExecution, InterruptedException {
+            return cancelled ? null : super.receive();
+        }
+
+        @Override
+        public Path receive(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException {
+            return cancelled ? null : super.receive(timeout, unit);
+        }
+
+        @Override
+        public Path receive(Timeout timeout) throws SuspendExecution, InterruptedException {
+            return cancelled ? null : super.receive(timeout);
+        }
+
+        @Override
+        public Path tryReceive() {
+            return cancelled ? null : super.tryReceive();
+        }
+
+        @Override
+        public boolean isClosed() {
+            return cancelled || super.isClosed();
+        }
+
+        @Override
+        public void close() {
+            cancelled = true;
+            ch.close();
+        }
+    }
+
+    @Suspendable
+    private static <V> V run(CheckedCallable<V, IOException> callable) throws IOException {
+        return FiberAsyncIO.runBlockingIO(pool(), callable);
+    }
+
+    private static ExecutorService pool() {
+        return FiberFileChannel.fileThreadPool();
+    }
+
+    private FiberFiles() {
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Splits a byte stream into frames.
+ *
+ * @see FramedChannels#newReceivePort(FiberSocketChannel, FrameDecoder, int)
+ * @author pron
+ */
+@FunctionalInterface
+public interface FrameDecoder {
+    /**
+     * Decodes the next frame, if the buffer contains all of it.
+     * If it does, the buffer's position is advanced past the frame, and the frame's content is returned, preferably as a
+     * {@link ByteBuffer#slice() slice} of {@code in}, so that it is not copied. Otherwise, the buffer's position is left unchanged,
+     * and {@code null} is returned.
+     *
+     * @param in the stream's bytes, between the buffer's position and limit
+     * @return the frame's content, or {@code null} if {@code in} does not hold an entire frame
+     * @throws IOException if the stream is malformed
+     */
+    ByteBuffer decode(ByteBuffer in) throws IOException;
+}
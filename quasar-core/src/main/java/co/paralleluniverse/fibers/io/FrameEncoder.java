@@ -0,0 +1,39 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writes the headers that delimit frames in a byte stream.
+ * A frame is written as its header followed by its content, so that the content need never be copied.
+ *
+ * @see FramedChannels#newSendPort(FiberSocketChannel, FrameEncoder, int, int)
+ * @author pron
+ */
+public interface FrameEncoder {
+    /**
+     * The maximum length of a frame header.
+     */
+    int maxHeaderLength();
+
+    /**
+     * Writes the header of a frame.
+     *
+     * @param frame  the frame's content, which must not be modified
+     * @param header the buffer the header is to be written into, with at least {@link #maxHeaderLength()} bytes remaining
+     * @throws IllegalArgumentException if the frame cannot be encoded
+     */
+    void encodeHeader(ByteBuffer frame, ByteBuffer header);
+}
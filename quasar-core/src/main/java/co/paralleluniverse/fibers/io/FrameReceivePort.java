@@ -0,0 +1,103 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.channels.ProducerException;
+import co.paralleluniverse.strands.channels.ReceivePort;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.InterruptedByTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The frames read from a {@link FiberSocketChannel}.
+ * Frames are decoded straight out of the read buffer, so a frame that has been read in full is never copied; the buffer is compacted
+ * (and, if a frame does not fit, grown) only when it holds part of a frame.
+ *
+ * @author pron
+ */
+final class FrameReceivePort implements ReceivePort<ByteBuffer> {
+    private final FiberSocketChannel ch;
+    private final FrameDecoder decoder;
+    private ByteBuffer buffer; // in read mode: the bytes read and not yet decoded are between position and limit
+    private boolean eof;
+    private volatile boolean closed;
+
+    FrameReceivePort(FiberSocketChannel ch, FrameDecoder decoder, int bufferSize) {
+        this.ch = ch;
+        this.decoder = decoder;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        buffer.flip();
+    }
+
+    @Override
+    public ByteBuffer receive(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException {
+        if (closed)
+            return null;
+        final long deadline = timeout > 0 ? System.nanoTime() + unit.toNanos(timeout) : 0;
+        try {
+            for (;;) {
+                final ByteBuffer frame = decoder.decode(buffer);
+                if (frame != null)
+                    return frame;
+                if (eof) {
+                    closed = true;
+                    if (buffer.hasRemaining())
+                        throw new java.io.EOFException("Stream ended in the middle of a frame");
+                    return null;
+                }
+                long nanos = 0; // no timeout
+                if (timeout >= 0) {
+                    nanos = deadline - System.nanoTime();
+                    if (timeout == 0 || nanos <= 0)
+                        return null;
+                }
+                fill(nanos);
+            }
+        } catch (InterruptedByTimeoutException e) {
+            return null;
+        } catch (IOException e) {
+            closed = true;
+            throw new ProducerException(e);
+        }
+    }
+
+    private void fill(long nanos) throws IOException, SuspendExecution {
+        if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+            // the buffer is full and holds no entire frame
+            final ByteBuffer bigger = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+            bigger.put(buffer);
+            buffer = bigger;
+        } else
+            buffer.compact();
+        try {
+            // a timeout of 0 means none
+            if (ch.read(buffer, nanos, TimeUnit.NANOSECONDS) < 0)
+                eof = true;
+        } finally {
+            buffer.flip();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+}
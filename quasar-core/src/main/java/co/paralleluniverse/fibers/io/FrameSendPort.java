@@ -0,0 +1,116 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import co.paralleluniverse.strands.channels.Channel;
+import co.paralleluniverse.strands.channels.Channels;
+import co.paralleluniverse.strands.channels.SendPort;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes frames to a {@link FiberSocketChannel}.
+ * Frames are queued, and a writer fiber writes all those it finds waiting (up to a maximum batch size) in a single gathering write,
+ * so that under load, many small frames cost a single system call.
+ *
+ * @author pron
+ */
+final class FrameSendPort implements SendPort<ByteBuffer> {
+    private final FiberSocketChannel ch;
+    private final FrameEncoder encoder;
+    private final Channel<ByteBuffer> queue;
+    private final int maxBatch;
+
+    FrameSendPort(FiberSocketChannel ch, FrameEncoder encoder, int bufferSize, int maxBatch) {
+        if (maxBatch <= 0)
+            throw new IllegalArgumentException("maxBatch must be positive; was " + maxBatch);
+        this.ch = ch;
+        this.encoder = encoder;
+        this.maxBatch = maxBatch;
+        this.queue = Channels.newChannel(bufferSize, Channels.OverflowPolicy.BLOCK, false, true);
+        new Fiber<Void>(new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                writeLoop();
+            }
+        }).start();
+    }
+
+    @Override
+    public boolean send(ByteBuffer frame, long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException {
+        return queue.send(frame, timeout, unit);
+    }
+
+    @Override
+    public void send(ByteBuffer frame) throws SuspendExecution, InterruptedException {
+        queue.send(frame);
+    }
+
+    @Override
+    public boolean trySend(ByteBuffer frame) {
+        return queue.trySend(frame);
+    }
+
+    /**
+     * Closes the port. Frames already sent will still be written, after which the socket's output is shut down.
+     */
+    @Override
+    public void close() {
+        queue.close();
+    }
+
+    @Override
+    public void close(Throwable t) {
+        queue.close(t);
+    }
+
+    private void writeLoop() throws SuspendExecution, InterruptedException {
+        final int headerLength = encoder.maxHeaderLength();
+        final ByteBuffer headers = ByteBuffer.allocateDirect(maxBatch * headerLength);
+        final ByteBuffer[] bufs = new ByteBuffer[maxBatch * 2];
+        try {
+            for (ByteBuffer frame; (frame = queue.receive()) != null;) {
+                int n = 0;
+                headers.clear();
+                do {
+                    headers.limit(headers.position() + headerLength);
+                    final ByteBuffer header = headers.slice();
+                    encoder.encodeHeader(frame, header);
+                    header.flip();
+                    headers.position(headers.limit());
+                    bufs[n++] = header;
+                    bufs[n++] = frame;
+                } while (n < bufs.length && (frame = queue.tryReceive()) != null);
+
+                for (int offset = 0; offset < n;) {
+                    ch.write(bufs, offset, n - offset);
+                    while (offset < n && !bufs[offset].hasRemaining())
+                        bufs[offset++] = null;
+                }
+            }
+            ch.shutdownOutput();
+        } catch (IOException | RuntimeException e) {
+            // the stream is now corrupt
+            queue.close();
+            try {
+                ch.close();
+            } catch (IOException ex) {
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.strands.channels.ReceivePort;
+import co.paralleluniverse.strands.channels.SendPort;
+import java.nio.ByteBuffer;
+
+/**
+ * Exposes the frames of a framed byte stream over a {@link FiberSocketChannel} as {@link ReceivePort}s and {@link SendPort}s.
+ *
+ * @author pron
+ */
+public final class FramedChannels {
+    /**
+     * Returns a port receiving the frames read from a socket channel.
+     * <p>
+     * Frames are decoded straight out of the port's read buffer, and are not copied unless they do not fit in a single read.
+     * A received frame is therefore only valid until the next call to {@code receive}, and must be copied if it is to be kept longer.
+     * For the same reason, the port must only be used by a single strand.</p>
+     * <p>
+     * The port is closed when the stream ends. If reading or decoding fails, {@code receive} throws a
+     * {@link co.paralleluniverse.strands.channels.ProducerException ProducerException} whose cause is the {@link java.io.IOException}.
+     * A receive that times out returns {@code null} without closing the port; note, however, that a channel of the default
+     * (asynchronous) {@link ChannelGroup} cannot be read from after a read has timed out.</p>
+     *
+     * @param ch         the socket channel
+     * @param decoder    splits the stream into frames
+     * @param bufferSize the initial size of the read buffer, which is grown when a frame does not fit in it
+     * @return a port receiving the channel's frames
+     */
+    public static ReceivePort<ByteBuffer> newReceivePort(FiberSocketChannel ch, FrameDecoder decoder, int bufferSize) {
+        return new FrameReceivePort(ch, decoder, bufferSize);
+    }
+
+    /**
+     * Returns a port writing the frames sent to it to a socket channel.
+     * <p>
+     * Frames are queued, and written by a dedicated fiber, which writes all the frames it finds waiting (up to {@code maxBatch}) with
+     * a single gathering write, so under load, many small frames are written with one system call. Frames must not be modified after
+     * they are sent. The port may be used by any number of strands.</p>
+     * <p>
+     * Closing the port shuts the channel's output down once all frames sent have been written.
+     * If a write fails, the channel is closed, and frames sent afterwards are discarded.</p>
+     *
+     * @param ch         the socket channel
+     * @param encoder    writes the frames' headers
+     * @param bufferSize the number of frames that may be queued before senders block
+     * @param maxBatch   the maximum number of frames written together
+     * @return a port writing frames to the channel
+     */
+    public static SendPort<ByteBuffer> newSendPort(FiberSocketChannel ch, FrameEncoder encoder, int bufferSize, int maxBatch) {
+        return new FrameSendPort(ch, encoder, bufferSize, maxBatch);
+    }
+
+    private FramedChannels() {
+    }
+}
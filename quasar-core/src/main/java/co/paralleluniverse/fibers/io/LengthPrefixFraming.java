@@ -0,0 +1,77 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Frames delimited by a 4-byte, big-endian length prefix.
+ *
+ * @author pron
+ */
+public final class LengthPrefixFraming implements FrameDecoder, FrameEncoder {
+    private static final int HEADER_LENGTH = 4;
+    private final int maxFrameLength;
+
+    /**
+     * Creates a new length-prefix framing.
+     *
+     * @param maxFrameLength the maximum length of a frame's content; longer frames are rejected
+     */
+    public LengthPrefixFraming(int maxFrameLength) {
+        if (maxFrameLength <= 0)
+            throw new IllegalArgumentException("maxFrameLength must be positive; was " + maxFrameLength);
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    public int getMaxFrameLength() {
+        return maxFrameLength;
+    }
+
+    @Override
+    public ByteBuffer decode(ByteBuffer in) throws IOException {
+        final int p = in.position();
+        if (in.limit() - p < HEADER_LENGTH)
+            return null;
+        final int length = bigEndian(in.getInt(p), in);
+        if (length < 0 || length > maxFrameLength)
+            throw new StreamCorruptedException("Frame length " + (length & 0xffffffffL) + " exceeds maximum of " + maxFrameLength);
+        if (in.limit() - p - HEADER_LENGTH < length)
+            return null;
+        final ByteBuffer frame = in.duplicate();
+        frame.position(p + HEADER_LENGTH).limit(p + HEADER_LENGTH + length);
+        in.position(p + HEADER_LENGTH + length);
+        return frame.slice();
+    }
+
+    @Override
+    public int maxHeaderLength() {
+        return HEADER_LENGTH;
+    }
+
+    @Override
+    public void encodeHeader(ByteBuffer frame, ByteBuffer header) {
+        final int length = frame.remaining();
+        if (length > maxFrameLength)
+            throw new IllegalArgumentException("Frame length " + length + " exceeds maximum of " + maxFrameLength);
+        header.putInt(bigEndian(length, header));
+    }
+
+    private static int bigEndian(int x, ByteBuffer buffer) {
+        return buffer.order() == ByteOrder.BIG_ENDIAN ? x : Integer.reverseBytes(x);
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.common.monitoring.Metrics;
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SettableFuture;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import co.paralleluniverse.strands.channels.ProducerException;
+import co.paralleluniverse.strands.channels.ReceivePort;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import static com.codahale.metrics.MetricRegistry.name;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multiplexes concurrent request/response calls over a single connection, matching responses to requests by a correlation id.
+ * <p>
+ * Requests and responses are frames made of a 4-byte, big-endian length, followed by an 8-byte correlation id and the message
+ * (the length counts both). The server may respond in any order, but must echo each request's id in its response.
+ * Requests are written with a {@link CoalescingSocketWriter}, so the requests of many strands share system calls, and responses
+ * are read by a dedicated fiber.</p>
+ * <p>
+ * If the connection fails or is closed, all pending and subsequent calls throw an {@link IOException}.
+ * The latency of calls and the number of pending calls can be reported to the {@link Metrics} registry with
+ * {@link #registerMetrics(String) registerMetrics}.</p>
+ *
+ * @author pron
+ */
+public final class MultiplexedClient {
+    private static final int HEADER_LENGTH = 4 + 8;
+    private final FiberSocketChannel ch;
+    private final int maxFrameLength;
+    private final CoalescingSocketWriter writer;
+    private final ConcurrentHashMap<Long, SettableFuture<ByteBuffer>> calls = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private volatile IOException failure;
+    private volatile MetricsMonitor monitor;
+
+    /**
+     * Creates a client over the given connection, and starts the fiber reading its responses.
+     * The channel is owned by the client from this point on, and is closed when the client is {@link #close() closed} or fails.
+     *
+     * @param ch             the connection
+     * @param maxFrameLength the maximum length of a request or a response, including its 8-byte correlation id
+     * @param bufferSize     the initial size of the response read buffer
+     */
+    public MultiplexedClient(FiberSocketChannel ch, int maxFrameLength, int bufferSize) {
+        if (maxFrameLength < 8)
+            throw new IllegalArgumentException("maxFrameLength must be at least 8; was " + maxFrameLength);
+        this.ch = ch;
+        this.maxFrameLength = maxFrameLength;
+        this.writer = new CoalescingSocketWriter(ch, 256);
+        final ReceivePort<ByteBuffer> responses = FramedChannels.newReceivePort(ch, new LengthPrefixFraming(maxFrameLength), bufferSize);
+        new Fiber<Void>(new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                readResponses(responses);
+            }
+        }).start();
+    }
+
+    private void readResponses(ReceivePort<ByteBuffer> responses) throws SuspendExecution, InterruptedException {
+        try {
+            for (ByteBuffer frame; (frame = responses.receive()) != null;) {
+                if (frame.remaining() < 8)
+                    throw new IOException("Response of " + frame.remaining() + " bytes has no correlation id");
+                final SettableFuture<ByteBuffer> call = calls.remove(frame.getLong(frame.position()));
+                if (call != null) { // otherwise, the call has timed out
+                    frame.position(frame.position() + 8);
+                    final ByteBuffer response = ByteBuffer.allocate(frame.remaining()); // the frame is only valid until the next receive
+                    response.put(frame).flip();
+                    call.set(response);
+                }
+            }
+            fail(new java.io.EOFException("Connection closed by the server"));
+        } catch (ProducerException e) {
+            fail(e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause()));
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Sends a request and waits for its response.
+     *
+     * @param request the request message, which must not be modified until this method returns
+     * @return the response message
+     * @throws IOException if the connection has failed or has been closed
+     */
+    public ByteBuffer call(ByteBuffer request) throws IOException, InterruptedException, SuspendExecution {
+        try {
+            return call0(request, -1L);
+        } catch (TimeoutException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Sends a request and waits for its response, but no longer than the given timeout.
+     * A response that arrives after the call has timed out is discarded.
+     *
+     * @param request the request message, which must not be modified until this method returns
+     * @param timeout the maximum time to wait for the response
+     * @param unit    the time unit of {@code timeout}
+     * @return the response message
+     * @throws TimeoutException if the response has not arrived in time
+     * @throws IOException      if the connection has failed or has been closed
+     */
+    public ByteBuffer call(ByteBuffer request, long timeout, TimeUnit unit) throws IOException, InterruptedException, TimeoutException, SuspendExecution {
+        return call0(request, Math.max(0L, unit.toNanos(timeout)));
+    }
+
+    private ByteBuffer call0(ByteBuffer request, long timeoutNanos) throws IOException, InterruptedException, TimeoutException, SuspendExecution {
+        if (8 + request.remaining() > maxFrameLength)
+            throw new IllegalArgumentException("Request length " + request.remaining() + " exceeds maximum of " + (maxFrameLength - 8));
+        final long start = System.nanoTime();
+        final long id = nextId.incrementAndGet();
+        final SettableFuture<ByteBuffer> call = new SettableFuture<>();
+        calls.put(id, call);
+        boolean done = false;
+        try {
+            if (failure != null)
+                throw failed();
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            header.putInt(8 + request.remaining()).putLong(id).flip();
+            writer.write(header, request);
+            final ByteBuffer response = timeoutNanos < 0 ? call.get() : call.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            done = true;
+            final MetricsMonitor mon = monitor;
+            if (mon != null)
+                mon.latency.update(System.nanoTime() - start);
+            return response;
+        } catch (ExecutionException e) {
+            done = true;
+            throw failed();
+        } finally {
+            if (!done)
+                calls.remove(id);
+        }
+    }
+
+    private IOException failed() {
+        final IOException f = failure;
+        return new IOException(f.getMessage(), f);
+    }
+
+    private void fail(IOException e) {
+        if (failure == null)
+            failure = e;
+        try {
+            ch.close();
+        } catch (IOException ex) {
+        }
+        for (Long id : calls.keySet()) {
+            final SettableFuture<ByteBuffer> call = calls.remove(id);
+            if (call != null)
+                call.setException(failure);
+        }
+    }
+
+    /**
+     * Closes the connection. Pending calls throw an {@link IOException}.
+     */
+    public void close() {
+        fail(new ClosedChannelException());
+    }
+
+    public boolean isOpen() {
+        return failure == null;
+    }
+
+    /**
+     * The number of calls awaiting their response.
+     */
+    public int getPendingCalls() {
+        return calls.size();
+    }
+
+    /**
+     * Starts reporting this client's statistics to the {@link Metrics} registry, under {@code co.paralleluniverse.multiplexedClients.<name>}.
+     * The statistics are the latency of calls, in nanoseconds ({@code latency}), and the number of pending calls ({@code pending}).
+     *
+     * @param name the name under which the metrics are reported
+     */
+    public synchronized void registerMetrics(String name) {
+        unregisterMetrics();
+        this.monitor = new MetricsMonitor(name, this);
+    }
+
+    /**
+     * Stops reporting this client's statistics.
+     */
+    public synchronized void unregisterMetrics() {
+        if (monitor != null) {
+            monitor.unregister();
+            monitor = null;
+        }
+    }
+
+    private static final class MetricsMonitor {
+        private final String name;
+        final Histogram latency;
+
+        MetricsMonitor(String name, final MultiplexedClient client) {
+            this.name = name;
+            this.latency = Metrics.histogram(metric("latency"));
+            Metrics.register(metric("pending"), new Gauge<Integer>() {
+                @Override
+                public Integer getValue() {
+                    return client.getPendingCalls();
+                }
+            });
+        }
+
+        private String metric(String metricName) {
+            return name("co.paralleluniverse", "multiplexedClients", name, metricName);
+        }
+
+        void unregister() {
+            for (String m : new String[]{"latency", "pending"})
+                Metrics.remove(metric(m));
+        }
+    }
+}
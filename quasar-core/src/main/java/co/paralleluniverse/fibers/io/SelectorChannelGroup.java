@@ -0,0 +1,301 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Strand;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ProtocolFamily;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.InterruptedByTimeoutException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.ShutdownChannelGroupException;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Uses non-blocking {@link SocketChannel}s and {@link Selector}s (epoll, on Linux) to implement a {@link ChannelGroup}.
+ * <p>
+ * Every I/O operation is first attempted right away, on the calling strand. Only if the channel is not ready does the strand block,
+ * and then it is unparked directly by the poller thread that owns the channel's selector, once the channel becomes ready.</p>
+ *
+ * @author pron
+ */
+final class SelectorChannelGroup extends ChannelGroup {
+    private final Poller[] pollers;
+    private final AtomicInteger next = new AtomicInteger();
+
+    SelectorChannelGroup(int nPollers, ThreadFactory threadFactory) throws IOException {
+        if (nPollers <= 0)
+            throw new IllegalArgumentException("nPollers must be positive; was " + nPollers);
+        this.pollers = new Poller[nPollers];
+        for (int i = 0; i < nPollers; i++)
+            pollers[i] = new Poller(Selector.open());
+        for (Poller p : pollers)
+            threadFactory.newThread(p).start();
+    }
+
+    @Override
+    FiberSocketChannel newFiberSocketChannel() throws IOException {
+        return newFiberSocketChannel(SocketChannel.open());
+    }
+
+    FiberSocketChannel newFiberSocketChannel(SocketChannel channel) throws IOException {
+        return new SelectorFiberSocketChannel(channel, nextPoller(channel));
+    }
+
+    @Override
+    FiberServerSocketChannel newFiberServerSocketChannel() throws IOException {
+        final ServerSocketChannel channel = ServerSocketChannel.open();
+        return new SelectorFiberServerSocketChannel(this, channel, nextPoller(channel));
+    }
+
+    @Override
+    FiberDatagramChannel newFiberDatagramChannel(ProtocolFamily family) throws IOException {
+        final DatagramChannel channel = family != null ? DatagramChannel.open(family) : DatagramChannel.open();
+        return new FiberDatagramChannel(channel, nextPoller(channel));
+    }
+
+    private Poller nextPoller(SelectableChannel channel) throws IOException {
+        final Poller p = pollers[(next.getAndIncrement() & Integer.MAX_VALUE) % pollers.length];
+        if (p.shutdown) {
+            channel.close();
+            throw new ShutdownChannelGroupException();
+        }
+        return p;
+    }
+
+    @Override
+    public void shutdown() {
+        for (Poller p : pollers)
+            p.shutdown();
+    }
+
+    /**
+     * The deadline, in terms of {@link System#nanoTime()}, of an operation with the given timeout; {@code 0} for no timeout.
+     */
+    static long deadline(long timeout, TimeUnit unit) {
+        if (timeout <= 0 || unit == null)
+            return 0L;
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        return deadline == 0L ? 1L : deadline;
+    }
+
+    /**
+     * Runs a selector, and wakes up the strands waiting on the readiness of its channels.
+     */
+    static final class Poller implements Runnable {
+        private final Selector selector;
+        private final Queue<Registration> pending = new ConcurrentLinkedQueue<>();
+        volatile boolean shutdown;
+
+        Poller(Selector selector) {
+            this.selector = selector;
+        }
+
+        /**
+         * Asks to be notified when the registered channel is ready for the given operation.
+         * Requests made while the poller has not yet picked up a previous one are merged into it.
+         */
+        void request(Registration r, int op) {
+            if ((int) Registration.REQUESTED.getAndBitwiseOr(r, op) == 0) {
+                pending.add(r);
+                selector.wakeup();
+            }
+        }
+
+        void wakeup() {
+            selector.wakeup();
+        }
+
+        void shutdown() {
+            shutdown = true;
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!shutdown) {
+                    for (Registration r; (r = pending.poll()) != null;)
+                        r.register(selector);
+                    selector.select();
+                    for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext();) {
+                        final SelectionKey key = it.next();
+                        it.remove();
+                        ((Registration) key.attachment()).ready(key);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                shutdown = true;
+                for (SelectionKey key : selector.keys())
+                    ((Registration) key.attachment()).abort();
+                for (Registration r; (r = pending.poll()) != null;)
+                    r.abort();
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+    }
+
+    /**
+     * A channel's registration with its poller, on which the channel's reader and writer (at most one of each) wait for it to become ready.
+     */
+    static final class Registration {
+        private final SelectableChannel channel;
+        private final Poller poller;
+        private SelectionKey key; // accessed by the poller only
+        private volatile int requested;
+        private volatile Strand reader;
+        private volatile Strand writer;
+        private volatile boolean readReady;
+        private volatile boolean writeReady;
+        private volatile boolean closed;
+
+        Registration(SelectableChannel channel, Poller poller) throws IOException {
+            channel.configureBlocking(false);
+            this.channel = channel;
+            this.poller = poller;
+        }
+
+        /**
+         * Blocks the current strand until the channel is (probably) ready for the given operation.
+         * The operation must then be attempted again, as readiness is only a hint.
+         *
+         * @param op       one of the {@link SelectionKey} operations
+         * @param deadline the deadline returned by {@link SelectorChannelGroup#deadline(long, TimeUnit) deadline}, or {@code 0} for none
+         */
+        void await(int op, long deadline) throws IOException, SuspendExecution {
+            if (poller.shutdown)
+                throw new ShutdownChannelGroupException();
+            final boolean read = isRead(op);
+            final Strand current = Strand.currentStrand();
+            if (read) {
+                readReady = false;
+                reader = current;
+            } else {
+                writeReady = false;
+                writer = current;
+            }
+            try {
+                poller.request(this, op);
+                while (!(read ? readReady : writeReady)) {
+                    if (closed && poller.shutdown)
+                        throw new ShutdownChannelGroupException();
+                    if (closed)
+                        throw new AsynchronousCloseException();
+                    if (Strand.interrupted())
+                        throw new InterruptedIOException();
+                    if (deadline == 0L)
+                        Strand.park(this);
+                    else {
+                        final long left = deadline - System.nanoTime();
+                        if (left <= 0)
+                            throw new InterruptedByTimeoutException();
+                        Strand.parkNanos(this, left);
+                    }
+                }
+            } finally {
+                if (read)
+                    reader = null;
+                else
+                    writer = null;
+            }
+        }
+
+        /**
+         * Called when the channel is closed; wakes up its waiting strands and has the poller discard the channel's key.
+         */
+        void close() {
+            closed = true;
+            wake(reader);
+            wake(writer);
+            poller.wakeup(); // a registered channel's socket is only released once its key is deregistered by the selector
+        }
+
+        void abort() {
+            closed = true;
+            wake(reader);
+            wake(writer);
+        }
+
+        private void register(Selector selector) {
+            final int ops = (int) REQUESTED.getAndSet(this, 0);
+            try {
+                if (key == null)
+                    key = channel.register(selector, ops, this);
+                else
+                    key.interestOps(key.interestOps() | ops);
+            } catch (ClosedChannelException | CancelledKeyException e) {
+                abort();
+            }
+        }
+
+        private void ready(SelectionKey key) {
+            final int ready;
+            try {
+                ready = key.readyOps();
+                key.interestOps(key.interestOps() & ~ready); // until asked again
+            } catch (CancelledKeyException e) {
+                abort();
+                return;
+            }
+            if (isRead(ready)) {
+                readReady = true;
+                wake(reader);
+            }
+            if ((ready & (SelectionKey.OP_WRITE | SelectionKey.OP_CONNECT)) != 0) {
+                writeReady = true;
+                wake(writer);
+            }
+        }
+
+        private void wake(Strand s) {
+            if (s != null)
+                s.unpark(this);
+        }
+
+        private static boolean isRead(int ops) {
+            return (ops & (SelectionKey.OP_READ | SelectionKey.OP_ACCEPT)) != 0;
+        }
+
+        static final VarHandle REQUESTED;
+
+        static {
+            try {
+                REQUESTED = MethodHandles.lookup().findVarHandle(Registration.class, "requested", int.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+    }
+}
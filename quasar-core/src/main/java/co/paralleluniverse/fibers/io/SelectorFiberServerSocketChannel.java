@@ -0,0 +1,101 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.Set;
+
+/**
+ * Uses a non-blocking {@link ServerSocketChannel} polled by a {@link SelectorChannelGroup} to implement a fiber-blocking version of {@link ServerSocketChannel}.
+ * Accepted channels are spread among the group's pollers.
+ *
+ * @author pron
+ */
+final class SelectorFiberServerSocketChannel extends FiberServerSocketChannel {
+    private final SelectorChannelGroup group;
+    private final ServerSocketChannel ssc;
+    private final SelectorChannelGroup.Registration registration;
+
+    SelectorFiberServerSocketChannel(SelectorChannelGroup group, ServerSocketChannel ssc, SelectorChannelGroup.Poller poller) throws IOException {
+        this.group = group;
+        this.ssc = ssc;
+        this.registration = new SelectorChannelGroup.Registration(ssc, poller);
+    }
+
+    @Override
+    public SelectorProvider provider() {
+        return ssc.provider();
+    }
+
+    @Override
+    public FiberSocketChannel accept() throws IOException, SuspendExecution {
+        for (;;) {
+            final SocketChannel sc = ssc.accept();
+            if (sc != null)
+                return group.newFiberSocketChannel(sc);
+            registration.await(SelectionKey.OP_ACCEPT, 0L);
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return ssc.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        ssc.close();
+        registration.close();
+    }
+
+    @Override
+    public SelectorFiberServerSocketChannel bind(SocketAddress local) throws IOException {
+        ssc.bind(local);
+        return this;
+    }
+
+    @Override
+    public SelectorFiberServerSocketChannel bind(SocketAddress local, int backlog) throws IOException {
+        ssc.bind(local, backlog);
+        return this;
+    }
+
+    @Override
+    public <T> SelectorFiberServerSocketChannel setOption(SocketOption<T> name, T value) throws IOException {
+        ssc.setOption(name, value);
+        return this;
+    }
+
+    @Override
+    public SocketAddress getLocalAddress() throws IOException {
+        return ssc.getLocalAddress();
+    }
+
+    @Override
+    public <T> T getOption(SocketOption<T> name) throws IOException {
+        return ssc.getOption(name);
+    }
+
+    @Override
+    public Set<SocketOption<?>> supportedOptions() {
+        return ssc.supportedOptions();
+    }
+}
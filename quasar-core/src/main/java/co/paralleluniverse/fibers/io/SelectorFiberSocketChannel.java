@@ -0,0 +1,264 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.fibers.Suspendable;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.nio.ByteBuffer;
+import java.nio.channels.InterruptedByTimeoutException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Uses a non-blocking {@link SocketChannel} polled by a {@link SelectorChannelGroup} to implement a fiber-blocking version of {@link SocketChannel}.
+ *
+ * @author pron
+ */
+final class SelectorFiberSocketChannel extends FiberSocketChannel {
+    private final SocketChannel sc;
+    private final SelectorChannelGroup.Registration registration;
+
+    SelectorFiberSocketChannel(SocketChannel sc, SelectorChannelGroup.Poller poller) throws IOException {
+        this.sc = sc;
+        this.registration = new SelectorChannelGroup.Registration(sc, poller);
+    }
+
+    @Override
+    public SelectorProvider provider() {
+        return sc.provider();
+    }
+
+    @Override
+    public void connect(SocketAddress remote) throws IOException, SuspendExecution {
+        connect0(remote, 0L);
+    }
+
+    @Override
+    public void connect(SocketAddress remote, long timeout, TimeUnit timeUnit) throws IOException, SuspendExecution, TimeoutException {
+        try {
+            connect0(remote, SelectorChannelGroup.deadline(timeout, timeUnit));
+        } catch (InterruptedByTimeoutException e) {
+            throw new TimeoutException();
+        }
+    }
+
+    private void connect0(SocketAddress remote, long deadline) throws IOException, SuspendExecution {
+        try {
+            if (!sc.connect(remote)) {
+                do {
+                    registration.await(SelectionKey.OP_CONNECT, deadline);
+                } while (!sc.finishConnect());
+            }
+        } catch (InterruptedByTimeoutException e) {
+            throw e; // a timeout doesn't close the channel
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length, long timeout, TimeUnit unit) throws IOException, SuspendExecution {
+        final long deadline = SelectorChannelGroup.deadline(timeout, unit);
+        for (;;) {
+            final long n = sc.read(dsts, offset, length);
+            if (n != 0 || !hasRemaining(dsts, offset, length))
+                return n;
+            registration.await(SelectionKey.OP_READ, deadline);
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long timeout, TimeUnit unit) throws IOException, SuspendExecution {
+        if (!dst.isDirect() && dst.hasRemaining()) {
+            // read into a pooled direct buffer rather than have the JDK use its per-thread cache
+            final ByteBufferPool pool = ByteBufferPool.getDefault();
+            final ByteBuffer buf = pool.acquire(Math.min(dst.remaining(), pool.getMaxPooledSize()));
+            try {
+                final int n = read(buf, timeout, unit);
+                buf.flip();
+                dst.put(buf);
+                return n;
+            } finally {
+                pool.release(buf);
+            }
+        }
+        final long deadline = SelectorChannelGroup.deadline(timeout, unit);
+        for (;;) {
+            final int n = sc.read(dst);
+            if (n != 0 || !dst.hasRemaining())
+                return n;
+            registration.await(SelectionKey.OP_READ, deadline);
+        }
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length, long timeout, TimeUnit unit) throws IOException, SuspendExecution {
+        final long deadline = SelectorChannelGroup.deadline(timeout, unit);
+        for (;;) {
+            final long n = sc.write(srcs, offset, length);
+            if (n != 0 || !hasRemaining(srcs, offset, length))
+                return n;
+            registration.await(SelectionKey.OP_WRITE, deadline);
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src, long timeout, TimeUnit unit) throws IOException, SuspendExecution {
+        if (!src.isDirect() && src.hasRemaining()) {
+            // write from a pooled direct buffer rather than have the JDK use its per-thread cache
+            final ByteBufferPool pool = ByteBufferPool.getDefault();
+            final ByteBuffer buf = pool.acquire(Math.min(src.remaining(), pool.getMaxPooledSize()));
+            try {
+                final ByteBuffer chunk = src.duplicate();
+                chunk.limit(chunk.position() + buf.remaining());
+                buf.put(chunk).flip();
+                final int n = write(buf, timeout, unit);
+                src.position(src.position() + n);
+                return n;
+            } finally {
+                pool.release(buf);
+            }
+        }
+        final long deadline = SelectorChannelGroup.deadline(timeout, unit);
+        for (;;) {
+            final int n = sc.write(src);
+            if (n != 0 || !src.hasRemaining())
+                return n;
+            registration.await(SelectionKey.OP_WRITE, deadline);
+        }
+    }
+
+    private static boolean hasRemaining(ByteBuffer[] bufs, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (bufs[i].hasRemaining())
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    @Suspendable
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+        try {
+            return read(dsts, offset, length, 0L, TimeUnit.MILLISECONDS);
+        } catch (SuspendExecution e) {
+            throw new AssertionError();
+        }
+    }
+
+    @Override
+    @Suspendable
+    public long read(ByteBuffer[] dsts) throws IOException {
+        return read(dsts, 0, dsts.length);
+    }
+
+    @Override
+    @Suspendable
+    public int read(ByteBuffer dst) throws IOException {
+        try {
+            return read(dst, 0L, TimeUnit.MILLISECONDS);
+        } catch (SuspendExecution e) {
+            throw new AssertionError();
+        }
+    }
+
+    @Override
+    @Suspendable
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        try {
+            return write(srcs, offset, length, 0L, TimeUnit.MILLISECONDS);
+        } catch (SuspendExecution e) {
+            throw new AssertionError();
+        }
+    }
+
+    @Override
+    @Suspendable
+    public long write(ByteBuffer[] srcs) throws IOException {
+        return write(srcs, 0, srcs.length);
+    }
+
+    @Override
+    @Suspendable
+    public int write(ByteBuffer src) throws IOException {
+        try {
+            return write(src, 0L, TimeUnit.MILLISECONDS);
+        } catch (SuspendExecution e) {
+            throw new AssertionError();
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return sc.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        sc.close();
+        registration.close();
+    }
+
+    @Override
+    public SelectorFiberSocketChannel shutdownInput() throws IOException {
+        sc.shutdownInput();
+        return this;
+    }
+
+    @Override
+    public SelectorFiberSocketChannel shutdownOutput() throws IOException {
+        sc.shutdownOutput();
+        return this;
+    }
+
+    @Override
+    public SocketAddress getRemoteAddress() throws IOException {
+        return sc.getRemoteAddress();
+    }
+
+    @Override
+    public SelectorFiberSocketChannel bind(SocketAddress local) throws IOException {
+        sc.bind(local);
+        return this;
+    }
+
+    @Override
+    public <T> SelectorFiberSocketChannel setOption(SocketOption<T> name, T value) throws IOException {
+        sc.setOption(name, value);
+        return this;
+    }
+
+    @Override
+    public SocketAddress getLocalAddress() throws IOException {
+        return sc.getLocalAddress();
+    }
+
+    @Override
+    public <T> T getOption(SocketOption<T> name) throws IOException {
+        return sc.getOption(name);
+    }
+
+    @Override
+    public Set<SocketOption<?>> supportedOptions() {
+        return sc.supportedOptions();
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.FiberScheduler;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Strand;
+import co.paralleluniverse.strands.SuspendableAction1;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.Channel;
+import java.nio.channels.ShutdownChannelGroupException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A server socket made of several listening sockets (<i>shards</i>) bound to the same address with {@link StandardSocketOptions#SO_REUSEPORT SO_REUSEPORT},
+ * each accepting connections in a fiber of its own, so that the kernel spreads incoming connections among them.
+ * <p>
+ * Every accepted connection is passed to a handler, run in a new fiber. The fibers of each shard (its accept fiber as well as its
+ * connections' fibers) run in one of a number of scheduler <i>partitions</i>: when there are at least as many shards as partitions,
+ * shard {@code i} uses partition {@code i % partitions}; otherwise each shard hands its connections in turn to the partitions
+ * {@code j} for which {@code j % shards == i}.</p>
+ * <p>
+ * For accepts to scale with the number of shards, the shards' I/O must not all be served by a single thread: with a
+ * {@link ChannelGroup#withSelectors(int, java.util.concurrent.ThreadFactory) selector group}, the shards are spread among the group's pollers.</p>
+ * <p>
+ * Where {@code SO_REUSEPORT} is not supported, a single listening socket is used, whose connections are handed to all partitions in turn.</p>
+ * <p>
+ * A shard whose accepts fail (e.g. when the process runs out of file descriptors) backs off, waiting longer after every consecutive
+ * failure, and reports its failures at most every few seconds.</p>
+ *
+ * @author pron
+ */
+public final class ShardedFiberServerSocketChannel implements Channel {
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long WARNING_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private final FiberServerSocketChannel[] shards;
+    private final AtomicLongArray accepted;
+    private volatile boolean closed;
+
+    /**
+     * Binds a sharded server socket, and starts accepting connections.
+     *
+     * @param group      the group in which the listening sockets, and the accepted connections, are opened; {@code null} for the default group
+     * @param local      the address to bind the sockets to; if its port is {@code 0}, all shards are bound to the port chosen for the first
+     * @param backlog    the maximum number of pending connections of each shard; {@code 0} for the default
+     * @param shards     the number of listening sockets
+     * @param partitions the schedulers running the shards' fibers; {@code null} for the current fiber's scheduler (or the default scheduler)
+     * @param handler    called, each time in a new fiber, with every accepted connection, which it must close when done
+     * @return the sharded server socket
+     * @throws IOException If binding fails
+     */
+    public static ShardedFiberServerSocketChannel bind(ChannelGroup group, SocketAddress local, int backlog, int shards,
+            FiberScheduler[] partitions, SuspendableAction1<FiberSocketChannel> handler) throws IOException, SuspendExecution {
+        if (shards <= 0)
+            throw new IllegalArgumentException("shards must be positive; was " + shards);
+        if (partitions != null && partitions.length == 0)
+            throw new IllegalArgumentException("No partitions");
+        final List<FiberServerSocketChannel> sockets = new ArrayList<>(shards);
+        try {
+            sockets.add(FiberServerSocketChannel.open(group));
+            final boolean reusePort = sockets.get(0).supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT);
+            for (int i = 1; reusePort && i < shards; i++)
+                sockets.add(FiberServerSocketChannel.open(group));
+            for (int i = 0; i < sockets.size(); i++) {
+                final FiberServerSocketChannel ssc = sockets.get(i);
+                if (reusePort)
+                    ssc.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+                ssc.bind(i == 0 ? local : sockets.get(0).getLocalAddress(), backlog);
+            }
+        } catch (IOException | RuntimeException e) {
+            for (FiberServerSocketChannel ssc : sockets)
+                closeQuietly(ssc);
+            throw e;
+        }
+        return new ShardedFiberServerSocketChannel(sockets.toArray(new FiberServerSocketChannel[sockets.size()]), partitions, handler);
+    }
+
+    private ShardedFiberServerSocketChannel(FiberServerSocketChannel[] shards, FiberScheduler[] partitions, SuspendableAction1<FiberSocketChannel> handler) {
+        this.shards = shards;
+        this.accepted = new AtomicLongArray(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            final int shard = i;
+            final FiberScheduler[] ps = partitionsOf(shard, shards.length, partitions);
+            final SuspendableRunnable acceptLoop = new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    accept(shard, ps, handler);
+                }
+            };
+            (ps != null ? new Fiber<Void>(ps[0], acceptLoop) : new Fiber<Void>(acceptLoop)).start();
+        }
+    }
+
+    private static FiberScheduler[] partitionsOf(int shard, int shards, FiberScheduler[] partitions) {
+        if (partitions == null)
+            return null;
+        if (partitions.length <= shards)
+            return new FiberScheduler[]{partitions[shard % partitions.length]};
+        final List<FiberScheduler> ps = new ArrayList<>();
+        for (int j = shard; j < partitions.length; j += shards)
+            ps.add(partitions[j]);
+        return ps.toArray(new FiberScheduler[ps.size()]);
+    }
+
+    private void accept(int shard, FiberScheduler[] partitions, final SuspendableAction1<FiberSocketChannel> handler) throws SuspendExecution {
+        final FiberServerSocketChannel ssc = shards[shard];
+        long backoff = 0;
+        long lastWarning = System.nanoTime() - WARNING_INTERVAL_NANOS;
+        int unreported = 0; // failures since the last warning
+        for (int next = 0;;) {
+            final FiberSocketChannel ch;
+            try {
+                ch = ssc.accept();
+            } catch (ShutdownChannelGroupException e) {
+                return;
+            } catch (IOException e) {
+                if (closed || !ssc.isOpen() || e.getCause() instanceof ShutdownChannelGroupException)
+                    return;
+                final long now = System.nanoTime();
+                if (now - lastWarning >= WARNING_INTERVAL_NANOS) {
+                    System.err.println("WARNING: Accept on shard " + shard + " of " + ssc + " failed: " + e
+                            + (unreported > 0 ? " (and " + unreported + " more times since the last warning)" : ""));
+                    lastWarning = now;
+                    unreported = 0;
+                } else
+                    unreported++;
+                // the failure (e.g. EMFILE) is likely to persist for a while, so we don't retry right away
+                backoff = backoff == 0 ? MIN_BACKOFF_NANOS : Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+                try {
+                    Strand.sleep(backoff, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                continue;
+            }
+            backoff = 0;
+            accepted.incrementAndGet(shard);
+            final SuspendableRunnable connection = new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    handler.call(ch);
+                }
+            };
+            if (partitions != null) {
+                new Fiber<Void>(partitions[next], connection).start();
+                next = (next + 1) % partitions.length;
+            } else
+                new Fiber<Void>(connection).start();
+        }
+    }
+
+    /**
+     * The number of listening sockets, which is less than the number asked for if {@code SO_REUSEPORT} is not supported.
+     */
+    public int getShards() {
+        return shards.length;
+    }
+
+    /**
+     * The number of connections accepted by the given shard so far.
+     */
+    public long getAcceptedConnections(int shard) {
+        return accepted.get(shard);
+    }
+
+    public SocketAddress getLocalAddress() throws IOException {
+        return shards[0].getLocalAddress();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * Closes all listening sockets, and stops the accept fibers. Connections already accepted are left open.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        IOException ex = null;
+        for (FiberServerSocketChannel ssc : shards) {
+            try {
+                ssc.close();
+            } catch (IOException e) {
+                if (ex == null)
+                    ex = e;
+            }
+        }
+        if (ex != null)
+            throw ex;
+    }
+
+    private static void closeQuietly(FiberServerSocketChannel ssc) {
+        try {
+            ssc.close();
+        } catch (IOException e) {
+        }
+    }
+}
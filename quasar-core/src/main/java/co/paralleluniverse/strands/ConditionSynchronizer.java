@@ -89,6 +89,27 @@ public abstract class ConditionSynchronizer implements Condition {
     public void await(int iter, long timeout, TimeUnit unit) throws InterruptedException, SuspendExecution {
         awaitNanos(iter, unit.toNanos(timeout));
     }
+
+    /**
+     * Waits on behalf of the registration returned by {@link #register()}.
+     * The caller must re-examine the condition it is waiting for whenever this method returns; this lets synchronizers that wake
+     * their waiters one at a time know which of them have yet to act on a signal.
+     *
+     * @param registrationToken the token returned by {@link #register()}
+     * @param iter              the number of times the caller has already waited in its current registration
+     */
+    public void await(Object registrationToken, int iter) throws InterruptedException, SuspendExecution {
+        await(iter);
+    }
+
+    /**
+     * Waits on behalf of the registration returned by {@link #register()}, for at most the given timeout.
+     *
+     * @see #await(Object, int)
+     */
+    public void awaitNanos(Object registrationToken, int iter, long timeoutNanos) throws InterruptedException, SuspendExecution {
+        awaitNanos(iter, timeoutNanos);
+    }
     ////////////////////////////
     public static final FlightRecorder RECORDER = Debug.isDebug() ? Debug.getGlobalFlightRecorder() : null;
 
@@ -15,15 +15,30 @@ package co.paralleluniverse.strands;
 
 import co.paralleluniverse.fibers.Fiber;
 import co.paralleluniverse.fibers.FiberControl;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import co.paralleluniverse.fibers.SuspendExecution;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 
 /**
+ * A condition that any number of strands may wait on.
+ * <p>
+ * Each registration is a node in a lock-free queue of waiters, and the registration token returned by {@link #register()} is that node,
+ * so that {@link #unregister(Object) unregistering} it takes constant time. {@link #signal()} wakes a single waiter -- the first
+ * one that has not been signalled since it last examined its condition, which it does whenever
+ * {@link #await(Object, int) await(registrationToken, iter)} returns. A waiter that unregisters after having been signalled passes
+ * the signal on to the next one, as it may not have acted upon it.</p>
  *
  * @author pron
  */
 public class SimpleConditionSynchronizer extends ConditionSynchronizer implements Condition {
-    private final Queue<Strand> waiters = new ConcurrentLinkedQueue<>();
+    private static final int WAITING = 0;
+    private static final int SIGNALLED = 1;
+    private static final int CANCELLED = 2;
+    private static final int SWEEP_INTERVAL = 64;
+
+    private final Node head = new Node(null); // sentinel
+    private volatile Node tail = head;
+    private int cancellations; // racy, but it's only used to schedule sweeps
 
     public SimpleConditionSynchronizer(Object owner) {
         super(owner);
@@ -33,45 +48,196 @@ public class SimpleConditionSynchronizer extends ConditionSynchronizer implement
     public Object register() {
         final Strand currentStrand = Strand.currentStrand();
         record("register", "%s register %s", this, currentStrand);
-        waiters.add(currentStrand);
-        return null;
+        final Node node = new Node(currentStrand);
+        enqueue(node);
+        return node;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If {@code registrationToken} is {@code null}, the current strand's registration is looked up, which takes time linear in the
+     * number of waiters.</p>
+     */
     @Override
     public void unregister(Object registrationToken) {
         final Strand currentStrand = Strand.currentStrand();
         record("unregister", "%s unregister %s", this, currentStrand);
-        if (!waiters.remove(currentStrand))
+        final Node node = registrationToken != null ? (Node) registrationToken : find(currentStrand);
+        if (node == null)
+            throw new IllegalMonitorStateException();
+        final int state = node.getAndSetState(CANCELLED);
+        if (state == CANCELLED)
             throw new IllegalMonitorStateException();
+        if (state == SIGNALLED)
+            signal(); // we may be leaving without having acted upon the signal
+        unlink(node);
+    }
+
+    @Override
+    public void await(Object registrationToken, int iter) throws InterruptedException, SuspendExecution {
+        await(iter);
+        rearm(registrationToken);
+    }
+
+    @Override
+    public void awaitNanos(Object registrationToken, int iter, long timeoutNanos) throws InterruptedException, SuspendExecution {
+        awaitNanos(iter, timeoutNanos);
+        rearm(registrationToken);
     }
 
     @Override
     public void signalAll() {
-        for (Strand s : waiters) {
-            record("signalAll", "%s signalling %s", this, s);
-            Strand.unpark(s, owner);
+        Node pred = head;
+        for (Node n = head.next; n != null;) {
+            final Node next = n.next;
+            if (n.state == CANCELLED && next != null)
+                casNext(pred, n, next);
+            else {
+                if (n.state != CANCELLED) {
+                    record("signalAll", "%s signalling %s", this, n.strand);
+                    Strand.unpark(n.strand, owner);
+                }
+                pred = n;
+            }
+            n = next;
         }
     }
 
     @Override
     public void signal() {
+        Node pred = head;
+        for (Node n = head.next; n != null;) {
+            final Node next = n.next;
+            final int state = n.state;
+            if (state == WAITING && n.casState(WAITING, SIGNALLED)) {
+                record("signal", "%s signalled %s", this, n.strand);
+                Strand.unpark(n.strand, owner);
+                return;
+            }
+            if (state == CANCELLED && next != null)
+                casNext(pred, n, next);
+            else
+                pred = n;
+            n = next;
+        }
+
         /*
-         * We must wake up the first waiter that is actually parked. Otherwise, by the time the awakened waiter calls
-         * unregister(), another one may block, and we may need to wake that one.
+         * All waiters have been signalled, but some may have gone back to wait without passing a registration token to await,
+         * so we must wake up the first waiter that is actually parked. As we can't tell (atomically) if a thread is parked,
+         * threads are all woken.
          */
-        for (final Strand s : waiters) {
+        for (Node n = head.next; n != null; n = n.next) {
+            if (n.state == CANCELLED)
+                continue;
+            final Strand s = n.strand;
+            if (n.casState(WAITING, SIGNALLED)) {
+                record("signal", "%s signalled %s", this, s);
+                Strand.unpark(s, owner);
+                return;
+            }
             if (s.isFiber()) {
                 if (FiberControl.unpark((Fiber) s, owner)) {
                     record("signal", "%s signalled %s", this, s);
                     return;
                 }
             } else {
-                // TODO: We can't tell (atomically) if a thread is actually parked, so we'll wake them all up.
-                // We may consider a more complex solution, a-la AbstractQueuedSynchronizer for threads
-                // (i.e. with a wrapper node, containing the state)
                 record("signal", "%s signalling %s", this, s);
                 Strand.unpark(s, owner);
             }
         }
     }
+
+    private static void rearm(Object registrationToken) {
+        // the caller is about to re-examine its condition, so any signal it has received so far is consumed
+        if (registrationToken != null)
+            ((Node) registrationToken).casState(SIGNALLED, WAITING);
+    }
+
+    private void enqueue(Node node) {
+        for (;;) {
+            final Node t = tail;
+            final Node next = t.next;
+            if (next != null)
+                casTail(t, next);
+            else if (casNext(t, null, node)) {
+                casTail(t, node);
+                return;
+            }
+        }
+    }
+
+    private Node find(Strand strand) {
+        for (Node n = head.next; n != null; n = n.next) {
+            if (n.state != CANCELLED && Strand.equals(n.strand, strand))
+                return n;
+        }
+        return null;
+    }
+
+    /**
+     * Unlinks a cancelled node if it's first in the queue (as signalled waiters usually are); otherwise, cancelled nodes are unlinked
+     * by signalling, and by an occasional sweep.
+     * The last node is never unlinked, so as not to race with enqueuing.
+     */
+    private void unlink(Node node) {
+        final Node next = node.next;
+        if (head.next == node && next != null)
+            casNext(head, node, next);
+        else if (++cancellations % SWEEP_INTERVAL == 0)
+            sweep();
+    }
+
+    private void sweep() {
+        Node pred = head;
+        for (Node n = head.next; n != null;) {
+            final Node next = n.next;
+            if (n.state == CANCELLED && next != null)
+                casNext(pred, n, next);
+            else
+                pred = n;
+            n = next;
+        }
+    }
+
+    private static final class Node {
+        final Strand strand;
+        volatile int state;
+        volatile Node next;
+
+        Node(Strand strand) {
+            this.strand = strand;
+        }
+
+        boolean casState(int expected, int update) {
+            return STATE.compareAndSet(this, expected, update);
+        }
+
+        int getAndSetState(int update) {
+            return (int) STATE.getAndSet(this, update);
+        }
+    }
+
+    private static final VarHandle STATE;
+    private static final VarHandle NEXT;
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            MethodHandles.Lookup l = MethodHandles.lookup();
+            STATE = l.findVarHandle(Node.class, "state", int.class);
+            NEXT = l.findVarHandle(Node.class, "next", Node.class);
+            TAIL = l.findVarHandle(SimpleConditionSynchronizer.class, "tail", Node.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static boolean casNext(Node node, Node expected, Node update) {
+        return NEXT.compareAndSet(node, expected, update);
+    }
+
+    private boolean casTail(Node expected, Node update) {
+        return TAIL.compareAndSet(this, expected, update);
+    }
 }
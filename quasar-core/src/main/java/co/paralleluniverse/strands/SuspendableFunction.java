@@ -0,0 +1,27 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+
+/**
+ * A function that may suspend the currently executing {@link Strand} (i.e. thread or fiber).
+ *
+ * @param <S> the type of the function's argument
+ * @param <T> the type of the function's result
+ * @author pron
+ */
+public interface SuspendableFunction<S, T> {
+    T apply(S x) throws SuspendExecution, InterruptedException;
+}
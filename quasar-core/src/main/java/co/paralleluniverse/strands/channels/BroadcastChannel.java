@@ -0,0 +1,386 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.OwnedSynchronizer;
+import co.paralleluniverse.strands.SimpleConditionSynchronizer;
+import co.paralleluniverse.strands.Timeout;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded channel every message of which is received by all of its consumers, in the style of the LMAX disruptor.
+ * <p>
+ * Messages are kept, once, in a ring buffer, and every consumer returned by {@link #newConsumer() newConsumer} reads them in order
+ * through its own cursor. Unlike a {@link Channels#newTickerConsumerFor(Channel) ticker channel}, no message is lost: a sender blocks
+ * while the buffer holds messages the slowest consumer has not yet received. Unlike a {@link Topic}, a message is not copied
+ * to a channel per subscriber.</p>
+ * <p>
+ * A consumer only receives the messages sent after it has been created, and must be used by a single strand; closing it
+ * unsubscribes it, and it no longer holds back the senders.
+ * A {@code BroadcastChannel} with no consumers discards the messages sent to it.</p>
+ *
+ * @author pron
+ */
+public class BroadcastChannel<Message> implements SendPort<Message> {
+    private final Object[] buffer;
+    private final AtomicLongArray published; // the sequence of the message in each slot
+    private final int mask;
+    private volatile long claimed;           // the next sequence to be claimed by a sender
+    private volatile BroadcastChannel.Consumer[] consumers = new BroadcastChannel.Consumer[0];
+    private final SimpleConditionSynchronizer sendersSync = new SimpleConditionSynchronizer(this);
+    private volatile int blockedSenders;
+    private volatile boolean sendClosed;
+    private Throwable closeException;
+
+    /**
+     * Creates a new {@code BroadcastChannel}.
+     *
+     * @param bufferSize the number of messages the channel can hold; rounded up to a power of two.
+     */
+    public BroadcastChannel(int bufferSize) {
+        if (bufferSize <= 0)
+            throw new IllegalArgumentException("bufferSize must be positive, but is " + bufferSize);
+        final int capacity = bufferSize == 1 ? 1 : Integer.highestOneBit(bufferSize - 1) << 1;
+        this.buffer = new Object[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++)
+            published.set(i, -1);
+        this.mask = capacity - 1;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Returns a new {@link ReceivePort} that receives all messages sent to this channel from now on.
+     */
+    public ReceivePort<Message> newConsumer() {
+        final Consumer c = new Consumer(claimed);
+        addConsumer(c);
+        // senders that have not yet seen c may have claimed past its starting position
+        c.cursor = claimed;
+        return c;
+    }
+
+    /**
+     * Returns the number of this channel's consumers.
+     */
+    public int getConsumerCount() {
+        return consumers.length;
+    }
+
+    @Override
+    public void send(Message message) throws SuspendExecution, InterruptedException {
+        send0(message, false, 0);
+    }
+
+    @Override
+    public boolean send(Message message, long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException {
+        if (unit == null)
+            return send0(message, false, 0);
+        return send0(message, true, unit.toNanos(timeout));
+    }
+
+    @Override
+    public boolean send(Message message, Timeout timeout) throws SuspendExecution, InterruptedException {
+        return send(message, timeout.nanosLeft(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public boolean trySend(Message message) {
+        if (message == null)
+            throw new IllegalArgumentException("message is null");
+        if (sendClosed)
+            return true;
+        final long seq = tryClaim();
+        if (seq < 0)
+            return false;
+        publish(seq, message);
+        return true;
+    }
+
+    private boolean send0(Message message, boolean timed, long nanos) throws SuspendExecution, InterruptedException {
+        if (message == null)
+            throw new IllegalArgumentException("message is null");
+        if (sendClosed)
+            return true;
+        long seq = tryClaim();
+        if (seq < 0) {
+            final long deadline = timed ? System.nanoTime() + nanos : 0L;
+            addBlockedSenders(1);
+            final Object token = sendersSync.register();
+            try {
+                for (int i = 0; (seq = tryClaim()) < 0; i++) {
+                    if (sendClosed)
+                        return true;
+                    if (timed) {
+                        final long left = deadline - System.nanoTime();
+                        if (left <= 0)
+                            return false;
+                        sendersSync.awaitNanos(i, left);
+                    } else
+                        sendersSync.await(i);
+                }
+            } finally {
+                sendersSync.unregister(token);
+                addBlockedSenders(-1);
+            }
+        }
+        publish(seq, message);
+        return true;
+    }
+
+    private void addBlockedSenders(int delta) {
+        BLOCKED_SENDERS.getAndAdd(this, delta);
+    }
+
+    /**
+     * Claims the next sequence, unless the slowest consumer has not yet received the message that would be overwritten.
+     *
+     * @return the claimed sequence, or {@code -1} if the buffer is full
+     */
+    private long tryClaim() {
+        for (;;) {
+            final long seq = claimed;
+            if (seq - minCursor(seq) >= buffer.length)
+                return -1;
+            if (CLAIMED.compareAndSet(this, seq, seq + 1))
+                return seq;
+        }
+    }
+
+    private long minCursor(long seq) {
+        long min = seq;
+        for (Consumer c : consumers) {
+            final long cursor = c.cursor;
+            if (cursor < min)
+                min = cursor;
+        }
+        return min;
+    }
+
+    private void publish(long seq, Message message) {
+        final int index = (int) seq & mask;
+        buffer[index] = message;
+        published.set(index, seq); // a volatile store, so that it's ordered before reading the consumers' waiters
+        for (Consumer c : consumers)
+            c.sync.signal();
+    }
+
+    @Override
+    public void close() {
+        if (!sendClosed) {
+            sendClosed = true;
+            signalAll();
+        }
+    }
+
+    @Override
+    public void close(Throwable t) {
+        if (!sendClosed) {
+            closeException = t;
+            sendClosed = true;
+            signalAll();
+        }
+    }
+
+    private void signalAll() {
+        sendersSync.signalAll();
+        for (Consumer c : consumers)
+            c.sync.signal();
+    }
+
+    private void addConsumer(Consumer c) {
+        for (;;) {
+            final BroadcastChannel.Consumer[] cs = consumers;
+            final BroadcastChannel.Consumer[] newCs = Arrays.copyOf(cs, cs.length + 1);
+            newCs[cs.length] = c;
+            if (CONSUMERS.compareAndSet(this, cs, newCs))
+                return;
+        }
+    }
+
+    private void removeConsumer(Consumer c) {
+        for (;;) {
+            final BroadcastChannel.Consumer[] cs = consumers;
+            int i = 0;
+            while (i < cs.length && cs[i] != c)
+                i++;
+            if (i == cs.length)
+                return;
+            final BroadcastChannel.Consumer[] newCs = Arrays.copyOf(cs, cs.length - 1);
+            System.arraycopy(cs, i + 1, newCs, i, cs.length - i - 1);
+            if (CONSUMERS.compareAndSet(this, cs, newCs)) {
+                sendersSync.signalAll();
+                return;
+            }
+        }
+    }
+
+    private final class Consumer implements ReceivePort<Message>, Selectable<Message> {
+        final OwnedSynchronizer sync = new OwnedSynchronizer(this);
+        volatile long cursor; // the sequence of the next message to receive
+        private boolean receiveClosed;
+
+        Consumer(long cursor) {
+            this.cursor = cursor;
+        }
+
+        private boolean isAvailable(long seq) {
+            return published.get((int) seq & mask) == seq;
+        }
+
+        private boolean isDrained(long seq) {
+            return sendClosed && seq >= claimed && !isAvailable(seq);
+        }
+
+        private void checkClosed() throws EOFException {
+            if (receiveClosed || isDrained(cursor)) {
+                receiveClosed = true;
+                if (closeException != null)
+                    throw new ProducerException(closeException);
+                throw EOFException.instance;
+            }
+        }
+
+        private Message take(long seq) {
+            final Message m = (Message) buffer[(int) seq & mask];
+            cursor = seq + 1;
+            if (blockedSenders > 0)
+                sendersSync.signalAll();
+            return m;
+        }
+
+        @Override
+        public Message tryReceive() {
+            if (receiveClosed)
+                return null;
+            final long seq = cursor;
+            if (!isAvailable(seq))
+                return null;
+            return take(seq);
+        }
+
+        @Override
+        public Message receive() throws SuspendExecution, InterruptedException {
+            return receive(-1, null);
+        }
+
+        @Override
+        public Message receive(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException {
+            if (receiveClosed)
+                return null;
+            try {
+                final long seq = cursor;
+                if (!isAvailable(seq)) {
+                    final boolean timed = unit != null && timeout >= 0;
+                    final long deadline = timed ? System.nanoTime() + unit.toNanos(timeout) : 0L;
+                    final Object token = sync.register();
+                    try {
+                        for (int i = 0; !isAvailable(seq); i++) {
+                            checkClosed();
+                            if (timed) {
+                                final long left = deadline - System.nanoTime();
+                                if (left <= 0)
+                                    throw new TimeoutException();
+                                sync.awaitNanos(i, left);
+                            } else
+                                sync.await(i);
+                        }
+                    } finally {
+                        sync.unregister(token);
+                    }
+                }
+                return take(seq);
+            } catch (EOFException | TimeoutException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public Message receive(Timeout timeout) throws SuspendExecution, InterruptedException {
+            return receive(timeout.nanosLeft(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void close() {
+            if (!receiveClosed) {
+                receiveClosed = true;
+                removeConsumer(this);
+            }
+        }
+
+        @Override
+        public boolean isClosed() {
+            if (!receiveClosed && isDrained(cursor))
+                receiveClosed = true;
+            return receiveClosed;
+        }
+
+        @Override
+        public Object register(SelectAction<Message> action) {
+            if (((SelectActionImpl) action).isData())
+                throw new UnsupportedOperationException("Send is not supported by a BroadcastChannel consumer");
+            ((SelectActionImpl<Message>) action).syncToken = sync.register();
+            return action;
+        }
+
+        @Override
+        public boolean tryNow(Object token) {
+            final SelectActionImpl<Message> action = (SelectActionImpl<Message>) token;
+            if (!action.lease())
+                return false;
+            final Message m = tryReceive();
+            action.setItem(m);
+            final boolean res = m != null || isClosed();
+            if (res)
+                action.won();
+            else
+                action.returnLease();
+            return res;
+        }
+
+        @Override
+        public void unregister(Object token) {
+            if (token == null)
+                return;
+            final SelectActionImpl<Message> action = (SelectActionImpl<Message>) token;
+            final Object syncToken = action.syncToken;
+            action.syncToken = null;
+            sync.unregister(syncToken);
+        }
+    }
+
+    private static final VarHandle CLAIMED;
+    private static final VarHandle CONSUMERS;
+    private static final VarHandle BLOCKED_SENDERS;
+
+    static {
+        try {
+            MethodHandles.Lookup l = MethodHandles.lookup();
+            CLAIMED = l.findVarHandle(BroadcastChannel.class, "claimed", long.class);
+            CONSUMERS = l.findVarHandle(BroadcastChannel.class, "consumers", BroadcastChannel.Consumer[].class);
+            BLOCKED_SENDERS = l.findVarHandle(BroadcastChannel.class, "blockedSenders", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
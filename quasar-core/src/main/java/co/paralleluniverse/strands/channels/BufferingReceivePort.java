@@ -0,0 +1,95 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Timeout;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives messages in batches of up to {@code count} messages, waiting no longer than {@code timeout} after the first message of
+ * a batch for the batch to fill.
+ * <p>
+ * The waiting is done by the receiving strand's own timed receives, so no other strand (or timer task) is involved.</p>
+ *
+ * @author pron
+ */
+class BufferingReceivePort<T> extends DelegatingReceivePort1<T, List<T>> implements ReceivePort<List<T>> {
+    private final int count;
+    private final long timeoutNanos;
+
+    public BufferingReceivePort(ReceivePort<T> target, int count, long timeout, TimeUnit unit) {
+        super(target);
+        if (count <= 0)
+            throw new IllegalArgumentException("count must be positive; was " + count);
+        if (timeout < 0)
+            throw new IllegalArgumentException("timeout must not be negative; was " + timeout);
+        this.count = count;
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    @Override
+    public List<T> receive() throws SuspendExecution, InterruptedException {
+        final T m = target.receive();
+        if (m == null) // closed
+            return null;
+        return fill(m, System.nanoTime() + timeoutNanos);
+    }
+
+    @Override
+    public List<T> receive(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        final T m = target.receive(timeout, unit);
+        if (m == null)
+            return null;
+        return fill(m, Math.min(deadline, System.nanoTime() + timeoutNanos));
+    }
+
+    @Override
+    public List<T> receive(Timeout timeout) throws SuspendExecution, InterruptedException {
+        return receive(timeout.nanosLeft(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public List<T> tryReceive() {
+        T m = target.tryReceive();
+        if (m == null)
+            return null;
+        final List<T> batch = newBatch(m);
+        while (batch.size() < count && (m = target.tryReceive()) != null)
+            batch.add(m);
+        return batch;
+    }
+
+    private List<T> fill(T first, long deadline) throws SuspendExecution, InterruptedException {
+        final List<T> batch = newBatch(first);
+        while (batch.size() < count) {
+            final long left = deadline - System.nanoTime();
+            // once the time is up, we still take whatever is immediately available
+            final T m = left > 0 ? target.receive(left, TimeUnit.NANOSECONDS) : target.tryReceive();
+            if (m == null)
+                break;
+            batch.add(m);
+        }
+        return batch;
+    }
+
+    private List<T> newBatch(T first) {
+        final List<T> batch = new ArrayList<>(Math.min(count, 16));
+        batch.add(first);
+        return batch;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+/**
+ * An MXBean that monitors a single {@link QueueChannel}.
+ * Rates and mean wait times are computed over the last collection period (5 seconds by default), while message and overflow counts
+ * are totals since monitoring has begun.
+ *
+ * @author pron
+ */
+public interface ChannelMXBean {
+    void refresh();
+
+    /**
+     * The number of messages currently in the channel.
+     */
+    int getQueueLength();
+
+    int getCapacity();
+
+    String getOverflowPolicy();
+
+    long getSentMessages();
+
+    long getReceivedMessages();
+
+    /**
+     * The number of messages sent per second.
+     */
+    double getSendRate();
+
+    /**
+     * The number of messages received per second.
+     */
+    double getReceiveRate();
+
+    /**
+     * The number of times the channel's overflow policy has been applied to a message sent to the full channel.
+     */
+    long getOverflows();
+
+    /**
+     * The average time, in nanoseconds, senders have waited for room in the channel.
+     */
+    long getMeanSenderWait();
+
+    /**
+     * The average time, in nanoseconds, receivers have been parked waiting for a message.
+     */
+    long getMeanReceiverWait();
+}
@@ -0,0 +1,56 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+/**
+ * Receives the events counted by a monitored {@link QueueChannel}.
+ *
+ * @see Channels#monitor(Port, String, co.paralleluniverse.common.monitoring.MonitorType)
+ * @author pron
+ */
+public interface ChannelMonitor {
+    void unregister();
+
+    void messageSent();
+
+    void messageReceived();
+
+    /**
+     * Called whenever the channel's {@link Channels.OverflowPolicy overflow policy} is applied to a message sent to a full channel,
+     * i.e. when the message is dropped, when the sender gets an exception, or when it starts waiting for room.
+     */
+    void overflow();
+
+    /**
+     * Called with {@link Channels.OverflowPolicy#DISPLACE DISPLACE} when the receiver finds that messages have been displaced before
+     * they could be received.
+     *
+     * @param n the number of messages displaced since the last call
+     */
+    void overflow(long n);
+
+    /**
+     * Called when a sender that has found the channel full is done waiting for room.
+     *
+     * @param nanos the time, in nanoseconds, the sender has waited
+     */
+    void senderWaited(long nanos);
+
+    /**
+     * Called when a receiver that has found the channel empty is done waiting for a message.
+     *
+     * @param nanos the time, in nanoseconds, the receiver has been parked
+     */
+    void receiverWaited(long nanos);
+}
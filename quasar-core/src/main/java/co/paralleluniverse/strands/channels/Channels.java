@@ -13,6 +13,7 @@
  */
 package co.paralleluniverse.strands.channels;
 
+import co.paralleluniverse.common.monitoring.MonitorType;
 import co.paralleluniverse.common.util.DelegatingEquals;
 import co.paralleluniverse.common.util.Function2;
 import co.paralleluniverse.common.util.Function3;
@@ -24,6 +25,7 @@ import co.paralleluniverse.fibers.SuspendExecution;
 import co.paralleluniverse.strands.SuspendableAction1;
 import co.paralleluniverse.strands.SuspendableAction2;
 import co.paralleluniverse.strands.SuspendableCallable;
+import co.paralleluniverse.strands.SuspendableFunction;
 import co.paralleluniverse.strands.Timeout;
 import co.paralleluniverse.strands.queues.ArrayQueue;
 import co.paralleluniverse.strands.queues.BasicQueue;
@@ -53,6 +55,18 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
 
 /**
  * A utility class for creating and manipulating channels.
@@ -515,6 +529,37 @@ public final class Channels {
         return TickerChannelConsumer.newFor((QueueDoubleChannel) channel);
     }
 
+    /**
+     * Creates a new {@link BroadcastChannel}: a bounded channel every message of which is received by all of the
+     * {@link BroadcastChannel#newConsumer() consumers} created for it. Unlike with a ticker channel, no message is lost; instead, senders
+     * block while the slowest consumer lags a full buffer behind.
+     *
+     * @param <Message>  the message type
+     * @param bufferSize the number of messages the channel can hold; rounded up to a power of two.
+     * @return the newly created channel
+     */
+    public static <Message> BroadcastChannel<Message> newBroadcastChannel(int bufferSize) {
+        return new BroadcastChannel<>(bufferSize);
+    }
+
+    /**
+     * Starts (or, with {@link MonitorType#NONE NONE}, stops) collecting a channel's statistics, and exports them under the given name.
+     * Only the queue-backed channels – those created with a buffer size other than {@code 0} – can be monitored.
+     *
+     * @param channel     the channel
+     * @param name        the name under which the statistics are registered
+     * @param monitorType how the statistics are exported
+     * @return {@code channel}
+     * @throws IllegalArgumentException if the channel cannot be monitored
+     * @see QueueChannel#setMonitor(String, MonitorType)
+     */
+    public static <P extends Port<?>> P monitor(P channel, String name, MonitorType monitorType) {
+        if (!(channel instanceof QueueChannel))
+            throw new IllegalArgumentException("Channel " + channel + " cannot be monitored");
+        ((QueueChannel<?>) channel).setMonitor(name, monitorType);
+        return channel;
+    }
+
     ////////////////////
     /**
      * Spawns a fiber that transforms values read from the {@code in} channel and writes values to the {@code out} channel.
@@ -638,6 +683,47 @@ public final class Channels {
         return new MappingReceivePort<>(channel, f);
     }
 
+    /**
+     * Returns a {@link ReceivePort} that receives messages that are transformed by a given mapping function from a given channel,
+     * applying the function to up to {@code concurrency} messages at a time, each in its own fiber.
+     * The results are received either in the order of the messages they've been mapped from, or in the order they become available.
+     * <p>
+     * A fiber is spawned to receive messages from {@code channel} as long as fewer than {@code concurrency} of them have been received
+     * from it but not yet (as results) from the returned port, so no more than {@code concurrency} results are ever buffered.
+     * The mapping function runs in the mapping fibers, so, unlike that of {@link #map(ReceivePort, Function) map}, it may block.
+     * Like in {@code map}, a {@code null} result discards the message.</p>
+     * <p>
+     * If the mapping function throws an exception, the returned port throws it (wrapped in a {@link ProducerException}) once that
+     * message's turn comes. The returned port then {@link ReceivePort#close() closes} {@code channel}, just as closing the returned port
+     * would, so that the fiber receiving from it stops; if {@code channel} has other receivers, they will find it closed, too.</p>
+     * <p>
+     * The returned {@code ReceivePort} can only be safely used by a single receiver strand.</p>
+     * <p>
+     * The returned {@code ReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param <S>          the message type of the source (given) channel.
+     * @param <T>          the message type of the target (returned) channel.
+     * @param fiberFactory will be used to create the fibers
+     * @param channel      the channel to transform
+     * @param concurrency  the maximum number of messages mapped at the same time
+     * @param ordered      whether the results are to be received in the order of the messages they've been mapped from
+     * @param f            the mapping function
+     * @return a {@link ReceivePort} that returns messages that are the result of applying the mapping function to the messages received on the given channel.
+     */
+    public static <S, T> ReceivePort<T> parallelMap(FiberFactory fiberFactory, ReceivePort<S> channel, int concurrency, boolean ordered, SuspendableFunction<S, T> f) {
+        return new ParallelMappingReceivePort<>(fiberFactory, channel, concurrency, ordered, f);
+    }
+
+    /**
+     * Returns a {@link ReceivePort} that receives messages that are transformed by a given mapping function from a given channel,
+     * applying the function to up to {@code concurrency} messages at a time, each in its own fiber.
+     *
+     * @see #parallelMap(FiberFactory, ReceivePort, int, boolean, SuspendableFunction)
+     */
+    public static <S, T> ReceivePort<T> parallelMap(ReceivePort<S> channel, int concurrency, boolean ordered, SuspendableFunction<S, T> f) {
+        return parallelMap(defaultFiberFactory, channel, concurrency, ordered, f);
+    }
+
     /**
      * Returns a {@link ReceivePort} providing messages that are transformed from a given channel by a given reduction function.
      * <p>
@@ -723,6 +809,99 @@ public final class Channels {
         return new TakeReceivePort<>(channel, count);
     }
 
+    /**
+     * Returns a {@link ReceivePort} that receives messages from a given channel in batches of up to {@code count} messages.
+     * Once the first message of a batch has been received, the batch is received when it's full, or when {@code timeout} has elapsed,
+     * whichever comes first.
+     * <p>
+     * No strand other than the receiving one is used: the receiver waits for the batch to fill with a timed receive on {@code channel}.</p>
+     * <p>
+     * The returned {@code ReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param <M>     the message type.
+     * @param channel the channel
+     * @param count   the maximum number of messages in a batch
+     * @param timeout the maximum duration to wait for a batch to fill
+     * @param unit    the time unit of {@code timeout}
+     * @return a {@link ReceivePort} that receives lists of messages received from {@code channel}.
+     */
+    public static <M> ReceivePort<List<M>> buffer(ReceivePort<M> channel, int count, long timeout, TimeUnit unit) {
+        return new BufferingReceivePort<>(channel, count, timeout, unit);
+    }
+
+    /**
+     * Returns a {@link ReceivePort} that receives the messages from a given channel in tumbling time windows:
+     * every {@code size}, the messages that have arrived during the last {@code size} are received as a list.
+     * Empty windows are skipped.
+     * <p>
+     * No strand other than the receiving one is used: the receiver waits for a window to close with a timed receive on {@code channel}.</p>
+     * <p>
+     * The returned {@code ReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param <M>     the message type.
+     * @param channel the channel
+     * @param size    the duration of a window
+     * @param unit    the time unit of {@code size}
+     * @return a {@link ReceivePort} that receives lists of messages received from {@code channel}.
+     */
+    public static <M> ReceivePort<List<M>> window(ReceivePort<M> channel, long size, TimeUnit unit) {
+        return new WindowingReceivePort<>(channel, size, size, unit);
+    }
+
+    /**
+     * Returns a {@link ReceivePort} that receives the messages from a given channel in sliding time windows:
+     * every {@code step}, the messages that have arrived during the last {@code size} are received as a list.
+     * Empty windows are skipped.
+     * <p>
+     * No strand other than the receiving one is used: the receiver waits for a window to close with a timed receive on {@code channel}.</p>
+     * <p>
+     * The returned {@code ReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param <M>     the message type.
+     * @param channel the channel
+     * @param size    the duration of a window
+     * @param step    the duration between the ends of consecutive windows
+     * @param unit    the time unit of {@code size} and {@code step}
+     * @return a {@link ReceivePort} that receives lists of messages received from {@code channel}.
+     */
+    public static <M> ReceivePort<List<M>> window(ReceivePort<M> channel, long size, long step, TimeUnit unit) {
+        return new WindowingReceivePort<>(channel, size, step, unit);
+    }
+
+    /**
+     * Returns a {@link ReceivePort} that receives a message from a given channel only after no other message has followed it for
+     * the given quiet period. Messages followed by another message within the quiet period are discarded.
+     * <p>
+     * No strand other than the receiving one is used: the receiver waits out the quiet period with a timed receive on {@code channel}.</p>
+     * <p>
+     * The returned {@code ReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param <M>     the message type.
+     * @param channel the channel
+     * @param quiet   the quiet period
+     * @param unit    the time unit of {@code quiet}
+     * @return a {@link ReceivePort} that receives the messages of {@code channel} that are not followed by another within the quiet period.
+     */
+    public static <M> ReceivePort<M> debounce(ReceivePort<M> channel, long quiet, TimeUnit unit) {
+        return new DebouncingReceivePort<>(channel, quiet, unit);
+    }
+
+    /**
+     * Returns a {@link ReceivePort} that receives at most one message from a given channel per period.
+     * Messages received from {@code channel} less than {@code period} after the last one that has been passed on are discarded.
+     * <p>
+     * The returned {@code ReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param <M>     the message type.
+     * @param channel the channel
+     * @param period  the minimal duration between consecutive messages
+     * @param unit    the time unit of {@code period}
+     * @return a {@link ReceivePort} that receives at most one message of {@code channel} per period.
+     */
+    public static <M> ReceivePort<M> throttle(ReceivePort<M> channel, long period, TimeUnit unit) {
+        return new ThrottlingReceivePort<>(channel, period, unit);
+    }
+
     /**
      * Returns a {@link ReceivePort} that combines each vector of messages from a list of channels into a single combined message.
      *
@@ -841,6 +1020,249 @@ public final class Channels {
         return new TransformingReceivePort<>(channel);
     }
 
+    /**
+     * Returns a {@link TransformingIntReceivePort} wrapping the given channel, which may be used for functional
+     * transformations of {@code int} messages that do not box them.
+     *
+     * @param channel the channel to transform
+     * @return the transformed {@link IntReceivePort}
+     */
+    public static TransformingIntReceivePort transformInt(IntReceivePort channel) {
+        return new TransformingIntReceivePort(channel);
+    }
+
+    /**
+     * Returns an {@link IntReceivePort} that filters messages that satisfy a predicate from a given channel.
+     * All messages (even those not satisfying the predicate) will be consumed from the original channel; those that don't satisfy the predicate will be silently discarded.
+     * <p>
+     * The returned {@code IntReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param channel The channel to filter
+     * @param pred    the filtering predicate
+     * @return An {@link IntReceivePort} that will receive all those messages from the original channel which satisfy the predicate (i.e. the predicate returns {@code true}).
+     */
+    public static IntReceivePort filterInt(IntReceivePort channel, IntPredicate pred) {
+        return new FilteringIntReceivePort(channel, pred);
+    }
+
+    /**
+     * Returns an {@link IntReceivePort} that receives messages that are transformed by a given mapping function from a given channel.
+     * <p>
+     * The returned {@code IntReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.
+     *
+     * @param channel the channel to transform
+     * @param f       the mapping function
+     * @return an {@link IntReceivePort} that returns messages that are the result of applying the mapping function to the messages received on the given channel.
+     */
+    public static IntReceivePort mapInt(IntReceivePort channel, IntUnaryOperator f) {
+        return new MappingIntReceivePort(channel, f);
+    }
+
+    /**
+     * Returns an {@link IntReceivePort} providing messages that are transformed from a given channel by a given reduction function.
+     * <p>
+     * The returned {@code IntReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param channel The channel to transform.
+     * @param f       The reduction function.
+     * @param init    The initial input to the reduction function.
+     * @return an {@link IntReceivePort} that returns messages that are the result of applying the reduction function to the messages received on the given channel.
+     */
+    public static IntReceivePort reduceInt(IntReceivePort channel, IntBinaryOperator f, int init) {
+        return new ReducingIntReceivePort(channel, f, init);
+    }
+
+    /**
+     * Returns an {@link IntReceivePort} that combines each message received from one channel with the corresponding message received from another.
+     * The returned channel is closed when either of the given channels is.
+     *
+     * @param c1 the first channel
+     * @param c2 the second channel
+     * @param f  the combining function
+     * @return an {@link IntReceivePort} that returns messages that are the result of applying the combining function to pairs of messages.
+     */
+    public static IntReceivePort zipInt(IntReceivePort c1, IntReceivePort c2, IntBinaryOperator f) {
+        return new ZippingIntReceivePort(c1, c2, f);
+    }
+
+    /**
+     * Returns an {@link IntReceivePort} that receives messages that are transformed by a given flat-mapping function from a given channel.
+     * Unlike {@link #mapInt(IntReceivePort, IntUnaryOperator) mapInt}, the mapping function does not returns a single output message for every input message, but
+     * a new {@code IntReceivePort}. All the returned ports are concatenated into a single {@code IntReceivePort} that receives the messages received by all
+     * the ports in order. To emit no values, the function can return {@code null}.
+     * <p>
+     * The returned {@code IntReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.
+     *
+     * @param channel the channel to transform
+     * @param f       the mapping function
+     * @return an {@link IntReceivePort} that returns messages that are the result of applying the mapping function to the messages received on the given channel.
+     */
+    public static IntReceivePort flatMapInt(IntReceivePort channel, IntFunction<IntReceivePort> f) {
+        return new FlatMappingIntReceivePort(channel, f);
+    }
+
+    /**
+     * Returns a {@link TransformingLongReceivePort} wrapping the given channel, which may be used for functional
+     * transformations of {@code long} messages that do not box them.
+     *
+     * @param channel the channel to transform
+     * @return the transformed {@link LongReceivePort}
+     */
+    public static TransformingLongReceivePort transformLong(LongReceivePort channel) {
+        return new TransformingLongReceivePort(channel);
+    }
+
+    /**
+     * Returns a {@link LongReceivePort} that filters messages that satisfy a predicate from a given channel.
+     * All messages (even those not satisfying the predicate) will be consumed from the original channel; those that don't satisfy the predicate will be silently discarded.
+     * <p>
+     * The returned {@code LongReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param channel The channel to filter
+     * @param pred    the filtering predicate
+     * @return A {@link LongReceivePort} that will receive all those messages from the original channel which satisfy the predicate (i.e. the predicate returns {@code true}).
+     */
+    public static LongReceivePort filterLong(LongReceivePort channel, LongPredicate pred) {
+        return new FilteringLongReceivePort(channel, pred);
+    }
+
+    /**
+     * Returns a {@link LongReceivePort} that receives messages that are transformed by a given mapping function from a given channel.
+     * <p>
+     * The returned {@code LongReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.
+     *
+     * @param channel the channel to transform
+     * @param f       the mapping function
+     * @return a {@link LongReceivePort} that returns messages that are the result of applying the mapping function to the messages received on the given channel.
+     */
+    public static LongReceivePort mapLong(LongReceivePort channel, LongUnaryOperator f) {
+        return new MappingLongReceivePort(channel, f);
+    }
+
+    /**
+     * Returns a {@link LongReceivePort} providing messages that are transformed from a given channel by a given reduction function.
+     * <p>
+     * The returned {@code LongReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param channel The channel to transform.
+     * @param f       The reduction function.
+     * @param init    The initial input to the reduction function.
+     * @return a {@link LongReceivePort} that returns messages that are the result of applying the reduction function to the messages received on the given channel.
+     */
+    public static LongReceivePort reduceLong(LongReceivePort channel, LongBinaryOperator f, long init) {
+        return new ReducingLongReceivePort(channel, f, init);
+    }
+
+    /**
+     * Returns a {@link LongReceivePort} that combines each message received from one channel with the corresponding message received from another.
+     * The returned channel is closed when either of the given channels is.
+     *
+     * @param c1 the first channel
+     * @param c2 the second channel
+     * @param f  the combining function
+     * @return a {@link LongReceivePort} that returns messages that are the result of applying the combining function to pairs of messages.
+     */
+    public static LongReceivePort zipLong(LongReceivePort c1, LongReceivePort c2, LongBinaryOperator f) {
+        return new ZippingLongReceivePort(c1, c2, f);
+    }
+
+    /**
+     * Returns a {@link LongReceivePort} that receives messages that are transformed by a given flat-mapping function from a given channel.
+     * Unlike {@link #mapLong(LongReceivePort, LongUnaryOperator) mapLong}, the mapping function does not returns a single output message for every input message, but
+     * a new {@code LongReceivePort}. All the returned ports are concatenated into a single {@code LongReceivePort} that receives the messages received by all
+     * the ports in order. To emit no values, the function can return {@code null}.
+     * <p>
+     * The returned {@code LongReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.
+     *
+     * @param channel the channel to transform
+     * @param f       the mapping function
+     * @return a {@link LongReceivePort} that returns messages that are the result of applying the mapping function to the messages received on the given channel.
+     */
+    public static LongReceivePort flatMapLong(LongReceivePort channel, LongFunction<LongReceivePort> f) {
+        return new FlatMappingLongReceivePort(channel, f);
+    }
+
+    /**
+     * Returns a {@link TransformingDoubleReceivePort} wrapping the given channel, which may be used for functional
+     * transformations of {@code double} messages that do not box them.
+     *
+     * @param channel the channel to transform
+     * @return the transformed {@link DoubleReceivePort}
+     */
+    public static TransformingDoubleReceivePort transformDouble(DoubleReceivePort channel) {
+        return new TransformingDoubleReceivePort(channel);
+    }
+
+    /**
+     * Returns a {@link DoubleReceivePort} that filters messages that satisfy a predicate from a given channel.
+     * All messages (even those not satisfying the predicate) will be consumed from the original channel; those that don't satisfy the predicate will be silently discarded.
+     * <p>
+     * The returned {@code DoubleReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param channel The channel to filter
+     * @param pred    the filtering predicate
+     * @return A {@link DoubleReceivePort} that will receive all those messages from the original channel which satisfy the predicate (i.e. the predicate returns {@code true}).
+     */
+    public static DoubleReceivePort filterDouble(DoubleReceivePort channel, DoublePredicate pred) {
+        return new FilteringDoubleReceivePort(channel, pred);
+    }
+
+    /**
+     * Returns a {@link DoubleReceivePort} that receives messages that are transformed by a given mapping function from a given channel.
+     * <p>
+     * The returned {@code DoubleReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.
+     *
+     * @param channel the channel to transform
+     * @param f       the mapping function
+     * @return a {@link DoubleReceivePort} that returns messages that are the result of applying the mapping function to the messages received on the given channel.
+     */
+    public static DoubleReceivePort mapDouble(DoubleReceivePort channel, DoubleUnaryOperator f) {
+        return new MappingDoubleReceivePort(channel, f);
+    }
+
+    /**
+     * Returns a {@link DoubleReceivePort} providing messages that are transformed from a given channel by a given reduction function.
+     * <p>
+     * The returned {@code DoubleReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param channel The channel to transform.
+     * @param f       The reduction function.
+     * @param init    The initial input to the reduction function.
+     * @return a {@link DoubleReceivePort} that returns messages that are the result of applying the reduction function to the messages received on the given channel.
+     */
+    public static DoubleReceivePort reduceDouble(DoubleReceivePort channel, DoubleBinaryOperator f, double init) {
+        return new ReducingDoubleReceivePort(channel, f, init);
+    }
+
+    /**
+     * Returns a {@link DoubleReceivePort} that combines each message received from one channel with the corresponding message received from another.
+     * The returned channel is closed when either of the given channels is.
+     *
+     * @param c1 the first channel
+     * @param c2 the second channel
+     * @param f  the combining function
+     * @return a {@link DoubleReceivePort} that returns messages that are the result of applying the combining function to pairs of messages.
+     */
+    public static DoubleReceivePort zipDouble(DoubleReceivePort c1, DoubleReceivePort c2, DoubleBinaryOperator f) {
+        return new ZippingDoubleReceivePort(c1, c2, f);
+    }
+
+    /**
+     * Returns a {@link DoubleReceivePort} that receives messages that are transformed by a given flat-mapping function from a given channel.
+     * Unlike {@link #mapDouble(DoubleReceivePort, DoubleUnaryOperator) mapDouble}, the mapping function does not returns a single output message for every input message, but
+     * a new {@code DoubleReceivePort}. All the returned ports are concatenated into a single {@code DoubleReceivePort} that receives the messages received by all
+     * the ports in order. To emit no values, the function can return {@code null}.
+     * <p>
+     * The returned {@code DoubleReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.
+     *
+     * @param channel the channel to transform
+     * @param f       the mapping function
+     * @return a {@link DoubleReceivePort} that returns messages that are the result of applying the mapping function to the messages received on the given channel.
+     */
+    public static DoubleReceivePort flatMapDouble(DoubleReceivePort channel, DoubleFunction<DoubleReceivePort> f) {
+        return new FlatMappingDoubleReceivePort(channel, f);
+    }
+
     /**
      * Returns a {@link SendPort} that filters messages that satisfy a predicate before sending to a given channel.
      * Messages that don't satisfy the predicate will be silently discarded when sent.
@@ -931,6 +1353,125 @@ public final class Channels {
         return flatMapSend(defaultFiberFactory, pipe, channel, f);
     }
 
+    /**
+     * Returns a {@link SendPort} that sends messages to a given channel in batches of up to {@code count} messages.
+     * Once the first message of a batch has been sent, the batch is sent to {@code channel} when it's full, or when {@code timeout}
+     * has elapsed, whichever comes first.
+     * <p>
+     * Messages are first sent to {@code pipe}, and a single fiber, which lives as long as {@code pipe} is open, collects them into batches
+     * (as {@link #buffer(ReceivePort, int, long, TimeUnit) buffer} does) and sends them to {@code channel}.
+     * When {@code pipe} is closed, {@code channel} is closed too.</p>
+     *
+     * @param <M>          the message type.
+     * @param fiberFactory will be used to create the fiber
+     * @param pipe         an intermediate channel that messages are sent to before being batched.
+     * @param channel      the channel receiving the batches
+     * @param count        the maximum number of messages in a batch
+     * @param timeout      the maximum duration to wait for a batch to fill
+     * @param unit         the time unit of {@code timeout}
+     * @return a {@link SendPort} that sends messages to {@code channel} in batches.
+     */
+    public static <M> SendPort<M> bufferSend(FiberFactory fiberFactory, Channel<M> pipe, SendPort<List<M>> channel, int count, long timeout, TimeUnit unit) {
+        final ReceivePort<List<M>> batches = buffer(pipe, count, timeout, unit);
+        fiberTransform(fiberFactory, pipe, channel, new SuspendableAction2<ReceivePort<M>, SendPort<List<M>>>() {
+            @Override
+            public void call(ReceivePort<M> in, SendPort<List<M>> out) throws SuspendExecution, InterruptedException {
+                forward(batches, out);
+            }
+        });
+        return new PipeChannel<>(pipe, channel);
+    }
+
+    public static <M> SendPort<M> bufferSend(Channel<M> pipe, SendPort<List<M>> channel, int count, long timeout, TimeUnit unit) {
+        return bufferSend(defaultFiberFactory, pipe, channel, count, timeout, unit);
+    }
+
+    /**
+     * Returns a {@link SendPort} that sends messages to a given channel in sliding (or, if {@code size == step}, tumbling) time windows:
+     * every {@code step}, the messages that have been sent during the last {@code size} are sent to {@code channel} as a list.
+     * Empty windows are skipped.
+     * <p>
+     * Messages are first sent to {@code pipe}, and a single fiber, which lives as long as {@code pipe} is open, collects them into windows
+     * (as {@link #window(ReceivePort, long, long, TimeUnit) window} does) and sends them to {@code channel}.
+     * When {@code pipe} is closed, {@code channel} is closed too.</p>
+     *
+     * @param <M>          the message type.
+     * @param fiberFactory will be used to create the fiber
+     * @param pipe         an intermediate channel that messages are sent to before being windowed.
+     * @param channel      the channel receiving the windows
+     * @param size         the duration of a window
+     * @param step         the duration between the ends of consecutive windows
+     * @param unit         the time unit of {@code size} and {@code step}
+     * @return a {@link SendPort} that sends messages to {@code channel} in time windows.
+     */
+    public static <M> SendPort<M> windowSend(FiberFactory fiberFactory, Channel<M> pipe, SendPort<List<M>> channel, long size, long step, TimeUnit unit) {
+        final ReceivePort<List<M>> windows = window(pipe, size, step, unit);
+        fiberTransform(fiberFactory, pipe, channel, new SuspendableAction2<ReceivePort<M>, SendPort<List<M>>>() {
+            @Override
+            public void call(ReceivePort<M> in, SendPort<List<M>> out) throws SuspendExecution, InterruptedException {
+                forward(windows, out);
+            }
+        });
+        return new PipeChannel<>(pipe, channel);
+    }
+
+    public static <M> SendPort<M> windowSend(Channel<M> pipe, SendPort<List<M>> channel, long size, long step, TimeUnit unit) {
+        return windowSend(defaultFiberFactory, pipe, channel, size, step, unit);
+    }
+
+    /**
+     * Returns a {@link SendPort} that sends a message to a given channel only after no other message has been sent for the
+     * given quiet period. Messages followed by another message within the quiet period are discarded.
+     * <p>
+     * Messages are first sent to {@code pipe}, and a single fiber, which lives as long as {@code pipe} is open, debounces them
+     * (as {@link #debounce(ReceivePort, long, TimeUnit) debounce} does) and sends them to {@code channel}.
+     * When {@code pipe} is closed, {@code channel} is closed too.</p>
+     *
+     * @param <M>          the message type.
+     * @param fiberFactory will be used to create the fiber
+     * @param pipe         an intermediate channel that messages are sent to before being debounced.
+     * @param channel      the channel to transform
+     * @param quiet        the quiet period
+     * @param unit         the time unit of {@code quiet}
+     * @return a {@link SendPort} that sends to {@code channel} the messages that are not followed by another within the quiet period.
+     */
+    public static <M> SendPort<M> debounceSend(FiberFactory fiberFactory, Channel<M> pipe, SendPort<M> channel, long quiet, TimeUnit unit) {
+        final ReceivePort<M> debounced = debounce(pipe, quiet, unit);
+        fiberTransform(fiberFactory, pipe, channel, new SuspendableAction2<ReceivePort<M>, SendPort<M>>() {
+            @Override
+            public void call(ReceivePort<M> in, SendPort<M> out) throws SuspendExecution, InterruptedException {
+                forward(debounced, out);
+            }
+        });
+        return new PipeChannel<>(pipe, channel);
+    }
+
+    public static <M> SendPort<M> debounceSend(Channel<M> pipe, SendPort<M> channel, long quiet, TimeUnit unit) {
+        return debounceSend(defaultFiberFactory, pipe, channel, quiet, unit);
+    }
+
+    /**
+     * Returns a {@link SendPort} that sends at most one message per period to a given channel.
+     * Messages sent less than {@code period} after the last one that has been passed on are discarded.
+     * <p>
+     * The returned {@code SendPort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param <M>     the message type.
+     * @param channel the channel to transform
+     * @param period  the minimal duration between consecutive messages
+     * @param unit    the time unit of {@code period}
+     * @return a {@link SendPort} that sends at most one message per period to {@code channel}.
+     */
+    public static <M> SendPort<M> throttleSend(SendPort<M> channel, long period, TimeUnit unit) {
+        return new ThrottlingSendPort<>(channel, period, unit);
+    }
+
+    private static <M> void forward(ReceivePort<M> in, SendPort<M> out) throws SuspendExecution, InterruptedException {
+        M m;
+        while ((m = in.receive()) != null)
+            out.send(m);
+    }
+
     /**
      * Returns a {@link TransformingSendPort} wrapping the given channel, which may be used for functional
      * transformations.
@@ -0,0 +1,108 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Timeout;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives a message only once no other message has followed it for a given quiet period; messages that are followed by another
+ * message within the period are discarded. When the underlying channel is closed, the last message is received immediately.
+ * <p>
+ * The waiting is done by the receiving strand's own timed receives, so no other strand (or timer task) is involved.</p>
+ *
+ * @author pron
+ */
+class DebouncingReceivePort<T> extends DelegatingReceivePort1<T, T> implements ReceivePort<T> {
+    private final long quiet;
+    private T pending;
+    private long due;
+
+    public DebouncingReceivePort(ReceivePort<T> target, long quiet, TimeUnit unit) {
+        super(target);
+        if (quiet < 0)
+            throw new IllegalArgumentException("quiet period must not be negative; was " + quiet);
+        this.quiet = unit.toNanos(quiet);
+    }
+
+    @Override
+    public T receive() throws SuspendExecution, InterruptedException {
+        return receive0(false, 0);
+    }
+
+    @Override
+    public T receive(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException {
+        return receive0(true, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    @Override
+    public T receive(Timeout timeout) throws SuspendExecution, InterruptedException {
+        return receive(timeout.nanosLeft(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public T tryReceive() {
+        T m;
+        while ((m = target.tryReceive()) != null)
+            setPending(m);
+        if (pending != null && (System.nanoTime() - due >= 0 || target.isClosed()))
+            return takePending();
+        return null;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return pending == null && super.isClosed();
+    }
+
+    private T receive0(boolean timed, long deadline) throws SuspendExecution, InterruptedException {
+        for (;;) {
+            final long now = System.nanoTime();
+            if (pending == null) {
+                final T m = timed ? target.receive(deadline - now, TimeUnit.NANOSECONDS) : target.receive();
+                if (m == null) // closed or timed out
+                    return null;
+                setPending(m);
+                continue;
+            }
+
+            long wait = due - now;
+            if (wait <= 0)
+                return takePending();
+            if (timed) {
+                if (deadline - now <= 0)
+                    return null;
+                wait = Math.min(wait, deadline - now);
+            }
+
+            final T m = target.receive(wait, TimeUnit.NANOSECONDS);
+            if (m != null)
+                setPending(m);
+            else if (target.isClosed())
+                return takePending();
+        }
+    }
+
+    private void setPending(T m) {
+        this.pending = m;
+        this.due = System.nanoTime() + quiet;
+    }
+
+    private T takePending() {
+        final T m = pending;
+        pending = null;
+        return m;
+    }
+}
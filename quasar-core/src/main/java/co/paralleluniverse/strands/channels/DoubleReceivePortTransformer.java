@@ -0,0 +1,173 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.fibers.Suspendable;
+import co.paralleluniverse.strands.Timeout;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The superclass of the single-input {@link DoubleReceivePort} transformations.
+ * Messages are received with {@link DoubleReceivePort#receiveDouble() receiveDouble}, and so are never boxed unless the transformed port
+ * is itself used through the boxed {@link ReceivePort} methods.
+ * <p>
+ * Like the primitive channels, a transformer must only be used by a single receiver strand.</p>
+ *
+ * @author pron
+ */
+abstract class DoubleReceivePortTransformer extends DelegatingReceivePort1<Double, Double> implements DoubleReceivePort {
+    protected final DoubleReceivePort source;
+    private boolean hasPending;
+    private double pending;
+
+    public DoubleReceivePortTransformer(DoubleReceivePort target) {
+        super(target);
+        this.source = target;
+    }
+
+    /**
+     * Whether a message received from the source is passed on (after being {@link #map(int) mapped}) or discarded.
+     */
+    protected boolean filter(double m) {
+        return true;
+    }
+
+    protected double map(double m) {
+        return m;
+    }
+
+    /**
+     * Whether one last message, {@link #last()}, is to be received once the source has been closed and drained.
+     */
+    protected boolean hasLast() {
+        return false;
+    }
+
+    protected double last() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public double receiveDouble() throws SuspendExecution, InterruptedException, EOFException {
+        if (hasPending)
+            return takePending();
+        try {
+            for (;;) {
+                final double m = source.receiveDouble();
+                if (filter(m))
+                    return map(m);
+            }
+        } catch (EOFException e) {
+            if (hasLast())
+                return last();
+            throw e;
+        }
+    }
+
+    @Override
+    public double receiveDouble(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException, TimeoutException, EOFException {
+        if (hasPending)
+            return takePending();
+        long left = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + left;
+        try {
+            for (;;) {
+                final double m = source.receiveDouble(left, TimeUnit.NANOSECONDS);
+                if (filter(m))
+                    return map(m);
+                left = deadline - System.nanoTime();
+            }
+        } catch (EOFException e) {
+            if (hasLast())
+                return last();
+            throw e;
+        }
+    }
+
+    @Override
+    public double receiveDouble(Timeout timeout) throws SuspendExecution, InterruptedException, TimeoutException, EOFException {
+        return receiveDouble(timeout.nanosLeft(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    @Suspendable
+    public boolean hasMessage() {
+        if (hasPending)
+            return true;
+        try {
+            // the source has a message, so receiveDouble won't block
+            while (source.hasMessage()) {
+                final double m = source.receiveDouble();
+                if (filter(m))
+                    return setPending(map(m));
+            }
+            if (source.isClosed() && hasLast())
+                return setPending(last());
+            return false;
+        } catch (EOFException e) {
+            return hasLast() && setPending(last());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable t) {
+            // It should never happen
+            throw new AssertionError(t);
+        }
+    }
+
+    @Override
+    public Double receive() throws SuspendExecution, InterruptedException {
+        try {
+            return receiveDouble();
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Double receive(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException {
+        try {
+            return receiveDouble(timeout, unit);
+        } catch (TimeoutException | EOFException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Double receive(Timeout timeout) throws SuspendExecution, InterruptedException {
+        return receive(timeout.nanosLeft(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Double tryReceive() {
+        return hasMessage() ? takePending() : null;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return !hasPending && super.isClosed() && !hasLast();
+    }
+
+    private boolean setPending(double m) {
+        this.pending = m;
+        this.hasPending = true;
+        return true;
+    }
+
+    private double takePending() {
+        hasPending = false;
+        return pending;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import java.util.function.LongPredicate;
+
+/**
+ *
+ * @author pron
+ */
+class FilteringLongReceivePort extends LongReceivePortTransformer {
+    private final LongPredicate p;
+
+    public FilteringLongReceivePort(LongReceivePort target, LongPredicate p) {
+        super(target);
+        if (p == null)
+            throw new IllegalArgumentException("p can't be null");
+        this.p = p;
+    }
+
+    @Override
+    protected boolean filter(long m) {
+        return p.test(m);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.fibers.Suspendable;
+import co.paralleluniverse.strands.Timeout;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongFunction;
+
+/**
+ * Single consumer
+ *
+ * @author pron
+ */
+class FlatMappingLongReceivePort extends DelegatingReceivePort1<Long, Long> implements LongReceivePort {
+    private final LongReceivePort source;
+    private final LongFunction<LongReceivePort> f;
+    private LongReceivePort port;
+
+    public FlatMappingLongReceivePort(LongReceivePort target, LongFunction<LongReceivePort> f) {
+        super(target);
+        if (f == null)
+            throw new IllegalArgumentException("f can't be null");
+        this.source = target;
+        this.f = f;
+    }
+
+    @Override
+    public long receiveLong() throws SuspendExecution, InterruptedException, EOFException {
+        for (;;) {
+            if (port != null) {
+                try {
+                    return port.receiveLong();
+                } catch (EOFException e) {
+                    port = null;
+                }
+            }
+            this.port = f.apply(source.receiveLong());
+        }
+    }
+
+    @Override
+    public long receiveLong(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException, TimeoutException, EOFException {
+        long left = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + left;
+
+        for (;;) {
+            if (port != null) {
+                try {
+                    return port.receiveLong(left, TimeUnit.NANOSECONDS);
+                } catch (EOFException e) {
+                    port = null;
+                }
+                left = deadline - System.nanoTime();
+            }
+            this.port = f.apply(source.receiveLong(left, TimeUnit.NANOSECONDS));
+            left = deadline - System.nanoTime();
+        }
+    }
+
+    @Override
+    public long receiveLong(Timeout timeout) throws SuspendExecution, InterruptedException, TimeoutException, EOFException {
+        return receiveLong(timeout.nanosLeft(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    @Suspendable
+    public boolean hasMessage() {
+        try {
+            for (;;) {
+                if (port != null) {
+                    if (port.hasMessage())
+                        return true;
+                    if (!port.isClosed())
+                        return false;
+                    port = null;
+                }
+                if (!source.hasMessage())
+                    return false;
+                // the source has a message, so receiveLong won't block
+                this.port = f.apply(source.receiveLong());
+            }
+        } catch (EOFException e) {
+            return false;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable t) {
+            // It should never happen
+            throw new AssertionError(t);
+        }
+    }
+
+    @Override
+    public Long receive() throws SuspendExecution, InterruptedException {
+        try {
+            return receiveLong();
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Long receive(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException {
+        try {
+            return receiveLong(timeout, unit);
+        } catch (TimeoutException | EOFException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Long receive(Timeout timeout) throws SuspendExecution, InterruptedException {
+        return receive(timeout.nanosLeft(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    @Suspendable
+    public Long tryReceive() {
+        if (!hasMessage())
+            return null;
+        try {
+            // the current port has a message, so receiveLong won't block
+            return port.receiveLong();
+        } catch (EOFException e) {
+            return null;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable t) {
+            // It should never happen
+            throw new AssertionError(t);
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return source.isClosed() && (port == null || port.isClosed());
+    }
+}
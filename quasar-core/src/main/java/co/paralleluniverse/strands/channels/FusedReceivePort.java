@@ -0,0 +1,155 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Timeout;
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A sequence of stateless {@link TransformingReceivePort#map(Function) map} and {@link TransformingReceivePort#filter(Predicate) filter}
+ * stages applied to a source port by a single port.
+ * <p>
+ * Mapping or filtering a {@code FusedReceivePort} appends a stage to a new {@code FusedReceivePort} over the same source rather than
+ * wrapping this one, so a message received through any number of consecutive stages passes through a single {@code receive} frame,
+ * and a message dropped by a filter does not re-enter the chain.</p>
+ *
+ * @author pron
+ */
+class FusedReceivePort<T> extends TransformingReceivePort<T> {
+    private final Stage[] stages;
+
+    @SuppressWarnings("unchecked")
+    private FusedReceivePort(ReceivePort<?> source, Stage[] stages) {
+        super((ReceivePort<T>) source); // the source's messages are of the type of the first stage's input, not T
+        this.stages = stages;
+    }
+
+    static <S, T> TransformingReceivePort<T> map(ReceivePort<S> port, Function<S, T> f) {
+        return fuse(port, new MapStage(f));
+    }
+
+    static <T> TransformingReceivePort<T> filter(ReceivePort<T> port, Predicate<T> pred) {
+        return fuse(port, new FilterStage(pred));
+    }
+
+    private static <T> TransformingReceivePort<T> fuse(ReceivePort<?> port, Stage stage) {
+        if (port instanceof FusedReceivePort) {
+            final Stage[] prev = ((FusedReceivePort<?>) port).stages;
+            final Stage[] stages = Arrays.copyOf(prev, prev.length + 1);
+            stages[prev.length] = stage;
+            return new FusedReceivePort<>(((FusedReceivePort<?>) port).target, stages);
+        }
+        if (port.getClass() == TransformingReceivePort.class) // a plain wrapper; subclasses (like TakeReceivePort) do their own receiving
+            port = ((TransformingReceivePort<?>) port).target;
+        return new FusedReceivePort<>(port, new Stage[]{stage});
+    }
+
+    @Override
+    public T receive() throws SuspendExecution, InterruptedException {
+        for (;;) {
+            final Object m0 = target.receive();
+            if (m0 == null) // closed
+                return null;
+            final T m = transform(m0);
+            if (m != null)
+                return m;
+        }
+    }
+
+    @Override
+    public T tryReceive() {
+        for (;;) {
+            final Object m0 = target.tryReceive();
+            if (m0 == null)
+                return null;
+            final T m = transform(m0);
+            if (m != null)
+                return m;
+        }
+    }
+
+    @Override
+    public T receive(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException {
+        long left = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + left;
+
+        for (;;) {
+            final Object m0 = target.receive(left, TimeUnit.NANOSECONDS);
+            if (m0 == null)
+                return null;
+            final T m = transform(m0);
+            if (m != null)
+                return m;
+            left = deadline - System.nanoTime();
+        }
+    }
+
+    @Override
+    public T receive(Timeout timeout) throws SuspendExecution, InterruptedException {
+        return receive(timeout.nanosLeft(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Runs a message through all stages; returns {@code null} if a stage drops it.
+     */
+    @SuppressWarnings("unchecked")
+    private T transform(Object m) {
+        for (Stage stage : stages) {
+            m = stage.apply(m);
+            if (m == null)
+                return null;
+        }
+        return (T) m;
+    }
+
+    private static abstract class Stage {
+        abstract Object apply(Object m);
+    }
+
+    private static final class MapStage extends Stage {
+        private final Function<Object, Object> f;
+
+        @SuppressWarnings("unchecked")
+        MapStage(Function<?, ?> f) {
+            if (f == null)
+                throw new IllegalArgumentException("f can't be null");
+            this.f = (Function<Object, Object>) f;
+        }
+
+        @Override
+        Object apply(Object m) {
+            return f.apply(m);
+        }
+    }
+
+    private static final class FilterStage extends Stage {
+        private final Predicate<Object> p;
+
+        @SuppressWarnings("unchecked")
+        FilterStage(Predicate<?> p) {
+            if (p == null)
+                throw new IllegalArgumentException("p can't be null");
+            this.p = (Predicate<Object>) p;
+        }
+
+        @Override
+        Object apply(Object m) {
+            return p.apply(m) ? m : null;
+        }
+    }
+}
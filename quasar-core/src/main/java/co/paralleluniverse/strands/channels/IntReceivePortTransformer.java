@@ -0,0 +1,173 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.fibers.Suspendable;
+import co.paralleluniverse.strands.Timeout;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The superclass of the single-input {@link IntReceivePort} transformations.
+ * Messages are received with {@link IntReceivePort#receiveInt() receiveInt}, and so are never boxed unless the transformed port
+ * is itself used through the boxed {@link ReceivePort} methods.
+ * <p>
+ * Like the primitive channels, a transformer must only be used by a single receiver strand.</p>
+ *
+ * @author pron
+ */
+abstract class IntReceivePortTransformer extends DelegatingReceivePort1<Integer, Integer> implements IntReceivePort {
+    protected final IntReceivePort source;
+    private boolean hasPending;
+    private int pending;
+
+    public IntReceivePortTransformer(IntReceivePort target) {
+        super(target);
+        this.source = target;
+    }
+
+    /**
+     * Whether a message received from the source is passed on (after being {@link #map(int) mapped}) or discarded.
+     */
+    protected boolean filter(int m) {
+        return true;
+    }
+
+    protected int map(int m) {
+        return m;
+    }
+
+    /**
+     * Whether one last message, {@link #last()}, is to be received once the source has been closed and drained.
+     */
+    protected boolean hasLast() {
+        return false;
+    }
+
+    protected int last() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int receiveInt() throws SuspendExecution, InterruptedException, EOFException {
+        if (hasPending)
+            return takePending();
+        try {
+            for (;;) {
+                final int m = source.receiveInt();
+                if (filter(m))
+                    return map(m);
+            }
+        } catch (EOFException e) {
+            if (hasLast())
+                return last();
+            throw e;
+        }
+    }
+
+    @Override
+    public int receiveInt(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException, TimeoutException, EOFException {
+        if (hasPending)
+            return takePending();
+        long left = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + left;
+        try {
+            for (;;) {
+                final int m = source.receiveInt(left, TimeUnit.NANOSECONDS);
+                if (filter(m))
+                    return map(m);
+                left = deadline - System.nanoTime();
+            }
+        } catch (EOFException e) {
+            if (hasLast())
+                return last();
+            throw e;
+        }
+    }
+
+    @Override
+    public int receiveInt(Timeout timeout) throws SuspendExecution, InterruptedException, TimeoutException, EOFException {
+        return receiveInt(timeout.nanosLeft(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    @Suspendable
+    public boolean hasMessage() {
+        if (hasPending)
+            return true;
+        try {
+            // the source has a message, so receiveInt won't block
+            while (source.hasMessage()) {
+                final int m = source.receiveInt();
+                if (filter(m))
+                    return setPending(map(m));
+            }
+            if (source.isClosed() && hasLast())
+                return setPending(last());
+            return false;
+        } catch (EOFException e) {
+            return hasLast() && setPending(last());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable t) {
+            // It should never happen
+            throw new AssertionError(t);
+        }
+    }
+
+    @Override
+    public Integer receive() throws SuspendExecution, InterruptedException {
+        try {
+            return receiveInt();
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Integer receive(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException {
+        try {
+            return receiveInt(timeout, unit);
+        } catch (TimeoutException | EOFException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Integer receive(Timeout timeout) throws SuspendExecution, InterruptedException {
+        return receive(timeout.nanosLeft(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Integer tryReceive() {
+        return hasMessage() ? takePending() : null;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return !hasPending && super.isClosed() && !hasLast();
+    }
+
+    private boolean setPending(int m) {
+        this.pending = m;
+        this.hasPending = true;
+        return true;
+    }
+
+    private int takePending() {
+        hasPending = false;
+        return pending;
+    }
+}
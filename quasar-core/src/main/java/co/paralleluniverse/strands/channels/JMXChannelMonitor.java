@@ -0,0 +1,223 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.common.monitoring.Counter;
+import co.paralleluniverse.common.monitoring.MonitoringServices;
+import java.lang.management.ManagementFactory;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.Notification;
+import javax.management.NotificationListener;
+import javax.management.ObjectName;
+
+/**
+ * A JMX MBean that monitors a single {@link QueueChannel}.
+ *
+ * @author pron
+ */
+class JMXChannelMonitor implements ChannelMonitor, NotificationListener, ChannelMXBean {
+    private final String mbeanName;
+    private final QueueChannel<?> channel;
+    private boolean registered;
+    private long lastCollectTime;
+    private final Counter sentCounter = new Counter();
+    private final Counter receivedCounter = new Counter();
+    private final Counter overflowCounter = new Counter();
+    private final Counter senderWaitsCounter = new Counter();
+    private final Counter senderWaitTimeCounter = new Counter();
+    private final Counter receiverWaitsCounter = new Counter();
+    private final Counter receiverWaitTimeCounter = new Counter();
+    private long lastSent;
+    private long lastReceived;
+    private double sendRate;
+    private double receiveRate;
+    private long meanSenderWait;
+    private long meanReceiverWait;
+
+    public JMXChannelMonitor(String name, QueueChannel<?> channel) {
+        this.channel = channel;
+        this.mbeanName = "co.paralleluniverse:type=Channels,name=" + name;
+        registerMBean();
+        lastCollectTime = nanoTime();
+    }
+
+    @SuppressWarnings({"CallToPrintStackTrace", "CallToThreadDumpStack"})
+    protected void registerMBean() {
+        try {
+            final MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName mxbeanName = new ObjectName(mbeanName);
+            mbs.registerMBean(this, mxbeanName);
+            this.registered = true;
+        } catch (InstanceAlreadyExistsException ex) {
+            throw new RuntimeException(ex);
+        } catch (MBeanRegistrationException ex) {
+            ex.printStackTrace();
+        } catch (NotCompliantMBeanException ex) {
+            throw new AssertionError(ex);
+        } catch (MalformedObjectNameException ex) {
+            throw new AssertionError(ex);
+        }
+        MonitoringServices.getInstance().addPerfNotificationListener(this, mbeanName);
+    }
+
+    @SuppressWarnings({"CallToPrintStackTrace", "CallToThreadDumpStack"})
+    @Override
+    public void unregister() {
+        try {
+            if (registered) {
+                MonitoringServices.getInstance().removePerfNotificationListener(this);
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(mbeanName));
+            }
+            this.registered = false;
+        } catch (InstanceNotFoundException ex) {
+            ex.printStackTrace();
+        } catch (MBeanRegistrationException ex) {
+            ex.printStackTrace();
+        } catch (MalformedObjectNameException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if ("perfTimer".equals(notification.getType()))
+            refresh();
+    }
+
+    @Override
+    public void refresh() {
+        collectAndResetCounters();
+    }
+
+    public boolean isRegistered() {
+        return registered;
+    }
+
+    private void collectAndResetCounters() {
+        if (isRegistered())
+            collectAndResetCounters(nanoTime() - lastCollectTime);
+    }
+
+    protected void collectAndResetCounters(long intervalNanos) {
+        final double seconds = intervalNanos / 1_000_000_000.0;
+
+        final long sent = sentCounter.get();
+        final long received = receivedCounter.get();
+        sendRate = seconds > 0 ? (sent - lastSent) / seconds : 0.0;
+        receiveRate = seconds > 0 ? (received - lastReceived) / seconds : 0.0;
+        lastSent = sent;
+        lastReceived = received;
+
+        final long sw = senderWaitsCounter.getAndReset();
+        final long swt = senderWaitTimeCounter.getAndReset();
+        meanSenderWait = sw != 0L ? swt / sw : 0L;
+
+        final long rw = receiverWaitsCounter.getAndReset();
+        final long rwt = receiverWaitTimeCounter.getAndReset();
+        meanReceiverWait = rw != 0L ? rwt / rw : 0L;
+
+        lastCollectTime = nanoTime();
+    }
+
+    private long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void messageSent() {
+        sentCounter.inc();
+    }
+
+    @Override
+    public void messageReceived() {
+        receivedCounter.inc();
+    }
+
+    @Override
+    public void overflow() {
+        overflowCounter.inc();
+    }
+
+    @Override
+    public void overflow(long n) {
+        overflowCounter.add(n);
+    }
+
+    @Override
+    public void senderWaited(long nanos) {
+        senderWaitsCounter.inc();
+        senderWaitTimeCounter.add(nanos);
+    }
+
+    @Override
+    public void receiverWaited(long nanos) {
+        receiverWaitsCounter.inc();
+        receiverWaitTimeCounter.add(nanos);
+    }
+
+    @Override
+    public int getQueueLength() {
+        return channel.getQueueLength();
+    }
+
+    @Override
+    public int getCapacity() {
+        return channel.capacity();
+    }
+
+    @Override
+    public String getOverflowPolicy() {
+        return channel.getOverflowPolicy().toString();
+    }
+
+    @Override
+    public long getSentMessages() {
+        return sentCounter.get();
+    }
+
+    @Override
+    public long getReceivedMessages() {
+        return receivedCounter.get();
+    }
+
+    @Override
+    public double getSendRate() {
+        return sendRate;
+    }
+
+    @Override
+    public double getReceiveRate() {
+        return receiveRate;
+    }
+
+    @Override
+    public long getOverflows() {
+        return overflowCounter.get();
+    }
+
+    @Override
+    public long getMeanSenderWait() {
+        return meanSenderWait;
+    }
+
+    @Override
+    public long getMeanReceiverWait() {
+        return meanReceiverWait;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import java.util.function.LongUnaryOperator;
+
+/**
+ *
+ * @author pron
+ */
+class MappingLongReceivePort extends LongReceivePortTransformer {
+    private final LongUnaryOperator f;
+
+    public MappingLongReceivePort(LongReceivePort target, LongUnaryOperator f) {
+        super(target);
+        if (f == null)
+            throw new IllegalArgumentException("f can't be null");
+        this.f = f;
+    }
+
+    @Override
+    protected long map(long m) {
+        return f.applyAsLong(m);
+    }
+}
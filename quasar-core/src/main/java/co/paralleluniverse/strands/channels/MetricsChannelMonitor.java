@@ -0,0 +1,91 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.common.monitoring.Metrics;
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Reports a single {@link QueueChannel}'s statistics to the {@link Metrics} registry.
+ * Wait times are recorded in (sampling) histograms, and the queue length is a gauge that is read whenever the metrics are reported.
+ *
+ * @author pron
+ */
+class MetricsChannelMonitor implements ChannelMonitor {
+    private final String name;
+    private final Meter sent;
+    private final Meter received;
+    private final Counter overflows;
+    private final Histogram senderWait;
+    private final Histogram receiverWait;
+
+    public MetricsChannelMonitor(String name, final QueueChannel<?> channel) {
+        this.name = name;
+        this.sent = Metrics.meter(metric("sent"));
+        this.received = Metrics.meter(metric("received"));
+        this.overflows = Metrics.counter(metric("overflows"));
+        this.senderWait = Metrics.histogram(metric("senderWait"));
+        this.receiverWait = Metrics.histogram(metric("receiverWait"));
+        Metrics.register(metric("queueLength"), new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return channel.getQueueLength();
+            }
+        });
+    }
+
+    protected final String metric(String metricName) {
+        return name("co.paralleluniverse", "channels", name, metricName);
+    }
+
+    @Override
+    public void unregister() {
+        for (String m : new String[]{"sent", "received", "overflows", "senderWait", "receiverWait", "queueLength"})
+            Metrics.remove(metric(m));
+    }
+
+    @Override
+    public void messageSent() {
+        sent.mark();
+    }
+
+    @Override
+    public void messageReceived() {
+        received.mark();
+    }
+
+    @Override
+    public void overflow() {
+        overflows.inc();
+    }
+
+    @Override
+    public void overflow(long n) {
+        overflows.inc(n);
+    }
+
+    @Override
+    public void senderWaited(long nanos) {
+        senderWait.update(nanos);
+    }
+
+    @Override
+    public void receiverWaited(long nanos) {
+        receiverWait.update(nanos);
+    }
+}
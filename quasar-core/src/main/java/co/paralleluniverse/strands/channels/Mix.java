@@ -31,10 +31,16 @@ public interface Mix<M> extends ReceivePort<M> {
     public static class State {
         public final Mode mode;
         public final Boolean solo;
+        public final Integer weight;
 
-        public State(final Mode mode, final Boolean solo) {
+        public State(final Mode mode, final Boolean solo, final Integer weight) {
             this.mode = mode;
             this.solo = solo;
+            this.weight = weight;
+        }
+
+        public State(final Mode mode, final Boolean solo) {
+            this(mode, solo, null);
         }
 
         // Null has meaning only on write operations and it means "don't set"
@@ -54,11 +60,19 @@ public interface Mix<M> extends ReceivePort<M> {
             return solo;
         }
 
+        /**
+         * The port's weight, used by the weighted {@link SelectionPolicy selection policies}; {@code null} means the default weight of 1.
+         */
+        public Integer getWeight() {
+            return weight;
+        }
+
         @Override
         public int hashCode() {
             int hash = 3;
             hash = 79 * hash + Objects.hashCode(this.mode);
             hash = 79 * hash + Objects.hashCode(this.solo);
+            hash = 79 * hash + Objects.hashCode(this.weight);
             return hash;
         }
 
@@ -73,12 +87,14 @@ public interface Mix<M> extends ReceivePort<M> {
                 return false;
             if (!Objects.equals(this.solo, other.solo))
                 return false;
+            if (!Objects.equals(this.weight, other.weight))
+                return false;
             return true;
         }
 
         @Override
         public String toString() {
-            return "State{" + "solo=" + solo + ", mode=" + mode + '}';
+            return "State{" + "solo=" + solo + ", mode=" + mode + ", weight=" + weight + '}';
         }
     }
 
@@ -104,4 +120,23 @@ public interface Mix<M> extends ReceivePort<M> {
     public SoloEffect getSoloEffect();
 
     public void setSoloEffect(final SoloEffect effect) throws SuspendExecution, InterruptedException;   
+
+    /**
+     * Returns the policy by which the mix chooses among its ports. Mixes that do not support selection policies always choose by
+     * {@link SelectionPolicy.Type#PRIORITY PRIORITY}.
+     */
+    public default SelectionPolicy.Type getSelectionPolicy() {
+        return SelectionPolicy.Type.PRIORITY;
+    }
+
+    /**
+     * Sets the policy by which the mix chooses among its (non-muted) ports when more than one has a message available.
+     * The weighted policies take each port's weight from its {@link State}.
+     *
+     * @throws UnsupportedOperationException if this mix does not support the given policy
+     */
+    public default void setSelectionPolicy(final SelectionPolicy.Type policy) throws SuspendExecution, InterruptedException {
+        if (policy != getSelectionPolicy())
+            throw new UnsupportedOperationException("Selection policy " + policy + " is not supported by " + this);
+    }
  }
@@ -0,0 +1,254 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.fibers.FiberFactory;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SuspendableCallable;
+import co.paralleluniverse.strands.SuspendableFunction;
+import co.paralleluniverse.strands.Timeout;
+import co.paralleluniverse.strands.channels.Channels.OverflowPolicy;
+import co.paralleluniverse.strands.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies a mapping function to up to {@code concurrency} messages at a time, each in its own fiber.
+ * <p>
+ * A dispatching fiber receives messages from the source and starts a mapping fiber for each, once fewer than {@code concurrency}
+ * messages have been received from the source but not yet from this port. Mapping fibers hand their results to this port through
+ * an internal channel; when results are {@code ordered} they are put back in input order in a reorder buffer of {@code concurrency}
+ * slots, which can't overflow because no more than {@code concurrency} messages are outstanding.</p>
+ * <p>
+ * Once the mapping function has failed, this port closes the source (like {@link #close()} does), which stops the dispatcher
+ * even if it is blocked receiving from the source.</p>
+ * <p>
+ * Only a single strand may receive from this port.</p>
+ *
+ * @author pron
+ */
+class ParallelMappingReceivePort<S, T> extends DelegatingReceivePort1<S, T> implements ReceivePort<T> {
+    private final FiberFactory fiberFactory;
+    private final SuspendableFunction<S, T> f;
+    private final int concurrency;
+    private final Semaphore permits;
+    private final Channel<Result> results;
+    private final Result[] reorder; // null if unordered
+    private long next; // the number of results received (or dropped)
+    private long end = -1; // the number of messages received from the source, once it's closed
+    private Throwable endError; // the exception the source has been closed with
+    private Throwable failure; // thrown by the mapping function
+
+    public ParallelMappingReceivePort(FiberFactory fiberFactory, ReceivePort<S> target, int concurrency, boolean ordered, SuspendableFunction<S, T> f) {
+        super(target);
+        if (fiberFactory == null)
+            throw new IllegalArgumentException("fiberFactory can't be null");
+        if (f == null)
+            throw new IllegalArgumentException("f can't be null");
+        if (concurrency <= 0)
+            throw new IllegalArgumentException("concurrency must be positive; was " + concurrency);
+        this.fiberFactory = fiberFactory;
+        this.f = f;
+        this.concurrency = concurrency;
+        this.permits = new Semaphore(concurrency);
+        this.results = Channels.newChannel(-1, OverflowPolicy.BLOCK, false, true);
+        this.reorder = ordered ? new Result[concurrency] : null;
+
+        fiberFactory.newFiber(new Dispatcher()).start();
+    }
+
+    @Override
+    public T receive() throws SuspendExecution, InterruptedException {
+        for (;;) {
+            if (isDone())
+                return eof();
+            final Result r = reorder != null ? takeReordered() : null;
+            if (r != null) {
+                final T m = emit(r);
+                if (m != null)
+                    return m;
+                continue;
+            }
+            final T m = accept(results.receive());
+            if (m != null)
+                return m;
+        }
+    }
+
+    @Override
+    public T receive(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException {
+        long left = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + left;
+
+        for (;;) {
+            if (isDone())
+                return eof();
+            final Result r = reorder != null ? takeReordered() : null;
+            if (r != null) {
+                final T m = emit(r);
+                if (m != null)
+                    return m;
+                continue;
+            }
+            final Result r1 = results.receive(left, TimeUnit.NANOSECONDS);
+            if (r1 == null)
+                return null;
+            final T m = accept(r1);
+            if (m != null)
+                return m;
+            left = deadline - System.nanoTime();
+        }
+    }
+
+    @Override
+    public T receive(Timeout timeout) throws SuspendExecution, InterruptedException {
+        return receive(timeout.nanosLeft(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public T tryReceive() {
+        for (;;) {
+            if (isDone())
+                return eof();
+            final Result r = reorder != null ? takeReordered() : null;
+            if (r != null) {
+                final T m = emit(r);
+                if (m != null)
+                    return m;
+                continue;
+            }
+            final Result r1 = results.tryReceive();
+            if (r1 == null)
+                return null;
+            final T m = accept(r1);
+            if (m != null)
+                return m;
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return isDone();
+    }
+
+    private boolean isDone() {
+        return failure != null || next == end;
+    }
+
+    private T eof() {
+        final Throwable t = failure != null ? failure : endError;
+        if (t != null)
+            throw new ProducerException(t);
+        return null;
+    }
+
+    /**
+     * Processes a result received from the internal channel; returns the message to receive, if any.
+     */
+    private T accept(Result r) {
+        if (r.end) {
+            this.end = r.seq;
+            this.endError = r.error;
+            return null;
+        }
+        if (reorder == null)
+            return emit(r);
+        reorder[(int) (r.seq % concurrency)] = r;
+        return null;
+    }
+
+    private Result takeReordered() {
+        final int i = (int) (next % concurrency);
+        final Result r = reorder[i];
+        if (r == null)
+            return null;
+        reorder[i] = null;
+        return r;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T emit(Result r) {
+        next++;
+        permits.release();
+        if (r.error != null) {
+            fail(r.error);
+            throw new ProducerException(r.error);
+        }
+        return (T) r.value; // null if the message has been dropped by the mapping function
+    }
+
+    private void fail(Throwable t) {
+        this.failure = t;
+        target.close(); // no more messages will be mapped, so the dispatcher must not be left waiting for them
+        permits.release(concurrency); // let the dispatcher find out that the source has been closed
+    }
+
+    private static final class Result {
+        final long seq;
+        final Object value;
+        final Throwable error;
+        final boolean end;
+
+        Result(long seq, Object value, Throwable error, boolean end) {
+            this.seq = seq;
+            this.value = value;
+            this.error = error;
+            this.end = end;
+        }
+    }
+
+    private class Dispatcher implements SuspendableCallable<Void> {
+        @Override
+        public Void run() throws SuspendExecution, InterruptedException {
+            long seq = 0;
+            Throwable error = null;
+            try {
+                for (;; seq++) {
+                    permits.acquire();
+                    final S m = target.receive();
+                    if (m == null) // closed
+                        break;
+                    fiberFactory.newFiber(new Mapper(seq, m)).start();
+                }
+            } catch (ProducerException e) {
+                error = e.getCause();
+            } catch (Throwable t) {
+                error = t;
+            }
+            results.send(new Result(seq, null, error, true));
+            return null;
+        }
+    }
+
+    private class Mapper implements SuspendableCallable<Void> {
+        private final long seq;
+        private final S m;
+
+        Mapper(long seq, S m) {
+            this.seq = seq;
+            this.m = m;
+        }
+
+        @Override
+        public Void run() throws SuspendExecution, InterruptedException {
+            Result r;
+            try {
+                r = new Result(seq, f.apply(m), null, false);
+            } catch (Throwable t) {
+                r = new Result(seq, null, t, false);
+            }
+            results.send(r);
+            return null;
+        }
+    }
+}
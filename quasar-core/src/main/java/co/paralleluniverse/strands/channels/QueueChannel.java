@@ -15,12 +15,14 @@ package co.paralleluniverse.strands.channels;
 
 import co.paralleluniverse.common.monitoring.FlightRecorder;
 import co.paralleluniverse.common.monitoring.FlightRecorderMessage;
+import co.paralleluniverse.common.monitoring.MonitorType;
 import co.paralleluniverse.common.util.Debug;
 import co.paralleluniverse.common.util.DelegatingEquals;
 import co.paralleluniverse.common.util.Objects;
 import co.paralleluniverse.fibers.SuspendExecution;
 import co.paralleluniverse.remote.RemoteChannelProxyFactoryService;
 import co.paralleluniverse.strands.Condition;
+import co.paralleluniverse.strands.ConditionSynchronizer;
 import co.paralleluniverse.strands.OwnedSynchronizer;
 import co.paralleluniverse.strands.SimpleConditionSynchronizer;
 import co.paralleluniverse.strands.Strand;
@@ -43,12 +45,15 @@ public abstract class QueueChannel<Message> implements StandardChannel<Message>,
     final BasicQueue<Message> queue;
     private final boolean singleProducer;
     private final boolean singleConsumer;
-    final Condition sync;
-    final Condition sendersSync;
+    final ConditionSynchronizer sync;
+    final ConditionSynchronizer sendersSync;
+    private final boolean signalAllReceivers;
     final OverflowPolicy overflowPolicy;
     private Throwable closeException;
     private volatile boolean sendClosed;
     private boolean receiveClosed;
+    private volatile ChannelMonitor monitor;
+    private long displacedReported; // the displaced messages already reported to the monitor (or counted before monitoring began)
 
     protected QueueChannel(BasicQueue<Message> queue, OverflowPolicy overflowPolicy, boolean singleConsumer) {
         this(queue, overflowPolicy, false, singleConsumer);
@@ -63,6 +68,7 @@ public abstract class QueueChannel<Message> implements StandardChannel<Message>,
 
         this.overflowPolicy = overflowPolicy;
         this.sendersSync = overflowPolicy == OverflowPolicy.BLOCK ? new SimpleConditionSynchronizer(this) : null;
+        this.signalAllReceivers = queue instanceof CircularBuffer; // every consumer of a ticker channel receives every message
         this.singleProducer = singleProducer;
         this.singleConsumer = singleConsumer;
     }
@@ -93,14 +99,59 @@ public abstract class QueueChannel<Message> implements StandardChannel<Message>,
         return overflowPolicy;
     }
 
+    /**
+     * Starts collecting this channel's statistics – its queue length, send and receive rates, the time senders and receivers spend
+     * waiting, and the number of times its overflow policy has been applied – and exports them under the given name.
+     * Monitoring takes effect for operations that begin after this method has returned.
+     *
+     * @param name        the name under which the statistics are registered
+     * @param monitorType {@link MonitorType#JMX JMX} to export an MXBean named {@code co.paralleluniverse:type=Channels,name=<name>},
+     *                    {@link MonitorType#METRICS METRICS} to report to the {@link co.paralleluniverse.common.monitoring.Metrics Metrics}
+     *                    registry, or {@link MonitorType#NONE NONE} to stop monitoring.
+     * @see ChannelMXBean
+     */
+    public synchronized void setMonitor(String name, MonitorType monitorType) {
+        if (monitorType == null)
+            monitorType = MonitorType.NONE;
+        if (monitor != null)
+            monitor.unregister();
+        this.displacedReported = displaced(); // messages displaced so far are not reported
+        switch (monitorType) {
+            case JMX:
+                this.monitor = new JMXChannelMonitor(name, this);
+                break;
+            case METRICS:
+                this.monitor = new MetricsChannelMonitor(name, this);
+                break;
+            case NONE:
+                this.monitor = null;
+                break;
+            default:
+                throw new RuntimeException("Unsupported monitor type: " + monitorType);
+        }
+    }
+
+    /**
+     * Returns this channel's monitor, or {@code null} if the channel is not {@link #setMonitor(String, MonitorType) monitored}.
+     */
+    public ChannelMonitor getMonitor() {
+        return monitor;
+    }
+
     protected Condition sync() {
         verifySync();
         return sync;
     }
 
+    /**
+     * Wakes a receiver, or all of them if each receives every message.
+     */
     protected void signalReceivers() {
         record("signalReceivers", "");
-        sync.signalAll();
+        if (signalAllReceivers)
+            sync.signalAll();
+        else
+            sync.signal();
     }
 
     protected void signalAndWait() throws SuspendExecution, InterruptedException {
@@ -108,7 +159,7 @@ public abstract class QueueChannel<Message> implements StandardChannel<Message>,
         if (sync instanceof OwnedSynchronizer)
             ((OwnedSynchronizer) sync).signalAndWait();
         else
-            sync.signalAll();
+            signalReceivers();
     }
 
     void signalSenders() {
@@ -120,11 +171,12 @@ public abstract class QueueChannel<Message> implements StandardChannel<Message>,
 
     @Override
     public Object register(SelectAction<Message> action) {
-        if (((SelectActionImpl) action).isData()) {
+        final SelectActionImpl<Message> sa = (SelectActionImpl<Message>) action;
+        if (sa.isData()) {
             if (sendersSync != null)
-                sendersSync.register();
+                sa.syncToken = sendersSync.register();
         } else
-            sync.register();
+            sa.syncToken = sync.register();
         return action;
     }
 
@@ -163,12 +215,18 @@ public abstract class QueueChannel<Message> implements StandardChannel<Message>,
     public void unregister(Object token) {
         if (token == null)
             return;
+        if (!(token instanceof SelectActionImpl)) {
+            sync.unregister(token); // a simple registration
+            return;
+        }
         SelectActionImpl<Message> action = (SelectActionImpl<Message>) token;
+        final Object syncToken = action.syncToken;
+        action.syncToken = null;
         if (action.isData()) {
             if (sendersSync != null)
-                sendersSync.unregister(null);
+                sendersSync.unregister(syncToken);
         } else
-            sync.unregister(null);
+            sync.unregister(syncToken);
     }
 
     @Override
@@ -193,6 +251,7 @@ public abstract class QueueChannel<Message> implements StandardChannel<Message>,
         if (isSendClosed())
             return true;
         if (queue.enq(message)) {
+            monitorSent();
             signalReceivers();
             return true;
         } else
@@ -212,8 +271,8 @@ public abstract class QueueChannel<Message> implements StandardChannel<Message>,
             throw new IllegalArgumentException("message is null");
         if (isSendClosed())
             return true;
-        if (overflowPolicy == OverflowPolicy.BLOCK)
-            sendersSync.register();
+        final Object token = overflowPolicy == OverflowPolicy.BLOCK ? sendersSync.register() : null;
+        long waitStart = 0L;
         try {
             int i = 0;
 
@@ -226,20 +285,26 @@ public abstract class QueueChannel<Message> implements StandardChannel<Message>,
                     return true;
                 }
                 record("send0", "%s channel queue is full. policy: %s", this, overflowPolicy);
-                if (!onQueueFull(i++, timed, nanos))
-                    return true;
-
-                if (timed) {
+                if (i == 0) {
+                    monitorOverflow();
+                    if (overflowPolicy == OverflowPolicy.BLOCK || overflowPolicy == OverflowPolicy.BACKOFF)
+                        waitStart = monitorWait(waitStart);
+                } else if (timed) {
+                    // checked only after retrying, so that a wakeup received along with the timeout is not lost
                     nanos = deadline - System.nanoTime();
                     if (nanos <= 0)
                         throw new TimeoutException();
                 }
+                if (!onQueueFull(token, i++, timed, nanos))
+                    return true;
             }
+            monitorSent();
         } catch (TimeoutException e) {
             return false;
         } finally {
             if (overflowPolicy == OverflowPolicy.BLOCK)
-                sendersSync.unregister(null);
+                sendersSync.unregister(token);
+            monitorSenderWaited(waitStart);
         }
         if (sync)
             signalAndWait();
@@ -248,7 +313,7 @@ public abstract class QueueChannel<Message> implements StandardChannel<Message>,
         return true;
     }
 
-    private boolean onQueueFull(int iter, boolean timed, long nanos) throws SuspendExecution, InterruptedException, TimeoutException {
+    private boolean onQueueFull(Object token, int iter, boolean timed, long nanos) throws SuspendExecution, InterruptedException, TimeoutException {
         switch (overflowPolicy) {
             case DROP:
                 return false;
@@ -256,9 +321,9 @@ public abstract class QueueChannel<Message> implements StandardChannel<Message>,
                 throw new QueueCapacityExceededException();
             case BLOCK:
                 if (timed)
-                    sendersSync.await(iter, nanos, TimeUnit.NANOSECONDS);
+                    sendersSync.awaitNanos(token, iter, nanos);
                 else
-                    sendersSync.await(iter);
+                    sendersSync.await(token, iter);
                 return true;
             case BACKOFF:
                 if (iter > MAX_SEND_RETRIES)
@@ -277,7 +342,8 @@ public abstract class QueueChannel<Message> implements StandardChannel<Message>,
     public void close() {
         if (!sendClosed) {
             sendClosed = true;
-            signalReceivers();
+            record("close", "%s signalling all", this);
+            sync.signalAll();
             if (sendersSync != null)
                 sendersSync.signalAll();
         }
@@ -296,8 +362,11 @@ public abstract class QueueChannel<Message> implements StandardChannel<Message>,
             return;
         }
         record("sendNonSuspendable", "%s enqueing message %s", this, message);
-        if (!queue.enq(message))
+        if (!queue.enq(message)) {
+            monitorOverflow();
             throw new QueueCapacityExceededException();
+        }
+        monitorSent();
         signalReceivers();
     }
 
@@ -340,9 +409,10 @@ public abstract class QueueChannel<Message> implements StandardChannel<Message>,
             return closeValue();
         boolean closed = isSendClosed();
         final Message m = queue.poll();
-        if (m != null)
+        if (m != null) {
+            monitorReceived();
             signalSenders();
-        else if (closed) {
+        } else if (closed) {
             setReceiveClosed();
             return closeValue();
         }
@@ -356,6 +426,7 @@ public abstract class QueueChannel<Message> implements StandardChannel<Message>,
 
         Message m;
         boolean closed;
+        long waitStart = 0L;
         final Object token = sync.register();
         try {
             for (int i = 0;; i++) {
@@ -369,13 +440,16 @@ public abstract class QueueChannel<Message> implements StandardChannel<Message>,
                     return closeValue();
                 }
 
-                sync.await(i);
+                waitStart = monitorWait(waitStart);
+                sync.await(token, i);
             }
         } finally {
             sync.unregister(token);
+            monitorReceiverWaited(waitStart);
         }
 
         assert m != null;
+        monitorReceived();
         signalSenders();
         return m;
     }
@@ -394,6 +468,7 @@ public abstract class QueueChannel<Message> implements StandardChannel<Message>,
 
         Message m;
         boolean closed;
+        long waitStart = 0L;
         final Object token = sync.register();
         try {
             for (int i = 0;; i++) {
@@ -404,19 +479,24 @@ public abstract class QueueChannel<Message> implements StandardChannel<Message>,
                     setReceiveClosed();
                     return closeValue();
                 }
+                // checked only after polling, so that a wakeup received along with the timeout is not lost
+                if (left <= 0)
+                    return null;
 
-                sync.await(i, left, TimeUnit.NANOSECONDS);
+                waitStart = monitorWait(waitStart);
+                sync.awaitNanos(token, i, left);
 
                 left = deadline - System.nanoTime();
-                if (left <= 0)
-                    return null;
             }
         } finally {
             sync.unregister(token);
+            monitorReceiverWaited(waitStart);
         }
 
-        if (m != null)
+        if (m != null) {
+            monitorReceived();
             signalSenders();
+        }
         return m;
     }
 
@@ -450,6 +530,60 @@ public abstract class QueueChannel<Message> implements StandardChannel<Message>,
         return queue.size();
     }
 
+    final void monitorSent() {
+        final ChannelMonitor mon = monitor;
+        if (mon != null)
+            mon.messageSent();
+    }
+
+    final void monitorReceived() {
+        final ChannelMonitor mon = monitor;
+        if (mon != null) {
+            mon.messageReceived();
+            // a sender can't tell whether the message it overwrites has been read, but the receiver finds out when it skips it
+            final long displaced = displaced();
+            if (displaced > displacedReported) {
+                mon.overflow(displaced - displacedReported);
+                displacedReported = displaced;
+            }
+        }
+    }
+
+    /**
+     * The number of messages that have been displaced before they could be received, if the channel displaces messages.
+     */
+    private long displaced() {
+        if (overflowPolicy == OverflowPolicy.DISPLACE && queue instanceof CircularBuffer)
+            return ((CircularBuffer<?>) queue).builtinConsumer().displaced();
+        return 0;
+    }
+
+    final void monitorOverflow() {
+        final ChannelMonitor mon = monitor;
+        if (mon != null)
+            mon.overflow();
+    }
+
+    /**
+     * Returns the time a wait has started, given the value previously returned (or {@code 0} before the first wait);
+     * always {@code 0} if the channel is not monitored.
+     */
+    final long monitorWait(long start) {
+        return start == 0L && monitor != null ? System.nanoTime() : start;
+    }
+
+    final void monitorSenderWaited(long start) {
+        final ChannelMonitor mon = monitor;
+        if (start != 0L && mon != null)
+            mon.senderWaited(System.nanoTime() - start);
+    }
+
+    final void monitorReceiverWaited(long start) {
+        final ChannelMonitor mon = monitor;
+        if (start != 0L && mon != null)
+            mon.receiverWaited(System.nanoTime() - start);
+    }
+
     @Override
     public String toString() {
         return "Channel{" + "sync: " + sync + ", queue: " + Objects.systemToString(queue) + ", capacity: " + capacity() + '}';
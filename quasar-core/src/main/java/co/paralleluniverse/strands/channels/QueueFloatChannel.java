@@ -34,6 +34,7 @@ public class QueueFloatChannel extends QueuePrimitiveChannel<Float> implements F
         checkClosed();
         awaitItem();
         final float m = queue().pollFloat();
+        monitorReceived();
         signalSenders();
         return m;
     }
@@ -44,6 +45,7 @@ public class QueueFloatChannel extends QueuePrimitiveChannel<Float> implements F
         if (!awaitItem(timeout, unit))
             throw new TimeoutException();
         final float m = queue().pollFloat();
+        monitorReceived();
         signalSenders();
         return m;
     }
@@ -58,6 +60,7 @@ public class QueueFloatChannel extends QueuePrimitiveChannel<Float> implements F
         if (isSendClosed())
             return true;
         if (queue().enq(message)) {
+            monitorSent();
             signalReceivers();
             return true;
         } else
@@ -70,8 +73,10 @@ public class QueueFloatChannel extends QueuePrimitiveChannel<Float> implements F
             return;
         if (!queue().enq(message))
             super.send(message);
-        else
+        else {
+            monitorSent();
             signalReceivers();
+        }
     }
 
     @Override
@@ -80,6 +85,7 @@ public class QueueFloatChannel extends QueuePrimitiveChannel<Float> implements F
             return true;
         if (!queue().enq(message))
             return super.send(message, timeout, unit);
+        monitorSent();
         signalReceivers();
         return true;
     }
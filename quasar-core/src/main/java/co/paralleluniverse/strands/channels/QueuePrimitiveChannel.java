@@ -66,16 +66,21 @@ public class QueuePrimitiveChannel<Message> extends QueueChannel<Message> implem
     
     boolean awaitItem() throws SuspendExecution, InterruptedException, EOFException {
         maybeSetCurrentStrandAsOwner();
-        Object n;
+        long waitStart = 0L;
         Object token = sync.register();
-        for (int i = 0; !queue().hasNext(); i++) {
-            if (isSendClosed()) {
-                setReceiveClosed();
-                checkClosed();
+        try {
+            for (int i = 0; !queue().hasNext(); i++) {
+                if (isSendClosed()) {
+                    setReceiveClosed();
+                    checkClosed();
+                }
+                waitStart = monitorWait(waitStart);
+                sync.await(i);
             }
-            sync.await(i);
+        } finally {
+            sync.unregister(token);
+            monitorReceiverWaited(waitStart);
         }
-        sync.unregister(token);
         return true;
     }
 
@@ -86,11 +91,11 @@ public class QueuePrimitiveChannel<Message> extends QueueChannel<Message> implem
             return queue().hasNext();
 
         maybeSetCurrentStrandAsOwner();
-        Object n;
 
         long left = unit.toNanos(timeout);
         final long deadline = System.nanoTime() + left;
 
+        long waitStart = 0L;
         Object token = sync.register();
         try {
             for (int i = 0; !queue().hasNext(); i++) {
@@ -98,6 +103,7 @@ public class QueuePrimitiveChannel<Message> extends QueueChannel<Message> implem
                     setReceiveClosed();
                     checkClosed();
                 }
+                waitStart = monitorWait(waitStart);
                 sync.await(i, left, TimeUnit.NANOSECONDS);
 
                 left = deadline - System.nanoTime();
@@ -106,6 +112,7 @@ public class QueuePrimitiveChannel<Message> extends QueueChannel<Message> implem
             }
         } finally {
             sync.unregister(token);
+            monitorReceiverWaited(waitStart);
         }
         return true;
     }
@@ -23,6 +23,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -49,10 +50,12 @@ public class ReceivePortGroup<M> implements Mix<M> {
     private final static Mode modeDefault = Mode.NORMAL;
     private final static boolean soloDefault = false;
     private final static SoloEffect soloEffectDefault = SoloEffect.PAUSE_OTHERS;
+    private final static SelectionPolicy.Type selectionPolicyDefault = SelectionPolicy.Type.PRIORITY;
     private final static boolean alwaysOpenDefault = false;
 
     private final static Channel changedCh = Channels.newChannel(1, Channels.OverflowPolicy.DISPLACE, false, true);
     private final EnhancedAtomicReference<SoloEffect> soloEffect = new EnhancedAtomicReference<>();
+    private final EnhancedAtomicReference<SelectionPolicy.Type> selectionPolicy = new EnhancedAtomicReference<>();
     private final EnhancedAtomicReference<Map<? extends ReceivePort<? extends M>, State>> states = new EnhancedAtomicReference<>();
     private final EnhancedAtomicReference<Pair<Selector<M>, Map<? extends ReceivePort<? extends M>, State>>> selector = new EnhancedAtomicReference<>();
     private final boolean alwaysOpen;
@@ -60,6 +63,7 @@ public class ReceivePortGroup<M> implements Mix<M> {
     public ReceivePortGroup(final Collection<? extends ReceivePort<? extends M>> ports, final boolean alwaysOpen) {
         this.alwaysOpen = alwaysOpen;
         soloEffect.set(soloEffectDefault);
+        selectionPolicy.set(selectionPolicyDefault);
         final Map<ReceivePort<? extends M>, State> newStates = new HashMap<>();
         for (final ReceivePort<? extends M> port : ImmutableList.copyOf(ports)) {
             newStates.put(port, new State(modeDefault, soloDefault));
@@ -196,20 +200,28 @@ public class ReceivePortGroup<M> implements Mix<M> {
             // Build a new selector containing receive actions for all non-paused ports
             final List<SelectAction<M>> mutedActions = new ArrayList<>(newPorts.size());
             final List<SelectAction<M>> enabledActions = new ArrayList<>(newPorts.size());
+            final int[] weights = new int[newPorts.size()];
             for (final ReceivePort<? extends M> port : newPorts) {
                 if (!isPaused(port, newStates)) {
                     if (isMuted(port, newStates))
                         mutedActions.add(Selector.receive(port));
-                    else
+                    else {
+                        final Integer w = newStates.get(port).weight;
+                        weights[enabledActions.size()] = w != null ? w : 1;
                         enabledActions.add(Selector.receive(port));
+                    }
                 }
             }
             final List<SelectAction<M>> actions = new ArrayList<>(newPorts.size());
             actions.add(Selector.receive(changedCh)); // Always receive change pings
             actions.addAll(mutedActions);
             actions.addAll(enabledActions);
-            // Priority to change signal, then to muted so they get elimintated first, then normal ones
-            selector.set(new Pair(new Selector<>(true, actions), newStates));
+            // Priority to change signal, then to muted so they get elimintated first, then normal ones according to the selection policy
+            final SelectionPolicy.Type policy = selectionPolicy.get();
+            final Selector<M> newSelector = policy == SelectionPolicy.Type.PRIORITY
+                    ? new Selector<>(true, actions)
+                    : new Selector<>(new PrefixedSelectionPolicy(1 + mutedActions.size(), SelectionPolicy.newPolicy(policy, Arrays.copyOf(weights, enabledActions.size()))), actions);
+            selector.set(new Pair(newSelector, newStates));
         }
     }
 
@@ -272,12 +284,16 @@ public class ReceivePortGroup<M> implements Mix<M> {
         states.swap(new Function<Map<? extends ReceivePort<? extends M>, State>, Map<? extends ReceivePort<? extends M>, State>>() {
             @Override
             public Map<? extends ReceivePort<? extends M>, State> apply(final Map<? extends ReceivePort<? extends M>, State> currStates) {
-                final Map<ReceivePort<? extends M>, State> newStates = new HashMap<>(currStates);
+                Map<ReceivePort<? extends M>, State> newStates = null;
                 for (final ReceivePort<? extends M> port : currStates.keySet()) {
-                    if (port.isClosed())
+                    if (port.isClosed()) {
+                        if (newStates == null)
+                            newStates = new HashMap<>(currStates);
                         newStates.remove(port);
+                    }
                 }
-                return ImmutableMap.copyOf(newStates); // RO
+                // Keep the current instance if nothing has changed, so that the selector (and its selection policy's state) is reused
+                return newStates != null ? ImmutableMap.copyOf(newStates) : currStates; // RO
             }
         });
     }
@@ -308,7 +324,8 @@ public class ReceivePortGroup<M> implements Mix<M> {
                             port,
                             new State (
                                 state.mode != null ? state.mode : currStates.get(port).mode,
-                                state.solo != null ? state.solo : currStates.get(port).solo
+                                state.solo != null ? state.solo : currStates.get(port).solo,
+                                state.weight != null ? state.weight : currStates.get(port).weight
                             )
                         );
                 return ImmutableMap.copyOf(newStates); // RO
@@ -334,7 +351,8 @@ public class ReceivePortGroup<M> implements Mix<M> {
                                 newS != null ?
                                     new State (
                                         newS.mode != null ? newS.mode : currStates.get(p).mode,
-                                        newS.solo != null ? newS.solo : currStates.get(p).solo
+                                        newS.solo != null ? newS.solo : currStates.get(p).solo,
+                                        newS.weight != null ? newS.weight : currStates.get(p).weight
                                     ) :
                                     new State(modeDefault, soloDefault)
                             );
@@ -356,4 +374,52 @@ public class ReceivePortGroup<M> implements Mix<M> {
         soloEffect.set(effect);
         changedCh.send(ping);
     }
+
+    @Override
+    public SelectionPolicy.Type getSelectionPolicy() {
+        return selectionPolicy.get();
+    }
+
+    @Override
+    public void setSelectionPolicy(final SelectionPolicy.Type policy) throws SuspendExecution, InterruptedException {
+        selectionPolicy.set(policy);
+        states.swap(new Function<Map<? extends ReceivePort<? extends M>, State>, Map<? extends ReceivePort<? extends M>, State>>() {
+            @Override
+            public Map<? extends ReceivePort<? extends M>, State> apply(final Map<? extends ReceivePort<? extends M>, State> currStates) {
+                return ImmutableMap.copyOf(new HashMap<>(currStates)); // A new instance, so that the selector is rebuilt
+            }
+        });
+        changedCh.send(ping);
+    }
+
+    /**
+     * Always attempts a fixed prefix of the actions first, in order, and applies the given policy to the rest.
+     */
+    private static final class PrefixedSelectionPolicy extends SelectionPolicy {
+        private final int prefix;
+        private final SelectionPolicy policy;
+        private int[] rest;
+
+        PrefixedSelectionPolicy(int prefix, SelectionPolicy policy) {
+            this.prefix = prefix;
+            this.policy = policy;
+        }
+
+        @Override
+        public void order(int[] order) {
+            for (int i = 0; i < prefix; i++)
+                order[i] = i;
+            if (rest == null)
+                rest = new int[order.length - prefix];
+            policy.order(rest);
+            for (int i = 0; i < rest.length; i++)
+                order[prefix + i] = prefix + rest[i];
+        }
+
+        @Override
+        public void selected(int index) {
+            if (index >= prefix)
+                policy.selected(index - prefix);
+        }
+    }
 }
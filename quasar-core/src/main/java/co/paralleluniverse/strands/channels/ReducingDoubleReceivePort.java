@@ -0,0 +1,54 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * A transforming {@link DoubleReceivePort} that will apply a reduction function to values.
+ * Like {@link ReducingReceivePort}, it receives every intermediate result, and if the source is closed before any message is
+ * received, it receives the initial value once.
+ *
+ * @author pron
+ */
+class ReducingDoubleReceivePort extends DoubleReceivePortTransformer {
+    private final DoubleBinaryOperator f;
+    private boolean receivedAtLeastOnce;
+    private double prev;
+
+    public ReducingDoubleReceivePort(DoubleReceivePort target, DoubleBinaryOperator f, double init) {
+        super(target);
+        if (f == null)
+            throw new IllegalArgumentException("f can't be null");
+        this.f = f;
+        this.prev = init;
+    }
+
+    @Override
+    protected double map(double m) {
+        receivedAtLeastOnce = true;
+        return (this.prev = f.applyAsDouble(prev, m));
+    }
+
+    @Override
+    protected boolean hasLast() {
+        return !receivedAtLeastOnce;
+    }
+
+    @Override
+    protected double last() {
+        receivedAtLeastOnce = true;
+        return prev;
+    }
+}
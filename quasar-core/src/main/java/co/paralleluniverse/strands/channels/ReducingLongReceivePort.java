@@ -0,0 +1,54 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import java.util.function.LongBinaryOperator;
+
+/**
+ * A transforming {@link LongReceivePort} that will apply a reduction function to values.
+ * Like {@link ReducingReceivePort}, it receives every intermediate result, and if the source is closed before any message is
+ * received, it receives the initial value once.
+ *
+ * @author pron
+ */
+class ReducingLongReceivePort extends LongReceivePortTransformer {
+    private final LongBinaryOperator f;
+    private boolean receivedAtLeastOnce;
+    private long prev;
+
+    public ReducingLongReceivePort(LongReceivePort target, LongBinaryOperator f, long init) {
+        super(target);
+        if (f == null)
+            throw new IllegalArgumentException("f can't be null");
+        this.f = f;
+        this.prev = init;
+    }
+
+    @Override
+    protected long map(long m) {
+        receivedAtLeastOnce = true;
+        return (this.prev = f.applyAsLong(prev, m));
+    }
+
+    @Override
+    protected boolean hasLast() {
+        return !receivedAtLeastOnce;
+    }
+
+    @Override
+    protected long last() {
+        receivedAtLeastOnce = true;
+        return prev;
+    }
+}
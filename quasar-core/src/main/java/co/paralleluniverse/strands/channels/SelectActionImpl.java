@@ -18,14 +18,17 @@ import co.paralleluniverse.fibers.SuspendExecution;
 public final class SelectActionImpl<Message> extends SelectAction<Message> {
     private volatile Selector selector;
     private final boolean isData;
+    private final Message data;
     private final SelectListener<Message> listener;
     Object token;
+    Object syncToken; // the registration token of the port's synchronizer, if the port keeps it here
 
     SelectActionImpl(Selector selector, int index, Port<Message> port, Message message, SelectListener listener) {
         super((Selectable<Message>) port);
         this.selector = selector;
         this.index = index;
         this.item = message;
+        this.data = message;
         this.isData = message != null;
         this.listener = listener;
     }
@@ -65,9 +68,8 @@ public final class SelectActionImpl<Message> extends SelectAction<Message> {
         this.done = true;
     }
 
-    void resetReceive() {
-        assert !isData;
-        item = null;
+    void reset() {
+        item = data;
         done = false;
     }
 
@@ -77,7 +79,7 @@ public final class SelectActionImpl<Message> extends SelectAction<Message> {
         return selector.lease();
     }
 
-    void returnLease() {
+    public void returnLease() {
         if (selector != null)
             selector.returnLease();
     }
@@ -0,0 +1,279 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Determines the order in which a {@link Selector} attempts its actions, and so which of them is performed when more than one can complete.
+ * A policy may keep state across selections (in order to share throughput among the selector's ports), so a policy instance must
+ * only be used by a single selector.
+ *
+ * @see Selector#newSelector(SelectionPolicy, SelectAction[])
+ * @see Mix#setSelectionPolicy(SelectionPolicy.Type)
+ * @author pron
+ */
+public abstract class SelectionPolicy {
+    /**
+     * The built-in selection policies.
+     */
+    public static enum Type {
+        /**
+         * Actions are attempted in the order they're given.
+         */
+        PRIORITY,
+        /**
+         * Actions are attempted in random order.
+         */
+        RANDOM,
+        /**
+         * Actions are attempted in turn, starting with the one following the last one performed.
+         */
+        ROUND_ROBIN,
+        /**
+         * Weighted fair queueing: when more than one action is ready, they are performed in proportion to their weights.
+         */
+        WEIGHTED_FAIR,
+        /**
+         * Deficit round-robin: each action, in turn, may be performed up to its weight (quantum) times in a row.
+         */
+        DEFICIT_ROUND_ROBIN
+    };
+
+    /**
+     * Returns a new policy of the given type.
+     *
+     * @param type    the policy type
+     * @param weights the actions' weights, by action index; ignored by the policies that do not use weights.
+     *                Actions that are not given a weight have a weight of 1.
+     * @return a new selection policy
+     */
+    public static SelectionPolicy newPolicy(Type type, int... weights) {
+        switch (type) {
+            case PRIORITY:
+                return priority();
+            case RANDOM:
+                return random();
+            case ROUND_ROBIN:
+                return roundRobin();
+            case WEIGHTED_FAIR:
+                return weightedFair(weights);
+            case DEFICIT_ROUND_ROBIN:
+                return deficitRoundRobin(weights);
+            default:
+                throw new AssertionError("Unknown policy " + type);
+        }
+    }
+
+    /**
+     * Returns a policy that attempts the actions in the order they're given.
+     */
+    public static SelectionPolicy priority() {
+        return new Priority();
+    }
+
+    /**
+     * Returns a policy that attempts the actions in random order.
+     */
+    public static SelectionPolicy random() {
+        return new RandomOrder();
+    }
+
+    /**
+     * Returns a policy that attempts the actions in turn, starting with the one following the last one performed.
+     */
+    public static SelectionPolicy roundRobin() {
+        return new RoundRobin();
+    }
+
+    /**
+     * Returns a weighted fair queueing policy.
+     * When several actions are ready, each is performed in proportion to its weight; an action whose port has been idle does not
+     * accumulate credit for the time it was idle.
+     *
+     * @param weights the actions' weights, by action index. Actions that are not given a weight have a weight of 1.
+     * @return a new selection policy
+     */
+    public static SelectionPolicy weightedFair(int... weights) {
+        return new WeightedFair(checkWeights(weights));
+    }
+
+    /**
+     * Returns a deficit round-robin policy.
+     * The actions are visited in turn, and on its turn each action may be performed up to its quantum times before moving on to the next.
+     * An action that cannot complete on its turn forfeits the rest of it.
+     *
+     * @param quanta the actions' quanta, by action index. Actions that are not given a quantum have a quantum of 1.
+     * @return a new selection policy
+     */
+    public static SelectionPolicy deficitRoundRobin(int... quanta) {
+        return new DeficitRoundRobin(checkWeights(quanta));
+    }
+
+    /**
+     * Called before every selection to determine the order in which the actions are to be attempted.
+     *
+     * @param order an array whose length is the number of actions, which must be filled with a permutation of the actions' indices,
+     *              in the order they are to be attempted.
+     */
+    public abstract void order(int[] order);
+
+    /**
+     * Called after an action has been performed.
+     *
+     * @param index the index of the action that has been performed.
+     */
+    public abstract void selected(int index);
+
+    private static int[] checkWeights(int[] weights) {
+        if (weights == null)
+            return new int[0];
+        for (int w : weights) {
+            if (w <= 0)
+                throw new IllegalArgumentException("Weights must be positive; was " + w);
+        }
+        return weights.clone();
+    }
+
+    private static int weight(int[] weights, int index) {
+        return index < weights.length ? weights[index] : 1;
+    }
+
+    private static final class Priority extends SelectionPolicy {
+        @Override
+        public void order(int[] order) {
+            for (int i = 0; i < order.length; i++)
+                order[i] = i;
+        }
+
+        @Override
+        public void selected(int index) {
+        }
+    }
+
+    private static final class RandomOrder extends SelectionPolicy {
+        @Override
+        public void order(int[] order) {
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < order.length; i++) {
+                final int x = random.nextInt(i + 1);
+                order[i] = order[x];
+                order[x] = i;
+            }
+        }
+
+        @Override
+        public void selected(int index) {
+        }
+    }
+
+    private static final class RoundRobin extends SelectionPolicy {
+        private int next;
+
+        @Override
+        public void order(int[] order) {
+            final int n = order.length;
+            if (next >= n)
+                next = 0;
+            for (int i = 0, j = next; i < n; i++, j = (j + 1 == n ? 0 : j + 1))
+                order[i] = j;
+        }
+
+        @Override
+        public void selected(int index) {
+            next = index + 1;
+        }
+    }
+
+    /**
+     * Start-time fair queueing: every action is tagged with the virtual time at which its next operation would start, and the action
+     * with the earliest tag goes first. Performing an action advances its tag by the reciprocal of its weight.
+     */
+    private static final class WeightedFair extends SelectionPolicy {
+        private final int[] weights;
+        private double[] finish;
+        private double vtime;
+
+        WeightedFair(int[] weights) {
+            this.weights = weights;
+        }
+
+        @Override
+        public void order(int[] order) {
+            final int n = order.length;
+            if (finish == null || finish.length != n)
+                finish = new double[n];
+            // insertion sort by start tag; stable, so ties go to the lower index
+            for (int i = 0; i < n; i++) {
+                final double tag = startTag(i);
+                int j = i;
+                for (; j > 0 && startTag(order[j - 1]) > tag; j--)
+                    order[j] = order[j - 1];
+                order[j] = i;
+            }
+        }
+
+        @Override
+        public void selected(int index) {
+            final double start = startTag(index);
+            vtime = start;
+            finish[index] = start + 1.0 / weight(weights, index);
+        }
+
+        private double startTag(int index) {
+            return Math.max(vtime, finish[index]);
+        }
+    }
+
+    private static final class DeficitRoundRobin extends SelectionPolicy {
+        private final int[] quanta;
+        private int[] deficit;
+        private int current;
+
+        DeficitRoundRobin(int[] quanta) {
+            this.quanta = quanta;
+        }
+
+        @Override
+        public void order(int[] order) {
+            final int n = order.length;
+            if (n == 0)
+                return; // no action can be selected, so there's no turn to keep
+            if (deficit == null || deficit.length != n) {
+                deficit = new int[n];
+                current = 0;
+                deficit[0] = weight(quanta, 0);
+            }
+            for (int i = 0, j = current; i < n; i++, j = (j + 1 == n ? 0 : j + 1))
+                order[i] = j;
+        }
+
+        @Override
+        public void selected(int index) {
+            final int n = deficit.length;
+            if (index != current) {
+                // the actions attempted before this one could not complete, so they forfeit their turn
+                for (int j = current; j != index; j = (j + 1 == n ? 0 : j + 1))
+                    deficit[j] = 0;
+                current = index;
+                deficit[index] += weight(quanta, index);
+            }
+            if (--deficit[index] <= 0) {
+                deficit[index] = 0;
+                current = (index + 1 == n ? 0 : index + 1);
+                deficit[current] += weight(quanta, current);
+            }
+        }
+    }
+}
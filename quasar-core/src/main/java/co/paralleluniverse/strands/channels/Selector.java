@@ -246,6 +246,86 @@ public class Selector<Message> implements Synchronization {
         return trySelect(false, actions);
     }
 
+    /**
+     * Creates a reusable selector over a given set of actions.
+     * Unlike the static {@code select} methods, which set up (and tear down) a selector for each call, the returned selector can be used to
+     * perform any number of selections over the same actions, which makes it suitable for loops that repeatedly select over the same
+     * channels. Each call to one of its {@code select} or {@link #trySelect() trySelect} methods performs at most one of the actions;
+     * a send action sends the same message every time it is selected.
+     * <p>
+     * A selection that can complete immediately does not register with any of the ports, and does not allocate; a selection that blocks
+     * registers with the ports and unregisters before it returns. The selector must be used by a single strand at a time.
+     *
+     * @param priority If {@code true} and more than one operation can complete at the same time, the one that appears in the given list first will be the one performed.
+     *                 If {@code false} the order of the operations is ignored.
+     * @param actions  a list of actions, one of which will be performed by each selection.
+     * @return a new reusable selector
+     */
+    public static <Message> Selector<Message> newSelector(boolean priority, SelectAction<Message>... actions) {
+        return newSelector(priority, Arrays.asList(actions));
+    }
+
+    /**
+     * Creates a reusable selector over a given set of actions.
+     * See {@link #newSelector(boolean, co.paralleluniverse.strands.channels.SelectAction[]) newSelector(priority, actions)}.
+     *
+     * @param priority If {@code true} and more than one operation can complete at the same time, the one that appears in the given list first will be the one performed.
+     *                 If {@code false} the order of the operations is ignored.
+     * @param actions  a list of actions, one of which will be performed by each selection.
+     * @return a new reusable selector
+     */
+    public static <Message> Selector<Message> newSelector(boolean priority, List<? extends SelectAction<Message>> actions) {
+        return new Selector<Message>(null, priority, true, new ArrayList<>(actions));
+    }
+
+    /**
+     * Creates a reusable selector over a given set of actions.
+     * Same as calling {@link #newSelector(boolean, co.paralleluniverse.strands.channels.SelectAction[]) newSelector(false, actions)}.
+     *
+     * @param actions a list of actions, one of which will be performed by each selection.
+     * @return a new reusable selector
+     */
+    public static <Message> Selector<Message> newSelector(SelectAction<Message>... actions) {
+        return newSelector(false, actions);
+    }
+
+    /**
+     * Creates a reusable selector over a given set of actions.
+     * Same as calling {@link #newSelector(boolean, java.util.List) newSelector(false, actions)}.
+     *
+     * @param actions a list of actions, one of which will be performed by each selection.
+     * @return a new reusable selector
+     */
+    public static <Message> Selector<Message> newSelector(List<? extends SelectAction<Message>> actions) {
+        return newSelector(false, actions);
+    }
+
+    /**
+     * Creates a reusable selector over a given set of actions, which determines the order in which the actions are attempted with
+     * the given {@link SelectionPolicy}. The policy keeps its state across selections, so it can be used to share throughput among the
+     * selector's ports. See {@link #newSelector(boolean, co.paralleluniverse.strands.channels.SelectAction[]) newSelector(priority, actions)}.
+     *
+     * @param policy  the selection policy; must not be used by any other selector.
+     * @param actions a list of actions, one of which will be performed by each selection.
+     * @return a new reusable selector
+     */
+    public static <Message> Selector<Message> newSelector(SelectionPolicy policy, SelectAction<Message>... actions) {
+        return newSelector(policy, Arrays.asList(actions));
+    }
+
+    /**
+     * Creates a reusable selector over a given set of actions, which determines the order in which the actions are attempted with
+     * the given {@link SelectionPolicy}.
+     * See {@link #newSelector(co.paralleluniverse.strands.channels.SelectionPolicy, co.paralleluniverse.strands.channels.SelectAction[]) newSelector(policy, actions)}.
+     *
+     * @param policy  the selection policy; must not be used by any other selector.
+     * @param actions a list of actions, one of which will be performed by each selection.
+     * @return a new reusable selector
+     */
+    public static <Message> Selector<Message> newSelector(SelectionPolicy policy, List<? extends SelectAction<Message>> actions) {
+        return new Selector<Message>(policy, false, true, new ArrayList<>(actions));
+    }
+
     //////////////////////
     /**
      * Creates a {@link SelectAction} for a send operation
@@ -308,13 +388,27 @@ public class Selector<Message> implements Synchronization {
     private final List<? extends SelectActionImpl<Message>> actions;
     private int lastRegistered;
     private final boolean priority;
+    private final SelectionPolicy policy;
+    private final int[] order;
+    private final boolean reusable;
     SelectAction<Message> res;
 
     Selector(boolean priority, List<? extends SelectAction<Message>> actions) {
+        this(null, priority, false, actions);
+    }
+
+    Selector(SelectionPolicy policy, List<? extends SelectAction<Message>> actions) {
+        this(policy, false, false, actions);
+    }
+
+    private Selector(SelectionPolicy policy, boolean priority, boolean reusable, List<? extends SelectAction<Message>> actions) {
         this.id = selectorId.incrementAndGet();
-        this.waiter = Strand.currentStrand();
+        this.waiter = reusable ? null : Strand.currentStrand();
         this.actions = (List<? extends SelectActionImpl<Message>>) actions;
         this.priority = priority;
+        this.policy = policy;
+        this.order = policy != null ? new int[actions.size()] : null;
+        this.reusable = reusable;
         for (int i = 0; i < actions.size(); i++) {
             SelectActionImpl<? extends Message> sa = (SelectActionImpl<? extends Message>) actions.get(i);
             sa.setSelector(this);
@@ -324,18 +418,43 @@ public class Selector<Message> implements Synchronization {
     }
 
     private void selectInit() {
-        if (!priority)
+        if (reusable)
+            rearm();
+        if (policy != null)
+            policy.order(order);
+        else if (!priority)
             Collections.shuffle(actions, ThreadLocalRandom.current());
     }
 
+    private SelectActionImpl<Message> action(int i) {
+        return order != null ? actions.get(order[i]) : actions.get(i);
+    }
+
+    private SelectAction<Message> selected(SelectAction<Message> sa) {
+        if (sa != null && policy != null)
+            policy.selected(sa.index());
+        return sa;
+    }
+
     void reset() {
         waiter = null;
+        rearm();
+    }
+
+    private void rearm() {
         for (SelectActionImpl<Message> sa : actions)
-            sa.resetReceive();
+            sa.reset();
+        res = null;
         winner = null;
     }
 
-    SelectAction<Message> select() throws InterruptedException, SuspendExecution {
+    /**
+     * Performs exactly one of this selector's operations, blocking until any of the actions completes.
+     *
+     * @return the action that has completed successfully
+     * @throws InterruptedException
+     */
+    public SelectAction<Message> select() throws InterruptedException, SuspendExecution {
         return select(-1, null);
     }
 
@@ -352,7 +471,7 @@ public class Selector<Message> implements Synchronization {
         // register
         lastRegistered = -1;
         for (int i = 0; i < n; i++) {
-            SelectActionImpl<Message> sa = actions.get(i);
+            SelectActionImpl<Message> sa = action(i);
 
             sa.token = sa.port.register((SelectActionImpl) sa);
             lastRegistered = i;
@@ -372,23 +491,43 @@ public class Selector<Message> implements Synchronization {
     @Override
     public void unregister(Object registrationToken) {
         for (int i = 0; i <= lastRegistered; i++) {
-            SelectActionImpl sa = actions.get(i);
+            SelectActionImpl<Message> sa = action(i);
             sa.port.unregister(sa.token);
             sa.token = null; // for GC
         }
         this.waiter = null;
     }
 
-    SelectAction<Message> select(Timeout timeout) throws InterruptedException, SuspendExecution {
+    /**
+     * Performs exactly one of this selector's operations, blocking until any of the actions completes, but no longer than the given timeout.
+     *
+     * @param timeout the method will not block for longer than the amount remaining in the {@link Timeout}
+     * @return the action that has completed successfully, or {@code null} if the timeout expired before an operation could complete.
+     * @throws InterruptedException
+     */
+    public SelectAction<Message> select(Timeout timeout) throws InterruptedException, SuspendExecution {
         return select(timeout.nanosLeft(), TimeUnit.NANOSECONDS);
     }
 
-    SelectAction<Message> select(long timeout, TimeUnit unit) throws InterruptedException, SuspendExecution {
+    /**
+     * Performs exactly one of this selector's operations, blocking until any of the actions completes, but no longer than the given timeout.
+     *
+     * @param timeout the maximum duration to block waiting for an operation to complete.
+     * @param unit    the time unit of the given timeout
+     * @return the action that has completed successfully, or {@code null} if the timeout expired before an operation could complete.
+     * @throws InterruptedException
+     */
+    public SelectAction<Message> select(long timeout, TimeUnit unit) throws InterruptedException, SuspendExecution {
         if (timeout == 0 && unit != null)
             return trySelect();
 
         selectInit();
 
+        // fast path: an operation that can complete right away does not require registering with the ports
+        SelectAction<Message> ready = trySelect0();
+        if (ready != null)
+            return selected(ready);
+
         final boolean timed = (timeout > 0 && unit != null);
         long lastTime = timed ? System.nanoTime() : 0L;
         long nanos = timed ? unit.toNanos(timeout) : 0L;
@@ -402,7 +541,7 @@ public class Selector<Message> implements Synchronization {
                         break;
 
                     for (int i = 0; i <= lastRegistered; i++) {
-                        SelectActionImpl<Message> sa = actions.get(i);
+                        SelectActionImpl<Message> sa = action(i);
 
                         if (sa.port.tryNow(sa.token)) {
                             res = sa;
@@ -424,16 +563,28 @@ public class Selector<Message> implements Synchronization {
         }
         if (res != null)
             ((SelectActionImpl<Message>) res).fire();
-        return res;
+        return selected(res);
     }
 
+    /**
+     * Attempts to performs exactly one of this selector's operations if one can be completed without blocking.
+     * This method only blocks if the listeners associated with the select actions block.
+     *
+     * @return the action that has completed successfully, or {@code null} if none could be completed without blocking.
+     */
     public SelectAction<Message> trySelect() throws SuspendExecution {
         selectInit();
+        return selected(trySelect0());
+    }
+
+    private SelectAction<Message> trySelect0() throws SuspendExecution {
         for (int i = 0; i < actions.size(); i++) {
-            SelectActionImpl sa = actions.get(i);
+            SelectActionImpl sa = action(i);
 
             if (sa.isData()) {
                 if (((SendPort) sa.port).trySend(sa.message())) {
+                    sa.setItem(null);
+                    res = sa;
                     sa.fire();
                     return sa;
                 }
@@ -441,6 +592,7 @@ public class Selector<Message> implements Synchronization {
                 Object m = ((ReceivePort) sa.port).tryReceive();
                 if (m != null || ((ReceivePort) sa.port).isClosed()) {
                     sa.setItem(m);
+                    res = sa;
                     sa.fire();
                     return sa;
                 }
@@ -72,8 +72,10 @@ public class SingleConsumerQueueChannel<Message> extends QueueChannel<Message> i
         if (isClosed())
             return null;
         final Message m = queue().poll();
-        if (m != null)
+        if (m != null) {
+            monitorReceived();
             signalSenders();
+        }
         return m;
     }
 
@@ -84,6 +86,7 @@ public class SingleConsumerQueueChannel<Message> extends QueueChannel<Message> i
         try {
             maybeSetCurrentStrandAsOwner();
             Message m;
+            long waitStart = 0L;
             Object token = sync.register();
             try {
                 for (int i = 0; (m = queue().poll()) == null; i++) {
@@ -91,12 +94,15 @@ public class SingleConsumerQueueChannel<Message> extends QueueChannel<Message> i
                         setReceiveClosed();
                         checkClosed();
                     }
+                    waitStart = monitorWait(waitStart);
                     sync.await(i);
                 }
             } finally {
                 sync.unregister(token);
+                monitorReceiverWaited(waitStart);
             }
 
+            monitorReceived();
             signalSenders();
             return m;
         } catch (EOFException e) {
@@ -119,6 +125,7 @@ public class SingleConsumerQueueChannel<Message> extends QueueChannel<Message> i
             long left = unit.toNanos(timeout);
             final long deadline = System.nanoTime() + left;
 
+            long waitStart = 0L;
             Object token = sync.register();
             try {
                 for (int i = 0; (m = queue().poll()) == null; i++) {
@@ -126,6 +133,7 @@ public class SingleConsumerQueueChannel<Message> extends QueueChannel<Message> i
                         setReceiveClosed();
                         checkClosed();
                     }
+                    waitStart = monitorWait(waitStart);
                     sync.await(i, left, TimeUnit.NANOSECONDS);
 
                     left = deadline - System.nanoTime();
@@ -134,10 +142,13 @@ public class SingleConsumerQueueChannel<Message> extends QueueChannel<Message> i
                 }
             } finally {
                 sync.unregister(token);
+                monitorReceiverWaited(waitStart);
             }
 
-            if (m != null)
+            if (m != null) {
+                monitorReceived();
                 signalSenders();
+            }
             return m;
         } catch (EOFException e) {
             return null;
@@ -0,0 +1,44 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives at most one message per period: the first message received after a period has elapsed since the last one that
+ * was passed on. Messages arriving within the period are discarded.
+ *
+ * @author pron
+ */
+class ThrottlingReceivePort<T> extends ReceivePortTransformer<T, T> implements ReceivePort<T> {
+    private final long period;
+    private long next;
+
+    public ThrottlingReceivePort(ReceivePort<T> target, long period, TimeUnit unit) {
+        super(target);
+        if (period < 0)
+            throw new IllegalArgumentException("period must not be negative; was " + period);
+        this.period = unit.toNanos(period);
+        this.next = System.nanoTime();
+    }
+
+    @Override
+    protected T transform(T m) {
+        final long now = System.nanoTime();
+        if (now - next < 0)
+            return null;
+        next = now + period;
+        return m;
+    }
+}
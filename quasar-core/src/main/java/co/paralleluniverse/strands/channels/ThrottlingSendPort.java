@@ -0,0 +1,45 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends at most one message per period: the first message sent after a period has elapsed since the last one that
+ * was passed on. Messages sent within the period are discarded.
+ *
+ * @author pron
+ */
+class ThrottlingSendPort<T> extends SendPortTransformer<T, T> implements SendPort<T> {
+    private final long period;
+    private final AtomicLong next;
+
+    public ThrottlingSendPort(SendPort<T> target, long period, TimeUnit unit) {
+        super(target);
+        if (period < 0)
+            throw new IllegalArgumentException("period must not be negative; was " + period);
+        this.period = unit.toNanos(period);
+        this.next = new AtomicLong(System.nanoTime());
+    }
+
+    @Override
+    protected T transform(T m) {
+        final long now = System.nanoTime();
+        final long n = next.get();
+        if (now - n < 0 || !next.compareAndSet(n, now + period))
+            return null;
+        return m;
+    }
+}
@@ -33,6 +33,13 @@ import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 /**
+ * A channel with no buffer, in which every send waits for a matching receive, and vice versa.
+ * <p>
+ * Waiting strands are queued in nodes, as in {@code LinkedTransferQueue}. In addition, the channel has a single handoff slot,
+ * in which a strand that finds no strand of either mode waiting can wait using a record it keeps across operations, so a steady-state
+ * rendezvous between two strands (as in a request/response exchange) allocates nothing. A strand arriving at the channel matches the
+ * slot before the queue, and a strand that has started waiting in either place gives it up if it finds a strand of the opposite mode
+ * waiting in the other.</p>
  *
  * @author Doug Lea
  * @author pron
@@ -235,6 +242,12 @@ public class TransferChannel<Message> implements StandardChannel<Message>, Selec
     }
 
     private void signalWaitersOnClose() {
+        final Handoff h = slot;
+        if (h != null) {
+            final long st = h.state;
+            if (h.channel == this && (Handoff.phase(st) == Handoff.REQUEST || Handoff.phase(st) == Handoff.DATA))
+                complete(h, st, Handoff.phase(st) == Handoff.REQUEST ? CHANNEL_CLOSED : null);
+        }
         for (Node p = head; p != null;) {
             if (!p.isMatched()) {
                 if (!p.isData) {
@@ -453,6 +466,82 @@ public class TransferChannel<Message> implements StandardChannel<Message>, Selec
             this.pred = pred;
         }
     }
+
+    /**
+     * A strand's reusable record for waiting in a channel's handoff slot.
+     * Each use of the record is given a new sequence number, kept in the state alongside the phase, and all transitions
+     * are CASes on the state, so a strand still holding the record from an earlier use can never match a later one.
+     */
+    static final class Handoff {
+        static final int IDLE = 0;
+        static final int DATA = 1;      // the owner waits to send item
+        static final int REQUEST = 2;   // the owner waits to receive
+        static final int CLAIMED = 3;   // a matching strand is completing the transfer
+        static final int MATCHED = 4;
+        static final int CANCELLED = 5;
+
+        final Strand waiter;
+        volatile long state;  // seq << 3 | phase
+        TransferChannel<?> channel; // written before state, read after it
+        Object item;
+
+        Handoff(Strand waiter) {
+            this.waiter = waiter;
+        }
+
+        static int phase(long st) {
+            return (int) (st & 7);
+        }
+
+        static long withPhase(long st, int phase) {
+            return (st & ~7L) | phase;
+        }
+
+        long prepare(TransferChannel<?> channel, Object e, boolean haveData) {
+            this.channel = channel;
+            this.item = e;
+            final long st = (((state >>> 3) + 1) << 3) | (haveData ? DATA : REQUEST);
+            this.state = st;
+            return st;
+        }
+
+        boolean cancel(long st) {
+            return casState(st, withPhase(st, CANCELLED));
+        }
+
+        boolean casState(long cmp, long val) {
+            return STATE.compareAndSet(this, cmp, val);
+        }
+
+        private static final VarHandle STATE;
+
+        static {
+            try {
+                STATE = MethodHandles.lookup().findVarHandle(Handoff.class, "state", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+    }
+
+    private static final ThreadLocal<Handoff> handoffs = new ThreadLocal<Handoff>();
+
+    /**
+     * Returns the current strand's handoff record.
+     */
+    private static Handoff handoff() {
+        final Strand current = Strand.currentStrand();
+        Handoff h = handoffs.get();
+        if (h == null || h.waiter != current) { // fibers that share their thread's locals cannot share a record
+            h = new Handoff(current);
+            handoffs.set(h);
+        }
+        return h;
+    }
+    /**
+     * The handoff slot; null when no strand waits in it
+     */
+    private transient volatile Handoff slot;
     /**
      * head of the queue; null until first enqueue
      */
@@ -475,6 +564,10 @@ public class TransferChannel<Message> implements StandardChannel<Message>, Selec
         return HEAD.compareAndSet(this, cmp, val); // UNSAFE.compareAndSwapObject(this, headOffset, cmp, val);
     }
 
+    private boolean casSlot(Handoff cmp, Handoff val) {
+        return SLOT.compareAndSet(this, cmp, val);
+    }
+
     private boolean casSweepVotes(int cmp, int val) {
         return SWEEP_VOTES.compareAndSet(this, cmp, val); // UNSAFE.compareAndSwapInt(this, sweepVotesOffset, cmp, val);
     }
@@ -496,7 +589,10 @@ public class TransferChannel<Message> implements StandardChannel<Message>, Selec
     private Object trySendOrReceive(Message e, boolean haveData) {
         if (haveData && (e == null))
             throw new NullPointerException();
-        Object item = tryMatch(null, e, haveData);
+        Object item = tryMatchSlot(e, haveData);
+        if (item != NO_MATCH)
+            return item;
+        item = tryMatch(null, e, haveData);
         if (item != NO_MATCH)
             return item;
         return e;
@@ -521,12 +617,37 @@ public class TransferChannel<Message> implements StandardChannel<Message>, Selec
 
         retry:
         for (;;) {                            // restart on append race
-            Object item = tryMatch(null, e, haveData);
+            Object item = tryMatchSlot(e, haveData);
+            if (item != NO_MATCH)
+                return item;
+            item = tryMatch(null, e, haveData);
             if (item != NO_MATCH)
                 return item;
 
-            if (s == null)
+            if (s == null) {
+                if (slot == null && firstOfMode(haveData) == null) {
+                    // nobody is waiting; wait in the slot rather than in a new node
+                    final Handoff h = handoff();
+                    final long st = h.prepare(this, e, haveData);
+                    if (casSlot(null, h)) {
+                        if (firstOfMode(!haveData) == null && !sendClosed)
+                            return awaitHandoff(h, st, e, (how == TIMED), nanos);
+                        // an opposite strand has queued (or the channel has been closed) before we've taken the slot
+                    }
+                    if (!h.cancel(st))
+                        return awaitHandoff(h, st, e, (how == TIMED), nanos); // matched nonetheless
+                    casSlot(h, null);
+                    h.item = null;
+                    if (sendClosed) {
+                        if (haveData)
+                            return null;      // dropped, as when a waiting sender is closed
+                        setReceiveClosed();
+                        return CHANNEL_CLOSED;
+                    }
+                    continue retry;
+                }
                 s = new Node(e, haveData);
+            }
             Node pred = tryAppend(s, haveData);
             if (pred == null)
                 continue retry;           // lost race vs opposite mode
@@ -538,6 +659,13 @@ public class TransferChannel<Message> implements StandardChannel<Message>, Selec
                 return CHANNEL_CLOSED;
             }
 
+            if (slotWaiting(!haveData) && s.casItem(e, s)) {
+                // an opposite strand has taken the slot before we've queued
+                unsplice(pred, s);
+                s = null;
+                continue retry;
+            }
+
             return awaitMatch(s, pred, e, (how == TIMED), nanos);
         }
     }
@@ -547,7 +675,9 @@ public class TransferChannel<Message> implements StandardChannel<Message>, Selec
 
         retry:
         for (;;) {                            // restart on append race
-            Object item = tryMatch(null, null, false);
+            Object item = tryMatchSlot(null, false);
+            if (item == NO_MATCH)
+                item = tryMatch(null, null, false);
             if (item != NO_MATCH) {
                 s.item = item;
                 return new Token(s, null);
@@ -564,6 +694,12 @@ public class TransferChannel<Message> implements StandardChannel<Message>, Selec
                 return new Token(s, null);
             }
 
+            if (slotWaiting(true) && s.casItem(null, s)) {
+                unsplice(pred, s);
+                s = new Node(null, false);
+                continue retry;
+            }
+
             requestUnpark(s, Strand.currentStrand());
             return new Token(s, pred);
         }
@@ -583,7 +719,9 @@ public class TransferChannel<Message> implements StandardChannel<Message>, Selec
                 return null;
             }
 
-            Object item = tryMatch(e, e.message(), haveData);
+            Object item = tryMatchSlot(e.message(), haveData);
+            if (item == NO_MATCH)
+                item = tryMatch(e, e.message(), haveData);
             if (item == LOST)
                 return null;
 
@@ -602,10 +740,99 @@ public class TransferChannel<Message> implements StandardChannel<Message>, Selec
             if (pred == null)
                 continue retry;           // lost race vs opposite mode
 
+            if (slotWaiting(!haveData)) {
+                final Object x = s.item;
+                if (!s.isMatched() && s.casItem(x, s)) {
+                    unsplice(pred, s);
+                    s = null;
+                    continue retry;
+                }
+            }
+
             return new Token(s, pred);
         }
     }
 
+    /**
+     * Tries to match the strand waiting in the handoff slot.
+     *
+     * @return the matched item, or {@code NO_MATCH}
+     */
+    private Object tryMatchSlot(Object e, boolean haveData) {
+        final Handoff h = slot;
+        if (h == null)
+            return NO_MATCH;
+        final long st = h.state;
+        if (Handoff.phase(st) != (haveData ? Handoff.REQUEST : Handoff.DATA) || h.channel != this)
+            return NO_MATCH;
+        final Object x = h.item;
+        if (!complete(h, st, e))
+            return NO_MATCH;
+        return x;
+    }
+
+    /**
+     * Completes the wait of a handoff slot owner, handing it the given item (null for a waiting sender).
+     */
+    private boolean complete(Handoff h, long st, Object e) {
+        if (!h.casState(st, Handoff.withPhase(st, Handoff.CLAIMED)))
+            return false;
+        h.item = e;
+        casSlot(h, null);
+        h.state = Handoff.withPhase(st, Handoff.MATCHED);
+        Strand.unpark(h.waiter, this);
+        return true;
+    }
+
+    /**
+     * Whether a strand of the given mode is waiting in the handoff slot.
+     */
+    private boolean slotWaiting(boolean isData) {
+        final Handoff h = slot;
+        return h != null && Handoff.phase(h.state) == (isData ? Handoff.DATA : Handoff.REQUEST) && h.channel == this;
+    }
+
+    /**
+     * Spins/yields/blocks until the handoff slot owner is matched or gives up.
+     *
+     * @return matched item, or e if unmatched on interrupt or timeout
+     */
+    private Object awaitHandoff(Handoff h, long st, Message e, boolean timed, long nanos) throws SuspendExecution {
+        long lastTime = timed ? System.nanoTime() : 0L;
+        final Strand w = h.waiter;
+        int spins = (w.isFiber() || !MP) ? 0 : FRONT_SPINS; // no spins in fiber
+        final ThreadLocalRandom randomYields = spins > 0 ? ThreadLocalRandom.current() : null;
+
+        for (;;) {
+            if (Handoff.phase(h.state) == Handoff.MATCHED) {
+                final Object item = h.item;
+                h.item = null;                // avoid garbage
+                if (item == CHANNEL_CLOSED)
+                    setReceiveClosed();
+                return item;
+            }
+            if ((w.isInterrupted() || (timed && nanos <= 0))
+                    && h.cancel(st)) {        // cancel; fails once claimed
+                casSlot(h, null);
+                h.item = null;
+                return e;
+            }
+
+            if (spins > 0) {                  // spin
+                --spins;
+                if (randomYields.nextInt(CHAINED_SPINS) == 0)
+                    Strand.yield();           // occasionally yield
+            } else if (timed) {
+                long now = System.nanoTime();
+                if ((nanos -= now - lastTime) > 0)
+                    Strand.parkNanos(this, nanos);
+                lastTime = now;
+            } else {
+                Strand.park(this);
+            }
+        }
+    }
+
     private Object tryMatch(SelectActionImpl sa, Message e, boolean haveData) {
         boolean closed = isSendClosed(); // must be read before trying to match so as not to miss puts
 
@@ -898,6 +1125,8 @@ public class TransferChannel<Message> implements StandardChannel<Message>, Selec
      * @return {@code true} if this queue contains no elements
      */
     boolean isEmpty() {
+        if (slotWaiting(true))
+            return false;
         for (Node p = head; p != null; p = succ(p)) {
             if (!p.isMatched())
                 return !p.isData;
@@ -906,20 +1135,21 @@ public class TransferChannel<Message> implements StandardChannel<Message>, Selec
     }
 
     boolean hasWaitingConsumer() {
-        return firstOfMode(false) != null;
+        return slotWaiting(false) || firstOfMode(false) != null;
     }
 
     int size() {
-        return countOfMode(true);
+        return countOfMode(true) + (slotWaiting(true) ? 1 : 0);
     }
 
     public int getWaitingConsumerCount() {
-        return countOfMode(false);
+        return countOfMode(false) + (slotWaiting(false) ? 1 : 0);
     }
 
     private static final VarHandle HEAD;
     private static final VarHandle TAIL;
     private static final VarHandle SWEEP_VOTES;
+    private static final VarHandle SLOT;
 
     static {
         try {
@@ -928,6 +1158,7 @@ public class TransferChannel<Message> implements StandardChannel<Message>, Selec
             HEAD = l.findVarHandle(k, "head", Node.class);
             TAIL = l.findVarHandle(k, "tail", Node.class);
             SWEEP_VOTES = l.findVarHandle(k, "sweepVotes", int.class);
+            SLOT = l.findVarHandle(k, "slot", Handoff.class);
         } catch (ReflectiveOperationException e) {
             throw new ExceptionInInitializerError(e);
         }
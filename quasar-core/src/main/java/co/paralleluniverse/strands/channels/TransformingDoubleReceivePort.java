@@ -0,0 +1,130 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Timeout;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * An {@link DoubleReceivePort} with additional functional-transform operations, usually wrapping a plain {@link DoubleReceivePort}.
+ * Unlike the operations of {@link TransformingReceivePort}, these operate on primitive {@code double}s and do not box messages.
+ * <p>
+ * Like the primitive channels, a {@code TransformingDoubleReceivePort} must only be used by a single receiver strand.</p>
+ *
+ * @author pron
+ */
+public class TransformingDoubleReceivePort extends DelegatingReceivePort<Double> implements DoubleReceivePort {
+
+    TransformingDoubleReceivePort(DoubleReceivePort target) {
+        super(target);
+    }
+
+    /**
+     * Returns a {@link TransformingDoubleReceivePort} that filters messages that satisfy a predicate from this given channel.
+     * All messages (even those not satisfying the predicate) will be consumed from the original channel; those that don't satisfy the predicate will be silently discarded.
+     * <p>
+     * The returned {@code TransformingDoubleReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param pred the filtering predicate
+     * @return A {@link TransformingDoubleReceivePort} that will receive all those messages from the original channel which satisfy the predicate (i.e. the predicate returns {@code true}).
+     */
+    public TransformingDoubleReceivePort filter(DoublePredicate pred) {
+        return Channels.transformDouble(Channels.filterDouble(this, pred));
+    }
+
+    /**
+     * Returns a {@link TransformingDoubleReceivePort} that receives messages that are transformed by a given mapping function from this channel.
+     * <p>
+     * The returned {@code TransformingDoubleReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.
+     *
+     * @param f the mapping function
+     * @return a {@link TransformingDoubleReceivePort} that returns messages that are the result of applying the mapping function to the messages received on the given channel.
+     */
+    public TransformingDoubleReceivePort map(DoubleUnaryOperator f) {
+        return Channels.transformDouble(Channels.mapDouble(this, f));
+    }
+
+    /**
+     * Returns a {@link TransformingDoubleReceivePort} from which receiving messages that are transformed from a given channel by a given reduction function.
+     * <p>
+     * The returned {@code TransformingDoubleReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param f    The reduction function.
+     * @param init The initial input to the reduction function.
+     * @return a {@link TransformingDoubleReceivePort} that returns messages that are the result of applying the reduction function to the messages received on the given channel.
+     */
+    public TransformingDoubleReceivePort reduce(DoubleBinaryOperator f, double init) {
+        return Channels.transformDouble(Channels.reduceDouble(this, f, init));
+    }
+
+    /**
+     * Returns a {@link TransformingDoubleReceivePort} that combines each message received from this channel with the corresponding message
+     * received from another channel.
+     *
+     * @param other the other channel
+     * @param f     the combining function
+     * @return a {@link TransformingDoubleReceivePort} that returns messages that are the result of applying the combining function to pairs of messages.
+     */
+    public TransformingDoubleReceivePort zip(DoubleReceivePort other, DoubleBinaryOperator f) {
+        return Channels.transformDouble(Channels.zipDouble(this, other, f));
+    }
+
+    /**
+     * Returns a {@link TransformingDoubleReceivePort} that receives messages that are transformed by a given flat-mapping function from this channel.
+     * Unlike {@link #map(DoubleUnaryOperator) map}, the mapping function does not returns a single output message for every input message, but
+     * a new {@code DoubleReceivePort}. All the returned ports are concatenated into a single {@code DoubleReceivePort} that receives the messages received by all
+     * the ports in order. To emit no values, the function can return {@code null}.
+     * <p>
+     * The returned {@code TransformingDoubleReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.
+     *
+     * @param f the mapping function
+     * @return a {@link TransformingDoubleReceivePort} that returns messages that are the result of applying the mapping function to the messages received on the given channel.
+     */
+    public TransformingDoubleReceivePort flatMap(DoubleFunction<DoubleReceivePort> f) {
+        return Channels.transformDouble(Channels.flatMapDouble(this, f));
+    }
+
+    /**
+     * Returns a {@link TransformingReceivePort} view of this channel, which boxes every message.
+     */
+    public TransformingReceivePort<Double> boxed() {
+        return Channels.transform(this);
+    }
+
+    @Override
+    public double receiveDouble() throws SuspendExecution, InterruptedException, EOFException {
+        return ((DoubleReceivePort) target).receiveDouble();
+    }
+
+    @Override
+    public double receiveDouble(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException, TimeoutException, EOFException {
+        return ((DoubleReceivePort) target).receiveDouble(timeout, unit);
+    }
+
+    @Override
+    public double receiveDouble(Timeout timeout) throws SuspendExecution, InterruptedException, TimeoutException, EOFException {
+        return ((DoubleReceivePort) target).receiveDouble(timeout);
+    }
+
+    @Override
+    public boolean hasMessage() {
+        return ((DoubleReceivePort) target).hasMessage();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Timeout;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * An {@link IntReceivePort} with additional functional-transform operations, usually wrapping a plain {@link IntReceivePort}.
+ * Unlike the operations of {@link TransformingReceivePort}, these operate on primitive {@code int}s and do not box messages.
+ * <p>
+ * Like the primitive channels, a {@code TransformingIntReceivePort} must only be used by a single receiver strand.</p>
+ *
+ * @author pron
+ */
+public class TransformingIntReceivePort extends DelegatingReceivePort<Integer> implements IntReceivePort {
+
+    TransformingIntReceivePort(IntReceivePort target) {
+        super(target);
+    }
+
+    /**
+     * Returns a {@link TransformingIntReceivePort} that filters messages that satisfy a predicate from this given channel.
+     * All messages (even those not satisfying the predicate) will be consumed from the original channel; those that don't satisfy the predicate will be silently discarded.
+     * <p>
+     * The returned {@code TransformingIntReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param pred the filtering predicate
+     * @return A {@link TransformingIntReceivePort} that will receive all those messages from the original channel which satisfy the predicate (i.e. the predicate returns {@code true}).
+     */
+    public TransformingIntReceivePort filter(IntPredicate pred) {
+        return Channels.transformInt(Channels.filterInt(this, pred));
+    }
+
+    /**
+     * Returns a {@link TransformingIntReceivePort} that receives messages that are transformed by a given mapping function from this channel.
+     * <p>
+     * The returned {@code TransformingIntReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.
+     *
+     * @param f the mapping function
+     * @return a {@link TransformingIntReceivePort} that returns messages that are the result of applying the mapping function to the messages received on the given channel.
+     */
+    public TransformingIntReceivePort map(IntUnaryOperator f) {
+        return Channels.transformInt(Channels.mapInt(this, f));
+    }
+
+    /**
+     * Returns a {@link TransformingIntReceivePort} from which receiving messages that are transformed from a given channel by a given reduction function.
+     * <p>
+     * The returned {@code TransformingIntReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param f    The reduction function.
+     * @param init The initial input to the reduction function.
+     * @return a {@link TransformingIntReceivePort} that returns messages that are the result of applying the reduction function to the messages received on the given channel.
+     */
+    public TransformingIntReceivePort reduce(IntBinaryOperator f, int init) {
+        return Channels.transformInt(Channels.reduceInt(this, f, init));
+    }
+
+    /**
+     * Returns a {@link TransformingIntReceivePort} that combines each message received from this channel with the corresponding message
+     * received from another channel.
+     *
+     * @param other the other channel
+     * @param f     the combining function
+     * @return a {@link TransformingIntReceivePort} that returns messages that are the result of applying the combining function to pairs of messages.
+     */
+    public TransformingIntReceivePort zip(IntReceivePort other, IntBinaryOperator f) {
+        return Channels.transformInt(Channels.zipInt(this, other, f));
+    }
+
+    /**
+     * Returns a {@link TransformingIntReceivePort} that receives messages that are transformed by a given flat-mapping function from this channel.
+     * Unlike {@link #map(IntUnaryOperator) map}, the mapping function does not returns a single output message for every input message, but
+     * a new {@code IntReceivePort}. All the returned ports are concatenated into a single {@code IntReceivePort} that receives the messages received by all
+     * the ports in order. To emit no values, the function can return {@code null}.
+     * <p>
+     * The returned {@code TransformingIntReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.
+     *
+     * @param f the mapping function
+     * @return a {@link TransformingIntReceivePort} that returns messages that are the result of applying the mapping function to the messages received on the given channel.
+     */
+    public TransformingIntReceivePort flatMap(IntFunction<IntReceivePort> f) {
+        return Channels.transformInt(Channels.flatMapInt(this, f));
+    }
+
+    /**
+     * Returns a {@link TransformingReceivePort} view of this channel, which boxes every message.
+     */
+    public TransformingReceivePort<Integer> boxed() {
+        return Channels.transform(this);
+    }
+
+    @Override
+    public int receiveInt() throws SuspendExecution, InterruptedException, EOFException {
+        return ((IntReceivePort) target).receiveInt();
+    }
+
+    @Override
+    public int receiveInt(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException, TimeoutException, EOFException {
+        return ((IntReceivePort) target).receiveInt(timeout, unit);
+    }
+
+    @Override
+    public int receiveInt(Timeout timeout) throws SuspendExecution, InterruptedException, TimeoutException, EOFException {
+        return ((IntReceivePort) target).receiveInt(timeout);
+    }
+
+    @Override
+    public boolean hasMessage() {
+        return ((IntReceivePort) target).hasMessage();
+    }
+}
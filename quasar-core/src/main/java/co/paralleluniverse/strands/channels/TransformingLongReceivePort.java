@@ -0,0 +1,130 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Timeout;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * An {@link LongReceivePort} with additional functional-transform operations, usually wrapping a plain {@link LongReceivePort}.
+ * Unlike the operations of {@link TransformingReceivePort}, these operate on primitive {@code long}s and do not box messages.
+ * <p>
+ * Like the primitive channels, a {@code TransformingLongReceivePort} must only be used by a single receiver strand.</p>
+ *
+ * @author pron
+ */
+public class TransformingLongReceivePort extends DelegatingReceivePort<Long> implements LongReceivePort {
+
+    TransformingLongReceivePort(LongReceivePort target) {
+        super(target);
+    }
+
+    /**
+     * Returns a {@link TransformingLongReceivePort} that filters messages that satisfy a predicate from this given channel.
+     * All messages (even those not satisfying the predicate) will be consumed from the original channel; those that don't satisfy the predicate will be silently discarded.
+     * <p>
+     * The returned {@code TransformingLongReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param pred the filtering predicate
+     * @return A {@link TransformingLongReceivePort} that will receive all those messages from the original channel which satisfy the predicate (i.e. the predicate returns {@code true}).
+     */
+    public TransformingLongReceivePort filter(LongPredicate pred) {
+        return Channels.transformLong(Channels.filterLong(this, pred));
+    }
+
+    /**
+     * Returns a {@link TransformingLongReceivePort} that receives messages that are transformed by a given mapping function from this channel.
+     * <p>
+     * The returned {@code TransformingLongReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.
+     *
+     * @param f the mapping function
+     * @return a {@link TransformingLongReceivePort} that returns messages that are the result of applying the mapping function to the messages received on the given channel.
+     */
+    public TransformingLongReceivePort map(LongUnaryOperator f) {
+        return Channels.transformLong(Channels.mapLong(this, f));
+    }
+
+    /**
+     * Returns a {@link TransformingLongReceivePort} from which receiving messages that are transformed from a given channel by a given reduction function.
+     * <p>
+     * The returned {@code TransformingLongReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param f    The reduction function.
+     * @param init The initial input to the reduction function.
+     * @return a {@link TransformingLongReceivePort} that returns messages that are the result of applying the reduction function to the messages received on the given channel.
+     */
+    public TransformingLongReceivePort reduce(LongBinaryOperator f, long init) {
+        return Channels.transformLong(Channels.reduceLong(this, f, init));
+    }
+
+    /**
+     * Returns a {@link TransformingLongReceivePort} that combines each message received from this channel with the corresponding message
+     * received from another channel.
+     *
+     * @param other the other channel
+     * @param f     the combining function
+     * @return a {@link TransformingLongReceivePort} that returns messages that are the result of applying the combining function to pairs of messages.
+     */
+    public TransformingLongReceivePort zip(LongReceivePort other, LongBinaryOperator f) {
+        return Channels.transformLong(Channels.zipLong(this, other, f));
+    }
+
+    /**
+     * Returns a {@link TransformingLongReceivePort} that receives messages that are transformed by a given flat-mapping function from this channel.
+     * Unlike {@link #map(LongUnaryOperator) map}, the mapping function does not returns a single output message for every input message, but
+     * a new {@code LongReceivePort}. All the returned ports are concatenated into a single {@code LongReceivePort} that receives the messages received by all
+     * the ports in order. To emit no values, the function can return {@code null}.
+     * <p>
+     * The returned {@code TransformingLongReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.
+     *
+     * @param f the mapping function
+     * @return a {@link TransformingLongReceivePort} that returns messages that are the result of applying the mapping function to the messages received on the given channel.
+     */
+    public TransformingLongReceivePort flatMap(LongFunction<LongReceivePort> f) {
+        return Channels.transformLong(Channels.flatMapLong(this, f));
+    }
+
+    /**
+     * Returns a {@link TransformingReceivePort} view of this channel, which boxes every message.
+     */
+    public TransformingReceivePort<Long> boxed() {
+        return Channels.transform(this);
+    }
+
+    @Override
+    public long receiveLong() throws SuspendExecution, InterruptedException, EOFException {
+        return ((LongReceivePort) target).receiveLong();
+    }
+
+    @Override
+    public long receiveLong(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException, TimeoutException, EOFException {
+        return ((LongReceivePort) target).receiveLong(timeout, unit);
+    }
+
+    @Override
+    public long receiveLong(Timeout timeout) throws SuspendExecution, InterruptedException, TimeoutException, EOFException {
+        return ((LongReceivePort) target).receiveLong(timeout);
+    }
+
+    @Override
+    public boolean hasMessage() {
+        return ((LongReceivePort) target).hasMessage();
+    }
+}
@@ -18,11 +18,17 @@ import co.paralleluniverse.fibers.FiberFactory;
 import co.paralleluniverse.fibers.SuspendExecution;
 import co.paralleluniverse.strands.SuspendableAction1;
 import co.paralleluniverse.strands.SuspendableAction2;
+import co.paralleluniverse.strands.SuspendableFunction;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A {@link ReceivePort} with additional functional-transform operations, usually wrapping a plain {@link ReceivePort}.
+ * <p>
+ * Consecutive {@link #map(Function) map} and {@link #filter(Predicate) filter} operations are fused: they are applied one after the
+ * other by a single port, rather than by a chain of ports each receiving from the one before it.</p>
  *
  * @author pron
  */
@@ -42,7 +48,7 @@ public class TransformingReceivePort<T> extends DelegatingReceivePort<T> {
      * @return A {@link TransformingReceivePort} that will receive all those messages from the original channel which satisfy the predicate (i.e. the predicate returns {@code true}).
      */
     public TransformingReceivePort<T> filter(Predicate<T> pred) {
-        return Channels.transform(Channels.filter(this, pred));
+        return FusedReceivePort.filter(this, pred);
     }
 
     /**
@@ -54,7 +60,38 @@ public class TransformingReceivePort<T> extends DelegatingReceivePort<T> {
      * @return a {@link TransformingReceivePort} that returns messages that are the result of applying the mapping function to the messages received on the given channel.
      */
     public <U> TransformingReceivePort<U> map(Function<T, U> f) {
-        return Channels.transform(Channels.map(this, f));
+        return FusedReceivePort.map(this, f);
+    }
+
+    /**
+     * Returns a {@link TransformingReceivePort} that receives messages that are transformed by a given mapping function from this channel,
+     * applying the function to up to {@code concurrency} messages at a time, each in a fiber created by the given factory.
+     * <p>
+     * The returned {@code TransformingReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.
+     *
+     * @param fiberFactory will be used to create the fibers
+     * @param concurrency  the maximum number of messages mapped at the same time
+     * @param ordered      whether the results are to be received in the order of the messages they've been mapped from
+     * @param f            the mapping function
+     * @see Channels#parallelMap(FiberFactory, ReceivePort, int, boolean, SuspendableFunction)
+     */
+    public <U> TransformingReceivePort<U> parallelMap(FiberFactory fiberFactory, int concurrency, boolean ordered, SuspendableFunction<T, U> f) {
+        return Channels.transform(Channels.parallelMap(fiberFactory, this, concurrency, ordered, f));
+    }
+
+    /**
+     * Returns a {@link TransformingReceivePort} that receives messages that are transformed by a given mapping function from this channel,
+     * applying the function to up to {@code concurrency} messages at a time, each in its own fiber.
+     * <p>
+     * The returned {@code TransformingReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.
+     *
+     * @param concurrency the maximum number of messages mapped at the same time
+     * @param ordered     whether the results are to be received in the order of the messages they've been mapped from
+     * @param f           the mapping function
+     * @see Channels#parallelMap(ReceivePort, int, boolean, SuspendableFunction)
+     */
+    public <U> TransformingReceivePort<U> parallelMap(int concurrency, boolean ordered, SuspendableFunction<T, U> f) {
+        return Channels.transform(Channels.parallelMap(this, concurrency, ordered, f));
     }
 
      /**
@@ -114,6 +151,76 @@ public class TransformingReceivePort<T> extends DelegatingReceivePort<T> {
     public TransformingReceivePort<T> take(final long count) {
         return Channels.transform(Channels.take(this, count));
     }
+
+    /**
+     * Returns a {@link TransformingReceivePort} that receives messages from this channel in batches of up to {@code count} messages.
+     * Once the first message of a batch has been received, the batch is received when it's full, or when {@code timeout} has elapsed,
+     * whichever comes first.
+     * <p>
+     * The returned {@code TransformingReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.
+     *
+     * @param count   the maximum number of messages in a batch
+     * @param timeout the maximum duration to wait for a batch to fill
+     * @param unit    the time unit of {@code timeout}
+     * @see Channels#buffer(ReceivePort, int, long, TimeUnit)
+     */
+    public TransformingReceivePort<List<T>> buffer(int count, long timeout, TimeUnit unit) {
+        return Channels.transform(Channels.buffer(this, count, timeout, unit));
+    }
+
+    /**
+     * Returns a {@link TransformingReceivePort} that receives the messages from this channel in tumbling time windows.
+     * <p>
+     * The returned {@code TransformingReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.
+     *
+     * @param size the duration of a window
+     * @param unit the time unit of {@code size}
+     * @see Channels#window(ReceivePort, long, TimeUnit)
+     */
+    public TransformingReceivePort<List<T>> window(long size, TimeUnit unit) {
+        return Channels.transform(Channels.window(this, size, unit));
+    }
+
+    /**
+     * Returns a {@link TransformingReceivePort} that receives the messages from this channel in sliding time windows.
+     * <p>
+     * The returned {@code TransformingReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.
+     *
+     * @param size the duration of a window
+     * @param step the duration between the ends of consecutive windows
+     * @param unit the time unit of {@code size} and {@code step}
+     * @see Channels#window(ReceivePort, long, long, TimeUnit)
+     */
+    public TransformingReceivePort<List<T>> window(long size, long step, TimeUnit unit) {
+        return Channels.transform(Channels.window(this, size, step, unit));
+    }
+
+    /**
+     * Returns a {@link TransformingReceivePort} that receives a message from this channel only after no other message has followed it
+     * for the given quiet period.
+     * <p>
+     * The returned {@code TransformingReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.
+     *
+     * @param quiet the quiet period
+     * @param unit  the time unit of {@code quiet}
+     * @see Channels#debounce(ReceivePort, long, TimeUnit)
+     */
+    public TransformingReceivePort<T> debounce(long quiet, TimeUnit unit) {
+        return Channels.transform(Channels.debounce(this, quiet, unit));
+    }
+
+    /**
+     * Returns a {@link TransformingReceivePort} that receives at most one message from this channel per period.
+     * <p>
+     * The returned {@code TransformingReceivePort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.
+     *
+     * @param period the minimal duration between consecutive messages
+     * @param unit   the time unit of {@code period}
+     * @see Channels#throttle(ReceivePort, long, TimeUnit)
+     */
+    public TransformingReceivePort<T> throttle(long period, TimeUnit unit) {
+        return Channels.transform(Channels.throttle(this, period, unit));
+    }
     
     /**
      * Spawns a fiber that transforms values read from this channel and writes values to the {@code out} channel.
@@ -18,6 +18,7 @@ import co.paralleluniverse.fibers.FiberFactory;
 import co.paralleluniverse.strands.SuspendableAction2;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A {@link SendPort} with additional functional-transform operations, usually wrapping a plain {@link SendPort}.
@@ -90,6 +91,32 @@ public class TransformingSendPort<T> extends DelegatingSendPort<T> {
         return Channels.transformSend(Channels.flatMapSend(pipe, this, f));
     }
 
+    /**
+     * Returns a {@link TransformingSendPort} that sends a message to this channel only after no other message has been sent for the
+     * given quiet period. Messages are first sent to {@code pipe}, and debounced by a single fiber.
+     *
+     * @param pipe  an intermediate channel that messages are sent to before being debounced.
+     * @param quiet the quiet period
+     * @param unit  the time unit of {@code quiet}
+     * @see Channels#debounceSend(Channel, SendPort, long, TimeUnit)
+     */
+    public TransformingSendPort<T> debounce(Channel<T> pipe, long quiet, TimeUnit unit) {
+        return Channels.transformSend(Channels.debounceSend(pipe, this, quiet, unit));
+    }
+
+    /**
+     * Returns a {@link TransformingSendPort} that sends at most one message per period to this channel.
+     * <p>
+     * The returned {@code TransformingSendPort} has the same {@link Object#hashCode() hashCode} as {@code channel} and is {@link Object#equals(Object) equal} to it.</p>
+     *
+     * @param period the minimal duration between consecutive messages
+     * @param unit   the time unit of {@code period}
+     * @see Channels#throttleSend(SendPort, long, TimeUnit)
+     */
+    public TransformingSendPort<T> throttle(long period, TimeUnit unit) {
+        return Channels.transformSend(Channels.throttleSend(this, period, unit));
+    }
+
     /**
      * Spawns a fiber that transforms values read from the {@code in} channel and writes values to this channel.
      * <p>
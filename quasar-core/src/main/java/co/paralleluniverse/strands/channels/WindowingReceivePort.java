@@ -0,0 +1,181 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Timeout;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives, every {@code step}, the messages that have arrived during the preceding {@code size} as a list.
+ * When {@code size == step} the windows are <i>tumbling</i>, i.e. every message belongs to exactly one window; when {@code size > step}
+ * they are <i>sliding</i>, and a message belongs to all windows overlapping its arrival.
+ * Empty windows are skipped, and a strand waiting for a window while no messages are pending is only woken by the arrival of a message.
+ * <p>
+ * The waiting is done by the receiving strand's own timed receives, so no other strand (or timer task) is involved.
+ * As a result, a message is timestamped when it is received from the underlying channel rather than when it is sent, and windows are
+ * only formed while a strand is receiving from this port.</p>
+ *
+ * @author pron
+ */
+class WindowingReceivePort<T> extends DelegatingReceivePort1<T, List<T>> implements ReceivePort<List<T>> {
+    private final long size;
+    private final long step;
+    private ArrayList<T> window = new ArrayList<>();
+    private long[] times; // arrival times; only kept by sliding windows
+    private long nextTick;
+    private boolean fresh; // whether messages have arrived since the last window was received
+    private boolean eof;
+
+    public WindowingReceivePort(ReceivePort<T> target, long size, long step, TimeUnit unit) {
+        super(target);
+        if (size <= 0 || step <= 0)
+            throw new IllegalArgumentException("size and step must be positive; were " + size + ", " + step);
+        this.size = unit.toNanos(size);
+        this.step = unit.toNanos(step);
+        this.times = this.size != this.step ? new long[16] : null;
+    }
+
+    @Override
+    public List<T> receive() throws SuspendExecution, InterruptedException {
+        return receive0(false, 0);
+    }
+
+    @Override
+    public List<T> receive(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException {
+        return receive0(true, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    @Override
+    public List<T> receive(Timeout timeout) throws SuspendExecution, InterruptedException {
+        return receive(timeout.nanosLeft(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public List<T> tryReceive() {
+        for (;;) {
+            final long now = System.nanoTime();
+            if (!window.isEmpty() && now - nextTick >= 0) {
+                final List<T> w = tick(now);
+                if (w != null)
+                    return w;
+                continue;
+            }
+            final T m = target.tryReceive();
+            if (m == null)
+                return eof() ? flush() : null;
+            add(m, System.nanoTime());
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return window.isEmpty() && super.isClosed();
+    }
+
+    private List<T> receive0(boolean timed, long deadline) throws SuspendExecution, InterruptedException {
+        for (;;) {
+            final long now = System.nanoTime();
+            if (!window.isEmpty() && now - nextTick >= 0) {
+                final List<T> w = tick(now);
+                if (w != null)
+                    return w;
+                continue;
+            }
+            if (eof())
+                return flush();
+
+            final T m;
+            if (window.isEmpty()) {
+                // nothing to emit until the next message arrives
+                m = timed ? target.receive(deadline - now, TimeUnit.NANOSECONDS) : target.receive();
+            } else {
+                long wait = nextTick - now;
+                if (timed) {
+                    if (deadline - now <= 0)
+                        return null;
+                    wait = Math.min(wait, deadline - now);
+                }
+                m = target.receive(wait, TimeUnit.NANOSECONDS);
+            }
+
+            if (m != null)
+                add(m, System.nanoTime());
+            else if (target.isClosed())
+                eof = true;
+            else if (timed && deadline - System.nanoTime() <= 0)
+                return null;
+        }
+    }
+
+    private void add(T m, long now) {
+        if (window.isEmpty())
+            nextTick = now + step; // an idle port starts a new window with the next message
+        if (times != null) {
+            if (window.size() == times.length)
+                times = Arrays.copyOf(times, times.length * 2);
+            times[window.size()] = now;
+        }
+        window.add(m);
+        fresh = true;
+    }
+
+    /**
+     * Closes the window ending at {@code nextTick}, and returns its messages, or {@code null} if it's empty.
+     */
+    private List<T> tick(long now) {
+        final long tick = nextTick;
+        nextTick = tick + step;
+        fresh = false;
+        if (now - nextTick >= 0) // we've fallen behind; skip the windows we've missed
+            nextTick = now + step - (now - tick) % step;
+
+        if (times == null) {
+            final List<T> w = window;
+            window = new ArrayList<>(Math.max(16, w.size()));
+            return w;
+        }
+
+        final long start = tick - size;
+        int expired = 0;
+        while (expired < window.size() && times[expired] - start < 0)
+            expired++;
+        if (expired > 0) {
+            window.subList(0, expired).clear();
+            System.arraycopy(times, expired, times, 0, window.size());
+        }
+        return window.isEmpty() ? null : new ArrayList<>(window);
+    }
+
+    private boolean eof() {
+        return eof || (eof = target.isClosed());
+    }
+
+    /**
+     * Returns the last, partial, window once the underlying channel has been closed, unless it holds no messages that haven't been received.
+     */
+    private List<T> flush() {
+        if (!fresh) {
+            window.clear();
+            return null;
+        }
+        fresh = false;
+        final List<T> w = new ArrayList<>(window);
+        window.clear();
+        return w;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.fibers.Suspendable;
+import co.paralleluniverse.strands.Timeout;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * Single consumer
+ *
+ * @author pron
+ */
+class ZippingDoubleReceivePort implements DoubleReceivePort {
+    private final DoubleReceivePort c1;
+    private final DoubleReceivePort c2;
+    private final DoubleBinaryOperator f;
+    private boolean hasFirst;
+    private double first;
+
+    public ZippingDoubleReceivePort(DoubleReceivePort c1, DoubleReceivePort c2, DoubleBinaryOperator f) {
+        if (c1 == null || c2 == null)
+            throw new IllegalArgumentException("channels can't be null");
+        if (f == null)
+            throw new IllegalArgumentException("f can't be null");
+        this.c1 = c1;
+        this.c2 = c2;
+        this.f = f;
+    }
+
+    @Override
+    public double receiveDouble() throws SuspendExecution, InterruptedException, EOFException {
+        if (!hasFirst) {
+            first = c1.receiveDouble();
+            hasFirst = true;
+        }
+        final double second = c2.receiveDouble();
+        hasFirst = false;
+        return f.applyAsDouble(first, second);
+    }
+
+    @Override
+    public double receiveDouble(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException, TimeoutException, EOFException {
+        long left = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + left;
+
+        if (!hasFirst) {
+            first = c1.receiveDouble(left, TimeUnit.NANOSECONDS);
+            hasFirst = true;
+            left = deadline - System.nanoTime();
+        }
+        final double second = c2.receiveDouble(left, TimeUnit.NANOSECONDS);
+        hasFirst = false;
+        return f.applyAsDouble(first, second);
+    }
+
+    @Override
+    public double receiveDouble(Timeout timeout) throws SuspendExecution, InterruptedException, TimeoutException, EOFException {
+        return receiveDouble(timeout.nanosLeft(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public boolean hasMessage() {
+        return (hasFirst || c1.hasMessage()) && c2.hasMessage();
+    }
+
+    @Override
+    public Double receive() throws SuspendExecution, InterruptedException {
+        try {
+            return receiveDouble();
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Double receive(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException {
+        try {
+            return receiveDouble(timeout, unit);
+        } catch (TimeoutException | EOFException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Double receive(Timeout timeout) throws SuspendExecution, InterruptedException {
+        return receive(timeout.nanosLeft(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    @Suspendable
+    public Double tryReceive() {
+        if (!hasMessage())
+            return null;
+        try {
+            // both sources have a message, so receiveDouble won't block
+            return receiveDouble();
+        } catch (EOFException e) {
+            return null;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable t) {
+            // It should never happen
+            throw new AssertionError(t);
+        }
+    }
+
+    @Override
+    public void close() {
+        c1.close();
+        c2.close();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return c1.isClosed() || c2.isClosed();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.fibers.Suspendable;
+import co.paralleluniverse.strands.Timeout;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Single consumer
+ *
+ * @author pron
+ */
+class ZippingLongReceivePort implements LongReceivePort {
+    private final LongReceivePort c1;
+    private final LongReceivePort c2;
+    private final LongBinaryOperator f;
+    private boolean hasFirst;
+    private long first;
+
+    public ZippingLongReceivePort(LongReceivePort c1, LongReceivePort c2, LongBinaryOperator f) {
+        if (c1 == null || c2 == null)
+            throw new IllegalArgumentException("channels can't be null");
+        if (f == null)
+            throw new IllegalArgumentException("f can't be null");
+        this.c1 = c1;
+        this.c2 = c2;
+        this.f = f;
+    }
+
+    @Override
+    public long receiveLong() throws SuspendExecution, InterruptedException, EOFException {
+        if (!hasFirst) {
+            first = c1.receiveLong();
+            hasFirst = true;
+        }
+        final long second = c2.receiveLong();
+        hasFirst = false;
+        return f.applyAsLong(first, second);
+    }
+
+    @Override
+    public long receiveLong(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException, TimeoutException, EOFException {
+        long left = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + left;
+
+        if (!hasFirst) {
+            first = c1.receiveLong(left, TimeUnit.NANOSECONDS);
+            hasFirst = true;
+            left = deadline - System.nanoTime();
+        }
+        final long second = c2.receiveLong(left, TimeUnit.NANOSECONDS);
+        hasFirst = false;
+        return f.applyAsLong(first, second);
+    }
+
+    @Override
+    public long receiveLong(Timeout timeout) throws SuspendExecution, InterruptedException, TimeoutException, EOFException {
+        return receiveLong(timeout.nanosLeft(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public boolean hasMessage() {
+        return (hasFirst || c1.hasMessage()) && c2.hasMessage();
+    }
+
+    @Override
+    public Long receive() throws SuspendExecution, InterruptedException {
+        try {
+            return receiveLong();
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Long receive(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException {
+        try {
+            return receiveLong(timeout, unit);
+        } catch (TimeoutException | EOFException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Long receive(Timeout timeout) throws SuspendExecution, InterruptedException {
+        return receive(timeout.nanosLeft(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    @Suspendable
+    public Long tryReceive() {
+        if (!hasMessage())
+            return null;
+        try {
+            // both sources have a message, so receiveLong won't block
+            return receiveLong();
+        } catch (EOFException e) {
+            return null;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable t) {
+            // It should never happen
+            throw new AssertionError(t);
+        }
+    }
+
+    @Override
+    public void close() {
+        c1.close();
+        c2.close();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return c1.isClosed() || c2.isClosed();
+    }
+}
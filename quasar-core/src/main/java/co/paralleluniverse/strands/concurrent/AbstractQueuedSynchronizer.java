@@ -27,6 +27,7 @@
  *   LockSupport -> Strand
  * 
  *   throws SuspendExceution
+ *   the first queued strand spins, then yields, before parking (spinOrYield)
  * 
  *  http://gee.cs.oswego.edu/dl/papers/aqs.pdf
  */
@@ -582,6 +583,29 @@ public abstract class AbstractQueuedSynchronizer
      */
     static final long spinForTimeoutThreshold = 1000L;
 
+    private static final boolean MP = Runtime.getRuntime().availableProcessors() > 1;
+
+    /**
+     * The number of times the first queued strand retries to acquire, spinning, before
+     * yielding. Each synchronizer adapts its own limit between 0 and {@code MAX_SPINS}:
+     * it is doubled when spinning or yielding acquires before parking, and halved when
+     * they don't. Spinning is pointless on a uniprocessor.
+     */
+    static final int INITIAL_SPINS = MP ? 1 << 6 : 0;
+    static final int MAX_SPINS = MP ? 1 << 10 : 0;
+
+    /**
+     * The number of times the first queued strand yields before parking, once done spinning.
+     * For a fiber, a yield is cheaper than a park, as it saves the releasing strand's unpark
+     * and the delay until it's made.
+     */
+    static final int YIELDS = 2;
+
+    /**
+     * The current spin limit. Racy, but it's only a heuristic.
+     */
+    private transient int spinLimit = INITIAL_SPINS;
+
     /**
      * Inserts node into queue, initializing if necessary. See picture above.
      * @param node the node to insert
@@ -842,6 +866,52 @@ public abstract class AbstractQueuedSynchronizer
         return Strand.interrupted();
     }
 
+    /**
+     * Called when the first queued strand fails to acquire, to decide
+     * whether to retry before parking. Parking and then being unparked
+     * is expensive for fibers, which must unwind and be rescheduled, so
+     * a short critical section is better waited out by spinning, and
+     * then by yielding. Spinning is skipped if the exclusive owner is a
+     * fiber that is itself blocked.
+     *
+     * @param tries the value returned by the previous call in the
+     *        current acquire, or 0 in the first call
+     * @return a positive value if the caller should retry, or -1 if it
+     *         should park
+     */
+    private int spinOrYield(int tries) throws SuspendExecution {
+        if (tries < 0)
+            return -1;
+        final int limit = spinLimit;
+        if (tries < limit + YIELDS && !isOwnerBlocked()) {
+            if (tries < limit)
+                Thread.onSpinWait();
+            else
+                Strand.yield();
+            return tries + 1;
+        }
+        if (tries > 0)
+            spinLimit = limit >>> 1;
+        return -1;
+    }
+
+    /**
+     * Called upon acquiring with the value last returned by
+     * {@code spinOrYield}, to extend the spin limit if spinning paid off.
+     */
+    private void spun(int tries) {
+        if (tries > 0)
+            spinLimit = Math.min(MAX_SPINS, Math.max(INITIAL_SPINS, spinLimit << 1));
+    }
+
+    private boolean isOwnerBlocked() {
+        final Strand owner = getExclusiveOwnerStrand();
+        if (owner == null || !owner.isFiber())
+            return false; // we can't (cheaply) tell if a thread is blocked
+        final Strand.State state = owner.getState();
+        return state == Strand.State.WAITING || state == Strand.State.TIMED_WAITING;
+    }
+
     /*
      * Various flavors of acquire, varying in exclusive/shared and
      * control modes.  Each is mostly the same, but annoyingly
@@ -863,14 +933,18 @@ public abstract class AbstractQueuedSynchronizer
         boolean failed = true;
         try {
             boolean interrupted = false;
+            int tries = 0;
             for (;;) {
                 final Node p = node.predecessor();
                 if (p == head && tryAcquire(arg)) {
                     setHead(node);
                     p.next = null; // help GC
                     failed = false;
+                    spun(tries);
                     return interrupted;
                 }
+                if (p == head && (tries = spinOrYield(tries)) > 0)
+                    continue;
                 if (shouldParkAfterFailedAcquire(p, node) &&
                     parkAndCheckInterrupt())
                     interrupted = true;
@@ -890,14 +964,18 @@ public abstract class AbstractQueuedSynchronizer
         final Node node = addWaiter(Node.EXCLUSIVE);
         boolean failed = true;
         try {
+            int tries = 0;
             for (;;) {
                 final Node p = node.predecessor();
                 if (p == head && tryAcquire(arg)) {
                     setHead(node);
                     p.next = null; // help GC
                     failed = false;
+                    spun(tries);
                     return;
                 }
+                if (p == head && (tries = spinOrYield(tries)) > 0)
+                    continue;
                 if (shouldParkAfterFailedAcquire(p, node) &&
                     parkAndCheckInterrupt())
                     throw new InterruptedException();
@@ -923,17 +1001,21 @@ public abstract class AbstractQueuedSynchronizer
         final Node node = addWaiter(Node.EXCLUSIVE);
         boolean failed = true;
         try {
+            int tries = 0;
             for (;;) {
                 final Node p = node.predecessor();
                 if (p == head && tryAcquire(arg)) {
                     setHead(node);
                     p.next = null; // help GC
                     failed = false;
+                    spun(tries);
                     return true;
                 }
                 nanosTimeout = deadline - System.nanoTime();
                 if (nanosTimeout <= 0L)
                     return false;
+                if (p == head && (tries = spinOrYield(tries)) > 0)
+                    continue;
                 if (shouldParkAfterFailedAcquire(p, node) &&
                     nanosTimeout > spinForTimeoutThreshold)
                     Strand.parkNanos(this, nanosTimeout);
@@ -955,6 +1037,7 @@ public abstract class AbstractQueuedSynchronizer
         boolean failed = true;
         try {
             boolean interrupted = false;
+            int tries = 0;
             for (;;) {
                 final Node p = node.predecessor();
                 if (p == head) {
@@ -965,9 +1048,12 @@ public abstract class AbstractQueuedSynchronizer
                         if (interrupted)
                             selfInterrupt();
                         failed = false;
+                        spun(tries);
                         return;
                     }
                 }
+                if (p == head && (tries = spinOrYield(tries)) > 0)
+                    continue;
                 if (shouldParkAfterFailedAcquire(p, node) &&
                     parkAndCheckInterrupt())
                     interrupted = true;
@@ -987,6 +1073,7 @@ public abstract class AbstractQueuedSynchronizer
         final Node node = addWaiter(Node.SHARED);
         boolean failed = true;
         try {
+            int tries = 0;
             for (;;) {
                 final Node p = node.predecessor();
                 if (p == head) {
@@ -995,9 +1082,12 @@ public abstract class AbstractQueuedSynchronizer
                         setHeadAndPropagate(node, r);
                         p.next = null; // help GC
                         failed = false;
+                        spun(tries);
                         return;
                     }
                 }
+                if (p == head && (tries = spinOrYield(tries)) > 0)
+                    continue;
                 if (shouldParkAfterFailedAcquire(p, node) &&
                     parkAndCheckInterrupt())
                     throw new InterruptedException();
@@ -1023,6 +1113,7 @@ public abstract class AbstractQueuedSynchronizer
         final Node node = addWaiter(Node.SHARED);
         boolean failed = true;
         try {
+            int tries = 0;
             for (;;) {
                 final Node p = node.predecessor();
                 if (p == head) {
@@ -1031,12 +1122,15 @@ public abstract class AbstractQueuedSynchronizer
                         setHeadAndPropagate(node, r);
                         p.next = null; // help GC
                         failed = false;
+                        spun(tries);
                         return true;
                     }
                 }
                 nanosTimeout = deadline - System.nanoTime();
                 if (nanosTimeout <= 0L)
                     return false;
+                if (p == head && (tries = spinOrYield(tries)) > 0)
+                    continue;
                 if (shouldParkAfterFailedAcquire(p, node) &&
                     nanosTimeout > spinForTimeoutThreshold)
                     Strand.parkNanos(this, nanosTimeout);
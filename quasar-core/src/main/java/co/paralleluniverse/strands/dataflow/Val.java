@@ -27,6 +27,7 @@ import java.util.concurrent.CancellationException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * A dataflow constant.
@@ -39,6 +40,7 @@ public class Val<V> implements Future<V> {
     private Throwable t;
     private SuspendableCallable<V> f;
     private volatile SimpleConditionSynchronizer sync = new SimpleConditionSynchronizer(this);
+    private volatile int claimed;
 
     /**
      * Creates a {@code Val} whose value will be the one returned by the given {@link SuspendableCallable}, which will be spawned
@@ -104,9 +106,7 @@ public class Val<V> implements Future<V> {
     }
 
     private void set0(V value) {
-        final SimpleConditionSynchronizer s = sync;
-        if (s == null)
-            throw new IllegalStateException("Value has already been set (and can only be set once)");
+        final SimpleConditionSynchronizer s = claim();
         this.value = value;
         sync = null; // must be done before signal
         this.f = null;
@@ -114,15 +114,23 @@ public class Val<V> implements Future<V> {
     }
 
     private void setException0(Throwable t) {
-        final SimpleConditionSynchronizer s = sync;
-        if (s == null)
-            throw new IllegalStateException("Value has already been set (and can only be set once)");
+        final SimpleConditionSynchronizer s = claim();
         this.t = t;
         sync = null; // must be done before signal
         this.f = null;
         s.signalAll();
     }
 
+    /**
+     * Makes the calling strand the only one that may set the value; racing setters fail without blocking.
+     */
+    private SimpleConditionSynchronizer claim() {
+        final SimpleConditionSynchronizer s = sync;
+        if (s == null || !CLAIMED.compareAndSet(this, 0, 1))
+            throw new IllegalStateException("Value has already been set (and can only be set once)");
+        return s;
+    }
+
     @Override
     public boolean isDone() {
         return sync == null;
@@ -226,4 +234,6 @@ public class Val<V> implements Future<V> {
     public boolean isCancelled() {
         return t instanceof CancellationException;
     }
+
+    private static final AtomicIntegerFieldUpdater<Val> CLAIMED = AtomicIntegerFieldUpdater.newUpdater(Val.class, "claimed");
 }
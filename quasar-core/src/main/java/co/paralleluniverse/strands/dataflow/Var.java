@@ -16,48 +16,93 @@ package co.paralleluniverse.strands.dataflow;
 import co.paralleluniverse.common.monitoring.FlightRecorder;
 import co.paralleluniverse.common.monitoring.FlightRecorderMessage;
 import co.paralleluniverse.common.util.Debug;
-import co.paralleluniverse.concurrent.util.MapUtil;
 import co.paralleluniverse.fibers.*;
+import co.paralleluniverse.strands.SimpleConditionSynchronizer;
 import co.paralleluniverse.strands.SuspendableCallable;
-import co.paralleluniverse.strands.channels.Channel;
-import co.paralleluniverse.strands.channels.Channels;
-import co.paralleluniverse.strands.channels.ProducerException;
-import co.paralleluniverse.strands.channels.ReceivePort;
 import java.lang.ref.WeakReference;
-import java.util.Collections;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * A dataflow variable.
  * Represents a variable whose value can be set multiple times and by multiple strands, and whose changing values can be monitored and
  * propagated.
+ * <p>
+ * The values are kept in a versioned, lock-free cell: setting a value never blocks, and every reading strand keeps nothing but a cursor
+ * into the value history. A {@code Var} computed by a function records the {@code Var}s the function reads, and is recomputed only
+ * when one of them has changed. When an input changes, the {@code Var}s that depend on it, directly or transitively, are considered
+ * stale until they have been recomputed. A value computed while any of the function's inputs is stale, or from inputs that have changed
+ * while it was being computed, is discarded rather than set, so a {@code Var}'s value never mixes old and new inputs (for example, in a
+ * diamond-shaped dependency graph, or when several {@code Var}s are set together with a {@link #batch() batch}). The function itself,
+ * however, may be applied to such an inconsistent set of inputs before its result is discarded, and so it should have no side effects.</p>
  *
  * @author pron
  */
 public class Var<T> {
-    private static final byte UNKNOWN = 0;
-    private static final byte VARFIBER = 1;
-    private static final byte PLAIN = 2;
-    private static final Object NULL = new Object();
+    private static final VarFiber<?>[] NO_DEPENDENTS = new VarFiber<?>[0];
+    private static final AtomicLong batches = new AtomicLong();
 
-    private final Channel<T> ch;
+    private final int history;
     private final SuspendableCallable<T> f;
-    private final Set<VarFiber<?>> registeredFibers = Collections.newSetFromMap(MapUtil.<VarFiber<?>, Boolean>newConcurrentHashMap());
+    private final SimpleConditionSynchronizer sync = new SimpleConditionSynchronizer(this);
+    private volatile Node<T> head;
+    private volatile VarFiber<?>[] dependents = NO_DEPENDENTS;
+    private volatile long marks;   // incremented whenever an input (or the var itself) is about to change
+    private volatile long settled; // the last mark that has been fully accounted for; the var is stale while marks > settled
 
-    private final ThreadLocal<TLVar> tlv = new ThreadLocal<TLVar>() {
+    private final ThreadLocal<Cursor<T>> cursor = new ThreadLocal<Cursor<T>>() {
         @Override
-        protected TLVar initialValue() {
-            return new TLVar();
+        protected Cursor<T> initialValue() {
+            return new Cursor<T>();
         }
     };
 
-    private class TLVar {
-        final ReceivePort<T> c;
-        byte type;
-        T val;
+    /**
+     * A version of the var's value. Nodes are linked to older versions, up to the var's history.
+     */
+    private static final class Node<T> {
+        final long version;
+        final T value;
+        final Throwable exception;
+        Node<T> prev;
+
+        Node(long version, T value, Throwable exception, Node<T> prev) {
+            this.version = version;
+            this.value = value;
+            this.exception = exception;
+            this.prev = prev;
+        }
+    }
 
-        public TLVar() {
-            this.c = Channels.newTickerConsumerFor(ch);
+    /**
+     * A reading strand's position in the var's history.
+     */
+    private static final class Cursor<T> {
+        Node<T> node; // the last value returned
+        long seen;    // the latest version at the time of the last read
+        int run;      // the VarFiber run in which the cursor has last been used
+
+        boolean isBehind(Node<T> h) {
+            return h != null && (node == null || h.version > node.version);
+        }
+
+        T advance(Node<T> h) {
+            if (isBehind(h)) {
+                // move to the oldest version not yet returned
+                Node<T> n = h;
+                for (Node<T> p; (p = n.prev) != null && (node == null || p.version > node.version);)
+                    n = p;
+                node = n;
+            }
+            seen = h.version;
+            return node.value;
         }
     }
 
@@ -74,7 +119,7 @@ public class Var<T> {
     public Var(int history, FiberScheduler scheduler, SuspendableCallable<T> f) {
         if (history < 0)
             throw new IllegalArgumentException("history must be >= 0, but is " + history);
-        this.ch = Channels.newChannel(1 + history, Channels.OverflowPolicy.DISPLACE);
+        this.history = history;
         this.f = f;
 
         if (f != null)
@@ -142,18 +187,18 @@ public class Var<T> {
      * @param val the new value.
      */
     public void set(T val) {
-        try {
-            record("set", "Set %s to %s", this, val);
-            ch.send(val == null ? (T) NULL : val);
-            notifyRegistered();
-        } catch (Throwable e) {
-            throw new AssertionError(e);
-        }
+        record("set", "Set %s to %s", this, val);
+        final long m = markStale();
+        publish(val, null);
+        settle(m);
+        signal();
     }
 
-    private void notifyRegistered() {
-        for (VarFiber<?> fiber : registeredFibers)
-            fiber.signalNewValue(this);
+    /**
+     * Returns a new {@link Batch} which sets the values of several {@code Var}s together.
+     */
+    public static Batch batch() {
+        return new Batch();
     }
 
     /**
@@ -161,56 +206,206 @@ public class Var<T> {
      * not yet been returned), unless this Var does not yet have a value; only in that case will this method block.
      */
     public T get() throws SuspendExecution, InterruptedException {
-        TLVar tl = tlv.get();
-        if (tl.type == UNKNOWN) {
-            Fiber currentFiber = Fiber.currentFiber();
-            if (currentFiber != null && currentFiber instanceof VarFiber) {
-                final VarFiber<?> vf = (VarFiber<?>) currentFiber;
-                tl.type = VARFIBER;
-                registeredFibers.add(vf);
-                vf.registeredVars.add(this);
-            } else
-                tl.type = PLAIN;
-        }
+        final Cursor<T> c = cursor();
+        final Node<T> h = awaitVersion(0);
+        final T val = c.advance(h);
+        checkException(c.node);
+        return val;
+    }
+
+    /**
+     * Blocks until a new value has been set and returns it.
+     */
+    public T getNext() throws SuspendExecution, InterruptedException {
+        final Cursor<T> c = cursor();
+        final Node<T> h = awaitVersion(c.node != null ? c.node.version : 0);
+        final T val = c.advance(h);
+        checkException(c.node);
+        return val;
+    }
+
+    private Cursor<T> cursor() {
+        final Fiber<?> currentFiber = Fiber.currentFiber();
+        if (currentFiber instanceof VarFiber)
+            return ((VarFiber<?>) currentFiber).cursor(this);
+        return cursor.get();
+    }
 
+    private Node<T> awaitVersion(long version) throws SuspendExecution, InterruptedException {
+        Node<T> h = head;
+        if (h != null && h.version > version)
+            return h;
+        final Object token = sync.register();
         try {
-            final T val;
-            if (tl.val == null) {
-                val = tl.c.receive();
-                tl.val = val;
-            } else {
-                T v = tl.c.tryReceive();
-                if (v != null)
-                    tl.val = v;
-                val = tl.val;
+            for (int i = 0; (h = head) == null || h.version <= version; i++)
+                sync.await(i);
+        } finally {
+            sync.unregister(token);
+        }
+        return h;
+    }
+
+    private static void checkException(Node<?> n) {
+        final Throwable t = n.exception;
+        if (t == null)
+            return;
+        if (t instanceof RuntimeException)
+            throw (RuntimeException) t;
+        else if (t instanceof Error)
+            throw (Error) t;
+        else
+            throw new AssertionError(t);
+    }
+
+    /**
+     * Adds a new version. Once an exception has been published, the var no longer changes.
+     */
+    private boolean publish(T value, Throwable exception) {
+        for (;;) {
+            final Node<T> h = head;
+            if (h != null && h.exception != null)
+                return false;
+            final Node<T> n = new Node<T>(h != null ? h.version + 1 : 1, value, exception, h);
+            if (HEAD.compareAndSet(this, h, n)) {
+                // drop the versions beyond the history
+                Node<T> last = n;
+                for (int i = 0; i < history && last != null; i++)
+                    last = last.prev;
+                if (last != null)
+                    last.prev = null;
+                return true;
             }
+        }
+    }
+
+    private long version() {
+        final Node<T> h = head;
+        return h != null ? h.version : 0;
+    }
+
+    private boolean isStale() {
+        return marks > settled;
+    }
+
+    /**
+     * Marks this var, and, if it has just become stale, all the vars depending on it, as stale.
+     *
+     * @return the new mark, to be passed to {@link #settle(long) settle} once the change has been made.
+     */
+    private long markStale() {
+        final long s = settled;
+        final long m = MARKS.incrementAndGet(this);
+        if (m - 1 <= s)
+            markDependents();
+        return m;
+    }
 
-            return val == NULL ? null : val;
-        } catch (ProducerException e) {
-            Throwable t = e.getCause();
-            if (t instanceof RuntimeException)
-                throw (RuntimeException) t;
-            else if (t instanceof Error)
-                throw (Error) t;
-            else
-                throw new AssertionError(t);
+    private void markDependents() {
+        for (VarFiber<?> vf : dependents) {
+            final Var<?> v = vf.var.get();
+            if (v != null)
+                v.markStale();
+        }
+    }
+
+    private void settle(long mark) {
+        for (;;) {
+            final long s = settled;
+            if (s >= mark || SETTLED.compareAndSet(this, s, mark))
+                return;
+        }
+    }
+
+    private void signal() {
+        sync.signalAll();
+        signalDependents();
+    }
+
+    private void signalDependents() {
+        for (VarFiber<?> vf : dependents)
+            vf.signalNewValue(this);
+    }
+
+    private void addDependent(VarFiber<?> vf) {
+        for (;;) {
+            final VarFiber<?>[] ds = dependents;
+            final VarFiber<?>[] newDs = Arrays.copyOf(ds, ds.length + 1);
+            newDs[ds.length] = vf;
+            if (DEPENDENTS.compareAndSet(this, ds, newDs))
+                return;
+        }
+    }
+
+    private void removeDependent(VarFiber<?> vf) {
+        for (;;) {
+            final VarFiber<?>[] ds = dependents;
+            int i = 0;
+            while (i < ds.length && ds[i] != vf)
+                i++;
+            if (i == ds.length)
+                return;
+            final VarFiber<?>[] newDs = new VarFiber<?>[ds.length - 1];
+            System.arraycopy(ds, 0, newDs, 0, i);
+            System.arraycopy(ds, i + 1, newDs, i, ds.length - i - 1);
+            if (DEPENDENTS.compareAndSet(this, ds, newDs))
+                return;
         }
     }
 
     /**
-     * Blocks until a new value has been set and returns it.
+     * Sets the values of several {@code Var}s together, so that no {@code Var} computed from them ever observes some of the new
+     * values alongside old ones. The values are set when the batch is {@link #commit() committed}.
+     * <p>
+     * A batch is not thread-safe, and should only be used by the strand that has created it.</p>
      */
-    public T getNext() throws SuspendExecution, InterruptedException {
-        TLVar tl = tlv.get();
-        final T val;
-        val = tl.c.receive();
-        tl.val = val;
-        return val;
+    public static final class Batch {
+        private final List<Var<Object>> vars = new ArrayList<>();
+        private final List<Object> values = new ArrayList<>();
+
+        private Batch() {
+        }
+
+        /**
+         * Adds a value to set to the batch.
+         *
+         * @param var the {@code Var} to set
+         * @param val the new value
+         * @return this batch
+         */
+        @SuppressWarnings("unchecked")
+        public <T> Batch set(Var<T> var, T val) {
+            vars.add((Var<Object>) var);
+            values.add(val);
+            return this;
+        }
+
+        /**
+         * Sets all of the batch's values. The batch may not be reused.
+         */
+        public void commit() {
+            final int n = vars.size();
+            final long[] marks = new long[n];
+            for (int i = 0; i < n; i++)
+                marks[i] = vars.get(i).markStale();
+            batches.incrementAndGet();
+            for (int i = 0; i < n; i++) {
+                record("commit", "Set %s to %s", vars.get(i), values.get(i));
+                vars.get(i).publish(values.get(i), null);
+            }
+            for (int i = 0; i < n; i++)
+                vars.get(i).settle(marks[i]);
+            for (int i = 0; i < n; i++)
+                vars.get(i).signal();
+            vars.clear();
+            values.clear();
+        }
     }
 
     private static class VarFiber<T> extends Fiber<Void> {
-        private final WeakReference<Var<T>> var;
-        final Set<Var<?>> registeredVars = Collections.newSetFromMap(MapUtil.<Var<?>, Boolean>newConcurrentHashMap());
+        final WeakReference<Var<T>> var;
+        private final Map<Var<?>, Cursor<?>> inputs = new HashMap<>(); // only accessed by this fiber
+        private Cursor<T> self;
+        private int run;
         private volatile boolean hasNewVal;
 
         VarFiber(FiberScheduler scheduler, Var<T> v) {
@@ -228,32 +423,136 @@ public class Var<T> {
             unpark(var);
         }
 
+        /**
+         * Returns this fiber's cursor for {@code v}, recording {@code v} as an input of the current run.
+         */
+        @SuppressWarnings("unchecked")
+        <V> Cursor<V> cursor(Var<V> v) {
+            if (v == var.get()) {
+                // reading the var's own (previous) value does not make it depend on itself
+                if (self == null)
+                    self = new Cursor<T>();
+                return (Cursor<V>) self;
+            }
+            Cursor<V> c = (Cursor<V>) inputs.get(v);
+            if (c == null) {
+                c = new Cursor<V>();
+                inputs.put(v, c);
+                v.addDependent(this);
+            }
+            c.run = run;
+            return c;
+        }
+
+        private boolean inputsChanged() {
+            for (Map.Entry<Var<?>, Cursor<?>> e : inputs.entrySet()) {
+                if (((Cursor) e.getValue()).isBehind(e.getKey().head))
+                    return true;
+            }
+            return false;
+        }
+
+        private boolean inputsStale() {
+            for (Var<?> v : inputs.keySet()) {
+                if (v.isStale())
+                    return true;
+            }
+            return false;
+        }
+
+        /**
+         * Drops the inputs that have not been read in the last run.
+         */
+        private void retainInputs() {
+            for (Iterator<Map.Entry<Var<?>, Cursor<?>>> it = inputs.entrySet().iterator(); it.hasNext();) {
+                final Map.Entry<Var<?>, Cursor<?>> e = it.next();
+                if (e.getValue().run != run) {
+                    e.getKey().removeDependent(this);
+                    it.remove();
+                }
+            }
+        }
+
+        /**
+         * Whether the inputs read in the last run, all read since {@code batchCount} batches have been committed, form a consistent
+         * snapshot: none of them is stale, and none has since been changed by a batch or (for inputs that are themselves computed)
+         * by a recomputation.
+         */
+        private boolean isConsistent(long batchCount) {
+            for (Map.Entry<Var<?>, Cursor<?>> e : inputs.entrySet()) {
+                final Var<?> v = e.getKey();
+                if (v.isStale())
+                    return false;
+                if (v.version() != e.getValue().seen && (v.f != null || batches.get() != batchCount))
+                    return false;
+            }
+            return true;
+        }
+
         @Override
         protected Void run() throws SuspendExecution, InterruptedException {
             Var<T> v = null;
+            boolean recompute = true;
             try {
                 for (;;) {
                     hasNewVal = false;
-                    Var.record("run", "Fiber %s for var %s computing new value", this, var);
                     v = var.get();
                     if (v == null)
                         break;
-                    T newVal = v.f.run();
-                    Var.record("run", "Fiber %s for var %s computed new value %s", this, var, newVal);
-                    v.set(newVal);
-                    while (!hasNewVal) {
-                        Var.record("run", "Fiber %s for var %s parking", this, var);
-                        Fiber.park(v);
+                    final long m = v.marks;
+                    if (!recompute)
+                        recompute = inputsChanged();
+                    if (recompute) {
+                        if (inputsStale()) {
+                            // wait for the stale inputs to be recomputed; they signal us when they are
+                            Var.record("run", "Fiber %s for var %s waiting for stale inputs", this, var);
+                        } else {
+                            Var.record("run", "Fiber %s for var %s computing new value", this, var);
+                            final long batchCount = batches.get();
+                            run++;
+                            final T newVal = v.f.run();
+                            retainInputs();
+                            if (!isConsistent(batchCount)) {
+                                Var.record("run", "Fiber %s for var %s discarding inconsistent value %s", this, var, newVal);
+                                continue;
+                            }
+                            Var.record("run", "Fiber %s for var %s computed new value %s", this, var, newVal);
+                            recompute = false;
+                            v.markDependents();
+                            v.publish(newVal, null);
+                            v.settle(m);
+                            v.signal();
+                        }
+                    } else {
+                        v.settle(m);
+                        v.signalDependents();
+                    }
+                    final boolean settled = !recompute && v.marks == m;
+                    v = null;
+                    if (settled) {
+                        while (!hasNewVal) {
+                            Var.record("run", "Fiber %s for var %s parking", this, var);
+                            Fiber.park(this);
+                        }
+                    } else if (recompute) {
+                        while (!hasNewVal) // a stale input signals when it settles
+                            Fiber.park(this);
                     }
                 }
             } catch (Throwable t) {
-                if (v != null)
-                    v.ch.close(t);
+                if (v != null) {
+                    v.publish(null, t);
+                    v.sync.signalAll();
+                }
             } finally {
                 Var.record("run", "Fiber %s for var %s terminated", this, var);
-                for (Var<?> v1 : registeredVars) {
-                    v1.registeredFibers.remove(this);
-                    v1.notifyRegistered();
+                for (Var<?> v1 : inputs.keySet())
+                    v1.removeDependent(this);
+                final Var<T> v1 = var.get();
+                if (v1 != null) {
+                    // the var will not be recomputed, so it must never be considered stale
+                    v1.settle(Long.MAX_VALUE);
+                    v1.signalDependents();
                 }
             }
             return null;
@@ -295,4 +594,9 @@ public class Var<T> {
         if (RECORDER != null)
             RECORDER.record(1, new FlightRecorderMessage("Var", method, format, new Object[]{arg1, arg2, arg3, arg4, arg5}));
     }
+
+    private static final AtomicReferenceFieldUpdater<Var, Node> HEAD = AtomicReferenceFieldUpdater.newUpdater(Var.class, Node.class, "head");
+    private static final AtomicReferenceFieldUpdater<Var, VarFiber[]> DEPENDENTS = AtomicReferenceFieldUpdater.newUpdater(Var.class, VarFiber[].class, "dependents");
+    private static final AtomicLongFieldUpdater<Var> MARKS = AtomicLongFieldUpdater.newUpdater(Var.class, "marks");
+    private static final AtomicLongFieldUpdater<Var> SETTLED = AtomicLongFieldUpdater.newUpdater(Var.class, "settled");
 }
@@ -108,6 +108,14 @@ public abstract class CircularBuffer<E> implements BasicQueue<E> {
 
     public abstract class Consumer {
         long head;
+        private long displaced;
+
+        /**
+         * The number of messages this consumer has missed because they had been overwritten before it could read them.
+         */
+        public final long displaced() {
+            return displaced;
+        }
 
         public final long lastIndexRead() {
             return head - 1;
@@ -131,6 +139,7 @@ public abstract class CircularBuffer<E> implements BasicQueue<E> {
                     return;
                 }
                 // tail has overtaken us
+                displaced += oldest - head;
                 head = oldest + headStart; // < tail
                 if (attempt > 30)
                     throw new RuntimeException("Can't catch up with producer");
@@ -209,6 +209,35 @@ public class FiberAsyncTest {
         fiber.join();
     }
 
+    @Test
+    public void testSameSchedulerCallback() throws Exception {
+        final Service sameSchedulerService = new Service() {
+            @Override
+            public void registerCallback(final MyCallback callback) {
+                scheduler.getExecutor().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        // the fiber can only be continued in this thread once it has finished blocking
+                        ((MyFiberAsync) callback).waitForRegistration();
+                        callback.call(Thread.currentThread().getName());
+                    }
+                });
+            }
+        };
+
+        final Fiber fiber = new Fiber(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                for (int i = 0; i < 1000; i++) {
+                    String res = callService(sameSchedulerService);
+                    assertThat(res, equalTo(Thread.currentThread().getName())); // continued in the callback's thread
+                }
+            }
+        }).start();
+
+        fiber.join();
+    }
+
     @Test
     public void testAsyncCallbackException() throws Exception {
         final Fiber fiber = new Fiber(scheduler, new SuspendableRunnable() {
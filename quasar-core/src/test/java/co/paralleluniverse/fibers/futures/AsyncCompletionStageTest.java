@@ -99,4 +99,61 @@ public class AsyncCompletionStageTest {
             assertThat(e.getCause().getMessage(), equalTo("haha!"));
         }
     }
+
+    @Test
+    public void testCompleted() throws Exception {
+        final Fiber<Integer> fiber = new Fiber<>(scheduler, () -> {
+            try {
+                int sum = 0;
+                for (int i = 0; i < 1000; i++)
+                    sum += AsyncCompletionStage.get(CompletableFuture.completedFuture(i));
+                return sum;
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e);
+            }
+        }).start();
+
+        assertThat(fiber.get(), equalTo(499500));
+    }
+
+    @Test
+    public void testCompletedExceptionally() throws Exception {
+        final CompletableFuture<String> fut = new CompletableFuture<String>();
+        fut.completeExceptionally(new RuntimeException("haha!"));
+
+        final Fiber<String> fiber = new Fiber<>(scheduler, () -> {
+            try {
+                String res = AsyncCompletionStage.get(fut);
+                fail();
+                return res;
+            } catch (ExecutionException e) {
+                throw Exceptions.rethrow(e.getCause());
+            }
+        }).start();
+
+        try {
+            fiber.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause().getMessage(), equalTo("haha!"));
+        }
+    }
+
+    @Test
+    public void testChainOnScheduler() throws Exception {
+        final Fiber<Integer> fiber = new Fiber<>(scheduler, () -> {
+            try {
+                int sum = 0;
+                for (int i = 0; i < 1000; i++) {
+                    final int x = i;
+                    sum += AsyncCompletionStage.get(CompletableFuture.supplyAsync(() -> x, scheduler.getExecutor()).thenApply(y -> y + 1));
+                }
+                return sum;
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e);
+            }
+        }).start();
+
+        assertThat(fiber.get(), equalTo(500500));
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.common.test.TestUtil;
+import java.nio.ByteBuffer;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+/**
+ *
+ * @author pron
+ */
+public class ByteBufferPoolTest {
+    @Rule
+    public TestRule watchman = TestUtil.WATCHMAN;
+
+    @Test
+    public void testSizeClasses() {
+        final ByteBufferPool pool = new ByteBufferPool(64 * 1024, false);
+        assertThat(pool.getMaxPooledSize(), is(64 * 1024));
+
+        ByteBuffer b = pool.acquire(10);
+        assertTrue(b.isDirect());
+        assertThat(b.capacity(), is(ByteBufferPool.MIN_POOLED_SIZE));
+        assertThat(b.position(), is(0));
+        assertThat(b.limit(), is(10));
+
+        b = pool.acquire(1025);
+        assertThat(b.capacity(), is(2048));
+        assertThat(b.remaining(), is(1025));
+
+        b = pool.acquire(64 * 1024);
+        assertThat(b.capacity(), is(64 * 1024));
+    }
+
+    @Test
+    public void testReuse() {
+        final ByteBufferPool pool = new ByteBufferPool(64 * 1024, false);
+        final ByteBuffer b1 = pool.acquire(1000);
+        b1.put((byte) 1);
+        pool.release(b1);
+
+        final ByteBuffer b2 = pool.acquire(700);
+        assertThat(b2, sameInstance(b1));
+        assertThat(b2.position(), is(0));
+        assertThat(b2.limit(), is(700));
+
+        assertThat(pool.acquire(700), not(sameInstance(b1)));
+    }
+
+    @Test
+    public void testOversizeNotPooled() {
+        final ByteBufferPool pool = new ByteBufferPool(4096, false);
+        final ByteBuffer b1 = pool.acquire(5000);
+        assertThat(b1.capacity(), is(5000));
+        pool.release(b1);
+        assertThat(pool.acquire(5000), not(sameInstance(b1)));
+    }
+
+    @Test
+    public void testForeignBuffersIgnored() {
+        final ByteBufferPool pool = new ByteBufferPool(4096, false);
+        pool.release(ByteBuffer.allocate(1024));
+        pool.release(ByteBuffer.allocateDirect(1000));
+        assertThat(pool.acquire(1000).capacity(), is(1024));
+        assertTrue(pool.acquire(600).isDirect());
+    }
+
+    @Test
+    public void testTrackedReuse() {
+        final ByteBufferPool pool = new ByteBufferPool(4096, true);
+        final ByteBuffer b1 = pool.acquire(1000);
+        b1.putInt(0, 1234);
+        pool.release(b1);
+        pool.release(b1); // a second release is ignored
+
+        final ByteBuffer b2 = pool.acquire(1000);
+        assertThat(b2.getInt(0), is(1234)); // a view of the same memory
+        assertThat(pool.acquire(1000).getInt(0), not(1234));
+        assertThat(pool.getLeakCount(), is(0L));
+    }
+
+    @Test
+    public void testLeakDetection() throws Exception {
+        final ByteBufferPool pool = new ByteBufferPool(4096, true);
+        pool.acquire(1000).putInt(0, 4321); // leaked
+
+        for (int i = 0; i < 100 && pool.getLeakCount() == 0; i++) {
+            System.gc();
+            Thread.sleep(10);
+            pool.release(pool.acquire(10)); // acquire reclaims leaks
+        }
+        assertThat(pool.getLeakCount(), is(1L));
+        assertThat(pool.acquire(1000).getInt(0), is(4321)); // the leaked buffer has been returned to the pool
+    }
+
+    @Test
+    public void testDiscardedBufferIsNotALeak() throws Exception {
+        final ByteBufferPool pool = new ByteBufferPool(4096, true);
+        ByteBuffer b = pool.acquire(1000);
+        b.putInt(0, 4321);
+        pool.discard(b);
+        b = null;
+
+        for (int i = 0; i < 20; i++) {
+            System.gc();
+            Thread.sleep(10);
+            pool.release(pool.acquire(10)); // acquire reclaims leaks
+        }
+        assertThat(pool.getLeakCount(), is(0L));
+        assertThat(pool.acquire(1000).getInt(0), not(4321)); // a discarded buffer is not returned to the pool
+    }
+}
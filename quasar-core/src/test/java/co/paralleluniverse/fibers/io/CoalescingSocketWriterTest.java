@@ -0,0 +1,253 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.common.test.TestUtil;
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.FiberForkJoinScheduler;
+import co.paralleluniverse.fibers.FiberScheduler;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SuspendableCallable;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+/**
+ *
+ * @author pron
+ */
+public class CoalescingSocketWriterTest {
+    @Rule
+    public TestRule watchman = TestUtil.WATCHMAN;
+
+    private final FiberScheduler scheduler = new FiberForkJoinScheduler("test", 4, null, false);
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testFiberAsyncConcurrentWriters() throws Exception {
+        testConcurrentWriters(null);
+    }
+
+    @Test
+    public void testSelectorConcurrentWriters() throws Exception {
+        final ChannelGroup group = ChannelGroup.withSelectors(1, new ThreadFactoryBuilder().setDaemon(true).build());
+        try {
+            testConcurrentWriters(group);
+        } finally {
+            group.shutdown();
+        }
+    }
+
+    /**
+     * Each message is written as two buffers: its sender and its sequence number; they must not be interleaved with other messages.
+     */
+    private void testConcurrentWriters(final ChannelGroup group) throws Exception {
+        final int writers = 50;
+        final int messages = 1000;
+        try (final FiberServerSocketChannel socket = open(group)) {
+            final SocketAddress address = socket.getLocalAddress();
+            final Fiber<Long> reader = new Fiber<Long>(scheduler, new SuspendableCallable<Long>() {
+                @Override
+                public Long run() throws SuspendExecution, InterruptedException {
+                    try (FiberSocketChannel ch = socket.accept()) {
+                        final int[] next = new int[writers];
+                        final ByteBuffer buf = ByteBuffer.allocateDirect(8);
+                        long count = 0;
+                        for (;;) {
+                            buf.clear();
+                            while (buf.hasRemaining()) {
+                                if (ch.read(buf) < 0)
+                                    return count;
+                            }
+                            final int writer = buf.getInt(0);
+                            assertThat(buf.getInt(4), is(next[writer]++));
+                            count++;
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start();
+
+            final FiberSocketChannel ch = new Fiber<FiberSocketChannel>(scheduler, new SuspendableCallable<FiberSocketChannel>() {
+                @Override
+                public FiberSocketChannel run() throws SuspendExecution, InterruptedException {
+                    try {
+                        return FiberSocketChannel.open(group, address);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start().get();
+            final CoalescingSocketWriter writer = new CoalescingSocketWriter(ch, 64);
+
+            final Fiber<Void>[] fs = new Fiber[writers];
+            for (int i = 0; i < writers; i++) {
+                final int id = i;
+                fs[i] = new Fiber<Void>(scheduler, new SuspendableRunnable() {
+                    @Override
+                    public void run() throws SuspendExecution, InterruptedException {
+                        try {
+                            final ByteBuffer sender = ByteBuffer.allocateDirect(4);
+                            final ByteBuffer seq = ByteBuffer.allocateDirect(4);
+                            for (int j = 0; j < messages; j++) {
+                                sender.clear();
+                                sender.putInt(0, id);
+                                seq.clear();
+                                seq.putInt(0, j);
+                                writer.write(sender, seq);
+                                assertThat(sender.hasRemaining() || seq.hasRemaining(), is(false));
+                            }
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                }).start();
+            }
+            for (Fiber<Void> f : fs)
+                f.join();
+            ch.shutdownOutput();
+            assertThat(reader.get(10, TimeUnit.SECONDS), is((long) writers * messages));
+            ch.close();
+        }
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        try (final FiberServerSocketChannel socket = open(null)) {
+            final SocketAddress address = socket.getLocalAddress();
+            new Fiber<Void>(scheduler, new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    try {
+                        final FiberSocketChannel ch = FiberSocketChannel.open(null, address);
+                        final CoalescingSocketWriter writer = new CoalescingSocketWriter(ch, 16);
+                        writer.write(ByteBuffer.allocateDirect(8));
+                        ch.close();
+                        try {
+                            writer.write(ByteBuffer.allocateDirect(8));
+                            fail();
+                        } catch (IOException e) {
+                        }
+                        try {
+                            writer.write(ByteBuffer.allocateDirect(8));
+                            fail();
+                        } catch (IOException e) {
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start().join();
+        }
+    }
+
+    @Test
+    public void testUncheckedFailureReleasesWaiters() throws Exception {
+        try (final FiberServerSocketChannel socket = open(null)) {
+            final SocketAddress address = socket.getLocalAddress();
+            final FiberSocketChannel ch = new Fiber<FiberSocketChannel>(scheduler, new SuspendableCallable<FiberSocketChannel>() {
+                @Override
+                public FiberSocketChannel run() throws SuspendExecution, InterruptedException {
+                    try {
+                        return FiberSocketChannel.open(null, address);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start().get();
+            final FiberSocketChannel peer = new Fiber<FiberSocketChannel>(scheduler, new SuspendableCallable<FiberSocketChannel>() {
+                @Override
+                public FiberSocketChannel run() throws SuspendExecution, InterruptedException {
+                    try {
+                        return socket.accept();
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start().get();
+            final CoalescingSocketWriter writer = new CoalescingSocketWriter(ch, 16);
+
+            // the first write fills the socket and holds the combiner role until the peer starts reading
+            final Fiber<Boolean> first = write(writer, ByteBuffer.allocate(32 << 20)).start();
+            Thread.sleep(100);
+            final Fiber<Boolean>[] queued = new Fiber[8];
+            for (int i = 0; i < queued.length; i++)
+                queued[i] = write(writer, i == 0 ? null : ByteBuffer.allocate(8)).start(); // the null buffer fails the batch
+            Thread.sleep(100);
+
+            new Fiber<Void>(scheduler, new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16);
+                    try {
+                        do
+                            buf.clear();
+                        while (peer.read(buf) >= 0);
+                    } catch (IOException e) {
+                    }
+                }
+            }).start();
+
+            assertThat(first.get(10, TimeUnit.SECONDS), is(true));
+            for (Fiber<Boolean> f : queued)
+                assertThat(f.get(10, TimeUnit.SECONDS), is(false));
+            peer.close();
+        }
+    }
+
+    /**
+     * Returns a fiber that writes the buffer, and returns whether the write has succeeded.
+     */
+    private Fiber<Boolean> write(final CoalescingSocketWriter writer, final ByteBuffer buf) {
+        return new Fiber<Boolean>(scheduler, new SuspendableCallable<Boolean>() {
+            @Override
+            public Boolean run() throws SuspendExecution, InterruptedException {
+                try {
+                    writer.write(buf);
+                    return true;
+                } catch (IOException e) {
+                    return false;
+                }
+            }
+        });
+    }
+
+    private FiberServerSocketChannel open(final ChannelGroup group) throws Exception {
+        return new Fiber<FiberServerSocketChannel>(scheduler, new SuspendableCallable<FiberServerSocketChannel>() {
+            @Override
+            public FiberServerSocketChannel run() throws SuspendExecution, InterruptedException {
+                try {
+                    return FiberServerSocketChannel.open(group).bind(new InetSocketAddress("localhost", 0));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }).start().get();
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.common.test.TestUtil;
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.FiberForkJoinScheduler;
+import co.paralleluniverse.fibers.FiberScheduler;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Strand;
+import co.paralleluniverse.strands.SuspendableCallable;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+/**
+ *
+ * @author pron
+ */
+public class ConnectionPoolTest {
+    @Rule
+    public TestRule watchman = TestUtil.WATCHMAN;
+
+    private final FiberScheduler scheduler = new FiberForkJoinScheduler("test", 4, null, false);
+    private final AtomicInteger accepted = new AtomicInteger();
+    private FiberServerSocketChannel server;
+    private SocketAddress address;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new Fiber<FiberServerSocketChannel>(scheduler, new SuspendableCallable<FiberServerSocketChannel>() {
+            @Override
+            public FiberServerSocketChannel run() throws SuspendExecution, InterruptedException {
+                try {
+                    return FiberServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }).start().get();
+        address = server.getLocalAddress();
+        new Fiber<Void>(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                try {
+                    for (;;) {
+                        final FiberSocketChannel ch = server.accept();
+                        accepted.incrementAndGet();
+                        new Fiber<Void>(new SuspendableRunnable() {
+                            @Override
+                            public void run() throws SuspendExecution, InterruptedException {
+                                try (FiberSocketChannel c = ch) {
+                                    final ByteBuffer buf = ByteBuffer.allocateDirect(1024);
+                                    while (c.read(buf) > 0)
+                                        buf.clear();
+                                } catch (IOException e) {
+                                }
+                            }
+                        }).start();
+                    }
+                } catch (IOException e) {
+                    // server closed
+                }
+            }
+        }).start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.close();
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testBoundedAndReused() throws Exception {
+        final ConnectionPool pool = new ConnectionPool(2, 10, TimeUnit.SECONDS);
+        new Fiber<Void>(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                try {
+                    final FiberSocketChannel a = pool.acquire(address);
+                    final FiberSocketChannel b = pool.acquire(address);
+                    assertThat(a, not(sameInstance(b)));
+                    assertThat(pool.getInUse(), is(2));
+
+                    final Fiber<FiberSocketChannel> waiter = new Fiber<FiberSocketChannel>(new SuspendableCallable<FiberSocketChannel>() {
+                        @Override
+                        public FiberSocketChannel run() throws SuspendExecution, InterruptedException {
+                            try {
+                                return pool.acquire(address);
+                            } catch (IOException e) {
+                                throw new RuntimeException(e);
+                            }
+                        }
+                    }).start();
+                    Strand.sleep(50);
+                    assertThat(waiter.isDone(), is(false));
+                    assertThat(pool.getWaiting(), is(1));
+
+                    pool.release(a);
+                    assertThat(waiter.get(), sameInstance(a));
+                    assertThat(accepted.get(), is(2));
+
+                    pool.release(a);
+                    pool.release(b);
+                    assertThat(pool.getInUse(), is(0));
+                    assertThat(pool.getIdle(), is(2));
+                    assertThat(pool.acquire(address), sameInstance(b)); // the most recently released first
+                    pool.close();
+                    assertThat(a.isOpen(), is(false));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }).start().join();
+    }
+
+    @Test
+    public void testAcquireTimeout() throws Exception {
+        final ConnectionPool pool = new ConnectionPool(1, 10, TimeUnit.SECONDS);
+        new Fiber<Void>(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                try {
+                    final FiberSocketChannel a = pool.acquire(address);
+                    try {
+                        pool.acquire(address, 20, TimeUnit.MILLISECONDS);
+                        fail();
+                    } catch (TimeoutException e) {
+                    }
+                    pool.release(a);
+                    assertThat(pool.acquire(address, 20, TimeUnit.MILLISECONDS), sameInstance(a));
+                    pool.close();
+                } catch (IOException | TimeoutException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }).start().join();
+    }
+
+    @Test
+    public void testIdleEviction() throws Exception {
+        final ConnectionPool pool = new ConnectionPool(2, 50, TimeUnit.MILLISECONDS);
+        new Fiber<Void>(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                try {
+                    final FiberSocketChannel a = pool.acquire(address);
+                    pool.release(a);
+                    assertThat(pool.evictIdle(), is(0));
+                    Strand.sleep(100);
+                    assertThat(pool.evictIdle(), is(1));
+                    assertThat(a.isOpen(), is(false));
+                    assertThat(pool.getIdle(), is(0));
+
+                    final FiberSocketChannel b = pool.acquire(address);
+                    assertThat(b, not(sameInstance(a)));
+                    pool.release(b);
+                    Strand.sleep(100);
+                    final FiberSocketChannel c = pool.acquire(address); // evicts lazily
+                    assertThat(c, not(sameInstance(b)));
+                    assertThat(b.isOpen(), is(false));
+                    pool.close();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }).start().join();
+    }
+
+    @Test
+    public void testValidationAndInvalidation() throws Exception {
+        final AtomicInteger validated = new AtomicInteger();
+        final ConnectionPool pool = new ConnectionPool(null, 1, 10, TimeUnit.SECONDS, new ConnectionPool.Validator() {
+            @Override
+            public boolean isValid(FiberSocketChannel ch) {
+                return validated.incrementAndGet() > 1;
+            }
+        });
+        new Fiber<Void>(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                try {
+                    final FiberSocketChannel a = pool.acquire(address);
+                    pool.release(a);
+                    final FiberSocketChannel b = pool.acquire(address); // a fails validation
+                    assertThat(b, not(sameInstance(a)));
+                    assertThat(a.isOpen(), is(false));
+
+                    pool.invalidate(b);
+                    assertThat(b.isOpen(), is(false));
+                    final FiberSocketChannel c = pool.acquire(address, 20, TimeUnit.MILLISECONDS); // the permit has been freed
+                    assertThat(c, not(sameInstance(b)));
+                    assertThat(c.isOpen(), is(true));
+
+                    pool.close();
+                    try {
+                        pool.acquire(address);
+                        fail();
+                    } catch (IllegalStateException e) {
+                    }
+                    pool.release(c);
+                    assertThat(c.isOpen(), is(false));
+                } catch (IOException | TimeoutException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }).start().join();
+    }
+}
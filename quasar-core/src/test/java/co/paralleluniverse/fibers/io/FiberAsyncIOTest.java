@@ -18,17 +18,34 @@ import co.paralleluniverse.fibers.Fiber;
 import co.paralleluniverse.fibers.FiberForkJoinScheduler;
 import co.paralleluniverse.fibers.FiberScheduler;
 import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Strand;
+import co.paralleluniverse.strands.SuspendableCallable;
 import co.paralleluniverse.strands.SuspendableRunnable;
 import co.paralleluniverse.strands.channels.Channels;
 import co.paralleluniverse.strands.channels.IntChannel;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.InterruptedByTimeoutException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ReadPendingException;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import static java.nio.file.StandardOpenOption.*;
 import static org.hamcrest.CoreMatchers.*;
 import org.junit.After;
@@ -70,12 +87,26 @@ public class FiberAsyncIOTest {
 
     @Test
     public void testFiberAsyncSocket() throws Exception {
+        testSocket(null);
+    }
+
+    @Test
+    public void testSelectorSocket() throws Exception {
+        final ChannelGroup group = ChannelGroup.withSelectors(2, new ThreadFactoryBuilder().setDaemon(true).build());
+        try {
+            testSocket(group);
+        } finally {
+            group.shutdown();
+        }
+    }
+
+    private void testSocket(final ChannelGroup group) throws Exception {
         final IntChannel sync = Channels.newIntChannel(0);
         
         final Fiber server = new Fiber(scheduler, new SuspendableRunnable() {
             @Override
             public void run() throws SuspendExecution, InterruptedException {
-                try (FiberServerSocketChannel socket = FiberServerSocketChannel.open().bind(new InetSocketAddress(PORT))) {
+                try (FiberServerSocketChannel socket = FiberServerSocketChannel.open(group).bind(new InetSocketAddress(PORT))) {
                     sync.send(0); // Start client
 
                     try (FiberSocketChannel ch = socket.accept()) {
@@ -129,7 +160,7 @@ public class FiberAsyncIOTest {
                     throw new AssertionError(ex);
                 }
 
-                try (FiberSocketChannel ch = FiberSocketChannel.open(new InetSocketAddress(PORT))) {
+                try (FiberSocketChannel ch = FiberSocketChannel.open(group, new InetSocketAddress(PORT))) {
                     ByteBuffer buf = ByteBuffer.allocateDirect(1024);
 
                     // long-typed reqeust/response
@@ -178,6 +209,234 @@ public class FiberAsyncIOTest {
         server.join();
     }
 
+    @Test
+    public void testFiberAsyncSocketEcho() throws Exception {
+        testEcho(null);
+    }
+
+    @Test
+    public void testSelectorSocketEcho() throws Exception {
+        final ChannelGroup group = ChannelGroup.withSelectors(2, new ThreadFactoryBuilder().setDaemon(true).build());
+        try {
+            testEcho(group);
+        } finally {
+            group.shutdown();
+        }
+    }
+
+    private void testEcho(final ChannelGroup group) throws Exception {
+        final FiberServerSocketChannel socket = new Fiber<FiberServerSocketChannel>(scheduler, new SuspendableCallable<FiberServerSocketChannel>() {
+            @Override
+            public FiberServerSocketChannel run() throws SuspendExecution, InterruptedException {
+                try {
+                    return FiberServerSocketChannel.open(group).bind(new InetSocketAddress("localhost", 0));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }).start().get();
+        try {
+            final SocketAddress address = socket.getLocalAddress();
+            final int clients = 20;
+            final int rounds = 100;
+
+            final Fiber<Void> server = new Fiber<Void>(scheduler, new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    try {
+                        for (int i = 0; i < clients; i++) {
+                            final FiberSocketChannel ch = socket.accept();
+                            new Fiber<Void>(scheduler, new SuspendableRunnable() {
+                                @Override
+                                public void run() throws SuspendExecution, InterruptedException {
+                                    try (FiberSocketChannel c = ch) {
+                                        final ByteBuffer buf = ByteBuffer.allocateDirect(64);
+                                        while (c.read(buf) > 0) {
+                                            buf.flip();
+                                            while (buf.hasRemaining())
+                                                c.write(buf);
+                                            buf.clear();
+                                        }
+                                    } catch (IOException e) {
+                                        throw new RuntimeException(e);
+                                    }
+                                }
+                            }).start();
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start();
+
+            final Fiber<Long>[] cs = new Fiber[clients];
+            for (int i = 0; i < clients; i++) {
+                final long base = i * 1000;
+                cs[i] = new Fiber<Long>(scheduler, new SuspendableCallable<Long>() {
+                    @Override
+                    public Long run() throws SuspendExecution, InterruptedException {
+                        try (FiberSocketChannel ch = FiberSocketChannel.open(group, address)) {
+                            final ByteBuffer buf = ByteBuffer.allocateDirect(8);
+                            long sum = 0;
+                            for (int j = 0; j < rounds; j++) {
+                                buf.clear();
+                                buf.putLong(base + j).flip();
+                                while (buf.hasRemaining())
+                                    ch.write(buf);
+                                buf.clear();
+                                while (buf.hasRemaining())
+                                    assertThat(ch.read(buf) > 0, is(true));
+                                buf.flip();
+                                sum += buf.getLong();
+                            }
+                            return sum;
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                }).start();
+            }
+
+            for (int i = 0; i < clients; i++)
+                assertThat(cs[i].get(), is(i * 1000L * rounds + rounds * (rounds - 1) / 2));
+            server.join();
+        } finally {
+            socket.close();
+        }
+    }
+
+    @Test
+    public void testSelectorSocketReadTimeout() throws Exception {
+        final ChannelGroup group = ChannelGroup.withSelectors(1, new ThreadFactoryBuilder().setDaemon(true).build());
+        try (final FiberServerSocketChannel socket = FiberServerSocketChannel.open(group).bind(new InetSocketAddress("localhost", 0))) {
+            final Fiber<Void> client = new Fiber<Void>(scheduler, new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    try (FiberSocketChannel ch = FiberSocketChannel.open(group, socket.getLocalAddress());
+                            FiberSocketChannel peer = socket.accept()) {
+                        try {
+                            ch.read(ByteBuffer.allocate(8), 50, TimeUnit.MILLISECONDS);
+                            fail();
+                        } catch (InterruptedByTimeoutException e) {
+                        }
+                        peer.write(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+                        assertThat(ch.read(ByteBuffer.allocate(8), 1, TimeUnit.SECONDS), is(3));
+                        peer.close();
+                        assertThat(ch.read(ByteBuffer.allocate(8)), is(-1));
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start();
+            client.join();
+        } finally {
+            group.shutdown();
+        }
+    }
+
+    @Test
+    public void testFiberAsyncSocketReadAfterInterrupt() throws Exception {
+        // delays the completion of the interrupted read until the channel is read again
+        final AtomicBoolean delay = new AtomicBoolean();
+        final ExecutorService executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                new ThreadFactoryBuilder().setDaemon(true).build()) {
+            @Override
+            protected void beforeExecute(Thread t, Runnable r) {
+                if (delay.compareAndSet(true, false)) {
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            }
+        };
+        final ChannelGroup group = ChannelGroup.withThreadPool(executor);
+        try (final FiberServerSocketChannel socket = FiberServerSocketChannel.open(group).bind(new InetSocketAddress("localhost", 0))) {
+            final FiberSocketChannel peer = new Fiber<FiberSocketChannel>(scheduler, new SuspendableCallable<FiberSocketChannel>() {
+                @Override
+                public FiberSocketChannel run() throws SuspendExecution, InterruptedException {
+                    try {
+                        return FiberSocketChannel.open(socket.getLocalAddress());
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start().get();
+            final FiberSocketChannel ch = new Fiber<FiberSocketChannel>(scheduler, new SuspendableCallable<FiberSocketChannel>() {
+                @Override
+                public FiberSocketChannel run() throws SuspendExecution, InterruptedException {
+                    try {
+                        return socket.accept();
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start().get();
+            try {
+                final ByteBuffer first = ByteBuffer.allocateDirect(8);
+                final Fiber<Void> interrupted = new Fiber<Void>(scheduler, new SuspendableRunnable() {
+                    @Override
+                    public void run() throws SuspendExecution, InterruptedException {
+                        try {
+                            ch.read(first);
+                            fail();
+                        } catch (InterruptedIOException e) {
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                }).start();
+                Thread.sleep(100);
+                interrupted.interrupt();
+                interrupted.join();
+
+                // the interrupted read is still in flight, and gets the first byte
+                final ByteBuffer second = ByteBuffer.allocateDirect(8);
+                final Fiber<Integer> reader = new Fiber<Integer>(scheduler, new SuspendableCallable<Integer>() {
+                    @Override
+                    public Integer run() throws SuspendExecution, InterruptedException {
+                        try {
+                            delay.set(true);
+                            peer.write(ByteBuffer.wrap(new byte[]{1}));
+                            while (first.position() == 0)
+                                Strand.sleep(1);
+                            for (;;) {
+                                try {
+                                    return ch.read(second);
+                                } catch (ReadPendingException e) {
+                                    Strand.sleep(1);
+                                }
+                            }
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                }).start();
+                new Fiber<Void>(scheduler, new SuspendableRunnable() {
+                    @Override
+                    public void run() throws SuspendExecution, InterruptedException {
+                        try {
+                            Strand.sleep(400); // after the interrupted read has completed
+                            peer.write(ByteBuffer.wrap(new byte[]{2, 3}));
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                }).start().join();
+                assertThat(reader.get(), is(2));
+                assertThat(first.get(0), is((byte) 1));
+                assertThat(second.get(0), is((byte) 2));
+                assertThat(second.get(1), is((byte) 3));
+            } finally {
+                ch.close();
+                peer.close();
+            }
+        } finally {
+            group.shutdown();
+        }
+    }
+
     @Test
     public void testFiberAsyncFile() throws Exception {
         new Fiber(scheduler, new SuspendableRunnable() {
@@ -213,4 +472,127 @@ public class FiberAsyncIOTest {
             }
         }).start().join();
     }
+
+    @Test
+    public void testFileBatchRead() throws Exception {
+        final Path file = Files.createTempFile("fibertest", ".bin");
+        try {
+            final byte[] data = new byte[10000];
+            for (int i = 0; i < data.length; i++)
+                data[i] = (byte) i;
+            Files.write(file, data);
+
+            new Fiber(scheduler, new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution {
+                    try (FiberFileChannel ch = FiberFileChannel.open(file, READ)) {
+                        final long[] positions = {9000, 0, 4321, 9990, 20000};
+                        final ByteBuffer[] bufs = new ByteBuffer[positions.length];
+                        for (int i = 0; i < bufs.length; i++)
+                            bufs[i] = i % 2 == 0 ? ByteBuffer.allocateDirect(100) : ByteBuffer.allocate(100);
+
+                        final long n = ch.read(bufs, positions);
+
+                        assertThat(n, is(100L + 100 + 100 + 10));
+                        assertThat(ch.position(), is(0L));
+                        for (int i = 0; i < bufs.length; i++) {
+                            bufs[i].flip();
+                            final int expected = (int) Math.max(0, Math.min(100, data.length - positions[i]));
+                            assertThat(bufs[i].remaining(), is(expected));
+                            for (int j = 0; j < expected; j++)
+                                assertThat(bufs[i].get(j), is(data[(int) positions[i] + j]));
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start().join();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testFileMap() throws Exception {
+        final Path file = Files.createTempFile("fibertest", ".bin");
+        try {
+            new Fiber(scheduler, new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution {
+                    try (FiberFileChannel ch = FiberFileChannel.open(file, READ, WRITE)) {
+                        ch.write(encoder.encode(CharBuffer.wrap("0123456789")));
+
+                        final MappedByteBuffer mbb = ch.map(FileChannel.MapMode.READ_WRITE, 2, 4);
+                        assertThat(mbb.capacity(), is(4));
+                        assertThat(mbb.get(0), is((byte) '2'));
+                        mbb.put(0, (byte) 'x');
+                        mbb.force();
+
+                        final ByteBuffer buf = ByteBuffer.allocate(10);
+                        ch.read(buf, 0);
+                        buf.flip();
+                        assertThat(decoder.decode(buf).toString(), equalTo("01x3456789"));
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start().join();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testFilePrivateMap() throws Exception {
+        final Path file = Files.createTempFile("fibertest", ".bin");
+        try {
+            new Fiber(scheduler, new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution {
+                    try (FiberFileChannel ch = FiberFileChannel.open(file, READ, WRITE)) {
+                        ch.write(encoder.encode(CharBuffer.wrap("0123456789")));
+
+                        final MappedByteBuffer mbb = ch.map(FileChannel.MapMode.PRIVATE, 2, 4);
+                        assertThat(mbb.get(0), is((byte) '2'));
+                        mbb.put(0, (byte) 'x');
+                        assertThat(mbb.get(0), is((byte) 'x'));
+
+                        final ByteBuffer buf = ByteBuffer.allocate(10);
+                        ch.read(buf, 0);
+                        buf.flip();
+                        assertThat(decoder.decode(buf).toString(), equalTo("0123456789"));
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start().join();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testFileMapReadOnlyChannel() throws Exception {
+        final Path file = Files.createTempFile("fibertest", ".bin");
+        try {
+            Files.write(file, new byte[]{1, 2, 3, 4});
+            new Fiber(scheduler, new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution {
+                    try (FiberFileChannel ch = FiberFileChannel.open(file, READ)) {
+                        assertThat(ch.map(FileChannel.MapMode.READ_ONLY, 0, 4).get(3), is((byte) 4));
+                        try {
+                            ch.map(FileChannel.MapMode.PRIVATE, 0, 4);
+                            fail();
+                        } catch (NonWritableChannelException e) {
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start().join();
+        } finally {
+            Files.delete(file);
+        }
+    }
 }
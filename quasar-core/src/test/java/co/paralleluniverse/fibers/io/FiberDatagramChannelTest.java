@@ -0,0 +1,189 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.common.test.TestUtil;
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.FiberForkJoinScheduler;
+import co.paralleluniverse.fibers.FiberScheduler;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SuspendableCallable;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.InterruptedByTimeoutException;
+import java.util.concurrent.TimeUnit;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+/**
+ *
+ * @author pron
+ */
+public class FiberDatagramChannelTest {
+    @Rule
+    public TestRule watchman = TestUtil.WATCHMAN;
+
+    private final FiberScheduler scheduler = new FiberForkJoinScheduler("test", 4, null, false);
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testFiberAsyncDatagrams() throws Exception {
+        testDatagrams(null);
+    }
+
+    @Test
+    public void testSelectorDatagrams() throws Exception {
+        final ChannelGroup group = ChannelGroup.withSelectors(1, new ThreadFactoryBuilder().setDaemon(true).build());
+        try {
+            testDatagrams(group);
+        } finally {
+            group.shutdown();
+        }
+    }
+
+    /**
+     * All datagrams are sent before the receiver starts, so the first batch is full.
+     */
+    private void testDatagrams(final ChannelGroup group) throws Exception {
+        final int count = 100;
+        final int batch = 16;
+        final ByteBufferPool pool = ByteBufferPool.getDefault();
+        final FiberDatagramChannel receiver = new Fiber<FiberDatagramChannel>(scheduler, new SuspendableCallable<FiberDatagramChannel>() {
+            @Override
+            public FiberDatagramChannel run() throws SuspendExecution {
+                try {
+                    return open(group);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }).start().get();
+        try {
+            final SocketAddress address = receiver.getLocalAddress();
+            new Fiber(scheduler, new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution {
+                    try (FiberDatagramChannel sender = open(group)) {
+                        for (int i = 0; i < count; i++) {
+                            final ByteBuffer buf = ByteBuffer.allocate(4);
+                            buf.putInt(0, i);
+                            assertThat(sender.send(buf, address), is(4));
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start().join();
+
+            final int firstBatch = new Fiber<Integer>(scheduler, new SuspendableCallable<Integer>() {
+                @Override
+                public Integer run() throws SuspendExecution {
+                    try {
+                        final ByteBuffer[] dsts = new ByteBuffer[batch];
+                        final SocketAddress[] sources = new SocketAddress[batch];
+                        int first = 0;
+                        for (int received = 0; received < count;) {
+                            final int n = receiver.receive(pool, 512, dsts, sources, 5, TimeUnit.SECONDS);
+                            if (first == 0)
+                                first = n;
+                            for (int i = 0; i < n; i++) {
+                                assertThat(dsts[i].remaining(), is(4));
+                                assertThat(dsts[i].getInt(0), is(received + i));
+                                assertThat(sources[i], is(notNullValue()));
+                                pool.release(dsts[i]);
+                            }
+                            received += n;
+                        }
+                        return first;
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start().get();
+            assertThat(firstBatch, is(batch));
+        } finally {
+            receiver.close();
+        }
+    }
+
+    @Test
+    public void testConnected() throws Exception {
+        new Fiber(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution {
+                try (FiberDatagramChannel a = open(null); FiberDatagramChannel b = open(null)) {
+                    a.connect(b.getLocalAddress());
+                    b.connect(a.getLocalAddress());
+                    assertThat(a.isConnected(), is(true));
+
+                    final ByteBuffer buf = ByteBuffer.allocateDirect(16);
+                    buf.putLong(0, 12345L).limit(8);
+                    assertThat(a.write(buf), is(8));
+
+                    final ByteBuffer[] dsts = {ByteBuffer.allocate(4), ByteBuffer.allocate(12)};
+                    final SocketAddress[] sources = new SocketAddress[1];
+                    assertThat(b.receive(new ByteBuffer[]{dsts[0]}, sources, 0, null), is(1));
+                    assertThat(sources[0], equalTo(a.getLocalAddress()));
+                    assertThat(dsts[0].position(), is(4)); // the rest of the datagram is discarded
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }).start().join();
+    }
+
+    @Test
+    public void testReceiveTimeout() throws Exception {
+        new Fiber(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution {
+                try (FiberDatagramChannel ch = open(null)) {
+                    try {
+                        ch.receive(ByteBuffer.allocate(16), 50, TimeUnit.MILLISECONDS);
+                        fail();
+                    } catch (InterruptedByTimeoutException e) {
+                    }
+                    // the channel is still usable after a timeout
+                    ch.send(ByteBuffer.wrap(new byte[]{1, 2, 3}), ch.getLocalAddress());
+                    final ByteBuffer buf = ByteBuffer.allocate(16);
+                    assertThat(ch.receive(buf, 5, TimeUnit.SECONDS), is(notNullValue()));
+                    assertThat(buf.position(), is(3));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }).start().join();
+    }
+
+    private static FiberDatagramChannel open(ChannelGroup group) throws IOException, SuspendExecution {
+        final FiberDatagramChannel ch = FiberDatagramChannel.open(group);
+        ch.setOption(StandardSocketOptions.SO_RCVBUF, 1 << 20);
+        ch.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        return ch;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.common.test.TestUtil;
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.FiberForkJoinScheduler;
+import co.paralleluniverse.fibers.FiberScheduler;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import co.paralleluniverse.strands.channels.ProducerException;
+import co.paralleluniverse.strands.channels.ReceivePort;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+/**
+ *
+ * @author pron
+ */
+public class FiberFilesTest {
+    @Rule
+    public TestRule watchman = TestUtil.WATCHMAN;
+
+    private final FiberScheduler scheduler;
+    private Path root;
+
+    public FiberFilesTest() {
+        scheduler = new FiberForkJoinScheduler("test", 4, null, false);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("fiber-files");
+        Files.createDirectories(root.resolve("a/b"));
+        Files.write(root.resolve("x"), new byte[]{1, 2, 3});
+        Files.write(root.resolve("a/y"), new byte[]{4});
+        Files.write(root.resolve("a/b/z"), new byte[0]);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        scheduler.shutdown();
+        final List<Path> paths = new ArrayList<>();
+        try (Stream<Path> s = Files.walk(root)) {
+            for (Iterator<Path> it = s.iterator(); it.hasNext();)
+                paths.add(it.next());
+        }
+        for (int i = paths.size() - 1; i >= 0; i--)
+            Files.deleteIfExists(paths.get(i));
+    }
+
+    @Test
+    public void testOperations() throws Exception {
+        new Fiber(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                try {
+                    assertThat(new HashSet<>(FiberFiles.list(root)), equalTo(set(root.resolve("a"), root.resolve("x"))));
+                    assertThat(FiberFiles.size(root.resolve("x")), is(3L));
+                    assertTrue(FiberFiles.readAttributes(root.resolve("a"), BasicFileAttributes.class).isDirectory());
+
+                    final Path moved = FiberFiles.move(root.resolve("x"), root.resolve("a/x"));
+                    assertFalse(FiberFiles.exists(root.resolve("x")));
+                    assertThat(FiberFiles.readAllBytes(moved), equalTo(new byte[]{1, 2, 3}));
+
+                    FiberFiles.delete(moved);
+                    assertFalse(FiberFiles.exists(moved));
+                    assertFalse(FiberFiles.deleteIfExists(moved));
+                    try {
+                        FiberFiles.delete(moved);
+                        fail("NoSuchFileException not thrown");
+                    } catch (NoSuchFileException e) {
+                    }
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        }).start().join();
+    }
+
+    @Test
+    public void testWalk() throws Exception {
+        new Fiber(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                final List<Path> paths = new ArrayList<>();
+                try (ReceivePort<Path> port = FiberFiles.walk(root, Integer.MAX_VALUE, 1)) {
+                    for (Path p; (p = port.receive()) != null;)
+                        paths.add(p);
+                }
+                assertThat(paths.size(), is(6));
+                assertThat(paths.get(0), equalTo(root));
+                assertThat(new HashSet<>(paths), equalTo(set(root, root.resolve("x"), root.resolve("a"),
+                        root.resolve("a/y"), root.resolve("a/b"), root.resolve("a/b/z"))));
+                // directories come before their entries
+                assertTrue(paths.indexOf(root.resolve("a")) < paths.indexOf(root.resolve("a/b")));
+                assertTrue(paths.indexOf(root.resolve("a/b")) < paths.indexOf(root.resolve("a/b/z")));
+
+                final Set<Path> shallow = new HashSet<>();
+                try (ReceivePort<Path> port = FiberFiles.walk(root, 1, 16)) {
+                    for (Path p; (p = port.receive()) != null;)
+                        shallow.add(p);
+                }
+                assertThat(shallow, equalTo(set(root, root.resolve("x"), root.resolve("a"))));
+            }
+        }).start().join();
+    }
+
+    @Test
+    public void testWalkClose() throws Exception {
+        new Fiber(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                final ReceivePort<Path> port = FiberFiles.walk(root, Integer.MAX_VALUE, 1);
+                assertThat(port.receive(), equalTo(root));
+                port.close();
+                assertTrue(port.isClosed());
+                assertThat(port.receive(), is(nullValue()));
+                assertThat(port.tryReceive(), is(nullValue()));
+            }
+        }).start().join();
+    }
+
+    @Test
+    public void testWalkFailure() throws Exception {
+        new Fiber(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                final ReceivePort<Path> port = FiberFiles.walk(root.resolve("missing"));
+                try {
+                    port.receive();
+                    fail("ProducerException not thrown");
+                } catch (ProducerException e) {
+                    assertThat(e.getCause(), instanceOf(NoSuchFileException.class));
+                }
+            }
+        }).start().join();
+    }
+
+    @Test
+    public void testSlowWalksDoNotBlockFileOperations() throws Exception {
+        new Fiber(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                // more stalled walks than there are file I/O threads
+                final List<ReceivePort<Path>> ports = new ArrayList<>();
+                for (int i = 0; i < 64; i++)
+                    ports.add(FiberFiles.walk(root, Integer.MAX_VALUE, 1));
+                try {
+                    for (ReceivePort<Path> port : ports) {
+                        final Path p = port.receive();
+                        assertTrue(FiberFiles.exists(p));
+                    }
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                } finally {
+                    for (ReceivePort<Path> port : ports)
+                        port.close();
+                }
+            }
+        }).start().join(10, TimeUnit.SECONDS);
+    }
+
+    private static Set<Path> set(Path... paths) {
+        return new HashSet<>(Arrays.asList(paths));
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.common.test.TestUtil;
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.FiberForkJoinScheduler;
+import co.paralleluniverse.fibers.FiberScheduler;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SuspendableCallable;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import co.paralleluniverse.strands.channels.ProducerException;
+import co.paralleluniverse.strands.channels.ReceivePort;
+import co.paralleluniverse.strands.channels.SendPort;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+/**
+ *
+ * @author pron
+ */
+public class FramedChannelsTest {
+    @Rule
+    public TestRule watchman = TestUtil.WATCHMAN;
+
+    private final FiberScheduler scheduler = new FiberForkJoinScheduler("test", 4, null, false);
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testLengthPrefixDecode() throws Exception {
+        final LengthPrefixFraming framing = new LengthPrefixFraming(100);
+        final ByteBuffer in = ByteBuffer.allocate(64);
+        in.putInt(3).put((byte) 1).put((byte) 2).put((byte) 3).putInt(2).put((byte) 4);
+        in.flip();
+
+        final ByteBuffer f1 = framing.decode(in);
+        assertThat(f1.remaining(), is(3));
+        assertThat(f1.get(2), is((byte) 3));
+        assertThat(in.position(), is(7));
+        in.put(6, (byte) 33);
+        assertThat(f1.get(2), is((byte) 33)); // not copied
+
+        assertThat(framing.decode(in), is(nullValue())); // partial frame
+        assertThat(in.position(), is(7));
+
+        in.limit(in.limit() + 1);
+        assertThat(framing.decode(in).remaining(), is(2));
+        assertThat(in.hasRemaining(), is(false));
+        assertThat(framing.decode(in), is(nullValue()));
+
+        in.clear();
+        in.putInt(101).flip();
+        try {
+            framing.decode(in);
+            fail();
+        } catch (StreamCorruptedException e) {
+        }
+    }
+
+    @Test
+    public void testFiberAsyncFrames() throws Exception {
+        testFrames(null);
+    }
+
+    @Test
+    public void testSelectorFrames() throws Exception {
+        final ChannelGroup group = ChannelGroup.withSelectors(1, new ThreadFactoryBuilder().setDaemon(true).build());
+        try {
+            testFrames(group);
+        } finally {
+            group.shutdown();
+        }
+    }
+
+    /**
+     * The sender sends many small frames from several fibers, and some frames larger than the receiver's buffer.
+     */
+    private void testFrames(final ChannelGroup group) throws Exception {
+        final int senders = 4;
+        final int frames = 2000;
+        final LengthPrefixFraming framing = new LengthPrefixFraming(1 << 20);
+        try (final FiberServerSocketChannel socket = open(group)) {
+            final SocketAddress address = socket.getLocalAddress();
+            final Fiber<Long> receiver = new Fiber<Long>(scheduler, new SuspendableCallable<Long>() {
+                @Override
+                public Long run() throws SuspendExecution, InterruptedException {
+                    try (FiberSocketChannel ch = socket.accept()) {
+                        final ReceivePort<ByteBuffer> frames = FramedChannels.newReceivePort(ch, framing, 256);
+                        long sum = 0;
+                        int large = 0;
+                        for (ByteBuffer f; (f = frames.receive()) != null;) {
+                            if (f.remaining() == 8)
+                                sum += f.getLong(0);
+                            else {
+                                assertThat(f.remaining(), is(10_000));
+                                assertThat(f.get(9_999), is((byte) 7));
+                                large++;
+                            }
+                        }
+                        assertThat(large, is(senders));
+                        assertThat(frames.isClosed(), is(true));
+                        return sum;
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start();
+
+            new Fiber<Void>(scheduler, new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    try {
+                        final FiberSocketChannel ch = FiberSocketChannel.open(group, address);
+                        final SendPort<ByteBuffer> port = FramedChannels.newSendPort(ch, framing, 16, 32);
+                        final Fiber<Void>[] fs = new Fiber[senders];
+                        for (int i = 0; i < senders; i++) {
+                            fs[i] = new Fiber<Void>(new SuspendableRunnable() {
+                                @Override
+                                public void run() throws SuspendExecution, InterruptedException {
+                                    for (int j = 0; j < frames; j++) {
+                                        port.send((ByteBuffer) ByteBuffer.allocate(8).putLong(0, j));
+                                        if (j == frames / 2) {
+                                            final ByteBuffer large = ByteBuffer.allocateDirect(10_000);
+                                            large.put(9_999, (byte) 7);
+                                            port.send(large);
+                                        }
+                                    }
+                                }
+                            }).start();
+                        }
+                        for (Fiber<Void> f : fs)
+                            f.join();
+                        port.close(); // shuts down the output once all frames are written
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start();
+
+            assertThat(receiver.get(10, TimeUnit.SECONDS), is((long) senders * frames * (frames - 1) / 2));
+        }
+    }
+
+    @Test
+    public void testTruncatedStream() throws Exception {
+        // a timed-out read leaves an AsynchronousSocketChannel unusable, so this uses the selector group
+        final ChannelGroup group = ChannelGroup.withSelectors(1, new ThreadFactoryBuilder().setDaemon(true).build());
+        try (final FiberServerSocketChannel socket = open(group)) {
+            final SocketAddress address = socket.getLocalAddress();
+            final Fiber<Void> receiver = new Fiber<Void>(scheduler, new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    try (FiberSocketChannel ch = socket.accept()) {
+                        final ReceivePort<ByteBuffer> frames = FramedChannels.newReceivePort(ch, new LengthPrefixFraming(100), 64);
+                        assertThat(frames.receive(10, TimeUnit.MILLISECONDS), is(nullValue())); // timeout
+                        assertThat(frames.isClosed(), is(false));
+                        assertThat(frames.receive().getInt(0), is(5));
+                        try {
+                            frames.receive();
+                            fail();
+                        } catch (ProducerException e) {
+                            assertThat(e.getCause(), instanceOf(java.io.EOFException.class));
+                        }
+                        assertThat(frames.isClosed(), is(true));
+                        assertThat(frames.receive(), is(nullValue()));
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start();
+
+            new Fiber<Void>(scheduler, new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    try (FiberSocketChannel ch = FiberSocketChannel.open(group, address)) {
+                        Fiber.sleep(50);
+                        final ByteBuffer buf = ByteBuffer.allocateDirect(64);
+                        buf.putInt(4).putInt(5).putInt(10).putInt(1).flip(); // the second frame is cut short
+                        while (buf.hasRemaining())
+                            ch.write(buf);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start().join();
+            receiver.get(10, TimeUnit.SECONDS);
+        } finally {
+            group.shutdown();
+        }
+    }
+
+    private FiberServerSocketChannel open(final ChannelGroup group) throws Exception {
+        return new Fiber<FiberServerSocketChannel>(scheduler, new SuspendableCallable<FiberServerSocketChannel>() {
+            @Override
+            public FiberServerSocketChannel run() throws SuspendExecution, InterruptedException {
+                try {
+                    return FiberServerSocketChannel.open(group).bind(new InetSocketAddress("localhost", 0));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }).start().get();
+    }
+}
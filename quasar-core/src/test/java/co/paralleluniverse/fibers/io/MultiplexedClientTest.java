@@ -0,0 +1,184 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.common.test.TestUtil;
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.FiberForkJoinScheduler;
+import co.paralleluniverse.fibers.FiberScheduler;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SuspendableCallable;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+/**
+ *
+ * @author pron
+ */
+public class MultiplexedClientTest {
+    @Rule
+    public TestRule watchman = TestUtil.WATCHMAN;
+
+    private final FiberScheduler scheduler = new FiberForkJoinScheduler("test", 4, null, false);
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Many fibers call concurrently over one connection to a server that answers each pair of requests in reverse order.
+     */
+    @Test
+    public void testConcurrentCalls() throws Exception {
+        final int callers = 16;
+        final int calls = 100;
+        try (final FiberServerSocketChannel server = open()) {
+            serve(server, false);
+            new Fiber<Void>(scheduler, new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    try {
+                        final MultiplexedClient client = new MultiplexedClient(FiberSocketChannel.open(server.getLocalAddress()), 1024, 256);
+                        final Fiber<Void>[] fs = new Fiber[callers];
+                        for (int i = 0; i < callers; i++) {
+                            final int caller = i;
+                            fs[i] = new Fiber<Void>(new SuspendableRunnable() {
+                                @Override
+                                public void run() throws SuspendExecution, InterruptedException {
+                                    try {
+                                        for (int j = 0; j < calls; j++) {
+                                            final ByteBuffer response = client.call((ByteBuffer) ByteBuffer.allocate(8).putInt(caller).putInt(j).flip(),
+                                                    10, TimeUnit.SECONDS);
+                                            assertThat(response.remaining(), is(8));
+                                            assertThat(response.getInt(0), is(caller));
+                                            assertThat(response.getInt(4), is(j));
+                                        }
+                                    } catch (IOException | TimeoutException e) {
+                                        throw new RuntimeException(e);
+                                    }
+                                }
+                            }).start();
+                        }
+                        for (Fiber<Void> f : fs)
+                            f.join();
+                        assertThat(client.getPendingCalls(), is(0));
+                        client.close();
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start().join();
+        }
+    }
+
+    @Test
+    public void testConnectionFailure() throws Exception {
+        try (final FiberServerSocketChannel server = open()) {
+            serve(server, true);
+            new Fiber<Void>(scheduler, new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    try {
+                        final MultiplexedClient client = new MultiplexedClient(FiberSocketChannel.open(server.getLocalAddress()), 1024, 256);
+                        try {
+                            client.call(ByteBuffer.allocate(4)); // the server hangs up on the first request
+                            fail();
+                        } catch (IOException e) {
+                        }
+                        assertThat(client.isOpen(), is(false));
+                        assertThat(client.getPendingCalls(), is(0));
+                        try {
+                            client.call(ByteBuffer.allocate(4));
+                            fail();
+                        } catch (IOException e) {
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }).start().join();
+        }
+    }
+
+    private FiberServerSocketChannel open() throws Exception {
+        return new Fiber<FiberServerSocketChannel>(scheduler, new SuspendableCallable<FiberServerSocketChannel>() {
+            @Override
+            public FiberServerSocketChannel run() throws SuspendExecution, InterruptedException {
+                try {
+                    return FiberServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }).start().get();
+    }
+
+    /**
+     * Accepts one connection, and answers the requests read together in pairs, in reverse order (or hangs up on the first request).
+     */
+    private void serve(final FiberServerSocketChannel server, final boolean hangUp) {
+        new Fiber<Void>(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                try (FiberSocketChannel ch = server.accept()) {
+                    final ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+                    ByteBuffer held = null;
+                    for (;;) {
+                        if (ch.read(in) < 0)
+                            return;
+                        in.flip();
+                        while (in.remaining() >= 4 && in.remaining() >= 4 + in.getInt(in.position())) {
+                            if (hangUp)
+                                return;
+                            final ByteBuffer frame = ByteBuffer.allocate(4 + in.getInt(in.position()));
+                            final ByteBuffer src = in.duplicate();
+                            src.limit(src.position() + frame.remaining());
+                            frame.put(src).flip();
+                            in.position(src.limit());
+                            if (held == null)
+                                held = frame;
+                            else {
+                                write(ch, frame);
+                                write(ch, held);
+                                held = null;
+                            }
+                        }
+                        if (held != null) { // no other request has been read with it
+                            write(ch, held);
+                            held = null;
+                        }
+                        in.compact();
+                    }
+                } catch (IOException e) {
+                }
+            }
+        }).start();
+    }
+
+    private static void write(FiberSocketChannel ch, ByteBuffer buf) throws IOException, SuspendExecution {
+        while (buf.hasRemaining())
+            ch.write(buf);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.fibers.io;
+
+import co.paralleluniverse.common.test.TestUtil;
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.FiberForkJoinScheduler;
+import co.paralleluniverse.fibers.FiberScheduler;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SuspendableAction1;
+import co.paralleluniverse.strands.SuspendableCallable;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+/**
+ *
+ * @author pron
+ */
+public class ShardedFiberServerSocketChannelTest {
+    @Rule
+    public TestRule watchman = TestUtil.WATCHMAN;
+
+    private final FiberScheduler scheduler = new FiberForkJoinScheduler("test", 4, null, false);
+    private final FiberScheduler[] partitions = {
+        new FiberForkJoinScheduler("p0", 1, null, false),
+        new FiberForkJoinScheduler("p1", 1, null, false),
+        new FiberForkJoinScheduler("p2", 1, null, false)};
+    private final Set<FiberScheduler> handledBy = ConcurrentHashMap.newKeySet();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+        for (FiberScheduler p : partitions)
+            p.shutdown();
+    }
+
+    @Test
+    public void testFiberAsyncShards() throws Exception {
+        testShards(null, 4, 2);
+    }
+
+    @Test
+    public void testSelectorShards() throws Exception {
+        final ChannelGroup group = ChannelGroup.withSelectors(2, new ThreadFactoryBuilder().setDaemon(true).build());
+        try {
+            testShards(group, 4, 2);
+        } finally {
+            group.shutdown();
+        }
+    }
+
+    @Test
+    public void testMorePartitionsThanShards() throws Exception {
+        testShards(null, 1, 3);
+    }
+
+    private void testShards(final ChannelGroup group, final int shards, final int nPartitions) throws Exception {
+        final int connections = 40;
+        final FiberScheduler[] ps = Arrays.copyOf(partitions, nPartitions);
+        final ShardedFiberServerSocketChannel server = new Fiber<ShardedFiberServerSocketChannel>(scheduler, new SuspendableCallable<ShardedFiberServerSocketChannel>() {
+            @Override
+            public ShardedFiberServerSocketChannel run() throws SuspendExecution, InterruptedException {
+                try {
+                    return ShardedFiberServerSocketChannel.bind(group, new InetSocketAddress("localhost", 0), 0, shards, ps, new SuspendableAction1<FiberSocketChannel>() {
+                        @Override
+                        public void call(FiberSocketChannel ch) throws SuspendExecution, InterruptedException {
+                            handledBy.add(Fiber.currentFiber().getScheduler());
+                            try (FiberSocketChannel c = ch) {
+                                final ByteBuffer buf = ByteBuffer.allocate(1);
+                                if (c.read(buf) > 0) {
+                                    buf.flip();
+                                    c.write(buf);
+                                }
+                            } catch (IOException e) {
+                            }
+                        }
+                    });
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }).start().get();
+        try {
+            assertThat(server.getShards(), is(shards)); // SO_REUSEPORT is supported on Linux
+            final SocketAddress address = server.getLocalAddress();
+            final Fiber<Void>[] clients = new Fiber[connections];
+            for (int i = 0; i < connections; i++) {
+                final byte b = (byte) i;
+                clients[i] = new Fiber<Void>(scheduler, new SuspendableRunnable() {
+                    @Override
+                    public void run() throws SuspendExecution, InterruptedException {
+                        try (FiberSocketChannel ch = FiberSocketChannel.open(group, address)) {
+                            ch.write(ByteBuffer.wrap(new byte[]{b}));
+                            final ByteBuffer buf = ByteBuffer.allocate(1);
+                            assertThat(ch.read(buf), is(1));
+                            assertThat(buf.get(0), is(b));
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                }).start();
+            }
+            for (Fiber<Void> f : clients)
+                f.join();
+
+            long accepted = 0;
+            for (int i = 0; i < server.getShards(); i++)
+                accepted += server.getAcceptedConnections(i);
+            assertThat(accepted, is((long) connections));
+            final Set<FiberScheduler> all = new HashSet<>(Arrays.asList(ps));
+            assertThat(all.containsAll(handledBy), is(true));
+            if (nPartitions > shards)
+                assertThat(handledBy, equalTo(all)); // the shard's connections are handed to all of its partitions in turn
+        } finally {
+            server.close();
+        }
+        assertThat(server.isOpen(), is(false));
+    }
+}
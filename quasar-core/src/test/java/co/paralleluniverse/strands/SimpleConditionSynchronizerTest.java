@@ -0,0 +1,226 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands;
+
+import co.paralleluniverse.common.test.TestUtil;
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.FiberForkJoinScheduler;
+import co.paralleluniverse.fibers.FiberScheduler;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.channels.Channel;
+import co.paralleluniverse.strands.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+/**
+ *
+ * @author pron
+ */
+public class SimpleConditionSynchronizerTest {
+    @Rule
+    public TestRule watchman = TestUtil.WATCHMAN;
+
+    private final FiberScheduler scheduler;
+    private final SimpleConditionSynchronizer cond = new SimpleConditionSynchronizer(null);
+    private final AtomicInteger permits = new AtomicInteger();
+    private final AtomicInteger registered = new AtomicInteger();
+    private final AtomicInteger wakeups = new AtomicInteger();
+
+    public SimpleConditionSynchronizerTest() {
+        scheduler = new FiberForkJoinScheduler("test", 4, null, false);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testSignalWakesOne() throws Exception {
+        final int n = 8;
+        final List<Fiber<Void>> fibers = startWaiters(n, true);
+        awaitRegistered(n);
+
+        for (int i = 1; i <= n; i++) {
+            permits.incrementAndGet();
+            cond.signal();
+            Thread.sleep(50);
+            assertThat(wakeups.get(), is(i));
+        }
+        for (Fiber<Void> f : fibers)
+            f.join(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testSignalAll() throws Exception {
+        final int n = 8;
+        final List<Fiber<Void>> fibers = startWaiters(n, true);
+        awaitRegistered(n);
+
+        permits.addAndGet(n);
+        cond.signalAll();
+        for (Fiber<Void> f : fibers)
+            f.join(5, TimeUnit.SECONDS);
+        assertThat(wakeups.get(), is(n));
+    }
+
+    @Test
+    public void testUnregisterPassesSignalOn() throws Exception {
+        // the first waiter leaves after being woken without examining the condition, so it must pass the signal on
+        final Fiber<Void> leaving = new Fiber<Void>(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                final Object token = cond.register();
+                try {
+                    registered.incrementAndGet();
+                    cond.await(0);
+                } finally {
+                    cond.unregister(token);
+                }
+            }
+        }).start();
+        awaitRegistered(1);
+        final List<Fiber<Void>> fibers = startWaiters(1, true);
+        awaitRegistered(2);
+
+        permits.incrementAndGet();
+        cond.signal();
+        leaving.join(5, TimeUnit.SECONDS);
+        fibers.get(0).join(5, TimeUnit.SECONDS);
+        assertThat(permits.get(), is(0));
+    }
+
+    @Test
+    public void testTokenlessWaiters() throws Exception {
+        final int n = 4;
+        final List<Fiber<Void>> fibers = startWaiters(n, false);
+        awaitRegistered(n);
+
+        for (int i = 0; i < n; i++) {
+            permits.incrementAndGet();
+            cond.signal();
+        }
+        for (Fiber<Void> f : fibers)
+            f.join(5, TimeUnit.SECONDS);
+        assertThat(permits.get(), is(0));
+    }
+
+    @Test
+    public void testUnregisterWithoutToken() throws Exception {
+        cond.register();
+        cond.unregister(null);
+        try {
+            cond.unregister(null);
+            fail("IllegalMonitorStateException not thrown");
+        } catch (IllegalMonitorStateException e) {
+        }
+        final Object token = cond.register();
+        cond.unregister(token);
+        try {
+            cond.unregister(token);
+            fail("IllegalMonitorStateException not thrown");
+        } catch (IllegalMonitorStateException e) {
+        }
+    }
+
+    @Test
+    public void testMultiConsumerChannel() throws Exception {
+        final int consumers = 64;
+        final int messages = 20_000;
+        final Channel<Integer> ch = Channels.newChannel(16, Channels.OverflowPolicy.BLOCK, false, false);
+        final AtomicInteger received = new AtomicInteger();
+        final AtomicLong sum = new AtomicLong();
+
+        final List<Fiber<Void>> fibers = new ArrayList<>();
+        for (int i = 0; i < consumers; i++) {
+            final boolean timed = i % 2 == 0;
+            fibers.add(new Fiber<Void>(scheduler, new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    for (;;) {
+                        final Integer m = timed ? ch.receive(1, TimeUnit.MILLISECONDS) : ch.receive();
+                        if (m != null) {
+                            received.incrementAndGet();
+                            sum.addAndGet(m);
+                        } else if (ch.isClosed())
+                            return;
+                    }
+                }
+            }).start());
+        }
+        new Fiber<Void>(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                for (int i = 1; i <= messages; i++)
+                    ch.send(i);
+                ch.close();
+            }
+        }).start().join(10, TimeUnit.SECONDS);
+        for (Fiber<Void> f : fibers)
+            f.join(10, TimeUnit.SECONDS);
+
+        assertThat(received.get(), is(messages));
+        assertThat(sum.get(), is((long) messages * (messages + 1) / 2));
+    }
+
+    private List<Fiber<Void>> startWaiters(int n, final boolean passToken) {
+        final List<Fiber<Void>> fibers = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            fibers.add(new Fiber<Void>(scheduler, new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    final Object token = cond.register();
+                    try {
+                        registered.incrementAndGet();
+                        for (int i = 0; !tryAcquire(); i++) {
+                            if (passToken)
+                                cond.await(token, i);
+                            else
+                                cond.await(i);
+                            wakeups.incrementAndGet();
+                        }
+                    } finally {
+                        cond.unregister(token);
+                    }
+                }
+            }).start());
+        }
+        return fibers;
+    }
+
+    private boolean tryAcquire() {
+        for (;;) {
+            final int p = permits.get();
+            if (p == 0)
+                return false;
+            if (permits.compareAndSet(p, p - 1))
+                return true;
+        }
+    }
+
+    private void awaitRegistered(int n) throws InterruptedException {
+        while (registered.get() < n)
+            Thread.sleep(1);
+        Thread.sleep(50); // let the waiters park
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.common.test.TestUtil;
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.FiberForkJoinScheduler;
+import co.paralleluniverse.fibers.FiberScheduler;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SuspendableCallable;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+import org.junit.rules.TestRule;
+
+/**
+ *
+ * @author pron
+ */
+public class BroadcastChannelTest {
+    @Rule
+    public TestName name = new TestName();
+    @Rule
+    public TestRule watchman = TestUtil.WATCHMAN;
+
+    private FiberScheduler scheduler;
+
+    public BroadcastChannelTest() {
+        scheduler = new FiberForkJoinScheduler("test", 4, null, false);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testEveryConsumerReceivesEveryMessageInOrder() throws Exception {
+        final BroadcastChannel<Integer> ch = Channels.newBroadcastChannel(8);
+        final int n = 5000;
+
+        final List<Fiber<Integer>> consumers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final ReceivePort<Integer> c = ch.newConsumer();
+            final int delay = i;
+            consumers.add(new Fiber<Integer>(scheduler, new SuspendableCallable<Integer>() {
+                @Override
+                public Integer run() throws SuspendExecution, InterruptedException {
+                    int count = 0;
+                    for (Integer m; (m = c.receive()) != null; count++) {
+                        assertThat(m, is(count));
+                        if (delay > 0 && count % 1000 == 0)
+                            Fiber.sleep(delay);
+                    }
+                    return count;
+                }
+            }).start());
+        }
+
+        new Fiber(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                for (int i = 0; i < n; i++)
+                    ch.send(i);
+                ch.close();
+            }
+        }).start().join();
+
+        for (Fiber<Integer> f : consumers)
+            assertThat(f.get(), is(n));
+    }
+
+    @Test
+    public void testSlowestConsumerGatesSenders() throws Exception {
+        final BroadcastChannel<Integer> ch = Channels.newBroadcastChannel(4);
+        final ReceivePort<Integer> fast = ch.newConsumer();
+        final ReceivePort<Integer> slow = ch.newConsumer();
+
+        for (int i = 0; i < 4; i++)
+            assertTrue(ch.trySend(i));
+        assertFalse(ch.trySend(4));
+        for (int i = 0; i < 4; i++)
+            assertThat(fast.tryReceive(), is(i));
+        assertFalse(ch.trySend(4));
+        assertFalse(ch.send(4, 10, TimeUnit.MILLISECONDS));
+
+        assertThat(slow.receive(), is(0));
+        assertTrue(ch.trySend(4));
+        assertFalse(ch.trySend(5));
+
+        slow.close(); // no longer holds back the senders
+        assertTrue(ch.trySend(5));
+        assertThat(fast.receive(), is(4));
+        assertThat(fast.receive(), is(5));
+        assertThat(ch.getConsumerCount(), is(1));
+    }
+
+    @Test
+    public void testBlockedSenderResumesWhenConsumerCatchesUp() throws Exception {
+        final BroadcastChannel<Integer> ch = Channels.newBroadcastChannel(2);
+        final ReceivePort<Integer> c = ch.newConsumer();
+
+        final Fiber<Void> sender = new Fiber<Void>(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                for (int i = 0; i < 3; i++)
+                    ch.send(i);
+            }
+        }).start();
+
+        Thread.sleep(50);
+        assertFalse(sender.isDone());
+        assertThat(c.receive(), is(0));
+        sender.join(1, TimeUnit.SECONDS);
+        assertThat(c.receive(), is(1));
+        assertThat(c.receive(), is(2));
+    }
+
+    @Test
+    public void testConsumerReceivesOnlyLaterMessages() throws Exception {
+        final BroadcastChannel<String> ch = Channels.newBroadcastChannel(4);
+        ch.send("lost");
+        final ReceivePort<String> c = ch.newConsumer();
+        ch.send("a");
+        ch.send("b");
+        assertThat(c.receive(), is("a"));
+        assertThat(c.receive(), is("b"));
+        assertThat(c.tryReceive(), is(nullValue()));
+    }
+
+    @Test
+    public void testClosedConsumerReceivesNothing() throws Exception {
+        final BroadcastChannel<String> ch = Channels.newBroadcastChannel(4);
+        final ReceivePort<String> c = ch.newConsumer();
+        final ReceivePort<String> other = ch.newConsumer();
+        ch.send("a");
+        ch.send("b");
+
+        c.close();
+        assertTrue(c.isClosed());
+        assertThat(c.tryReceive(), is(nullValue()));
+        assertThat(c.receive(), is(nullValue()));
+        assertThat(c.receive(10, TimeUnit.MILLISECONDS), is(nullValue()));
+        assertThat(other.receive(), is("a"));
+        assertThat(other.receive(), is("b"));
+    }
+
+    @Test
+    public void testCloseWithExceptionIsThrownAfterDrain() throws Exception {
+        final BroadcastChannel<String> ch = Channels.newBroadcastChannel(4);
+        final ReceivePort<String> c = ch.newConsumer();
+        ch.send("a");
+        ch.close(new RuntimeException("foo"));
+        ch.send("b");
+
+        assertFalse(c.isClosed());
+        assertThat(c.receive(), is("a"));
+        try {
+            c.receive();
+            fail();
+        } catch (ProducerException e) {
+            assertThat(e.getCause().getMessage(), equalTo("foo"));
+        }
+        assertTrue(c.isClosed());
+    }
+
+    @Test
+    public void testSelectOnConsumers() throws Exception {
+        final BroadcastChannel<String> ch1 = Channels.newBroadcastChannel(4);
+        final BroadcastChannel<String> ch2 = Channels.newBroadcastChannel(4);
+        final ReceivePort<String> c1 = ch1.newConsumer();
+        final ReceivePort<String> c2 = ch2.newConsumer();
+
+        final Fiber<String> fib = new Fiber<String>(scheduler, new SuspendableCallable<String>() {
+            @Override
+            public String run() throws SuspendExecution, InterruptedException {
+                final SelectAction<String> sa = Selector.select(Selector.receive(c1), Selector.receive(c2));
+                return sa.index() + sa.message();
+            }
+        }).start();
+
+        Thread.sleep(50);
+        ch2.send("x");
+        assertThat(fib.get(), equalTo("1x"));
+    }
+
+    @Test
+    public void testHandoffDoesNotLoseWakeups() throws Exception {
+        // every message is sent only once the consumer has received the previous one, so it is likely to find the consumer parking
+        final BroadcastChannel<Integer> ch = Channels.newBroadcastChannel(4);
+        final ReceivePort<Integer> c = ch.newConsumer();
+        final int n = 20_000;
+        final AtomicInteger received = new AtomicInteger();
+
+        final Fiber<Void> consumer = new Fiber<Void>(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                for (Integer m; (m = c.receive()) != null;) {
+                    assertThat(m, is(received.get()));
+                    received.incrementAndGet();
+                }
+            }
+        }).start();
+
+        for (int i = 0; i < n; i++) {
+            ch.send(i);
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (received.get() <= i) {
+                if (System.nanoTime() > deadline)
+                    fail("Message " + i + " was not received");
+                Thread.yield();
+            }
+        }
+        ch.close();
+        consumer.join(5, TimeUnit.SECONDS);
+    }
+}
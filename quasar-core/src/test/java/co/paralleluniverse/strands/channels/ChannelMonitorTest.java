@@ -0,0 +1,207 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.common.monitoring.Metrics;
+import co.paralleluniverse.common.monitoring.MonitorType;
+import co.paralleluniverse.common.test.TestUtil;
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.FiberForkJoinScheduler;
+import co.paralleluniverse.fibers.FiberScheduler;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Strand;
+import co.paralleluniverse.strands.SuspendableCallable;
+import co.paralleluniverse.strands.channels.Channels.OverflowPolicy;
+import co.paralleluniverse.strands.channels.ReceivePort.EOFException;
+import com.codahale.metrics.Histogram;
+import static com.codahale.metrics.MetricRegistry.name;
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+import org.junit.rules.TestRule;
+
+/**
+ *
+ * @author pron
+ */
+public class ChannelMonitorTest {
+    @Rule
+    public TestName name = new TestName();
+    @Rule
+    public TestRule watchman = TestUtil.WATCHMAN;
+
+    private FiberScheduler scheduler;
+
+    public ChannelMonitorTest() {
+        scheduler = new FiberForkJoinScheduler("test", 4, null, false);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testJMXMonitor() throws Exception {
+        final Channel<Integer> ch = Channels.monitor(Channels.<Integer>newChannel(4, OverflowPolicy.DROP), name.getMethodName(), MonitorType.JMX);
+        final MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName mbean = new ObjectName("co.paralleluniverse:type=Channels,name=" + name.getMethodName());
+        assertTrue(mbs.isRegistered(mbean));
+
+        for (int i = 0; i < 6; i++)
+            ch.send(i);
+        assertThat((Integer) mbs.getAttribute(mbean, "QueueLength"), is(4));
+        assertThat((Long) mbs.getAttribute(mbean, "SentMessages"), is(4L));
+        assertThat((Long) mbs.getAttribute(mbean, "Overflows"), is(2L));
+        assertThat((String) mbs.getAttribute(mbean, "OverflowPolicy"), is("DROP"));
+
+        for (int i = 0; i < 4; i++)
+            assertThat(ch.receive(), is(i));
+        assertThat((Integer) mbs.getAttribute(mbean, "QueueLength"), is(0));
+        assertThat((Long) mbs.getAttribute(mbean, "ReceivedMessages"), is(4L));
+
+        Channels.monitor(ch, name.getMethodName(), MonitorType.NONE);
+        assertFalse(mbs.isRegistered(mbean));
+        assertThat(((QueueChannel<Integer>) ch).getMonitor(), is(nullValue()));
+    }
+
+    @Test
+    public void testDisplacedMessagesAreOverflows() throws Exception {
+        final Channel<Integer> ch = Channels.monitor(Channels.<Integer>newChannel(4, OverflowPolicy.DISPLACE, true, true), name.getMethodName(), MonitorType.METRICS);
+        try {
+            ch.send(-1);
+            assertThat(ch.receive(), is(-1));
+            for (int i = 0; i < 10; i++)
+                ch.send(i);
+            assertThat(Metrics.meter(metric("sent")).getCount(), is(11L));
+            // the receiver is the one to find out that messages have been displaced
+            assertThat(Metrics.counter(metric("overflows")).getCount(), is(0L));
+            for (int i = 6; i < 10; i++)
+                assertThat(ch.receive(), is(i));
+            assertThat(Metrics.counter(metric("overflows")).getCount(), is(6L));
+        } finally {
+            Channels.monitor(ch, name.getMethodName(), MonitorType.NONE);
+        }
+        assertFalse(Metrics.registry().getNames().contains(metric("sent")));
+    }
+
+    @Test
+    public void testDisplacedBeforeMonitoringAreNotOverflows() throws Exception {
+        final Channel<Integer> ch = Channels.newChannel(4, OverflowPolicy.DISPLACE, true, true);
+        for (int i = 0; i < 10; i++)
+            ch.send(i);
+        assertThat(ch.receive(), is(6));
+        Channels.monitor(ch, name.getMethodName(), MonitorType.METRICS);
+        try {
+            for (int i = 7; i < 10; i++)
+                assertThat(ch.receive(), is(i));
+            assertThat(Metrics.counter(metric("overflows")).getCount(), is(0L));
+            for (int i = 10; i < 16; i++)
+                ch.send(i);
+            assertThat(ch.receive(), is(12));
+            assertThat(Metrics.counter(metric("overflows")).getCount(), is(2L));
+        } finally {
+            Channels.monitor(ch, name.getMethodName(), MonitorType.NONE);
+        }
+    }
+
+    @Test
+    public void testReceiverWait() throws Exception {
+        final Channel<Integer> ch = Channels.monitor(Channels.<Integer>newChannel(4), name.getMethodName(), MonitorType.METRICS);
+        try {
+            final Fiber<Integer> receiver = new Fiber<>(scheduler, new SuspendableCallable<Integer>() {
+                @Override
+                public Integer run() throws SuspendExecution, InterruptedException {
+                    return ch.receive();
+                }
+            }).start();
+            Thread.sleep(50);
+            ch.send(1);
+            assertThat(receiver.get(), is(1));
+
+            final Histogram wait = Metrics.histogram(metric("receiverWait"));
+            assertThat(wait.getCount(), is(1L));
+            assertTrue(wait.getSnapshot().getMax() >= 40_000_000L);
+            assertThat(Metrics.meter(metric("received")).getCount(), is(1L));
+        } finally {
+            Channels.monitor(ch, name.getMethodName(), MonitorType.NONE);
+        }
+    }
+
+    @Test
+    public void testBlockedSenderWait() throws Exception {
+        final Channel<Integer> ch = Channels.monitor(Channels.<Integer>newChannel(1, OverflowPolicy.BLOCK), name.getMethodName(), MonitorType.METRICS);
+        try {
+            ch.send(1);
+            final Fiber<Void> sender = new Fiber<Void>(scheduler, new SuspendableCallable<Void>() {
+                @Override
+                public Void run() throws SuspendExecution, InterruptedException {
+                    ch.send(2);
+                    return null;
+                }
+            }).start();
+            Thread.sleep(50);
+            assertThat(ch.receive(), is(1));
+            sender.join();
+            assertThat(ch.receive(), is(2));
+
+            final Histogram wait = Metrics.histogram(metric("senderWait"));
+            assertThat(wait.getCount(), is(1L));
+            assertTrue(wait.getSnapshot().getMax() >= 40_000_000L);
+            assertThat(Metrics.counter(metric("overflows")).getCount(), is(1L));
+            assertThat(Metrics.meter(metric("sent")).getCount(), is(2L));
+        } finally {
+            Channels.monitor(ch, name.getMethodName(), MonitorType.NONE);
+        }
+    }
+
+    @Test
+    public void testPrimitiveChannel() throws Exception {
+        final IntChannel ch = Channels.monitor(Channels.newIntChannel(4), name.getMethodName(), MonitorType.METRICS);
+        try {
+            final Fiber<Integer> receiver = new Fiber<>(scheduler, new SuspendableCallable<Integer>() {
+                @Override
+                public Integer run() throws SuspendExecution, InterruptedException {
+                    int sum = 0;
+                    try {
+                        for (int i = 0; i < 3; i++)
+                            sum += ch.receiveInt();
+                    } catch (EOFException e) {
+                        fail();
+                    }
+                    return sum;
+                }
+            }).start();
+            for (int i = 1; i <= 3; i++) {
+                ch.send(i);
+                Strand.sleep(5);
+            }
+            assertThat(receiver.get(), is(6));
+            assertThat(Metrics.meter(metric("sent")).getCount(), is(3L));
+            assertThat(Metrics.meter(metric("received")).getCount(), is(3L));
+        } finally {
+            Channels.monitor(ch, name.getMethodName(), MonitorType.NONE);
+        }
+    }
+
+    private String metric(String metric) {
+        return name("co.paralleluniverse", "channels", name.getMethodName(), metric);
+    }
+}
@@ -20,14 +20,18 @@ import co.paralleluniverse.fibers.Fiber;
 import co.paralleluniverse.fibers.FiberForkJoinScheduler;
 import co.paralleluniverse.fibers.FiberScheduler;
 import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Strand;
 import co.paralleluniverse.strands.SuspendableCallable;
 import co.paralleluniverse.strands.SuspendableRunnable;
 import co.paralleluniverse.strands.channels.Channels.OverflowPolicy;
 import co.paralleluniverse.strands.queues.QueueCapacityExceededException;
 import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import static org.hamcrest.CoreMatchers.*;
 import org.junit.After;
@@ -997,4 +1001,64 @@ public class ChannelTest {
 
         fib.join();
     }
+
+    @Test
+    public void testManyToManyDeliversEachMessageOnce() throws Exception {
+        assumeTrue(policy == OverflowPolicy.BLOCK && !singleConsumer);
+        final Channel<Integer> ch = newChannel();
+        final int senders = 6;
+        final int perSender = 2000;
+        final AtomicIntegerArray received = new AtomicIntegerArray(senders * perSender);
+
+        final List<Strand> strands = new ArrayList<>();
+        for (int i = 0; i < senders; i++) {
+            final int base = i * perSender;
+            final SuspendableRunnable sender = new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    for (int j = 0; j < perSender; j++)
+                        ch.send(base + j);
+                }
+            };
+            strands.add(i % 3 == 0 ? Strand.of(new Thread(Strand.toRunnable(sender))) : new Fiber(scheduler, sender));
+        }
+
+        final List<Strand> receivers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final int kind = i;
+            final SuspendableRunnable receiver = new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    for (;;) {
+                        final Integer m;
+                        if (kind == 1) { // timed
+                            m = ch.receive(1, TimeUnit.MILLISECONDS);
+                            if (m == null && !ch.isClosed())
+                                continue;
+                        } else if (kind == 2) // select
+                            m = Selector.select(Selector.receive(ch)).message();
+                        else
+                            m = ch.receive();
+                        if (m == null)
+                            break;
+                        received.incrementAndGet(m);
+                    }
+                }
+            };
+            receivers.add(i == 3 ? Strand.of(new Thread(Strand.toRunnable(receiver))) : new Fiber(scheduler, receiver));
+        }
+
+        for (Strand s : receivers)
+            s.start();
+        for (Strand s : strands)
+            s.start();
+        for (Strand s : strands)
+            s.join();
+        ch.close();
+        for (Strand s : receivers)
+            s.join(10, TimeUnit.SECONDS);
+
+        for (int i = 0; i < received.length(); i++)
+            assertThat("message " + i, received.get(i), is(1));
+    }
 }
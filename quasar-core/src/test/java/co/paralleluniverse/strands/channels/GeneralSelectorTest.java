@@ -164,6 +164,31 @@ public class GeneralSelectorTest {
         return chan;
     }
 
+    <Message> Channel<Message> reusableFanin(final ReceivePort<Message>[] ins) {
+        final Channel<Message> chan = newChannel();
+
+        spawn(new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                List<SelectAction<Message>> as = new ArrayList<>(ins.length);
+                for (ReceivePort<Message> c : ins)
+                    as.add(receive(c));
+                final Selector<Message> selector = newSelector(as);
+                for (;;) {
+                    SelectAction<Message> sa = selector.select();
+
+                    Message m = sa.message();
+                    if (m == null) {
+                        chan.close();
+                        break;
+                    } else
+                        chan.send(m);
+                }
+            }
+        });
+        return chan;
+    }
+
     @Test
     public void testFans1() throws Exception {
         int nchans = 3;
@@ -213,4 +238,54 @@ public class GeneralSelectorTest {
         assertThat(in.receive(), nullValue());
         assertThat(in.isClosed(), is(true));
     }
+
+    @Test
+    public void testReusableSelectorFans() throws Exception {
+        int nchans = 3;
+        int n = 200;
+
+        final Channel<Integer> out = newChannel();
+        final Channel<Integer> in = reusableFanin(fanout(out, nchans));
+
+        for (int i = 0; i < n; i++) {
+            out.send(i);
+            Integer x = in.receive();
+            assertThat(x, is(i));
+        }
+        out.close();
+        assertThat(in.receive(), nullValue());
+        assertThat(in.isClosed(), is(true));
+    }
+
+    @Test
+    public void testReusableSelectorTrySelect() throws Exception {
+        final Channel<Integer> ch1 = newChannel();
+        final Channel<Integer> ch2 = newChannel();
+        assumeThat(mailboxSize, not(0));
+
+        Fiber<Void> fib = new Fiber<Void>("fiber", scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                final Selector<Integer> selector = newSelector(true, receive(ch1), receive(ch2));
+                assertThat(selector.trySelect(), nullValue());
+
+                ch2.send(2);
+                SelectAction<Integer> sa = selector.trySelect();
+                assertThat(sa.index(), is(1));
+                assertThat(sa.message(), is(2));
+
+                ch1.send(1);
+                ch2.send(3);
+                sa = selector.select();
+                assertThat(sa.index(), is(0));
+                assertThat(sa.message(), is(1));
+                sa = selector.select(10, TimeUnit.MILLISECONDS);
+                assertThat(sa.index(), is(1));
+                assertThat(sa.message(), is(3));
+
+                assertThat(selector.select(10, TimeUnit.MILLISECONDS), nullValue());
+            }
+        }).start();
+        fib.join();
+    }
 }
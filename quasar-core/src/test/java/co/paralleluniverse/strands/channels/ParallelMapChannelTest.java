@@ -0,0 +1,169 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.common.test.TestUtil;
+import co.paralleluniverse.fibers.FiberForkJoinScheduler;
+import co.paralleluniverse.fibers.FiberScheduler;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Strand;
+import co.paralleluniverse.strands.SuspendableFunction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+/**
+ *
+ * @author pron
+ */
+public class ParallelMapChannelTest {
+    @Rule
+    public TestRule watchman = TestUtil.WATCHMAN;
+
+    private final FiberScheduler scheduler = new FiberForkJoinScheduler("test", 4, null, false);
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    private static Channel<Integer> filledChannel(int n) throws Exception {
+        final Channel<Integer> ch = Channels.newChannel(-1);
+        for (int i = 0; i < n; i++)
+            ch.send(i);
+        ch.close();
+        return ch;
+    }
+
+    private final SuspendableFunction<Integer, Integer> slowSquare = new SuspendableFunction<Integer, Integer>() {
+        @Override
+        public Integer apply(Integer x) throws SuspendExecution, InterruptedException {
+            final int a = active.incrementAndGet();
+            for (int m; (m = maxActive.get()) < a && !maxActive.compareAndSet(m, a);)
+                ;
+            try {
+                Strand.sleep(ThreadLocalRandom.current().nextInt(3)); // blocks the mapping fiber, not its thread
+            } finally {
+                active.decrementAndGet();
+            }
+            return x * x;
+        }
+    };
+
+    private static List<Integer> receiveAll(ReceivePort<Integer> p) throws Exception {
+        final List<Integer> list = new ArrayList<>();
+        Integer m;
+        while ((m = p.receive()) != null)
+            list.add(m);
+        return list;
+    }
+
+    private static List<Integer> squares(int n) {
+        final List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+            list.add(i * i);
+        return list;
+    }
+
+    @Test
+    public void testOrdered() throws Exception {
+        final ReceivePort<Integer> p = Channels.transform(filledChannel(100)).parallelMap(scheduler, 4, true, slowSquare);
+
+        assertThat(receiveAll(p), equalTo(squares(100)));
+        assertTrue(p.isClosed());
+        assertTrue(maxActive.get() <= 4);
+    }
+
+    @Test
+    public void testUnordered() throws Exception {
+        final ReceivePort<Integer> p = Channels.parallelMap(scheduler, filledChannel(100), 3, false, slowSquare);
+
+        final List<Integer> list = receiveAll(p);
+        Collections.sort(list);
+        assertThat(list, equalTo(squares(100)));
+        assertTrue(maxActive.get() <= 3);
+    }
+
+    @Test
+    public void testDropAndFailure() throws Exception {
+        final ReceivePort<Integer> p = Channels.parallelMap(scheduler, filledChannel(10), 4, true, new SuspendableFunction<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer x) throws SuspendExecution, InterruptedException {
+                if (x == 6)
+                    throw new IllegalStateException("six");
+                return x % 2 == 0 ? x : null;
+            }
+        });
+
+        assertThat(p.receive(), is(0));
+        assertThat(p.receive(), is(2));
+        assertThat(p.receive(), is(4));
+        try {
+            p.receive();
+            fail();
+        } catch (ProducerException e) {
+            assertThat(e.getCause().getMessage(), is("six"));
+        }
+        assertTrue(p.isClosed());
+    }
+
+    @Test
+    public void testSourceClosedWithException() throws Exception {
+        final Channel<Integer> ch = Channels.newChannel(-1);
+        ch.send(1);
+        ch.send(2);
+        ch.close(new IllegalStateException("boom"));
+        final ReceivePort<Integer> p = Channels.parallelMap(scheduler, ch, 2, true, slowSquare);
+
+        assertThat(p.receive(), is(1));
+        assertThat(p.receive(), is(4));
+        try {
+            p.receive();
+            fail();
+        } catch (ProducerException e) {
+            assertThat(e.getCause().getMessage(), is("boom"));
+        }
+    }
+
+    @Test
+    public void testFailureClosesSource() throws Exception {
+        final Channel<Integer> ch = Channels.newChannel(-1);
+        ch.send(1);
+        final ReceivePort<Integer> p = Channels.parallelMap(scheduler, ch, 2, true, new SuspendableFunction<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer x) throws SuspendExecution, InterruptedException {
+                throw new IllegalStateException("fail");
+            }
+        });
+
+        try {
+            p.receive();
+            fail();
+        } catch (ProducerException e) {
+            assertThat(e.getCause().getMessage(), is("fail"));
+        }
+        assertTrue(ch.isClosed());
+        assertTrue(p.isClosed());
+    }
+}
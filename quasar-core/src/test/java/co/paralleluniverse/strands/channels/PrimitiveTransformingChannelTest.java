@@ -0,0 +1,147 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.common.test.TestUtil;
+import co.paralleluniverse.strands.channels.ReceivePort.EOFException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+/**
+ *
+ * @author pron
+ */
+public class PrimitiveTransformingChannelTest {
+    @Rule
+    public TestRule watchman = TestUtil.WATCHMAN;
+
+    private static IntChannel intChannel(int... ms) throws Exception {
+        final IntChannel ch = Channels.newIntChannel(-1);
+        for (int m : ms)
+            ch.send(m);
+        ch.close();
+        return ch;
+    }
+
+    @Test
+    public void testIntFilterMapReduce() throws Exception {
+        final TransformingIntReceivePort p = Channels.transformInt(intChannel(1, 2, 3, 4, 5, 6))
+                .filter(x -> x % 2 == 0)
+                .map(x -> x * x)
+                .reduce((acc, x) -> acc + x, 0);
+
+        assertThat(p.receiveInt(), is(4));
+        assertThat(p.receiveInt(), is(20));
+        assertThat(p.receiveInt(), is(56));
+        try {
+            p.receiveInt();
+            fail();
+        } catch (EOFException e) {
+        }
+        assertTrue(p.isClosed());
+    }
+
+    @Test
+    public void testIntReduceEmpty() throws Exception {
+        final TransformingIntReceivePort p = Channels.transformInt(intChannel()).reduce((acc, x) -> acc + x, 7);
+
+        assertThat(p.receive(), is(7));
+        assertThat(p.receive(), is(nullValue()));
+        assertTrue(p.isClosed());
+    }
+
+    @Test
+    public void testIntFilterHasMessage() throws Exception {
+        final IntChannel ch = Channels.newIntChannel(-1);
+        final TransformingIntReceivePort p = Channels.transformInt(ch).filter(x -> x > 10);
+
+        ch.send(1);
+        ch.send(2);
+        assertFalse(p.hasMessage());
+        assertThat(p.tryReceive(), is(nullValue()));
+        ch.send(11);
+        ch.send(3);
+        assertTrue(p.hasMessage());
+        assertThat(p.tryReceive(), is(11));
+        try {
+            p.receiveInt(10, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (TimeoutException e) {
+        }
+        ch.send(12);
+        assertThat(p.receiveInt(10, TimeUnit.MILLISECONDS), is(12));
+    }
+
+    @Test
+    public void testLongZip() throws Exception {
+        final LongChannel c1 = Channels.newLongChannel(-1);
+        final LongChannel c2 = Channels.newLongChannel(-1);
+        for (long i = 1; i <= 3; i++) {
+            c1.send(i);
+            c2.send(i * 10);
+        }
+        c1.close();
+
+        final TransformingLongReceivePort p = Channels.transformLong(c1).zip(c2, (a, b) -> a + b);
+        assertThat(p.receiveLong(), is(11L));
+        assertThat(p.receiveLong(), is(22L));
+        assertThat(p.receiveLong(), is(33L));
+        assertThat(p.receive(), is(nullValue()));
+    }
+
+    @Test
+    public void testDoubleFlatMap() throws Exception {
+        final DoubleChannel ch = Channels.newDoubleChannel(-1);
+        ch.send(1.0);
+        ch.send(0.0);
+        ch.send(2.0);
+        ch.close();
+
+        final TransformingDoubleReceivePort p = Channels.transformDouble(ch).flatMap(x -> {
+            if (x == 0.0)
+                return null;
+            final DoubleChannel out = Channels.newDoubleChannel(-1);
+            try {
+                out.send(x);
+                out.send(-x);
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+            out.close();
+            return out;
+        });
+
+        assertThat(p.receiveDouble(), is(1.0));
+        assertThat(p.receiveDouble(), is(-1.0));
+        assertThat(p.tryReceive(), is(2.0));
+        assertThat(p.receiveDouble(), is(-2.0));
+        assertThat(p.receive(), is(nullValue()));
+        assertTrue(p.isClosed());
+    }
+
+    @Test
+    public void testTransformingPortIsEqualToChannel() throws Exception {
+        final IntChannel ch = Channels.newIntChannel(-1);
+        final TransformingIntReceivePort p = Channels.transformInt(ch).filter(x -> true).map(x -> x).reduce((a, x) -> x, 0);
+
+        assertTrue(p.equals(ch));
+        assertTrue(ch.equals(p));
+        assertThat(p.hashCode(), is(ch.hashCode()));
+    }
+}
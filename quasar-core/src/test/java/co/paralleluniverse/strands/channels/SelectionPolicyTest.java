@@ -0,0 +1,147 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ * 
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.common.test.TestUtil;
+import static co.paralleluniverse.strands.channels.Selector.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+/**
+ *
+ * @author pron
+ */
+public class SelectionPolicyTest {
+    @Rule
+    public TestRule watchman = TestUtil.WATCHMAN;
+
+    private static List<Channel<Integer>> filledChannels(int nchans, int nmessages) throws Exception {
+        final List<Channel<Integer>> chans = new ArrayList<>(nchans);
+        for (int i = 0; i < nchans; i++) {
+            final Channel<Integer> ch = Channels.newChannel(-1);
+            for (int j = 0; j < nmessages; j++)
+                ch.send(i);
+            chans.add(ch);
+        }
+        return chans;
+    }
+
+    private static int[] selectCounts(SelectionPolicy policy, List<Channel<Integer>> chans, int n) throws Exception {
+        final List<SelectAction<Integer>> actions = new ArrayList<>();
+        for (Channel<Integer> ch : chans)
+            actions.add(receive(ch));
+        final int[] counts = new int[chans.size()];
+        final Selector<Integer> selector = newSelector(policy, actions);
+        for (int i = 0; i < n; i++) {
+            final SelectAction<Integer> sa = selector.select();
+            assertThat(sa.message(), is(sa.index()));
+            counts[sa.index()]++;
+        }
+        return counts;
+    }
+
+    @Test
+    public void testRoundRobin() throws Exception {
+        final List<Channel<Integer>> chans = filledChannels(3, 10);
+        final Selector<Integer> selector = newSelector(SelectionPolicy.roundRobin(), receive(chans.get(0)), receive(chans.get(1)), receive(chans.get(2)));
+        for (int i = 0; i < 9; i++)
+            assertThat(selector.select().index(), is(i % 3));
+    }
+
+    @Test
+    public void testRoundRobinSkipsEmpty() throws Exception {
+        final List<Channel<Integer>> chans = filledChannels(3, 10);
+        while (chans.get(1).tryReceive() != null);
+        assertThat(selectCounts(SelectionPolicy.roundRobin(), chans, 10), equalTo(new int[]{5, 0, 5}));
+    }
+
+    @Test
+    public void testWeightedFair() throws Exception {
+        assertThat(selectCounts(SelectionPolicy.weightedFair(3, 1), filledChannels(2, 100), 40), equalTo(new int[]{30, 10}));
+        assertThat(selectCounts(SelectionPolicy.weightedFair(1, 2, 5), filledChannels(3, 100), 80), equalTo(new int[]{10, 20, 50}));
+    }
+
+    @Test
+    public void testWeightedFairNoIdleCredit() throws Exception {
+        final List<Channel<Integer>> chans = filledChannels(2, 100);
+        final Channel<Integer> idle = chans.get(1);
+        while (idle.tryReceive() != null);
+
+        final List<SelectAction<Integer>> actions = new ArrayList<>();
+        for (Channel<Integer> ch : chans)
+            actions.add(receive(ch));
+        final Selector<Integer> selector = newSelector(SelectionPolicy.weightedFair(1, 1), actions);
+        for (int i = 0; i < 20; i++)
+            assertThat(selector.select().index(), is(0));
+        for (int i = 0; i < 10; i++)
+            idle.send(1);
+        // the idle channel does not get to catch up on the 20 messages it has missed
+        final int[] counts = new int[2];
+        for (int i = 0; i < 10; i++)
+            counts[selector.select().index()]++;
+        assertThat(counts, equalTo(new int[]{5, 5}));
+    }
+
+    @Test
+    public void testDeficitRoundRobin() throws Exception {
+        final List<Channel<Integer>> chans = filledChannels(2, 100);
+        final Selector<Integer> selector = newSelector(SelectionPolicy.deficitRoundRobin(2, 1), receive(chans.get(0)), receive(chans.get(1)));
+        for (int i = 0; i < 30; i++)
+            assertThat(selector.select().index(), is(i % 3 < 2 ? 0 : 1));
+        assertThat(selectCounts(SelectionPolicy.deficitRoundRobin(1, 4, 2), filledChannels(3, 100), 70), equalTo(new int[]{10, 40, 20}));
+    }
+
+    @Test
+    public void testMixWeightedFair() throws Exception {
+        final List<Channel<Integer>> chans = filledChannels(2, 100);
+        final Mix<Integer> mix = new ReceivePortGroup<>(chans);
+        mix.setSelectionPolicy(SelectionPolicy.Type.WEIGHTED_FAIR);
+        mix.setState(new Mix.State(null, null, 3), chans.get(0));
+        assertThat(mix.getSelectionPolicy(), is(SelectionPolicy.Type.WEIGHTED_FAIR));
+        assertThat(mix.getState(chans.get(0)).get(chans.get(0)).getWeight(), is(3));
+
+        final int[] counts = new int[2];
+        for (int i = 0; i < 40; i++)
+            counts[mix.receive()]++;
+        assertThat(counts, equalTo(new int[]{30, 10}));
+    }
+
+    @Test
+    public void testDeficitRoundRobinNoActions() throws Exception {
+        final SelectionPolicy policy = SelectionPolicy.deficitRoundRobin(2, 1);
+        policy.order(new int[0]);
+        final int[] order = new int[2];
+        policy.order(order);
+        assertThat(order, equalTo(new int[]{0, 1}));
+    }
+
+    @Test
+    public void testMixDeficitRoundRobinAllMuted() throws Exception {
+        final List<Channel<Integer>> chans = filledChannels(2, 0);
+        final Mix<Integer> mix = new ReceivePortGroup<>(chans);
+        mix.setSelectionPolicy(SelectionPolicy.Type.DEFICIT_ROUND_ROBIN);
+        mix.setState(new Mix.State(Mix.Mode.MUTE));
+        assertThat(mix.receive(50, TimeUnit.MILLISECONDS), is(nullValue()));
+
+        mix.setState(new Mix.State(Mix.Mode.NORMAL));
+        chans.get(1).send(1);
+        assertThat(mix.receive(1, TimeUnit.SECONDS), is(1));
+    }
+}
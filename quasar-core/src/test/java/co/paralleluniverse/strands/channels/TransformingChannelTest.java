@@ -1363,4 +1363,57 @@ public class TransformingChannelTest {
         List<Integer> list = fib.get();
         assertThat(list, equalTo(Arrays.asList(new Integer[]{1, 2, 3, 4, 5})));
     }
+
+    @Test
+    public void testFusedMapFilterChain() throws Exception {
+        final Channel<Integer> ch = newChannel();
+
+        Fiber<List<Integer>> fib = new Fiber<List<Integer>>("fiber", scheduler, new SuspendableCallable() {
+            @Override
+            public List<Integer> run() throws SuspendExecution, InterruptedException {
+                final TransformingReceivePort<Integer> t = Channels.transform(ch);
+                final TransformingReceivePort<String> ch1 = t
+                        .map(new Function<Integer, Integer>() {
+                            @Override
+                            public Integer apply(Integer input) {
+                                return input * 10;
+                            }
+                        })
+                        .filter(new Predicate<Integer>() {
+                            @Override
+                            public boolean apply(Integer input) {
+                                return input != 30;
+                            }
+                        })
+                        .take(4)
+                        .map(new Function<Integer, String>() {
+                            @Override
+                            public String apply(Integer input) {
+                                return input == 20 ? null : Integer.toString(input + 1); // null drops the message
+                            }
+                        });
+
+                assertTrue(ch1.equals(ch));
+                assertTrue(ch.equals(ch1));
+
+                final List<Integer> list = new ArrayList<>();
+                String m;
+                while ((m = ch1.receive()) != null)
+                    list.add(Integer.parseInt(m));
+                return list;
+            }
+        }).start();
+
+        Strand.sleep(50);
+        ch.send(1);
+        ch.send(2);
+        Strand.sleep(50);
+        ch.send(3);
+        ch.send(4);
+        ch.send(5);
+        ch.close();
+
+        List<Integer> list = fib.get();
+        assertThat(list, equalTo(Arrays.asList(new Integer[]{11, 41, 51})));
+    }
 }
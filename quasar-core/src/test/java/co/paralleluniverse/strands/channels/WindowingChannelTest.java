@@ -0,0 +1,174 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels;
+
+import co.paralleluniverse.common.test.TestUtil;
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Strand;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+/**
+ *
+ * @author pron
+ */
+public class WindowingChannelTest {
+    @Rule
+    public TestRule watchman = TestUtil.WATCHMAN;
+
+    /**
+     * Sends the given messages, sleeping {@code millis} where a message is {@code null}, and then closes the channel.
+     */
+    private static Fiber<Void> sendLater(final SendPort<Integer> ch, final long millis, final Integer... ms) {
+        return new Fiber<Void>(new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                for (Integer m : ms) {
+                    if (m == null)
+                        Strand.sleep(millis);
+                    else
+                        ch.send(m);
+                }
+                ch.close();
+            }
+        }).start();
+    }
+
+    @Test
+    public void testBufferByCount() throws Exception {
+        final Channel<Integer> ch = Channels.newChannel(-1);
+        for (int i = 0; i < 5; i++)
+            ch.send(i);
+        final ReceivePort<List<Integer>> p = Channels.transform(ch).buffer(3, 50, TimeUnit.MILLISECONDS);
+
+        assertThat(p.receive(), equalTo(Arrays.asList(0, 1, 2)));
+        final long start = System.nanoTime();
+        assertThat(p.receive(), equalTo(Arrays.asList(3, 4)));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40));
+        ch.close();
+        assertThat(p.receive(), is(nullValue()));
+    }
+
+    @Test
+    public void testBufferByTime() throws Exception {
+        final Channel<Integer> ch = Channels.newChannel(-1);
+        final ReceivePort<List<Integer>> p = Channels.buffer(ch, 10, 50, TimeUnit.MILLISECONDS);
+        final Fiber<Void> f = sendLater(ch, 200, 1, 2, null, 3);
+
+        assertThat(p.receive(), equalTo(Arrays.asList(1, 2)));
+        assertThat(p.receive(), equalTo(Arrays.asList(3)));
+        assertThat(p.receive(), is(nullValue()));
+        f.join();
+    }
+
+    @Test
+    public void testTumblingWindow() throws Exception {
+        final Channel<Integer> ch = Channels.newChannel(-1);
+        final ReceivePort<List<Integer>> p = Channels.transform(ch).window(100, TimeUnit.MILLISECONDS);
+        final Fiber<Void> f = sendLater(ch, 250, 1, 2, null, 3);
+
+        assertThat(p.receive(), equalTo(Arrays.asList(1, 2)));
+        assertThat(p.receive(), equalTo(Arrays.asList(3)));
+        assertThat(p.receive(), is(nullValue()));
+        f.join();
+    }
+
+    @Test
+    public void testTumblingWindowTimeout() throws Exception {
+        final Channel<Integer> ch = Channels.newChannel(-1);
+        final ReceivePort<List<Integer>> p = Channels.window(ch, 200, TimeUnit.MILLISECONDS);
+        ch.send(1);
+
+        assertThat(p.receive(20, TimeUnit.MILLISECONDS), is(nullValue()));
+        ch.send(2);
+        assertThat(p.tryReceive(), is(nullValue()));
+        assertThat(p.receive(), equalTo(Arrays.asList(1, 2)));
+    }
+
+    @Test
+    public void testSlidingWindow() throws Exception {
+        final Channel<Integer> ch = Channels.newChannel(-1);
+        final ReceivePort<List<Integer>> p = Channels.transform(ch).window(200, 100, TimeUnit.MILLISECONDS);
+        final Fiber<Void> f = sendLater(ch, 150, 1, null, 2, null, null);
+
+        // every message is in two consecutive windows
+        assertThat(p.receive(), equalTo(Arrays.asList(1)));
+        assertThat(p.receive(), equalTo(Arrays.asList(1, 2)));
+        assertThat(p.receive(), equalTo(Arrays.asList(2)));
+        assertThat(p.receive(), is(nullValue()));
+        f.join();
+    }
+
+    @Test
+    public void testDebounce() throws Exception {
+        final Channel<Integer> ch = Channels.newChannel(-1);
+        final ReceivePort<Integer> p = Channels.transform(ch).debounce(100, TimeUnit.MILLISECONDS);
+        final Fiber<Void> f = sendLater(ch, 200, 1, 2, 3, null, 4, 5);
+
+        assertThat(p.receive(), is(3));
+        assertThat(p.receive(), is(5)); // the last message is received when the channel closes
+        assertThat(p.receive(), is(nullValue()));
+        f.join();
+    }
+
+    @Test
+    public void testThrottle() throws Exception {
+        final Channel<Integer> ch = Channels.newChannel(-1);
+        final ReceivePort<Integer> p = Channels.transform(ch).throttle(100, TimeUnit.MILLISECONDS);
+        final Fiber<Void> f = sendLater(ch, 150, 1, 2, 3, null, 4, 5);
+
+        assertThat(p.receive(), is(1));
+        assertThat(p.receive(), is(4));
+        assertThat(p.receive(), is(nullValue()));
+        f.join();
+    }
+
+    @Test
+    public void testBufferSend() throws Exception {
+        final Channel<List<Integer>> out = Channels.newChannel(-1);
+        final SendPort<Integer> p = Channels.bufferSend(Channels.<Integer>newChannel(-1), out, 2, 50, TimeUnit.MILLISECONDS);
+        for (int i = 1; i <= 5; i++)
+            p.send(i);
+
+        assertThat(out.receive(), equalTo(Arrays.asList(1, 2)));
+        assertThat(out.receive(), equalTo(Arrays.asList(3, 4)));
+        assertThat(out.receive(), equalTo(Arrays.asList(5)));
+        p.close();
+        assertThat(out.receive(), is(nullValue()));
+    }
+
+    @Test
+    public void testDebounceAndThrottleSend() throws Exception {
+        final Channel<Integer> out1 = Channels.newChannel(-1);
+        final SendPort<Integer> p1 = Channels.transformSend(out1).debounce(Channels.<Integer>newChannel(-1), 50, TimeUnit.MILLISECONDS);
+        final Channel<Integer> out2 = Channels.newChannel(-1);
+        final SendPort<Integer> p2 = Channels.transformSend(out2).throttle(1, TimeUnit.HOURS);
+        for (int i = 1; i <= 3; i++) {
+            p1.send(i);
+            p2.send(i);
+        }
+
+        assertThat(out1.receive(), is(3));
+        assertThat(out2.tryReceive(), is(1));
+        assertThat(out2.tryReceive(), is(nullValue()));
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.concurrent;
+
+import co.paralleluniverse.common.test.TestUtil;
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.FiberForkJoinScheduler;
+import co.paralleluniverse.fibers.FiberScheduler;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Strand;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+/**
+ *
+ * @author pron
+ */
+public class AbstractQueuedSynchronizerTest {
+    @Rule
+    public TestRule watchman = TestUtil.WATCHMAN;
+
+    private final FiberScheduler scheduler;
+
+    public AbstractQueuedSynchronizerTest() {
+        scheduler = new FiberForkJoinScheduler("test", 4, null, false);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testContendedLock() throws Exception {
+        final ReentrantLock lock = new ReentrantLock();
+        final int[] counter = new int[1];
+        final AtomicInteger inside = new AtomicInteger();
+        final int n = 4000;
+
+        final SuspendableRunnable task = new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                for (int i = 0; i < n; i++) {
+                    lock.lock();
+                    try {
+                        assertThat(inside.incrementAndGet(), is(1));
+                        counter[0]++;
+                        if (i % 100 == 0)
+                            Strand.sleep(0, 1000); // occasionally park while holding the lock
+                        inside.decrementAndGet();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+        };
+        final List<Strand> strands = new ArrayList<>();
+        for (int i = 0; i < 16; i++)
+            strands.add(new Fiber<Void>(scheduler, task).start());
+        for (int i = 0; i < 2; i++)
+            strands.add(Strand.of(new Thread(Strand.toRunnable(task))).start());
+        for (Strand s : strands)
+            s.join();
+
+        assertThat(counter[0], is(18 * n));
+    }
+
+    @Test
+    public void testTryLockWhileOwnerBlocked() throws Exception {
+        final ReentrantLock lock = new ReentrantLock();
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Fiber<Void> owner = new Fiber<Void>(scheduler, new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                lock.lock();
+                try {
+                    locked.countDown();
+                    release.await();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }).start();
+        locked.await();
+
+        final Fiber<Boolean> waiter = new Fiber<Boolean>(scheduler, () -> lock.tryLock(50, TimeUnit.MILLISECONDS)).start();
+        assertThat(waiter.get(), is(false));
+
+        final Fiber<Boolean> waiter2 = new Fiber<Boolean>(scheduler, () -> {
+            final boolean res = lock.tryLock(5, TimeUnit.SECONDS);
+            if (res)
+                lock.unlock();
+            return res;
+        }).start();
+        Thread.sleep(20);
+        release.countDown();
+        assertThat(waiter2.get(), is(true));
+        owner.join();
+    }
+
+    @Test
+    public void testContendedSemaphore() throws Exception {
+        final Semaphore sem = new Semaphore(3);
+        final AtomicInteger inside = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+        final List<Fiber<Void>> fibers = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            fibers.add(new Fiber<Void>(scheduler, new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    for (int i = 0; i < 500; i++) {
+                        sem.acquire();
+                        try {
+                            final int in = inside.incrementAndGet();
+                            for (int m; (m = max.get()) < in && !max.compareAndSet(m, in);)
+                                ;
+                            if (i % 50 == 0)
+                                Strand.sleep(0, 1000);
+                            inside.decrementAndGet();
+                        } finally {
+                            sem.release();
+                        }
+                    }
+                }
+            }).start());
+        }
+        for (Fiber<Void> f : fibers)
+            f.join();
+
+        assertThat(max.get() <= 3, is(true));
+        assertThat(sem.availablePermits(), is(3));
+    }
+}
@@ -24,6 +24,7 @@ import co.paralleluniverse.strands.SuspendableRunnable;
 import co.paralleluniverse.strands.channels.Channel;
 import co.paralleluniverse.strands.channels.Channels;
 import static java.util.concurrent.TimeUnit.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import org.junit.After;
 import org.junit.Before;
@@ -226,8 +227,6 @@ public class VarTest {
         a.set(1);
         assertThat(ch.receive(50, MILLISECONDS), is(3));
 
-        assertThat(ch.receive(), is(3));
-
         assertThat(ch.receive(50, MILLISECONDS), is(nullValue()));
 
         a.set(2);
@@ -241,4 +240,122 @@ public class VarTest {
         a.set(4);
         assertThat(ch.receive(50, MILLISECONDS), is(7));
     }
+
+    @Test
+    public void testRecomputeOnlyOnInputChange() throws Exception {
+        final Var<Integer> a = new Var<>();
+        final Var<Integer> b = new Var<>();
+        final AtomicInteger runs = new AtomicInteger();
+
+        a.set(0);
+        b.set(1);
+        final Var<Integer> var = new Var<Integer>(new SuspendableCallable<Integer>() {
+            @Override
+            public Integer run() throws SuspendExecution, InterruptedException {
+                runs.incrementAndGet();
+                final int x = a.get();
+                return x > 0 ? x + b.get() : x; // b is an input only while a > 0
+            }
+        });
+
+        assertThat(var.get(), is(0));
+        Thread.sleep(50);
+        assertThat(runs.get(), is(1));
+
+        b.set(2);
+        Thread.sleep(50);
+        assertThat(runs.get(), is(1));
+
+        a.set(3);
+        assertThat(var.getNext(), is(5));
+        b.set(4);
+        assertThat(var.getNext(), is(7));
+        Thread.sleep(50);
+        assertThat(runs.get(), is(3));
+
+        a.set(-1);
+        assertThat(var.getNext(), is(-1));
+        b.set(5);
+        Thread.sleep(50);
+        assertThat(runs.get(), is(4));
+        assertThat(var.get(), is(-1));
+    }
+
+    @Test
+    public void testDiamondIsGlitchFree() throws Exception {
+        final Var<Integer> a = new Var<>();
+        a.set(0);
+        final Var<Integer> b = new Var<Integer>(new SuspendableCallable<Integer>() {
+            @Override
+            public Integer run() throws SuspendExecution, InterruptedException {
+                return a.get() * 2;
+            }
+        });
+        final Var<Integer> c = new Var<Integer>(new SuspendableCallable<Integer>() {
+            @Override
+            public Integer run() throws SuspendExecution, InterruptedException {
+                return a.get() + 1;
+            }
+        });
+        // the function may see a glitch, but its result must then be discarded
+        final Var<Integer> d = new Var<Integer>(300, new SuspendableCallable<Integer>() {
+            @Override
+            public Integer run() throws SuspendExecution, InterruptedException {
+                final int x = b.get();
+                final int y = c.get();
+                return x == 2 * (y - 1) ? y - 1 : -1;
+            }
+        });
+
+        for (int i = 1; i <= 200; i++)
+            a.set(i);
+
+        assertPublishedUpTo(d, 200);
+    }
+
+    @Test
+    public void testBatchIsGlitchFree() throws Exception {
+        final Var<Integer> x = new Var<>();
+        final Var<Integer> y = new Var<>();
+        Var.batch().set(x, 0).set(y, 0).commit();
+
+        final Var<Integer> sum = new Var<Integer>(new SuspendableCallable<Integer>() {
+            @Override
+            public Integer run() throws SuspendExecution, InterruptedException {
+                return x.get() + y.get();
+            }
+        });
+        final Var<Integer> last = new Var<Integer>(300, new SuspendableCallable<Integer>() {
+            @Override
+            public Integer run() throws SuspendExecution, InterruptedException {
+                final int s = sum.get();
+                final int v = x.get();
+                return s == 0 ? v : -1;
+            }
+        });
+
+        for (int i = 1; i <= 200; i++)
+            Var.batch().set(x, i).set(y, -i).commit();
+
+        assertPublishedUpTo(last, 200);
+        assertThat(sum.get(), is(0));
+    }
+
+    /**
+     * Reads all of the values published by {@code var} (which must keep enough history), until {@code last}, and verifies that
+     * they are non-negative and non-decreasing.
+     */
+    private static void assertPublishedUpTo(Var<Integer> var, int last) throws Exception {
+        int prev = 0;
+        for (int i = 0;; i++) {
+            final int v = var.get();
+            assertThat(v, greaterOrEqual(prev));
+            if (v == last)
+                break;
+            assertTrue(i < 1000);
+            if (v == prev)
+                Thread.sleep(10);
+            prev = v;
+        }
+    }
 }
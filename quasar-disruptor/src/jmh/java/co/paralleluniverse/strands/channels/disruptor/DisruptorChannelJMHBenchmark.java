@@ -0,0 +1,109 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels.disruptor;
+
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SuspendableCallable;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import co.paralleluniverse.strands.channels.Channel;
+import co.paralleluniverse.strands.channels.Channels;
+import co.paralleluniverse.strands.channels.ReceivePort;
+import co.paralleluniverse.strands.channels.SendPort;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * A fiber producer streaming messages to fiber consumers over a {@link DisruptorChannel}, compared with a
+ * {@link Channels#newChannel(int, Channels.OverflowPolicy) blocking queue channel} of the same capacity.
+ * Each operation is one message delivered to every consumer.
+ *
+ * @author pron
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DisruptorChannelJMHBenchmark {
+    private static final int MESSAGES = 100_000;
+    private static final Integer MESSAGE = 777;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(DisruptorChannelJMHBenchmark.class.getName() + ".*")
+                .forks(1)
+                .warmupTime(TimeValue.seconds(5))
+                .warmupIterations(3)
+                .measurementTime(TimeValue.seconds(5))
+                .measurementIterations(5)
+                .addProfiler(GCProfiler.class) // report allocation rate
+                .build()).run();
+    }
+
+    @Param({"16", "1024"})
+    public int bufferSize;
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long queueChannel() throws Exception {
+        final Channel<Integer> ch = Channels.newChannel(bufferSize, Channels.OverflowPolicy.BLOCK, true, true);
+        return run(ch, ch);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long disruptorChannel() throws Exception {
+        final DisruptorChannel<Integer> ch = new DisruptorChannel<>(bufferSize, true);
+        return run(ch, ch.newConsumer());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long disruptorChannelTwoConsumers() throws Exception {
+        final DisruptorChannel<Integer> ch = new DisruptorChannel<>(bufferSize, true);
+        return run(ch, ch.newConsumer(), ch.newConsumer());
+    }
+
+    private static long run(final SendPort<Integer> ch, ReceivePort<Integer>... consumers) throws Exception {
+        final Fiber<Long>[] fs = new Fiber[consumers.length];
+        for (int i = 0; i < consumers.length; i++) {
+            final ReceivePort<Integer> c = consumers[i];
+            fs[i] = new Fiber<Long>(new SuspendableCallable<Long>() {
+                @Override
+                public Long run() throws SuspendExecution, InterruptedException {
+                    long sum = 0;
+                    for (Integer m; (m = c.receive()) != null;)
+                        sum += m;
+                    return sum;
+                }
+            }).start();
+        }
+        new Fiber<Void>(new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                for (int i = 0; i < MESSAGES; i++)
+                    ch.send(MESSAGE);
+                ch.close();
+            }
+        }).start().join();
+
+        long sum = 0;
+        for (Fiber<Long> f : fs)
+            sum += f.get();
+        return sum;
+    }
+}
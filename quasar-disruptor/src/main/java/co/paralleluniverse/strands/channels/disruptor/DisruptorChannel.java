@@ -0,0 +1,256 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels.disruptor;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Timeout;
+import co.paralleluniverse.strands.channels.ProducerException;
+import co.paralleluniverse.strands.channels.ReceivePort;
+import co.paralleluniverse.strands.channels.SelectAction;
+import co.paralleluniverse.strands.channels.SelectActionImpl;
+import co.paralleluniverse.strands.channels.Selectable;
+import co.paralleluniverse.strands.channels.SendPort;
+import com.lmax.disruptor.EventFactory;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.dsl.ProducerType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded channel backed by a disruptor {@link RingBuffer}, every message of which is received by all of the
+ * {@link #newConsumer(ReceivePort[]) consumers} created for it.
+ * <p>
+ * Senders block (without holding their thread, if they are fibers) while the slowest consumer lags a full buffer behind, and so no
+ * message is lost once a consumer has been created; messages sent while the channel has no consumers are discarded.
+ * A consumer may be made to depend on other consumers of the same channel, in which case it receives a message only after they all
+ * have, forming a processing pipeline over a single buffer.</p>
+ * <p>
+ * Both the channel and its consumers are {@link Selectable selectable}.
+ * The channel may be used by many senders unless it has been created for a single producer; every consumer must only be used by
+ * a single strand.</p>
+ *
+ * @author pron
+ */
+public class DisruptorChannel<Message> implements SendPort<Message>, Selectable<Message> {
+    private final RingBuffer<Slot> buffer;
+    private final StrandBlockingWaitStrategy waitStrategy = new StrandBlockingWaitStrategy();
+    private volatile boolean sendClosed;
+    private Throwable closeException;
+
+    /**
+     * Creates a new channel.
+     *
+     * @param bufferSize     the number of messages the channel can hold; rounded up to a power of two.
+     * @param singleProducer whether the channel will only be used by a single sending strand
+     */
+    public DisruptorChannel(int bufferSize, boolean singleProducer) {
+        if (bufferSize <= 0)
+            throw new IllegalArgumentException("bufferSize must be positive; was " + bufferSize);
+        this.buffer = RingBuffer.create(singleProducer ? ProducerType.SINGLE : ProducerType.MULTI, Slot.FACTORY,
+                nextPowerOfTwo(bufferSize), waitStrategy);
+    }
+
+    /**
+     * Creates a new consumer, which will receive all messages sent to the channel from now on.
+     *
+     * @param dependencies consumers of this channel that must receive a message before the new consumer can
+     * @return the new consumer
+     */
+    public ReceivePort<Message> newConsumer(ReceivePort<?>... dependencies) {
+        final Sequence[] sequences = new Sequence[dependencies.length];
+        for (int i = 0; i < dependencies.length; i++) {
+            if (!(dependencies[i] instanceof DisruptorChannel.Consumer) || ((DisruptorChannel.Consumer) dependencies[i]).channel() != this)
+                throw new IllegalArgumentException("Dependency " + dependencies[i] + " is not a consumer of this channel");
+            sequences[i] = ((DisruptorChannel.Consumer) dependencies[i]).getSequence();
+        }
+        return new Consumer(sequences);
+    }
+
+    public int capacity() {
+        return buffer.getBufferSize();
+    }
+
+    @Override
+    public void send(Message message) throws SuspendExecution, InterruptedException {
+        send0(message, false, 0L);
+    }
+
+    @Override
+    public boolean send(Message message, long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException {
+        return send0(message, true, unit.toNanos(timeout));
+    }
+
+    @Override
+    public boolean send(Message message, Timeout timeout) throws SuspendExecution, InterruptedException {
+        return send0(message, true, timeout.nanosLeft());
+    }
+
+    @Override
+    public boolean trySend(Message message) {
+        if (message == null)
+            throw new IllegalArgumentException("message is null");
+        if (sendClosed)
+            return true;
+        final long seq = claim();
+        if (seq < 0)
+            return false;
+        publish(seq, message);
+        return true;
+    }
+
+    private boolean send0(Message message, boolean timed, long nanos) throws SuspendExecution, InterruptedException {
+        if (message == null)
+            throw new IllegalArgumentException("message is null");
+        if (sendClosed)
+            return true;
+        long seq = claim();
+        if (seq < 0) {
+            final long deadline = timed ? System.nanoTime() + nanos : 0L;
+            final Object token = waitStrategy.register();
+            try {
+                for (int i = 0; (seq = claim()) < 0; i++) {
+                    if (sendClosed)
+                        return true;
+                    if (timed) {
+                        if (nanos <= 0)
+                            return false;
+                        waitStrategy.await(i, nanos, TimeUnit.NANOSECONDS);
+                        nanos = deadline - System.nanoTime();
+                    } else
+                        waitStrategy.await(i);
+                }
+            } finally {
+                waitStrategy.unregister(token);
+            }
+        }
+        publish(seq, message);
+        return true;
+    }
+
+    private long claim() {
+        try {
+            return buffer.tryNext();
+        } catch (InsufficientCapacityException e) {
+            return -1L;
+        }
+    }
+
+    private void publish(long seq, Message message) {
+        buffer.get(seq).message = message;
+        buffer.publish(seq); // signals the wait strategy
+    }
+
+    @Override
+    public void close() {
+        if (!sendClosed) {
+            sendClosed = true;
+            waitStrategy.signalAllWhenBlocking();
+        }
+    }
+
+    @Override
+    public void close(Throwable t) {
+        if (!sendClosed) // possible race here, but it's OK – we just let one of the concurrent exceptions through
+            closeException = t;
+        close();
+    }
+
+    @Override
+    public Object register(SelectAction<Message> action) {
+        if (!((SelectActionImpl<Message>) action).isData())
+            throw new UnsupportedOperationException("Receive is not supported by " + this + "; use a consumer");
+        return new SelectRegistration<Message>((SelectActionImpl<Message>) action, waitStrategy.register());
+    }
+
+    @Override
+    public boolean tryNow(Object token) {
+        final SelectActionImpl<Message> action = ((SelectRegistration<Message>) token).action;
+        if (!sendClosed && !buffer.hasAvailableCapacity(1))
+            return false;
+        if (!action.lease())
+            return false;
+        if (!sendClosed) {
+            // a sequence cannot be given back once claimed, so we claim only after we've leased
+            final long seq = claim();
+            if (seq < 0) {
+                action.returnLease();
+                return false;
+            }
+            publish(seq, action.message());
+        }
+        action.setItem(null);
+        action.won();
+        return true;
+    }
+
+    @Override
+    public void unregister(Object token) {
+        if (token == null)
+            return;
+        waitStrategy.unregister(((SelectRegistration<?>) token).syncToken);
+    }
+
+    @Override
+    public String toString() {
+        return "DisruptorChannel{" + buffer + '}';
+    }
+
+    private static int nextPowerOfTwo(int v) {
+        return 1 << (32 - Integer.numberOfLeadingZeros(v - 1));
+    }
+
+    private final class Consumer extends RingBufferReceivePort<Slot, Message> {
+        Consumer(Sequence[] dependencies) {
+            super(DisruptorChannel.this.buffer, DisruptorChannel.this.waitStrategy, dependencies, false);
+        }
+
+        DisruptorChannel<Message> channel() {
+            return DisruptorChannel.this;
+        }
+
+        @Override
+        Message message(Slot slot) {
+            return (Message) slot.message;
+        }
+
+        @Override
+        boolean isSendClosed() {
+            return sendClosed;
+        }
+
+        @Override
+        Message closeValue() {
+            if (closeException != null)
+                throw new ProducerException(closeException);
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return "DisruptorChannel.Consumer{" + "channel: " + DisruptorChannel.this + ", sequence: " + getSequence() + '}';
+        }
+    }
+
+    static final class Slot {
+        static final EventFactory<Slot> FACTORY = new EventFactory<Slot>() {
+            @Override
+            public Slot newInstance() {
+                return new Slot();
+            }
+        };
+
+        Object message;
+    }
+}
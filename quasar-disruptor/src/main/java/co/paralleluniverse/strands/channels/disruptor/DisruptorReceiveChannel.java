@@ -13,160 +13,38 @@
  */
 package co.paralleluniverse.strands.channels.disruptor;
 
-import co.paralleluniverse.fibers.SuspendExecution;
-import co.paralleluniverse.strands.Timeout;
-import co.paralleluniverse.strands.channels.ReceivePort;
-import com.lmax.disruptor.AbstractSequencer;
-import com.lmax.disruptor.AlertException;
 import com.lmax.disruptor.RingBuffer;
 import com.lmax.disruptor.Sequence;
-import com.lmax.disruptor.Sequencer;
-import com.lmax.disruptor.WaitStrategy;
-import java.lang.reflect.Field;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 
 /**
+ * A {@link co.paralleluniverse.strands.channels.ReceivePort ReceivePort} that receives the events published into a {@link RingBuffer}.
+ * The ring buffer must have been created with a {@link StrandBlockingWaitStrategy}, which must also be passed to this channel's constructor.
+ * <p>
+ * Every channel created for a ring buffer receives all events published after its creation, so several channels may consume the same
+ * ring buffer, each used by a single strand. A channel gates the ring buffer's producers, which cannot overwrite an event until it
+ * has been received by every channel; the event last received is not released until the next one is, so that it may be safely
+ * read by the receiver in the meantime. A channel stops gating the producers once it is closed.</p>
+ * <p>
+ * The channel is {@link co.paralleluniverse.strands.channels.Selectable selectable}.</p>
  *
+ * @see DisruptorChannel
  * @author pron
  */
-public class DisruptorReceiveChannel<Message> implements ReceivePort<Message> {
-    private final SequenceBarrier barrier;
-    private final RingBuffer<Message> buffer;
-    private final Sequence sequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
-    private long availableSequence = -1L;
-    private volatile boolean closed;
-
-    public DisruptorReceiveChannel(RingBuffer<Message> buffer, Sequence... dependentSequences) {
-        this.buffer = buffer;
-        final Sequencer sequencer = getSequencer(buffer);
-        final WaitStrategy waitStrategy = getWaitStrategy(sequencer);
-        final Sequence cursor = getCursor(sequencer);
-
-        if (!(waitStrategy instanceof StrandBlockingWaitStrategy))
-            throw new IllegalArgumentException("Channel can only be created from RingBuffer with StrandBlockingWaitStrategy");
-        this.barrier = new ProcessingSequenceBarrier(sequencer, waitStrategy, cursor, dependentSequences);
-        barrier.clearAlert();
-    }
-
-    @Override
-    public Message receive() throws SuspendExecution, InterruptedException {
-        if (closed)
-            return null;
-        long nextSequence = sequence.get() + 1L;
-        try {
-            while (nextSequence > availableSequence)
-                availableSequence = barrier.waitFor1(nextSequence);
-            Message message = buffer.get(nextSequence);
-            return message;
-        } catch (AlertException ex) {
-            return null;
-        }
+public class DisruptorReceiveChannel<Message> extends RingBufferReceivePort<Message, Message> {
+    /**
+     * Creates a channel receiving a ring buffer's events.
+     *
+     * @param buffer             the ring buffer
+     * @param waitStrategy       the wait strategy the ring buffer has been created with
+     * @param dependentSequences the sequences of the consumers (channels or event processors) that must process an event before it
+     *                           is received by this channel
+     */
+    public DisruptorReceiveChannel(RingBuffer<Message> buffer, StrandBlockingWaitStrategy waitStrategy, Sequence... dependentSequences) {
+        super(buffer, waitStrategy, dependentSequences, true);
     }
 
     @Override
-    public Message receive(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException {
-        if (unit == null)
-            return receive();
-        if (timeout <= 0)
-            return tryReceive();
-
-        if (closed)
-            return null;
-        try {
-            long nextSequence = sequence.get() + 1L;
-            if (nextSequence > availableSequence) {
-                final long start = System.nanoTime();
-                long left = unit.toNanos(timeout);
-                final long deadline = start + unit.toNanos(timeout);
-
-                while (nextSequence > availableSequence)
-                    availableSequence = barrier.waitFor1(nextSequence, left, TimeUnit.NANOSECONDS);
-                if (nextSequence > availableSequence) {
-                    left = deadline - System.nanoTime();
-                    if (left <= 0)
-                        return null;
-                }
-            }
-            Message message = buffer.get(nextSequence);
-            return message;
-        } catch (TimeoutException | AlertException e) {
-            return null;
-        }
-    }
-
-    @Override
-    public Message receive(Timeout timeout) throws SuspendExecution, InterruptedException {
-        return receive(timeout.nanosLeft(), TimeUnit.NANOSECONDS);
-    }
-
-    @Override
-    public Message tryReceive() {
-        if (closed)
-            return null;
-        long nextSequence = sequence.get() + 1L;
-        if (nextSequence > availableSequence)
-            return null;
-        return buffer.get(nextSequence);
-    }
-
-    private static Sequencer getSequencer(RingBuffer<?> buffer) {
-        try {
-            return (Sequencer) sequencerField.get(buffer);
-        } catch (IllegalArgumentException ex) {
-            throw new AssertionError(ex);
-        } catch (IllegalAccessException ex) {
-            throw new Error(ex);
-        }
-    }
-
-    private static Sequence getCursor(Sequencer sequencer) {
-        try {
-            return (Sequence) cursorField.get(sequencer);
-        } catch (IllegalArgumentException ex) {
-            throw new AssertionError(ex);
-        } catch (IllegalAccessException ex) {
-            throw new Error(ex);
-        }
-    }
-
-    private static WaitStrategy getWaitStrategy(Sequencer sequencer) {
-        try {
-            return (WaitStrategy) waitStrategyField.get(sequencer);
-        } catch (IllegalArgumentException ex) {
-            throw new AssertionError(ex);
-        } catch (IllegalAccessException ex) {
-            throw new Error(ex);
-        }
-    }
-
-    @Override
-    public void close() {
-        this.closed = true;
-    }
-
-    @Override
-    public boolean isClosed() {
-        return closed;
-    }
-    private static final Field sequencerField;
-    private static final Field cursorField;
-    private static final Field waitStrategyField;
-
-    static {
-        try {
-            sequencerField = RingBuffer.class.getSuperclass().getDeclaredField("sequencer");
-            sequencerField.setAccessible(true);
-
-            cursorField = AbstractSequencer.class.getDeclaredField("cursor");
-            cursorField.setAccessible(true);
-
-            waitStrategyField = AbstractSequencer.class.getDeclaredField("waitStrategy");
-            waitStrategyField.setAccessible(true);
-        } catch (NoSuchFieldException ex) {
-            throw new AssertionError(ex);
-        } catch (SecurityException ex) {
-            throw new Error(ex);
-        }
+    Message message(Message event) {
+        return event;
     }
 }
@@ -0,0 +1,215 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels.disruptor;
+
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.Timeout;
+import co.paralleluniverse.strands.channels.ReceivePort;
+import co.paralleluniverse.strands.channels.SelectAction;
+import co.paralleluniverse.strands.channels.SelectActionImpl;
+import co.paralleluniverse.strands.channels.Selectable;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single-strand consumer of a {@link RingBuffer} whose wait strategy is a {@link StrandBlockingWaitStrategy}.
+ * The consumer's {@link #getSequence() sequence} gates the ring buffer's producers from the moment the port is created until it
+ * is closed, and the consumer only reads events that have also been processed by all of its dependencies.
+ *
+ * @param <E>       the ring buffer's event type
+ * @param <Message> the type of the messages received
+ * @author pron
+ */
+abstract class RingBufferReceivePort<E, Message> implements ReceivePort<Message>, Selectable<Message> {
+    final RingBuffer<E> buffer;
+    final StrandBlockingWaitStrategy waitStrategy;
+    private final Sequence[] dependencies;
+    private final Sequence sequence = new Sequence(RingBuffer.INITIAL_CURSOR_VALUE);
+    private final boolean holdLast;
+    private long next;      // the next sequence to read
+    private long available; // the highest sequence known to be readable
+    private volatile boolean closed;
+
+    /**
+     * @param holdLast whether the event last received is to be kept from the producers until the next one is received (because the
+     *                 event object itself is handed to the receiver), or released as soon as it has been read.
+     */
+    RingBufferReceivePort(RingBuffer<E> buffer, StrandBlockingWaitStrategy waitStrategy, Sequence[] dependencies, boolean holdLast) {
+        this.buffer = buffer;
+        this.waitStrategy = waitStrategy;
+        this.dependencies = dependencies.clone();
+        this.holdLast = holdLast;
+        buffer.addGatingSequences(sequence); // sets the sequence to the ring buffer's cursor
+        this.available = sequence.get();
+        this.next = available + 1;
+    }
+
+    /**
+     * Extracts the message from the event.
+     */
+    abstract Message message(E event);
+
+    /**
+     * Whether no more events will be published to the ring buffer.
+     */
+    boolean isSendClosed() {
+        return false;
+    }
+
+    /**
+     * The value returned by a receive once the port has been closed.
+     */
+    Message closeValue() {
+        return null;
+    }
+
+    /**
+     * This port's sequence, which may be used as a dependency of other consumers.
+     */
+    public Sequence getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public Message receive() throws SuspendExecution, InterruptedException {
+        if (closed)
+            return null;
+        if (next > available && (available = awaitAvailable(next, false, 0L)) < next)
+            return closeValue();
+        return take();
+    }
+
+    @Override
+    public Message receive(long timeout, TimeUnit unit) throws SuspendExecution, InterruptedException {
+        if (unit == null)
+            return receive();
+        if (timeout <= 0)
+            return tryReceive();
+        if (closed)
+            return null;
+        if (next > available && (available = awaitAvailable(next, true, unit.toNanos(timeout))) < next)
+            return isClosed() ? closeValue() : null;
+        return take();
+    }
+
+    @Override
+    public Message receive(Timeout timeout) throws SuspendExecution, InterruptedException {
+        return receive(timeout.nanosLeft(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Message tryReceive() {
+        if (closed)
+            return null;
+        if (next > available && (available = available(next)) < next)
+            return isSendClosed() ? closeValue() : null;
+        return take();
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            buffer.removeGatingSequence(sequence);
+            waitStrategy.signalAllWhenBlocking();
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed || (isSendClosed() && available(next) < next);
+    }
+
+    private Message take() {
+        final long seq = next++;
+        final Message m = message(buffer.get(seq));
+        sequence.set(holdLast ? seq - 1 : seq);
+        waitStrategy.signalAllWhenBlocking(); // wakes up blocked senders and dependent consumers
+        return m;
+    }
+
+    /**
+     * Returns the highest sequence, starting at {@code seq}, that has been published and processed by all dependencies,
+     * or {@code seq - 1} if there is none.
+     */
+    @SuppressWarnings("deprecation") // RingBuffer exposes no other way of querying the sequencer
+    private long available(long seq) {
+        long hi = buffer.getCursor();
+        for (Sequence d : dependencies)
+            hi = Math.min(hi, d.get());
+        // with multiple producers, sequences up to the cursor may have been claimed but not yet published
+        long s = seq;
+        while (s <= hi && buffer.isPublished(s))
+            s++;
+        return s - 1;
+    }
+
+    private long awaitAvailable(long seq, boolean timed, long nanos) throws SuspendExecution, InterruptedException {
+        long avail = available(seq);
+        if (avail >= seq)
+            return avail;
+
+        final long deadline = timed ? System.nanoTime() + nanos : 0L;
+        final Object token = waitStrategy.register();
+        try {
+            for (int i = 0; (avail = available(seq)) < seq; i++) {
+                if (closed || (isSendClosed() && (avail = available(seq)) < seq))
+                    break;
+                // the dependencies may not signal when they advance (e.g. if they are event processors), so while they are behind the
+                // cursor, rather than the cursor behind us, we wait for them for a limited time
+                final boolean dependencyWait = dependencies.length > 0 && buffer.getCursor() >= seq;
+                if (timed) {
+                    if (nanos <= 0)
+                        break;
+                    waitStrategy.await(i, dependencyWait ? Math.min(nanos, StrandBlockingWaitStrategy.DEPENDENCY_WAIT_NANOS) : nanos, TimeUnit.NANOSECONDS);
+                    nanos = deadline - System.nanoTime();
+                } else if (dependencyWait)
+                    waitStrategy.await(i, StrandBlockingWaitStrategy.DEPENDENCY_WAIT_NANOS, TimeUnit.NANOSECONDS);
+                else
+                    waitStrategy.await(i);
+            }
+        } finally {
+            waitStrategy.unregister(token);
+        }
+        return avail;
+    }
+
+    @Override
+    public Object register(SelectAction<Message> action) {
+        if (((SelectActionImpl<Message>) action).isData())
+            throw new UnsupportedOperationException("Send is not supported by " + this);
+        return new SelectRegistration<Message>((SelectActionImpl<Message>) action, waitStrategy.register());
+    }
+
+    @Override
+    public boolean tryNow(Object token) {
+        final SelectActionImpl<Message> action = ((SelectRegistration<Message>) token).action;
+        if (!closed && next > available)
+            available = available(next);
+        final boolean ready = !closed && next <= available;
+        if (!(ready || isClosed()) || !action.lease())
+            return false;
+        action.setItem(ready ? take() : null);
+        action.won();
+        return true;
+    }
+
+    @Override
+    public void unregister(Object token) {
+        if (token == null)
+            return;
+        waitStrategy.unregister(((SelectRegistration<?>) token).syncToken);
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels.disruptor;
+
+import co.paralleluniverse.strands.channels.SelectActionImpl;
+
+/**
+ * The token returned by the ports' {@code register}: the select action, and the wait strategy's registration token for the
+ * selecting strand, which is passed back to the wait strategy when the action is unregistered.
+ *
+ * @author pron
+ */
+final class SelectRegistration<Message> {
+    final SelectActionImpl<Message> action;
+    final Object syncToken;
+
+    SelectRegistration(SelectActionImpl<Message> action, Object syncToken) {
+        this.action = action;
+        this.syncToken = syncToken;
+    }
+}
@@ -33,74 +33,121 @@ import co.paralleluniverse.strands.SimpleConditionSynchronizer;
 import com.lmax.disruptor.AlertException;
 import com.lmax.disruptor.EventProcessor;
 import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SequenceBarrier;
 import com.lmax.disruptor.WaitStrategy;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 /**
- * Blocking strategy that uses a lock and condition variable for {@link EventProcessor}s waiting on a barrier.
+ * Blocking strategy that uses a strand condition for {@link EventProcessor}s, channel consumers and senders waiting on a ring buffer.
+ * Waiting strands block without holding their thread (if they are fibers), and publishing into the ring buffer only touches the
+ * condition if there are waiters.
+ * <p>
+ * Fibers must call the {@link #waitFor1(long, Sequence, Sequence, SequenceBarrier) waitFor1} methods;
+ * {@link #waitFor(long, Sequence, Sequence, SequenceBarrier) waitFor}, called by the standard event processors, may only be called on threads.</p>
  */
 public final class StrandBlockingWaitStrategy implements WaitStrategy {
+    /**
+     * The sequences of dependencies that are not {@link DisruptorReceiveChannel}s advance without signalling, so waiting on them must
+     * be timed.
+     */
+    static final long DEPENDENCY_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
     private final SimpleConditionSynchronizer processorNotifyCondition = new SimpleConditionSynchronizer(this);
+    private volatile int waiters;
 
     @Override
-    public long waitFor(long sequence, Sequence cursorSequence, Sequence dependentSequence, com.lmax.disruptor.SequenceBarrier barrier)
+    public long waitFor(long sequence, Sequence cursorSequence, Sequence dependentSequence, SequenceBarrier barrier)
             throws AlertException, InterruptedException {
-        throw new UnsupportedOperationException();
+        try {
+            return waitFor1(sequence, cursorSequence, dependentSequence, barrier);
+        } catch (SuspendExecution e) {
+            throw new AssertionError(e);
+        }
     }
 
-    public long waitFor1(long sequence, Sequence cursorSequence, Sequence dependentSequence, com.lmax.disruptor.SequenceBarrier barrier)
+    public long waitFor1(long sequence, Sequence cursorSequence, Sequence dependentSequence, SequenceBarrier barrier)
             throws AlertException, InterruptedException, SuspendExecution {
         long availableSequence;
-        if ((availableSequence = cursorSequence.get()) < sequence) {
-            Object token = processorNotifyCondition.register();
+        if ((availableSequence = dependentSequence.get()) < sequence) {
+            Object token = register();
             try {
-                for (int i = 0; (availableSequence = cursorSequence.get()) < sequence; i++) {
+                for (int i = 0; (availableSequence = dependentSequence.get()) < sequence; i++) {
                     barrier.checkAlert();
-                    processorNotifyCondition.await(i);
+                    if (cursorSequence.get() < sequence)
+                        processorNotifyCondition.await(i);
+                    else
+                        processorNotifyCondition.await(i, DEPENDENCY_WAIT_NANOS, TimeUnit.NANOSECONDS);
                 }
             } finally {
-                processorNotifyCondition.unregister(token);
+                unregister(token);
             }
         }
-
-        while ((availableSequence = dependentSequence.get()) < sequence) {
-            barrier.checkAlert();
-        }
-
         return availableSequence;
     }
 
-    public long waitFor1(long sequence, Sequence cursorSequence, Sequence dependentSequence, com.lmax.disruptor.SequenceBarrier barrier, long timeout, TimeUnit unit)
+    public long waitFor1(long sequence, Sequence cursorSequence, Sequence dependentSequence, SequenceBarrier barrier, long timeout, TimeUnit unit)
             throws AlertException, InterruptedException, SuspendExecution, TimeoutException {
         long availableSequence;
-        if ((availableSequence = cursorSequence.get()) < sequence) {
+        if ((availableSequence = dependentSequence.get()) < sequence) {
             long left = unit.toNanos(timeout);
             final long deadline = System.nanoTime() + left;
 
-            Object token = processorNotifyCondition.register();
+            Object token = register();
             try {
-                for (int i=0; (availableSequence = cursorSequence.get()) < sequence; i++) {
+                for (int i = 0; (availableSequence = dependentSequence.get()) < sequence; i++) {
                     barrier.checkAlert();
-                    processorNotifyCondition.await(i, left, TimeUnit.NANOSECONDS);
+                    if (cursorSequence.get() < sequence)
+                        processorNotifyCondition.await(i, left, TimeUnit.NANOSECONDS);
+                    else
+                        processorNotifyCondition.await(i, Math.min(left, DEPENDENCY_WAIT_NANOS), TimeUnit.NANOSECONDS);
                     left = deadline - System.nanoTime();
                     if (left <= 0)
                         throw new TimeoutException();
                 }
             } finally {
-                processorNotifyCondition.unregister(token);
+                unregister(token);
             }
         }
-
-        while ((availableSequence = dependentSequence.get()) < sequence) {
-            barrier.checkAlert();
-        }
-
         return availableSequence;
     }
 
     @Override
     public void signalAllWhenBlocking() {
-        processorNotifyCondition.signalAll();
+        // A waiter increments the count before re-checking the sequence it's waiting for, and the sequence has been written before
+        // we read the count. The sequencers write it with a release store, which may be reordered with the subsequent load.
+        VarHandle.fullFence();
+        if (waiters != 0)
+            processorNotifyCondition.signalAll();
+    }
+
+    Object register() {
+        WAITERS.getAndAdd(this, 1);
+        return processorNotifyCondition.register();
+    }
+
+    void unregister(Object token) {
+        processorNotifyCondition.unregister(token);
+        WAITERS.getAndAdd(this, -1);
+    }
+
+    void await(int iter) throws InterruptedException, SuspendExecution {
+        processorNotifyCondition.await(iter);
+    }
+
+    void await(int iter, long timeout, TimeUnit unit) throws InterruptedException, SuspendExecution {
+        processorNotifyCondition.await(iter, timeout, unit);
+    }
+
+    private static final VarHandle WAITERS;
+
+    static {
+        try {
+            WAITERS = MethodHandles.lookup().findVarHandle(StrandBlockingWaitStrategy.class, "waiters", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
     }
 }
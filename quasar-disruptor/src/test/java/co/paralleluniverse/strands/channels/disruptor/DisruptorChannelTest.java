@@ -0,0 +1,260 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels.disruptor;
+
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SuspendableCallable;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import co.paralleluniverse.strands.channels.ProducerException;
+import co.paralleluniverse.strands.channels.ReceivePort;
+import co.paralleluniverse.strands.channels.SelectAction;
+import co.paralleluniverse.strands.channels.Selector;
+import com.lmax.disruptor.BatchEventProcessor;
+import com.lmax.disruptor.EventFactory;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.RingBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author pron
+ */
+public class DisruptorChannelTest {
+    @Test
+    public void testEveryConsumerReceivesEveryMessage() throws Exception {
+        final DisruptorChannel<Integer> ch = new DisruptorChannel<>(8, false);
+        final int producers = 4;
+        final int n = 5000;
+
+        final List<Fiber<Integer>> consumers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final ReceivePort<Integer> c = ch.newConsumer();
+            consumers.add(new Fiber<Integer>(new SuspendableCallable<Integer>() {
+                @Override
+                public Integer run() throws SuspendExecution, InterruptedException {
+                    final int[] last = new int[producers];
+                    int count = 0;
+                    for (Integer m; (m = c.receive()) != null; count++) {
+                        final int p = m / n;
+                        assertThat(m % n, is(last[p])); // every producer's messages are received in order
+                        last[p]++;
+                    }
+                    return count;
+                }
+            }).start());
+        }
+
+        final List<Fiber<Void>> senders = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int base = p * n;
+            senders.add(new Fiber<Void>(new SuspendableRunnable() {
+                @Override
+                public void run() throws SuspendExecution, InterruptedException {
+                    for (int i = 0; i < n; i++)
+                        ch.send(base + i);
+                }
+            }).start());
+        }
+        for (Fiber<Void> f : senders)
+            f.join();
+        ch.close();
+
+        for (Fiber<Integer> f : consumers)
+            assertThat(f.get(), is(producers * n));
+    }
+
+    @Test
+    public void testSendersAreGatedBySlowestConsumer() throws Exception {
+        final DisruptorChannel<Integer> ch = new DisruptorChannel<>(4, true);
+        final ReceivePort<Integer> fast = ch.newConsumer();
+        final ReceivePort<Integer> slow = ch.newConsumer();
+
+        for (int i = 0; i < 4; i++)
+            assertTrue(ch.trySend(i));
+        for (int i = 0; i < 4; i++)
+            assertThat(fast.receive(), is(i));
+        assertFalse(ch.trySend(4));
+        assertThat(ch.send(4, 10, TimeUnit.MILLISECONDS), is(false));
+
+        assertThat(slow.receive(), is(0));
+        assertTrue(ch.trySend(4));
+        assertThat(fast.receive(), is(4));
+
+        slow.close(); // no longer gates the senders
+        for (int i = 5; i < 9; i++)
+            assertTrue(ch.trySend(i));
+        assertFalse(ch.trySend(9));
+    }
+
+    @Test
+    public void testDependentConsumer() throws Exception {
+        final DisruptorChannel<Integer> ch = new DisruptorChannel<>(4, true);
+        final ReceivePort<Integer> first = ch.newConsumer();
+        final ReceivePort<Integer> second = ch.newConsumer(first);
+
+        ch.send(1);
+        ch.send(2);
+        assertThat(second.tryReceive(), is(nullValue()));
+        assertThat(first.receive(), is(1));
+        assertThat(second.tryReceive(), is(1));
+        assertThat(second.tryReceive(), is(nullValue()));
+        assertThat(first.receive(), is(2));
+        assertThat(second.receive(), is(2));
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        final DisruptorChannel<Integer> ch = new DisruptorChannel<>(4, true);
+        final ReceivePort<Integer> c1 = ch.newConsumer();
+        final ReceivePort<Integer> c2 = ch.newConsumer();
+        ch.send(1);
+        ch.close(new RuntimeException("foo"));
+        assertThat(ch.trySend(2), is(true)); // dropped
+
+        assertThat(c1.receive(), is(1));
+        try {
+            c1.receive();
+            fail();
+        } catch (ProducerException e) {
+            assertThat(e.getCause().getMessage(), is("foo"));
+        }
+        assertThat(c2.isClosed(), is(false));
+        assertThat(c2.receive(), is(1));
+        assertThat(c2.isClosed(), is(true));
+    }
+
+    @Test
+    public void testReceiverWakesUpOnClose() throws Exception {
+        final DisruptorChannel<Integer> ch = new DisruptorChannel<>(4, true);
+        final ReceivePort<Integer> c = ch.newConsumer();
+        final Fiber<Integer> f = new Fiber<Integer>(new SuspendableCallable<Integer>() {
+            @Override
+            public Integer run() throws SuspendExecution, InterruptedException {
+                return c.receive();
+            }
+        }).start();
+        Thread.sleep(50);
+        ch.close();
+        assertThat(f.get(1, TimeUnit.SECONDS), is(nullValue()));
+    }
+
+    @Test
+    public void testSelect() throws Exception {
+        final DisruptorChannel<Integer> ch1 = new DisruptorChannel<>(2, false);
+        final DisruptorChannel<Integer> ch2 = new DisruptorChannel<>(2, false);
+        final ReceivePort<Integer> c1 = ch1.newConsumer();
+        final ReceivePort<Integer> c2 = ch2.newConsumer();
+
+        final Fiber<Integer> receiver = new Fiber<Integer>(new SuspendableCallable<Integer>() {
+            @Override
+            public Integer run() throws SuspendExecution, InterruptedException {
+                int sum = 0;
+                for (int i = 0; i < 4; i++) {
+                    final SelectAction<Integer> sa = Selector.select(Selector.receive(c1), Selector.receive(c2));
+                    sum += sa.message() * (sa.index() == 0 ? 1 : 100);
+                }
+                return sum;
+            }
+        }).start();
+
+        new Fiber<Void>(new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                for (int i = 1; i <= 4; i++) {
+                    // both channels hold 2 messages, so at most 2 sends go to the same one before the receiver catches up
+                    final SelectAction<Integer> sa = Selector.select(Selector.send(ch1, i), Selector.send(ch2, i));
+                    assertThat(sa.index() == 0 || sa.index() == 1, is(true));
+                }
+            }
+        }).start().join();
+
+        final int sum = receiver.get();
+        assertThat(sum % 100 + sum / 100, is(10));
+    }
+
+    @Test
+    public void testRingBufferChannel() throws Exception {
+        final StrandBlockingWaitStrategy waitStrategy = new StrandBlockingWaitStrategy();
+        final RingBuffer<long[]> buffer = RingBuffer.createSingleProducer(new EventFactory<long[]>() {
+            @Override
+            public long[] newInstance() {
+                return new long[1];
+            }
+        }, 4, waitStrategy);
+        final DisruptorReceiveChannel<long[]> c = new DisruptorReceiveChannel<>(buffer, waitStrategy);
+
+        final Fiber<Long> receiver = new Fiber<Long>(new SuspendableCallable<Long>() {
+            @Override
+            public Long run() throws SuspendExecution, InterruptedException {
+                long sum = 0;
+                for (int i = 0; i < 100; i++)
+                    sum += c.receive()[0];
+                return sum;
+            }
+        }).start();
+
+        for (long i = 0; i < 100; i++) {
+            final long seq = buffer.next(); // the receiver gates the producer
+            buffer.get(seq)[0] = i;
+            buffer.publish(seq);
+        }
+        assertThat(receiver.get(), is(4950L));
+    }
+
+    @Test
+    public void testEventProcessorDependency() throws Exception {
+        final StrandBlockingWaitStrategy waitStrategy = new StrandBlockingWaitStrategy();
+        final RingBuffer<long[]> buffer = RingBuffer.createSingleProducer(new EventFactory<long[]>() {
+            @Override
+            public long[] newInstance() {
+                return new long[1];
+            }
+        }, 4, waitStrategy);
+        // the processor's sequence advances without signalling the wait strategy
+        final BatchEventProcessor<long[]> processor = new BatchEventProcessor<>(buffer, buffer.newBarrier(), new EventHandler<long[]>() {
+            @Override
+            public void onEvent(long[] event, long sequence, boolean endOfBatch) throws Exception {
+                Thread.sleep(50);
+                event[0] *= 2;
+            }
+        });
+        buffer.addGatingSequences(processor.getSequence());
+        final DisruptorReceiveChannel<long[]> c = new DisruptorReceiveChannel<>(buffer, waitStrategy, processor.getSequence());
+        final Thread processorThread = new Thread(processor);
+        processorThread.start();
+        try {
+            final Fiber<Long> receiver = new Fiber<Long>(new SuspendableCallable<Long>() {
+                @Override
+                public Long run() throws SuspendExecution, InterruptedException {
+                    return c.receive()[0];
+                }
+            }).start();
+            Thread.sleep(50);
+
+            final long seq = buffer.next();
+            buffer.get(seq)[0] = 21;
+            buffer.publish(seq); // the receiver wakes up before the processor is done with the event
+            assertThat(receiver.get(1, TimeUnit.SECONDS), is(42L));
+        } finally {
+            processor.halt();
+            processorThread.join();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Quasar: lightweight threads and actors for the JVM.
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels.reactivestreams;
+
+import co.paralleluniverse.fibers.Fiber;
+import co.paralleluniverse.fibers.SuspendExecution;
+import co.paralleluniverse.strands.SuspendableCallable;
+import co.paralleluniverse.strands.SuspendableRunnable;
+import co.paralleluniverse.strands.channels.Channel;
+import co.paralleluniverse.strands.channels.Channels;
+import co.paralleluniverse.strands.channels.Channels.OverflowPolicy;
+import co.paralleluniverse.strands.channels.ReceivePort;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Per-element cost of the reactive-streams bridges, compared with a reference publisher and subscriber that exchange the elements
+ * directly, on the calling thread.
+ * {@code subscribe} drains a {@link ChannelSubscriber} fed by the reference publisher, either requesting every element separately
+ * or in batches; {@code publish} feeds the reference subscriber from a channel {@link ReactiveStreams#toPublisher(ReceivePort) publisher};
+ * and {@code twoSided} connects the two bridges.
+ *
+ * @author pron
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ReactiveStreamsJMHBenchmark {
+    private static final int ELEMENTS = 100_000;
+    private static final Integer ELEMENT = 777;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ReactiveStreamsJMHBenchmark.class.getName() + ".*")
+                .forks(1)
+                .warmupTime(TimeValue.seconds(5))
+                .warmupIterations(3)
+                .measurementTime(TimeValue.seconds(5))
+                .measurementIterations(5)
+                .addProfiler(GCProfiler.class) // report allocation rate
+                .build()).run();
+    }
+
+    @Param({"16", "256"})
+    public int bufferSize;
+
+    @Param({"false", "true"})
+    public boolean batch;
+
+    @Benchmark
+    @OperationsPerInvocation(ELEMENTS)
+    public int reference() throws Exception {
+        final CountingSubscriber s = new CountingSubscriber(bufferSize);
+        new RangePublisher(ELEMENTS).subscribe(s);
+        s.done.await();
+        return s.count;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ELEMENTS)
+    public int subscribe() throws Exception {
+        final ChannelSubscriber<Integer> sub = new ChannelSubscriber<>(Channels.<Integer>newChannel(bufferSize, OverflowPolicy.BLOCK, true, true), batch);
+        new RangePublisher(ELEMENTS).subscribe(sub);
+        int count = 0;
+        while (sub.receive() != null)
+            count++;
+        return count;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ELEMENTS)
+    public int publish() throws Exception {
+        final Channel<Integer> ch = Channels.newChannel(bufferSize, OverflowPolicy.BLOCK);
+        new Fiber<Void>(new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                for (int i = 0; i < ELEMENTS; i++)
+                    ch.send(ELEMENT);
+                ch.close();
+            }
+        }).start();
+        final CountingSubscriber s = new CountingSubscriber(bufferSize);
+        ReactiveStreams.toPublisher(ch).subscribe(s);
+        s.done.await();
+        return s.count;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ELEMENTS)
+    public int twoSided() throws Exception {
+        final Channel<Integer> ch = Channels.newChannel(bufferSize, OverflowPolicy.BLOCK);
+        new Fiber<Void>(new SuspendableRunnable() {
+            @Override
+            public void run() throws SuspendExecution, InterruptedException {
+                for (int i = 0; i < ELEMENTS; i++)
+                    ch.send(ELEMENT);
+                ch.close();
+            }
+        }).start();
+        final ChannelSubscriber<Integer> sub = new ChannelSubscriber<>(Channels.<Integer>newChannel(bufferSize, OverflowPolicy.BLOCK, true, true), batch);
+        ReactiveStreams.toPublisher(ch).subscribe(sub);
+        return new Fiber<Integer>(new SuspendableCallable<Integer>() {
+            @Override
+            public Integer run() throws SuspendExecution, InterruptedException {
+                int count = 0;
+                while (sub.receive() != null)
+                    count++;
+                return count;
+            }
+        }).start().get();
+    }
+
+    /**
+     * Synchronously publishes a fixed number of elements on the requesting thread.
+     */
+    static final class RangePublisher implements Publisher<Integer> {
+        private final int size;
+
+        RangePublisher(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public void subscribe(final Subscriber<? super Integer> s) {
+            s.onSubscribe(new Subscription() {
+                private int next;
+                private long pending;
+                private boolean emitting;
+                private boolean cancelled;
+
+                @Override
+                public void request(long n) {
+                    pending += n;
+                    if (pending < 0)
+                        pending = Long.MAX_VALUE;
+                    if (emitting)
+                        return; // re-entrant request
+                    emitting = true;
+                    while (pending > 0 && next < size && !cancelled) {
+                        pending--;
+                        next++;
+                        s.onNext(ELEMENT);
+                    }
+                    emitting = false;
+                    if (next == size && !cancelled) {
+                        cancelled = true;
+                        s.onComplete();
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+
+    /**
+     * Counts the elements it receives, requesting them in batches of the given size.
+     */
+    static final class CountingSubscriber implements Subscriber<Integer> {
+        final CountDownLatch done = new CountDownLatch(1);
+        private final int batchSize;
+        private Subscription subscription;
+        private int outstanding;
+        int count;
+
+        CountingSubscriber(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            this.subscription = s;
+            this.outstanding = batchSize;
+            s.request(batchSize);
+        }
+
+        @Override
+        public void onNext(Integer element) {
+            count++;
+            if (--outstanding == 0) {
+                outstanding = batchSize;
+                subscription.request(batchSize);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+    }
+}
@@ -26,6 +26,13 @@ import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 
 /**
+ * A {@link Subscriber} that sends the elements it is given to a single-consumer channel, and requests new ones as they are received
+ * from the channel, so that the channel never holds more elements than its capacity.
+ * <p>
+ * When batching, demand is replenished in bulk rather than element-by-element: the full capacity (the high watermark) is requested
+ * upon subscription, and whenever the outstanding demand falls to a quarter of the capacity (the low watermark) the number of elements
+ * received since the last request is requested again. This keeps the publisher busy while greatly reducing the number of
+ * {@link Subscription#request(long) request} calls.</p>
  *
  * @author pron
  */
@@ -33,8 +40,8 @@ class ChannelSubscriber<T> implements Subscriber<T>, ReceivePort<T> {
     private final QueueChannel<T> ch;
     private final long capacity;
     private Subscription subscription;
+    private final long limit; // the number of elements received before demand is replenished
     private long consumed;
-    private final boolean batch;
 
     public ChannelSubscriber(Channel<T> channel, boolean batch) {
         if (!(channel instanceof QueueChannel))
@@ -43,7 +50,7 @@ class ChannelSubscriber<T> implements Subscriber<T>, ReceivePort<T> {
             throw new IllegalArgumentException("Provided channel must be single-consumer."); // #2.7
         this.ch = (QueueChannel<T>) channel;
         this.capacity = (ch.capacity() < 0 || ch.getOverflowPolicy() == OverflowPolicy.DISPLACE) ? Long.MAX_VALUE : ch.capacity();
-        this.batch = (capacity > 1 && capacity < Long.MAX_VALUE) ? batch : false;
+        this.limit = (batch && capacity > 1 && capacity < Long.MAX_VALUE) ? capacity - (capacity >> 2) : 1;
     }
 
     @Override
@@ -95,13 +102,9 @@ class ChannelSubscriber<T> implements Subscriber<T>, ReceivePort<T> {
         if (capacity == Long.MAX_VALUE)
             return;
 
-        if (!batch)
-            subscription.request(1);
-        else {
-            if (++consumed >= capacity) {
-                consumed = 0;
-                subscription.request(capacity);
-            }
+        if (++consumed >= limit) {
+            subscription.request(consumed);
+            consumed = 0;
         }
     }
 
@@ -101,8 +101,9 @@ class ChannelSubscription<T> implements Subscription, SuspendableCallable<Void>
                 if (checkClosed() || checkCancelled())
                     break;
                 while (r != 0) {
-                    T m = ch.receive();
-                    if (m == null)
+                    // drain whatever is already in the channel without registering with it, and only block once it's empty
+                    T m = ch.tryReceive();
+                    if (m == null && (m = ch.receive()) == null)
                         break loop;
                     s.onNext(m);
                     r = r > 0 ? r - 1 : r;
@@ -33,6 +33,8 @@ public class ReactiveStreams {
     /**
      * Subscribes to a given {@link Publisher} and return a {@link ReceivePort} to the subscription.
      * This creates an internal <b>single consumer</b> channel that will receive the published elements.
+     * If the buffer is bounded, elements are requested from the publisher in batches: the whole buffer upon subscription, and then,
+     * whenever no more than a quarter of the buffer remains requested but not yet received, as many elements as have been received.
      *
      * @param bufferSize the size of the buffer of the internal channel; may be {@code -1} for unbounded, but may not be {@code 0})
      * @param policy     the {@link OverflowPolicy} of the internal channel.
@@ -41,7 +43,7 @@ public class ReactiveStreams {
      */
     public static <T> ReceivePort<T> subscribe(int bufferSize, OverflowPolicy policy, Publisher<T> publisher) {
         final Channel<T> channel = Channels.newChannel(bufferSize, policy, true, true);
-        final ChannelSubscriber<T> sub = new ChannelSubscriber<>(channel, false);
+        final ChannelSubscriber<T> sub = new ChannelSubscriber<>(channel, true);
         publisher.subscribe(sub);
         return sub;
     }
@@ -161,10 +163,10 @@ public class ReactiveStreams {
      */
     public static <T, R> Processor<T, R> toProcessor(FiberFactory ff, int bufferSize, OverflowPolicy policy, SuspendableAction2<? extends ReceivePort<? super T>, ? extends SendPort<? extends R>> transformer) {
      // @param batch       if the channel has a bounded buffer, whether to request further elements from the publisher in batches
-     //                    whenever the channel's buffer is depleted, or after consuming each element.
+     //                    at the buffer's low watermark, or after consuming each element.
         final Channel<T> in = Channels.newChannel(bufferSize, policy, true, true);
         final Channel<R> out = Channels.newChannel(bufferSize, policy, true, true);
-        return new ChannelProcessor<T, R>(ff, false, in, out, transformer);
+        return new ChannelProcessor<T, R>(ff, true, in, out, transformer);
     }
 
     /**
@@ -183,7 +185,7 @@ public class ReactiveStreams {
      */
     public static <T, R> Processor<T, R> toProcessor(int bufferSize, OverflowPolicy policy, SuspendableAction2<? extends ReceivePort<? super T>, ? extends SendPort<? extends R>> transformer) {
      // @param batch       if the channel has a bounded buffer, whether to request further elements from the publisher in batches
-     //                    whenever the channel's buffer is depleted, or after consuming each element.
+     //                    at the buffer's low watermark, or after consuming each element.
         return toProcessor(null, bufferSize, policy, transformer);
     }
 }
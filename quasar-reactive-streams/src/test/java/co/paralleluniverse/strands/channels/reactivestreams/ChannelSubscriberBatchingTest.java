@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2018, Parallel Universe Software Co. All rights reserved.
+ * 
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *  
+ *   or (per the licensee's choosing)
+ *  
+ * under the terms of the GNU Lesser General Public License version 3.0
+ * as published by the Free Software Foundation.
+ */
+package co.paralleluniverse.strands.channels.reactivestreams;
+
+import co.paralleluniverse.strands.channels.Channels;
+import co.paralleluniverse.strands.channels.Channels.OverflowPolicy;
+import java.util.ArrayList;
+import java.util.List;
+import org.reactivestreams.Subscription;
+import org.testng.annotations.*;
+import static org.testng.Assert.*;
+
+public class ChannelSubscriberBatchingTest {
+    @Test
+    public void demandIsReplenishedAtLowWatermark() throws Exception {
+        final ChannelSubscriber<Integer> sub = new ChannelSubscriber<>(Channels.<Integer>newChannel(8, OverflowPolicy.THROW, true, true), true);
+        final RecordingSubscription s = new RecordingSubscription();
+        sub.onSubscribe(s);
+        assertEquals(s.requests, list(8L));
+
+        for (int i = 0; i < 8; i++)
+            sub.onNext(i);
+        for (int i = 0; i < 5; i++)
+            assertEquals(sub.receive(), Integer.valueOf(i));
+        assertEquals(s.requests, list(8L));
+
+        assertEquals(sub.receive(), Integer.valueOf(5)); // two elements requested but not received
+        assertEquals(s.requests, list(8L, 6L));
+    }
+
+    @Test
+    public void demandIsReplenishedPerElementWithoutBatching() throws Exception {
+        final ChannelSubscriber<Integer> sub = new ChannelSubscriber<>(Channels.<Integer>newChannel(8, OverflowPolicy.THROW, true, true), false);
+        final RecordingSubscription s = new RecordingSubscription();
+        sub.onSubscribe(s);
+        sub.onNext(0);
+        sub.onNext(1);
+        sub.receive();
+        sub.receive();
+        assertEquals(s.requests, list(8L, 1L, 1L));
+    }
+
+    private static List<Long> list(Long... xs) {
+        final List<Long> l = new ArrayList<>();
+        for (Long x : xs)
+            l.add(x);
+        return l;
+    }
+
+    private static class RecordingSubscription implements Subscription {
+        final List<Long> requests = new ArrayList<>();
+
+        @Override
+        public void request(long n) {
+            requests.add(n);
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+}